@@ -21,6 +21,7 @@ import static org.junit.Assert.assertSame;
 import static org.junit.Assert.assertTrue;
 
 import java.net.SocketAddress;
+import java.util.Arrays;
 import java.util.Collection;
 import java.util.Map;
 import java.util.concurrent.ExecutionException;
@@ -99,6 +100,15 @@ public class MemcacheClientWrapperTest {
         EasyMock.verify(client);
     }
 
+    @Test
+    public void deleteMany() throws TimeoutException, CacheException {
+        EasyMock.expect(client.delete("key1")).andReturn(getFuture(true));
+        EasyMock.expect(client.delete("key2")).andReturn(getFuture(false));
+        EasyMock.replay(client);
+        clientWrapper.delete(Arrays.asList("key1", null, "key2"));
+        EasyMock.verify(client);
+    }
+
     @Test
     public void flush() throws CacheException {
         EasyMock.expect(client.flush()).andReturn(getFuture(true));
@@ -213,6 +223,22 @@ public class MemcacheClientWrapperTest {
         EasyMock.verify(client);
     }
 
+    @Test
+    public void getAsync() throws Exception {
+        EasyMock.expect(client.asyncGet("key1")).andReturn(getFuture((Object) "value"));
+        EasyMock.replay(client);
+        assertEquals("value", clientWrapper.getAsync("key1").get());
+        EasyMock.verify(client);
+    }
+
+    @Test
+    public void setAsyncFailed() {
+        EasyMock.expect(client.set("key1", 1, "value")).andThrow(new IllegalStateException("queue is full"));
+        EasyMock.replay(client);
+        assertTrue(clientWrapper.setAsync("key1", 1, "value").isCompletedExceptionally());
+        EasyMock.verify(client);
+    }
+
     @Test
     public void shutdown() {
         client.shutdown();
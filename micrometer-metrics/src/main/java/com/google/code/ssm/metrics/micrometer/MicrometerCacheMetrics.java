@@ -0,0 +1,199 @@
+/*
+ * Copyright (c) 2012-2019 Jakub Białek
+ * 
+ * Permission is hereby granted, free of charge, to any person obtaining a copy of this software and associated
+ * documentation files (the "Software"), to deal in the Software without restriction, including without limitation the
+ * rights to use, copy, modify, merge, publish, distribute, sublicense, and/or sell copies of the Software, and to
+ * permit persons to whom the Software is furnished to do so, subject to the following conditions:
+ * 
+ * The above copyright notice and this permission notice shall be included in all copies or substantial portions of the
+ * Software.
+ * 
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR IMPLIED, INCLUDING BUT NOT LIMITED TO THE
+ * WARRANTIES OF MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR
+ * COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR
+ * OTHERWISE, ARISING FROM, OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE SOFTWARE.
+ */
+
+package com.google.code.ssm.metrics.micrometer;
+
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.TimeUnit;
+
+import lombok.Getter;
+import lombok.Setter;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Tags;
+import io.micrometer.core.instrument.Timer;
+
+import com.google.code.ssm.metrics.CacheMetricTags;
+import com.google.code.ssm.metrics.CacheMetrics;
+import com.google.code.ssm.metrics.CacheOperation;
+
+/**
+ * Publishes SSM measurements to Micrometer {@link MeterRegistry}. All meters are tagged by cache, namespace and
+ * annotation, meters of cache operations are additionally tagged by operation. Define it as a bean to let SSM pick it
+ * up:
+ * 
+ * <pre>
+ * &lt;bean class="com.google.code.ssm.metrics.micrometer.MicrometerCacheMetrics"&gt;
+ *     &lt;constructor-arg ref="meterRegistry" /&gt;
+ * &lt;/bean&gt;
+ * </pre>
+ * 
+ * @author Jakub Białek
+ * @since 4.3.0
+ * 
+ */
+public class MicrometerCacheMetrics implements CacheMetrics {
+
+    public static final String HITS = "ssm.cache.hits";
+
+    public static final String MISSES = "ssm.cache.misses";
+
+    public static final String ERRORS = "ssm.cache.errors";
+
+    public static final String LATENCY = "ssm.cache.latency";
+
+    public static final String PAYLOAD_SIZE = "ssm.cache.payload.size";
+
+    public static final String METHOD_LATENCY = "ssm.method.latency";
+
+    public static final String CACHE_TAG = "cache";
+
+    public static final String NAMESPACE_TAG = "namespace";
+
+    public static final String ANNOTATION_TAG = "annotation";
+
+    public static final String OPERATION_TAG = "operation";
+
+    /**
+     * The value of tag which is not known, e.g. namespace of payload size.
+     */
+    public static final String UNKNOWN = "none";
+
+    private static final int OPERATIONS = CacheOperation.values().length;
+
+    private final MeterRegistry registry;
+
+    private final ConcurrentMap<CacheMetricTags, Meters> meters = new ConcurrentHashMap<CacheMetricTags, Meters>();
+
+    /**
+     * If true then histograms of latencies and payload sizes are published so percentiles can be aggregated across
+     * instances. It has to be set before the first measurement.
+     */
+    @Getter
+    @Setter
+    private volatile boolean publishPercentileHistogram = true;
+
+    public MicrometerCacheMetrics(final MeterRegistry registry) {
+        this.registry = registry;
+    }
+
+    @Override
+    public void recordHits(final CacheMetricTags tags, final int count) {
+        getMeters(tags).hits.increment(count);
+    }
+
+    @Override
+    public void recordMisses(final CacheMetricTags tags, final int count) {
+        getMeters(tags).misses.increment(count);
+    }
+
+    @Override
+    public void recordError(final CacheMetricTags tags, final CacheOperation operation) {
+        getMeters(tags).getErrors(operation).increment();
+    }
+
+    @Override
+    public void recordLatency(final CacheMetricTags tags, final CacheOperation operation, final long nanos) {
+        getMeters(tags).getLatency(operation).record(nanos, TimeUnit.NANOSECONDS);
+    }
+
+    @Override
+    public void recordPayloadSize(final CacheMetricTags tags, final CacheOperation operation, final int bytes) {
+        getMeters(tags).getPayloadSize(operation).record(bytes);
+    }
+
+    @Override
+    public void recordMethodLatency(final CacheMetricTags tags, final long nanos) {
+        getMeters(tags).methodLatency.record(nanos, TimeUnit.NANOSECONDS);
+    }
+
+    private Meters getMeters(final CacheMetricTags tags) {
+        final Meters existing = meters.get(tags);
+        return (existing != null) ? existing : meters.computeIfAbsent(tags, Meters::new);
+    }
+
+    private static String getTagValue(final String value) {
+        return (value != null) ? value : UNKNOWN;
+    }
+
+    /**
+     * Meters of single tags. Meters of operations are registered on first use, registry returns the same meter if two
+     * threads register it concurrently so the race is harmless.
+     */
+    private final class Meters {
+
+        private final Tags tags;
+
+        private final Counter hits;
+
+        private final Counter misses;
+
+        private final Timer methodLatency;
+
+        private final Counter[] errors = new Counter[OPERATIONS];
+
+        private final Timer[] latencies = new Timer[OPERATIONS];
+
+        private final DistributionSummary[] payloadSizes = new DistributionSummary[OPERATIONS];
+
+        private Meters(final CacheMetricTags metricTags) {
+            tags = Tags.of(CACHE_TAG, getTagValue(metricTags.getCacheName()), NAMESPACE_TAG, getTagValue(metricTags.getNamespace()),
+                    ANNOTATION_TAG, getTagValue(metricTags.getAnnotation()));
+            hits = Counter.builder(HITS).description("Values found in cache").tags(tags).register(registry);
+            misses = Counter.builder(MISSES).description("Values not found in cache").tags(tags).register(registry);
+            methodLatency = Timer.builder(METHOD_LATENCY).description("Duration of advised method invoked on cache miss").tags(tags)
+                    .publishPercentileHistogram(publishPercentileHistogram).register(registry);
+        }
+
+        private Counter getErrors(final CacheOperation operation) {
+            Counter counter = errors[operation.ordinal()];
+            if (counter == null) {
+                counter = Counter.builder(ERRORS).description("Failed cache operations").tags(tags)
+                        .tag(OPERATION_TAG, operation.getTagValue()).register(registry);
+                errors[operation.ordinal()] = counter;
+            }
+            return counter;
+        }
+
+        private Timer getLatency(final CacheOperation operation) {
+            Timer timer = latencies[operation.ordinal()];
+            if (timer == null) {
+                timer = Timer.builder(LATENCY).description("Duration of cache operations").tags(tags)
+                        .tag(OPERATION_TAG, operation.getTagValue()).publishPercentileHistogram(publishPercentileHistogram)
+                        .register(registry);
+                latencies[operation.ordinal()] = timer;
+            }
+            return timer;
+        }
+
+        private DistributionSummary getPayloadSize(final CacheOperation operation) {
+            DistributionSummary summary = payloadSizes[operation.ordinal()];
+            if (summary == null) {
+                summary = DistributionSummary.builder(PAYLOAD_SIZE).description("Size of values written to or read from cache")
+                        .baseUnit("bytes").tags(tags).tag(OPERATION_TAG, operation.getTagValue())
+                        .publishPercentileHistogram(publishPercentileHistogram).register(registry);
+                payloadSizes[operation.ordinal()] = summary;
+            }
+            return summary;
+        }
+
+    }
+
+}
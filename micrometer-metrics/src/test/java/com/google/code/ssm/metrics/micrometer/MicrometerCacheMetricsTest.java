@@ -0,0 +1,92 @@
+/* Copyright (c) 2012-2019 Jakub Białek
+ * 
+ * Permission is hereby granted, free of charge, to any person obtaining a copy of this software and associated
+ * documentation files (the "Software"), to deal in the Software without restriction, including without limitation the
+ * rights to use, copy, modify, merge, publish, distribute, sublicense, and/or sell copies of the Software, and to
+ * permit persons to whom the Software is furnished to do so, subject to the following conditions:
+ * 
+ * The above copyright notice and this permission notice shall be included in all copies or substantial portions of the
+ * Software.
+ * 
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR IMPLIED, INCLUDING BUT NOT LIMITED TO THE
+ * WARRANTIES OF MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR
+ * COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR
+ * OTHERWISE, ARISING FROM, OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE SOFTWARE.
+ */
+
+package com.google.code.ssm.metrics.micrometer;
+
+import static org.junit.Assert.assertEquals;
+
+import java.util.concurrent.TimeUnit;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+
+import org.junit.Before;
+import org.junit.Test;
+
+import com.google.code.ssm.metrics.CacheMetricTags;
+import com.google.code.ssm.metrics.CacheOperation;
+
+/**
+ * 
+ * @author Jakub Białek
+ * 
+ */
+public class MicrometerCacheMetricsTest {
+
+    private final CacheMetricTags tags = new CacheMetricTags("cache", "ns", "ReadThroughSingleCache");
+
+    private MeterRegistry registry;
+
+    private MicrometerCacheMetrics metrics;
+
+    @Before
+    public void setUp() {
+        registry = new SimpleMeterRegistry();
+        metrics = new MicrometerCacheMetrics(registry);
+    }
+
+    @Test
+    public void recordHitsAndMisses() {
+        metrics.recordHits(tags, 3);
+        metrics.recordHits(tags, 1);
+        metrics.recordMisses(tags, 2);
+
+        assertEquals(4.0, registry.get(MicrometerCacheMetrics.HITS).tag(MicrometerCacheMetrics.CACHE_TAG, "cache")
+                .tag(MicrometerCacheMetrics.NAMESPACE_TAG, "ns").tag(MicrometerCacheMetrics.ANNOTATION_TAG, "ReadThroughSingleCache")
+                .counter().count(), 0.0);
+        assertEquals(2.0, registry.get(MicrometerCacheMetrics.MISSES).tag(MicrometerCacheMetrics.NAMESPACE_TAG, "ns").counter().count(),
+                0.0);
+    }
+
+    @Test
+    public void recordOperations() {
+        metrics.recordLatency(tags, CacheOperation.GET, TimeUnit.MILLISECONDS.toNanos(2));
+        metrics.recordLatency(tags, CacheOperation.GET, TimeUnit.MILLISECONDS.toNanos(4));
+        metrics.recordLatency(tags, CacheOperation.SET, TimeUnit.MILLISECONDS.toNanos(1));
+        metrics.recordError(tags, CacheOperation.SET);
+        metrics.recordMethodLatency(tags, TimeUnit.MILLISECONDS.toNanos(10));
+
+        assertEquals(2, registry.get(MicrometerCacheMetrics.LATENCY).tag(MicrometerCacheMetrics.OPERATION_TAG, "get").timer().count());
+        assertEquals(6.0, registry.get(MicrometerCacheMetrics.LATENCY).tag(MicrometerCacheMetrics.OPERATION_TAG, "get").timer()
+                .totalTime(TimeUnit.MILLISECONDS), 0.001);
+        assertEquals(1, registry.get(MicrometerCacheMetrics.LATENCY).tag(MicrometerCacheMetrics.OPERATION_TAG, "set").timer().count());
+        assertEquals(1.0, registry.get(MicrometerCacheMetrics.ERRORS).tag(MicrometerCacheMetrics.OPERATION_TAG, "set").counter().count(),
+                0.0);
+        assertEquals(1, registry.get(MicrometerCacheMetrics.METHOD_LATENCY).timer().count());
+    }
+
+    @Test
+    public void recordPayloadSizeWithUnknownNamespace() {
+        final CacheMetricTags cacheTags = new CacheMetricTags("cache", null, null);
+        metrics.recordPayloadSize(cacheTags, CacheOperation.SET, 100);
+        metrics.recordPayloadSize(cacheTags, CacheOperation.SET, 300);
+
+        assertEquals(400.0, registry.get(MicrometerCacheMetrics.PAYLOAD_SIZE)
+                .tag(MicrometerCacheMetrics.NAMESPACE_TAG, MicrometerCacheMetrics.UNKNOWN)
+                .tag(MicrometerCacheMetrics.OPERATION_TAG, "set").summary().totalAmount(), 0.0);
+    }
+
+}
@@ -17,9 +17,11 @@
 
 package com.google.code.ssm.providers.momento;
 
+import com.google.code.ssm.metrics.AccessRecorder;
 import com.google.code.ssm.providers.CacheClient;
 import com.google.code.ssm.providers.CacheClientFactory;
 import com.google.code.ssm.providers.CacheConfiguration;
+import com.google.code.ssm.providers.momento.transcoders.SerializingTranscoder;
 import momento.sdk.auth.CredentialProvider;
 import momento.sdk.config.Configuration;
 import momento.sdk.config.Configurations;
@@ -58,12 +60,33 @@ public class MomentoCacheClientFactory implements CacheClientFactory {
                     config,
                     Duration.ofSeconds(momentoConfiguration.getDefaultTtl())
             );
+            final SerializingTranscoder defaultTranscoder = new SerializingTranscoder();
+            if (momentoConfiguration.getCompressionCodec() != null) {
+                defaultTranscoder.setCompressionCodec(momentoConfiguration.getCompressionCodec());
+                defaultTranscoder.setCompressionThreshold(momentoConfiguration.getCompressionThreshold());
+            }
             return new MomentoClientWrapper(
                     client,
                     momentoConfiguration.getCacheName(),
-                    momentoConfiguration.getDefaultTtl()
+                    momentoConfiguration.getDefaultTtl(),
+                    momentoConfiguration.getMaxConcurrentGets(),
+                    defaultTranscoder,
+                    createAccessRecorder(momentoConfiguration)
             );
         }
         throw new RuntimeException("Momento auth token must be provided in CacheConfiguration");
     }
+
+    private AccessRecorder createAccessRecorder(final MomentoConfiguration momentoConfiguration) {
+        if (momentoConfiguration.getAccessLogCapacity() <= 0) {
+            return null;
+        }
+
+        final AccessRecorder recorder = new AccessRecorder(momentoConfiguration.getAccessLogCapacity());
+        recorder.setDefaultSampleRate(momentoConfiguration.getAccessLogSampleRate());
+        recorder.setNamespaceSampleRates(momentoConfiguration.getAccessLogNamespaceSampleRates());
+        recorder.registerMBean(momentoConfiguration.getCacheName());
+        LOGGER.info("Recording sampled accesses to cache {}", momentoConfiguration.getCacheName());
+        return recorder;
+    }
 }
@@ -17,85 +17,154 @@
 
 package com.google.code.ssm.providers.momento;
 
+import com.google.code.ssm.metrics.AccessRecorder;
 import com.google.code.ssm.providers.*;
+import com.google.code.ssm.providers.momento.transcoders.FramedTranscoder;
 import com.google.code.ssm.providers.momento.transcoders.SerializingTranscoder;
 import com.google.code.ssm.providers.momento.transcoders.Transcoder;
+import com.google.code.ssm.transcoders.LongToStringTranscoder;
+import momento.sdk.responses.cache.DeleteResponse;
 import momento.sdk.responses.cache.GetResponse;
+import momento.sdk.responses.cache.IncrementResponse;
+import momento.sdk.responses.cache.SetIfNotExistsResponse;
 import momento.sdk.responses.cache.SetResponse;
+import momento.sdk.responses.cache.control.CacheFlushResponse;
 import net.spy.memcached.CachedData;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
 import java.net.SocketAddress;
-import java.nio.ByteBuffer;
 import java.nio.charset.StandardCharsets;
-import java.text.MessageFormat;
 import java.time.Duration;
 import java.util.*;
 import java.util.concurrent.CompletableFuture;
 import java.util.concurrent.TimeoutException;
-import java.util.stream.Collectors;
+import java.util.concurrent.atomic.AtomicInteger;
 
-class MomentoClientWrapper extends AbstractMemcacheClientWrapper {
+class MomentoClientWrapper extends AbstractMemcacheClientWrapper implements AsyncCacheClient {
 
     private static final Logger LOGGER = LoggerFactory.getLogger(MomentoClientWrapper.class);
-    private static final int SIZE_OF_INT = 4;
 
-    private final Map<CacheTranscoder, Transcoder<Object>> adapters = new HashMap<>();
+    private final TranscoderAdapterRegistry<FramedTranscoder<?>> adapters = new TranscoderAdapterRegistry<>(TranscoderAdapter::new);
+
+    private final SerializingTranscoder defaultTranscoder;
+
+    private final CacheTranscoder defaultCacheTranscoder;
 
     private final String defaultCacheName;
     private final int defaultTTL;
+    private final int maxConcurrentGets;
     private final momento.sdk.CacheClient momentoClient;
 
-    MomentoClientWrapper(final momento.sdk.CacheClient momentoClient, final String defaultCacheName, int defaultTTL) {
+    // records sampled accesses or null if recording is disabled
+    private final AccessRecorder accessRecorder;
+
+    MomentoClientWrapper(final momento.sdk.CacheClient momentoClient, final String defaultCacheName, int defaultTTL,
+            int maxConcurrentGets) {
+        this(momentoClient, defaultCacheName, defaultTTL, maxConcurrentGets, new SerializingTranscoder());
+    }
+
+    MomentoClientWrapper(final momento.sdk.CacheClient momentoClient, final String defaultCacheName, int defaultTTL,
+            int maxConcurrentGets, final SerializingTranscoder defaultTranscoder) {
+        this(momentoClient, defaultCacheName, defaultTTL, maxConcurrentGets, defaultTranscoder, null);
+    }
+
+    MomentoClientWrapper(final momento.sdk.CacheClient momentoClient, final String defaultCacheName, int defaultTTL,
+            int maxConcurrentGets, final SerializingTranscoder defaultTranscoder, final AccessRecorder accessRecorder) {
+        if (maxConcurrentGets < 1) {
+            throw new IllegalArgumentException("Max concurrent gets must be positive but is " + maxConcurrentGets);
+        }
         this.momentoClient = momentoClient;
         this.defaultCacheName = defaultCacheName;
         this.defaultTTL = defaultTTL;
+        this.maxConcurrentGets = maxConcurrentGets;
+        this.defaultTranscoder = defaultTranscoder;
+        this.defaultCacheTranscoder = new TranscoderWrapper(defaultTranscoder);
+        this.accessRecorder = accessRecorder;
     }
 
     @Override
     public boolean add(final String key, final int exp, final Object value) throws TimeoutException, CacheException {
-        throw new CacheException(new RuntimeException("not implemented"));
+        try {
+            return addToMomento(key, exp, value, null);
+        } catch (RuntimeException e) {
+            throw new CacheException(e);
+        }
     }
 
     @Override
     public <T> boolean add(final String key, final int exp, final T value, final CacheTranscoder transcoder) throws TimeoutException,
             CacheException {
-        throw new CacheException(new RuntimeException("not implemented"));
+        try {
+            return addToMomento(key, exp, value, transcoder);
+        } catch (RuntimeException e) {
+            throw new CacheException(e);
+        }
     }
 
+    // Like in memcached missing counter isn't created and -1 is returned. Momento's increment would create it, so
+    // the counter is looked up first; one deleted between the lookup and the decrement is recreated with 0.
     @Override
     public long decr(final String key, final int by) throws TimeoutException, CacheException {
-        throw new CacheException(new RuntimeException("not implemented"));
+        try {
+            return performGetAsync(key).thenCompose(counter -> counter.isPresent()
+                    ? clampAtZero(key, by, incrementInMomento(key, -(long) by, defaultTTL), defaultTTL)
+                    : CompletableFuture.completedFuture(-1L)).join();
+        } catch (RuntimeException e) {
+            throw new CacheException(e);
+        }
     }
 
     @Override
     public long decr(final String key, final int by, final long def) throws CacheException {
-        throw new CacheException(new RuntimeException("not implemented"));
+        try {
+            return clampAtZero(key, by, incrementOrInitInMomento(key, -(long) by, def, defaultTTL), defaultTTL).join();
+        } catch (RuntimeException e) {
+            throw new CacheException(e);
+        }
     }
 
     @Override
     public boolean delete(final String key) throws CacheException {
         try {
             momentoClient.delete(defaultCacheName, key);
-            LOGGER.debug(MessageFormat.format("Delete: Success Item removed from cache key: {1}", key));
+            LOGGER.debug("Delete: Success Item removed from cache key: {}", key);
             return true;
         } catch (RuntimeException e) {
             throw new CacheException(e);
         }
     }
 
+    @Override
+    public void delete(final Collection<String> keys) throws CacheException {
+        if (keys == null || keys.isEmpty()) {
+            return;
+        }
+
+        try {
+            performMultiDelete(keys);
+        } catch (RuntimeException e) {
+            throw new CacheException(e);
+        }
+    }
+
     @Override
     public void flush() throws CacheException {
-        throw new CacheException(new RuntimeException("not implemented"));
+        try {
+            CacheFlushResponse response = momentoClient.flushCache(defaultCacheName).join();
+            if (!(response instanceof CacheFlushResponse.Success)) {
+                throw toException("Flush", response);
+            }
+            LOGGER.debug("Flush: Success all items removed from cache: {}", defaultCacheName);
+        } catch (RuntimeException e) {
+            throw new CacheException(e);
+        }
     }
 
     @Override
     public Object get(final String key) throws CacheException {
         try {
-            Object data = readFromMomento(key);
-            accessLogRead("Get", key, data);
-            return data;
+            return readFromMomento("Get", key, null);
         } catch (RuntimeException e) {
             throw new CacheException(e);
         }
@@ -104,9 +173,7 @@ class MomentoClientWrapper extends AbstractMemcacheClientWrapper {
     @Override
     public <T> T get(final String key, final CacheTranscoder transcoder) throws CacheException {
         try {
-            T data = readFromMomento(key, transcoder);
-            accessLogRead("Get", key, data);
-            return data;
+            return readFromMomento("Get", key, transcoder);
         } catch (RuntimeException e) {
             throw new CacheException(e);
         }
@@ -117,9 +184,7 @@ class MomentoClientWrapper extends AbstractMemcacheClientWrapper {
     @Override
     public <T> T get(final String key, final CacheTranscoder transcoder, final long timeout) throws CacheException {
         try {
-            T data = readFromMomento(key, transcoder);
-            accessLogRead("Get", key, data);
-            return data;
+            return readFromMomento("Get", key, transcoder);
         } catch (RuntimeException e) {
             throw new CacheException(e);
         }
@@ -133,7 +198,7 @@ class MomentoClientWrapper extends AbstractMemcacheClientWrapper {
     @Override
     public Map<String, Object> getBulk(final Collection<String> keys) throws CacheException {
         try {
-            return readFromMomento(keys);
+            return decodeAll(performMultiGetAsync(keys).join(), null);
         } catch (RuntimeException e) {
             throw new CacheException(e);
         }
@@ -142,39 +207,40 @@ class MomentoClientWrapper extends AbstractMemcacheClientWrapper {
     @Override
     public <T> Map<String, T> getBulk(final Collection<String> keys, final CacheTranscoder transcoder) throws CacheException {
         try {
-            return readFromMomento(keys, transcoder);
+            return decodeAll(performMultiGetAsync(keys).join(), transcoder);
         } catch (RuntimeException e) {
             throw new CacheException(e);
         }
     }
 
+    // Unlike in memcached missing counter isn't an error, Momento creates it with 0 before incrementing.
     @Override
     public long incr(final String key, final int by) throws CacheException {
-        throw new CacheException(new RuntimeException("not implemented"));
+        try {
+            return incrementInMomento(key, by, defaultTTL).join();
+        } catch (RuntimeException e) {
+            throw new CacheException(e);
+        }
     }
 
     @Override
     public long incr(final String key, final int by, final long def) throws CacheException {
-        throw new CacheException(new RuntimeException("not implemented"));
+        return incr(key, by, def, 0);
     }
 
     @Override
     public long incr(final String key, final int by, final long def, final int expiration) throws CacheException {
-        throw new CacheException(new RuntimeException("not implemented"));
+        try {
+            return incrementOrInitInMomento(key, by, def, expiration == 0 ? defaultTTL : expiration).join();
+        } catch (RuntimeException e) {
+            throw new CacheException(e);
+        }
     }
 
     @Override
     public boolean set(final String key, final int exp, final Object value) throws CacheException {
         try {
-            CachedObject cachedObject = getTranscoder().encode(value);
-
-            // simple spring memcache defaults exp(ttl) to 0 which momento treats as invalidate immediately,
-            // so we set default ttl here if we are passed 0
-            int ttl = exp == 0 ? defaultTTL : exp;
-
-            boolean result = writeOutToMomento(key, ttl, cachedObject.getFlags(), cachedObject.getData());
-            accessLogWrite("Set", key, result, cachedObject.getData().length, ttl, cachedObject.getFlags());
-            return result;
+            return writeOutToMomento("Set", key, exp, value, null).join();
         } catch (RuntimeException e) {
             throw new CacheException(e);
         }
@@ -183,28 +249,101 @@ class MomentoClientWrapper extends AbstractMemcacheClientWrapper {
     @Override
     public <T> boolean set(final String key, final int exp, final T value, final CacheTranscoder transcoder) throws CacheException {
         try {
-            CachedData cachedData = getTranscoder(transcoder).encode(value);
+            return writeOutToMomento("Set", key, exp, value, transcoder).join();
+        } catch (RuntimeException e) {
+            throw new CacheException(e);
+        }
+    }
 
-            // simple spring memcache defaults exp(ttl) to 0 which momento treats as invalidate immediately,
-            // so we set default ttl here if we are passed 0
-            int ttl = exp == 0 ? defaultTTL : exp;
+    @Override
+    public void setBulk(final Map<String, ?> values, final int exp) throws CacheException {
+        if (values == null || values.isEmpty()) {
+            return;
+        }
 
-            boolean result = writeOutToMomento(key, ttl, cachedData.getFlags(), cachedData.getData());
-            accessLogWrite("Set", key, result, cachedData.getData().length, ttl, cachedData.getFlags());
-            return result;
+        try {
+            performMultiSet(encodeAll(values, null), exp == 0 ? defaultTTL : exp);
         } catch (RuntimeException e) {
             throw new CacheException(e);
         }
     }
 
+    @Override
+    public <T> void setBulk(final Map<String, T> values, final int exp, final CacheTranscoder transcoder) throws CacheException {
+        if (values == null || values.isEmpty()) {
+            return;
+        }
+
+        try {
+            performMultiSet(encodeAll(values, transcoder), exp == 0 ? defaultTTL : exp);
+        } catch (RuntimeException e) {
+            throw new CacheException(e);
+        }
+    }
+
+    @Override
+    public CompletableFuture<Object> getAsync(final String key) {
+        return getAsync(key, null, "GetAsync");
+    }
+
+    @Override
+    public <T> CompletableFuture<T> getAsync(final String key, final CacheTranscoder transcoder) {
+        return getAsync(key, transcoder, "GetAsync");
+    }
+
+    @Override
+    public CompletableFuture<Map<String, Object>> getBulkAsync(final Collection<String> keys) {
+        return performMultiGetAsync(keys).thenApply(values -> decodeAll(values, null));
+    }
+
+    @Override
+    public <T> CompletableFuture<Map<String, T>> getBulkAsync(final Collection<String> keys, final CacheTranscoder transcoder) {
+        return performMultiGetAsync(keys).thenApply(values -> decodeAll(values, transcoder));
+    }
+
+    @Override
+    public CompletableFuture<Boolean> setAsync(final String key, final int exp, final Object value) {
+        try {
+            return writeOutToMomento("SetAsync", key, exp, value, null);
+        } catch (RuntimeException e) {
+            return failed(e);
+        }
+    }
+
+    @Override
+    public <T> CompletableFuture<Boolean> setAsync(final String key, final int exp, final T value, final CacheTranscoder transcoder) {
+        try {
+            return writeOutToMomento("SetAsync", key, exp, value, transcoder);
+        } catch (RuntimeException e) {
+            return failed(e);
+        }
+    }
+
+    @Override
+    public CompletableFuture<Boolean> deleteAsync(final String key) {
+        return momentoClient.delete(defaultCacheName, key).thenApply(response -> response instanceof DeleteResponse.Success);
+    }
+
+    @Override
+    public CompletableFuture<Long> incrAsync(final String key, final int by, final long def, final int exp) {
+        try {
+            return incrementOrInitInMomento(key, by, def, exp == 0 ? defaultTTL : exp);
+        } catch (RuntimeException e) {
+            return failed(e);
+        }
+    }
+
     @Override
     public void shutdown() {
         momentoClient.close();
+        if (accessRecorder != null) {
+            accessRecorder.unregisterMBean();
+        }
     }
 
     @Override
     public CacheTranscoder getTranscoder() {
-        return new TranscoderWrapper(new SerializingTranscoder());
+        return defaultCacheTranscoder;
     }
 
     @Override
@@ -213,134 +352,233 @@ class MomentoClientWrapper extends AbstractMemcacheClientWrapper {
     }
 
     @SuppressWarnings("unchecked")
-    private <T> Transcoder<T> getTranscoder(final CacheTranscoder transcoder) {
-        Transcoder<T> transcoderAdapter = (Transcoder<T>) adapters.get(transcoder);
-        if (transcoderAdapter == null) {
-            transcoderAdapter = (Transcoder<T>) new TranscoderAdapter(transcoder);
-            adapters.put(transcoder, (Transcoder<Object>) transcoderAdapter);
-        }
-
-        return transcoderAdapter;
-    }
-
-    // Helper function that concatenates the CachedObject to raw bytes before calling `set`.
-    // This helps maintain our serialization flags so that we can deserialize the object upon a `get`
-    private boolean writeOutToMomento(final String key, final int exp, final int flagsUsed, final byte[] data) {
-        ByteBuffer buffer = ByteBuffer.allocate(SIZE_OF_INT + data.length);
-        buffer.putInt(flagsUsed);
-        buffer.put(data);
-        buffer.rewind();
-        SetResponse response = momentoClient.set(
-                defaultCacheName, key.getBytes(StandardCharsets.UTF_8), buffer.array(), Duration.ofSeconds(exp)
-        ).join();
-        return response instanceof SetResponse.Success;
-    }
-
-    // Helper function that reads the raw bytes from Momento and splits up the bytes
-    // to extract the serialization flags we used as well as the raw bytes of data that contain our
-    // actual object
-    private <T> T readFromMomento(final String key, final CacheTranscoder transcoder) {
-        Transcoder<T> cacheTranscoder = getTranscoder(transcoder);
-        Optional<CachedData> maybeCachedData = performGet(key);
-        return maybeCachedData.map(cacheTranscoder::decode)
-                .orElse(null);
+    private <T> FramedTranscoder<T> getTranscoder(final CacheTranscoder transcoder) {
+        return (FramedTranscoder<T>) adapters.get(transcoder);
     }
 
-    // Helper function that reads the raw bytes from Momento and splits up the bytes
-    // to extract the serialization flags we used as well as the raw bytes of data that contain our
-    // actual object, uses our default Transcoder
-    private Object readFromMomento(final String key) {
-        CacheTranscoder cacheTranscoder = getTranscoder();
-        Optional<CachedData> maybeCachedData = performGet(key);
-        return maybeCachedData.map(cachedData -> cacheTranscoder.decode(new CachedObjectWrapper(cachedData)))
-                .orElse(null);
+    // Helper function that encodes the value to the layout it's stored in (see ValueFrame). Our default Transcoder,
+    // used when the transcoder is null, serializes straight into the frame. Counters are stored as plain decimal
+    // strings without serialization flags, it's the format Momento's increment operates on and LongToStringTranscoder
+    // reads.
+    private byte[] encode(final Object value, final CacheTranscoder transcoder) {
+        if (transcoder == null) {
+            return defaultTranscoder.encodeFramed(value);
+        }
+        if (isCounter(transcoder)) {
+            return transcoder.encode(value).getData();
+        }
+        return this.<Object> getTranscoder(transcoder).encodeFramed(value);
     }
 
-    // Helper function that mimics multi-get by asynchronously calling get on all the keys. Large enough sets of keys
-    // are split into chunks to prevent too many simultaneous calls.
-    private <T> Map<String, T> readFromMomento(final Collection<String> keys, final CacheTranscoder transcoder) {
-        final Transcoder<T> cacheTranscoder = getTranscoder(transcoder);
-
-        final Set<Set<String>> keyChunks = splitKeyset(keys);
+    // Helper function that decodes the bytes read from Momento, the data are decoded in place without copying them
+    // out of the frame
+    @SuppressWarnings("unchecked")
+    private <T> T decode(final byte[] value, final CacheTranscoder transcoder) {
+        if (transcoder == null) {
+            return (T) defaultTranscoder.decodeFramed(value);
+        }
+        if (isCounter(transcoder)) {
+            return (T) transcoder.decode(0, value, 0, value.length);
+        }
+        return this.<T> getTranscoder(transcoder).decodeFramed(value);
+    }
 
-        final Map<String, T> output = new HashMap<>();
-        for (Set<String> keyChunk : keyChunks) {
-            final Map<String, CachedData> cachedData = performMultiGet(keyChunk);
-            for (Map.Entry<String, CachedData> entry : cachedData.entrySet()) {
-                output.put(entry.getKey(), cacheTranscoder.decode(entry.getValue()));
-            }
+    private Map<String, byte[]> encodeAll(final Map<String, ?> values, final CacheTranscoder transcoder) {
+        final Map<String, byte[]> encoded = new LinkedHashMap<>();
+        for (Map.Entry<String, ?> entry : values.entrySet()) {
+            encoded.put(entry.getKey(), encode(entry.getValue(), transcoder));
         }
+        return encoded;
+    }
 
+    private <T> Map<String, T> decodeAll(final Map<String, byte[]> values, final CacheTranscoder transcoder) {
+        final Map<String, T> output = new LinkedHashMap<>();
+        for (Map.Entry<String, byte[]> entry : values.entrySet()) {
+            output.put(entry.getKey(), this.<T> decode(entry.getValue(), transcoder));
+        }
         return output;
     }
 
-    // Helper function that mimics multi-get by asynchronously calling get on all the keys. Large enough sets of keys
-    // are split into chunks to prevent too many simultaneous calls.
-    private Map<String, Object> readFromMomento(final Collection<String> keys) {
-        final CacheTranscoder cacheTranscoder = getTranscoder();
+    private CompletableFuture<Boolean> writeOutToMomento(final String method, final String key, final int exp, final Object value,
+            final CacheTranscoder transcoder) {
+        // simple spring memcache defaults exp(ttl) to 0 which momento treats as invalidate immediately,
+        // so we set default ttl here if we are passed 0
+        final int ttl = exp == 0 ? defaultTTL : exp;
+        final byte[] bytes = encode(value, transcoder);
+        final long start = System.nanoTime();
+        return writeRawToMomento(key, ttl, bytes).thenApply(response -> {
+            boolean result = response instanceof SetResponse.Success;
+            recordAccess(method, key, bytes.length, result, start);
+            return result;
+        });
+    }
+
+    private CompletableFuture<SetResponse> writeRawToMomento(final String key, final int exp, final byte[] bytes) {
+        return momentoClient.set(
+                defaultCacheName, key.getBytes(StandardCharsets.UTF_8), bytes, Duration.ofSeconds(exp)
+        );
+    }
+
+    private boolean addToMomento(final String key, final int exp, final Object value, final CacheTranscoder transcoder) {
+        final int ttl = exp == 0 ? defaultTTL : exp;
+        final byte[] bytes = encode(value, transcoder);
+        final long start = System.nanoTime();
+        boolean result = setIfNotExistsInMomento(key, ttl, bytes).join();
+        recordAccess("Add", key, bytes.length, result, start);
+        return result;
+    }
 
-        final Set<Set<String>> keyChunks = splitKeyset(keys);
+    private CompletableFuture<Boolean> setIfNotExistsInMomento(final String key, final int exp, final byte[] bytes) {
+        return momentoClient.setIfNotExists(defaultCacheName, key, bytes, Duration.ofSeconds(exp)).thenApply(response -> {
+            if (response instanceof SetIfNotExistsResponse.Stored) {
+                return true;
+            }
+            if (response instanceof SetIfNotExistsResponse.NotStored) {
+                return false;
+            }
+            throw toException("Add", response);
+        });
+    }
 
-        final Map<String, Object> output = new HashMap<>();
-        for (Set<String> keyChunk : keyChunks) {
-            final Map<String, CachedData> cachedData = performMultiGet(keyChunk);
-            for (Map.Entry<String, CachedData> entry : cachedData.entrySet()) {
-                output.put(entry.getKey(), cacheTranscoder.decode(new CachedObjectWrapper(entry.getValue())));
+    private CompletableFuture<Long> incrementInMomento(final String key, final long amount, final int exp) {
+        return momentoClient.increment(defaultCacheName, key, amount, Duration.ofSeconds(exp)).thenApply(response -> {
+            if (response instanceof IncrementResponse.Success) {
+                long value = ((IncrementResponse.Success) response).valueNumber();
+                LOGGER.debug("Increment: Success key: {} by: {} value: {}", new Object[] { key, amount, value });
+                return value;
             }
+            throw toException("Increment", response);
+        });
+    }
+
+    // Memcached semantic of incr/decr with default value: missing counter is initialized with the default value and
+    // not incremented. Momento initializes missing counter with 0, so if the default equals the amount (the common
+    // case of @IncrementCounterInCache) single increment gives the same result, otherwise the counter is created
+    // with set-if-not-exists first.
+    private CompletableFuture<Long> incrementOrInitInMomento(final String key, final long amount, final long def, final int exp) {
+        if (def == amount) {
+            return incrementInMomento(key, amount, exp);
         }
 
-        return output;
+        return setIfNotExistsInMomento(key, exp, String.valueOf(def).getBytes(StandardCharsets.US_ASCII)).thenCompose(
+                added -> added ? CompletableFuture.completedFuture(def) : incrementInMomento(key, amount, exp));
     }
 
-    private Optional<CachedData> performGet(final String key) {
-        GetResponse response = momentoClient.get(defaultCacheName, key).join();
-        if (response instanceof GetResponse.Hit) {
-            return Optional.of(convertToCachedData(((GetResponse.Hit) response).valueByteArray()));
+    // Memcached never decrements counter below 0. Overwriting negative counter with 0 would lose increments done in
+    // the meantime, so the part of the decrement that went below 0 is added back instead. Each of concurrent
+    // decrements adds back at most what it has taken, together they leave the counter at 0. Until then readers may
+    // see the counter negative.
+    private CompletableFuture<Long> clampAtZero(final String key, final long by, final CompletableFuture<Long> value,
+            final int exp) {
+        return value.thenCompose(current -> {
+            if (current >= 0) {
+                return CompletableFuture.completedFuture(current);
+            }
+            return incrementInMomento(key, Math.min(by, -current), exp).thenApply(restored -> 0L);
+        });
+    }
+
+    private boolean isCounter(final CacheTranscoder transcoder) {
+        return transcoder instanceof LongToStringTranscoder;
+    }
+
+    // Momento reports errors as response objects, most of them are exceptions
+    private RuntimeException toException(final String operation, final Object response) {
+        if (response instanceof RuntimeException) {
+            return (RuntimeException) response;
         }
-        return Optional.empty();
+        return new IllegalStateException(String.format("%s: unexpected response %s", operation, response));
     }
 
-    private Map<String, CachedData> performMultiGet(final Collection<String> keys) {
-        final Map<String, CompletableFuture<Optional<byte[]>>> futureMap = keys.stream()
-                .collect(Collectors.toMap(key -> key, key -> momentoClient.get(defaultCacheName, key)
-                        .thenApply(response -> {
-                            if (response instanceof GetResponse.Hit) {
-                                return Optional.of(((GetResponse.Hit) response).valueByteArray());
-                            }
-                            return Optional.empty();
-                        })));
+    // Helper function that reads the stored bytes from Momento and decodes them, null transcoder means our default
+    // Transcoder
+    private <T> T readFromMomento(final String method, final String key, final CacheTranscoder transcoder) {
+        final long start = System.nanoTime();
+        Optional<byte[]> maybeValue = performGetAsync(key).join();
+        recordRead(method, key, maybeValue.orElse(null), start);
+        return maybeValue.map(value -> this.<T> decode(value, transcoder))
+                .orElse(null);
+    }
 
-        final Map<String, CachedData> result = new HashMap<>();
-        for (Map.Entry<String, CompletableFuture<Optional<byte[]>>> entry : futureMap.entrySet()) {
-            final Optional<byte[]> bytesOpt = entry.getValue().join();
-            if (bytesOpt.isPresent()) {
-                final byte[] bytes = bytesOpt.get();
-                accessLogRead("Multiget", entry.getKey(), bytes);
-                result.put(entry.getKey(), convertToCachedData(bytes));
-            } else {
-                accessLogRead("Multiget", entry.getKey(), null);
+    private <T> CompletableFuture<T> getAsync(final String key, final CacheTranscoder transcoder, final String method) {
+        final long start = System.nanoTime();
+        return performGetAsync(key).thenApply(maybeValue -> {
+            recordRead(method, key, maybeValue.orElse(null), start);
+            return maybeValue.map(value -> this.<T> decode(value, transcoder)).<T> orElse(null);
+        });
+    }
+
+    private CompletableFuture<Optional<byte[]>> performGetAsync(final String key) {
+        return momentoClient.get(defaultCacheName, key).thenApply(response -> {
+            if (response instanceof GetResponse.Hit) {
+                return Optional.of(((GetResponse.Hit) response).valueByteArray());
+            }
+            return Optional.empty();
+        });
+    }
+
+    // Helper function that mimics multi-get without blocking. At most maxConcurrentGets gets are in flight, the next
+    // one is issued as soon as any previous completes, so large reads take about (keys / window) round trips.
+    private CompletableFuture<Map<String, byte[]>> performMultiGetAsync(final Collection<String> keys) {
+        return new WindowedMultiGet(keys).start();
+    }
+
+    private <T> CompletableFuture<T> failed(final RuntimeException e) {
+        final CompletableFuture<T> future = new CompletableFuture<>();
+        future.completeExceptionally(new CacheException(e));
+        return future;
+    }
+
+    // Helper function that mimics multi-set by asynchronously calling set on all the keys. Large enough sets of keys
+    // are split into chunks to prevent too many simultaneous calls. All keys are set even if some of them fail, the
+    // failed ones are listed in the thrown exception.
+    private void performMultiSet(final Map<String, byte[]> values, final int ttl) {
+        final List<String> failedKeys = new ArrayList<>();
+        for (List<String> keyChunk : splitKeyset(values.keySet())) {
+            final long start = System.nanoTime();
+            final Map<String, CompletableFuture<SetResponse>> futureMap = new HashMap<>();
+            for (String key : keyChunk) {
+                futureMap.put(key, writeRawToMomento(key, ttl, values.get(key)));
+            }
+
+            for (Map.Entry<String, CompletableFuture<SetResponse>> entry : futureMap.entrySet()) {
+                final boolean result = entry.getValue().join() instanceof SetResponse.Success;
+                recordAccess("Multiset", entry.getKey(), values.get(entry.getKey()).length, result, start);
+                if (!result) {
+                    failedKeys.add(entry.getKey());
+                }
             }
         }
 
-        return result;
+        if (!failedKeys.isEmpty()) {
+            throw new IllegalStateException(String.format("Setting %d of %d keys failed: %s", failedKeys.size(), values.size(),
+                    failedKeys));
+        }
     }
 
-    private CachedData convertToCachedData(final byte[] bytes) {
-        ByteBuffer byteBuffer = ByteBuffer.wrap(bytes);
-        int flags = byteBuffer.getInt();
-        // Ensure we perform a deep copy of the remaining bytes into a separate byte array
-        byte[] originalData = new byte[byteBuffer.remaining()];
-        byteBuffer.get(originalData);
-        return new CachedData(flags, originalData, originalData.length);
+    // Helper function that mimics multi-delete by asynchronously calling delete on all the keys. Large enough sets of
+    // keys are split into chunks to prevent too many simultaneous calls.
+    private void performMultiDelete(final Collection<String> keys) {
+        for (List<String> keyChunk : splitKeyset(keys)) {
+            final List<CompletableFuture<DeleteResponse>> futures = new ArrayList<>(keyChunk.size());
+            for (String key : keyChunk) {
+                if (key != null) {
+                    futures.add(momentoClient.delete(defaultCacheName, key));
+                }
+            }
+
+            CompletableFuture.allOf(futures.toArray(new CompletableFuture<?>[0])).join();
+            LOGGER.debug("Multidelete: Success Items removed from cache keys: {}", keyChunk);
+        }
     }
 
-    private Set<Set<String>> splitKeyset(final Collection<String> keys) {
+    private List<List<String>> splitKeyset(final Collection<String> keys) {
         final int chunkSize = 50;
-        final Set<Set<String>> keyChunks = new HashSet<>();
+        final List<List<String>> keyChunks = new ArrayList<>(keys.size() / chunkSize + 1);
 
         final Spliterator<String> split = keys.spliterator();
         while (true) {
-            final Set<String> keyChunk = new HashSet<>(chunkSize);
+            final List<String> keyChunk = new ArrayList<>(chunkSize);
             for (int i = 0; i < chunkSize; ++i) {
                 if (!split.tryAdvance(keyChunk::add)) {
                     break;
@@ -355,34 +593,103 @@ class MomentoClientWrapper extends AbstractMemcacheClientWrapper {
         return keyChunks;
     }
 
-    private void accessLogRead(String method, String key, Object data) {
-        if (data == null) {
-            LOGGER.debug(MessageFormat.format(
-                    "{0}: MISS: no item found in cache for key: {1}",
-                    method, key
-            ));
-        } else {
-            LOGGER.debug(MessageFormat.format(
-                    "{0}: HIT: item found in cache for key: {1}",
-                    method, key
-            ));
-        }
-    }
-
-    private void accessLogWrite(String method, String key, boolean writeSuccess, int size, int ttl, int flags) {
-        if (writeSuccess) {
-            LOGGER.debug(MessageFormat.format(
-                    "{0}: SetSuccess: item stored in cache key: {1} value_size: {2} ttl: {3} flags: {4}",
-                    method, key, size, ttl, flags
-            ));
-        } else {
-            LOGGER.debug(MessageFormat.format(
-                    "{0}: SetFailure: item not stored in cache empty response for key: {1} value_size: {2} ttl: {3} flags: {4}",
-                    method, key, size, ttl, flags
-            ));
+    private void recordRead(final String method, final String key, final byte[] value, final long start) {
+        recordAccess(method, key, (value != null) ? value.length : -1, value != null, start);
+    }
+
+    // Sampling is decided by the recorder, records are formatted only when they are dumped
+    private void recordAccess(final String method, final String key, final int size, final boolean hit, final long start) {
+        if (accessRecorder != null) {
+            accessRecorder.record(method, key, size, hit, System.nanoTime() - start);
         }
     }
 
+    // Issues gets for all keys keeping at most maxConcurrentGets of them in flight. Completion of a get grants a permit
+    // to issue the next one; permits are drained in a loop by a single thread at a time, so gets completed synchronously
+    // don't grow the stack. Found values are returned in the order of the keys.
+    private class WindowedMultiGet {
+
+        private final List<String> keys;
+        private final byte[][] values;
+        private final CompletableFuture<Map<String, byte[]>> result = new CompletableFuture<>();
+        private final AtomicInteger next = new AtomicInteger();
+        private final AtomicInteger permits = new AtomicInteger();
+        private final AtomicInteger remaining;
+
+        WindowedMultiGet(final Collection<String> keys) {
+            this.keys = new ArrayList<>(new LinkedHashSet<>(keys));
+            this.values = new byte[this.keys.size()][];
+            this.remaining = new AtomicInteger(this.keys.size());
+        }
+
+        CompletableFuture<Map<String, byte[]>> start() {
+            if (keys.isEmpty()) {
+                result.complete(new LinkedHashMap<>());
+            } else {
+                issue(Math.min(maxConcurrentGets, keys.size()));
+            }
+            return result;
+        }
+
+        private void issue(final int granted) {
+            if (permits.getAndAdd(granted) != 0) {
+                // other thread (or outer frame of this one) is draining permits
+                return;
+            }
+
+            int missed = granted;
+            do {
+                for (int i = 0; i < missed; i++) {
+                    getNext();
+                }
+                missed = permits.addAndGet(-missed);
+            } while (missed != 0);
+        }
+
+        private void getNext() {
+            final int index = next.getAndIncrement();
+            if (index >= keys.size() || result.isDone()) {
+                return;
+            }
+
+            final String key = keys.get(index);
+            final long start = System.nanoTime();
+            final CompletableFuture<Optional<byte[]>> future;
+            try {
+                future = performGetAsync(key);
+            } catch (RuntimeException e) {
+                result.completeExceptionally(e);
+                return;
+            }
+
+            future.whenComplete((value, e) -> {
+                if (e != null) {
+                    result.completeExceptionally(e);
+                    return;
+                }
+
+                recordRead("Multiget", key, value.orElse(null), start);
+                values[index] = value.orElse(null);
+                if (remaining.decrementAndGet() == 0) {
+                    result.complete(collect());
+                } else {
+                    issue(1);
+                }
+            });
+        }
+
+        private Map<String, byte[]> collect() {
+            final Map<String, byte[]> output = new LinkedHashMap<>();
+            for (int i = 0; i < values.length; i++) {
+                if (values[i] != null) {
+                    output.put(keys.get(i), values[i]);
+                }
+            }
+            return output;
+        }
+
+    }
+
     private static class TranscoderWrapper implements CacheTranscoder {
 
         private final Transcoder<Object> transcoder;
@@ -22,12 +22,19 @@ import lombok.EqualsAndHashCode;
 import net.spy.memcached.ConnectionFactoryBuilder;
 import net.spy.memcached.transcoders.Transcoder;
 
+import com.google.code.ssm.metrics.AccessRecorder;
 import com.google.code.ssm.providers.CacheConfiguration;
 
 import java.time.Duration;
+import java.util.Collections;
+import java.util.Map;
 import java.util.Optional;
 
 
+/**
+ * Momento accepts keys that memcached rejects, to keep such keys of values already cached in Momento unchanged disable
+ * hashing of unsafe keys in {@link com.google.code.ssm.aop.support.CacheKeyEncoder#setHashUnsafeKeys(boolean)}.
+ */
 @Data
 @EqualsAndHashCode(callSuper = true)
 public class MomentoConfiguration extends CacheConfiguration {
@@ -36,10 +43,35 @@ public class MomentoConfiguration extends CacheConfiguration {
     private int defaultTtl = 300;
     private Optional<Duration> requestTimeout = Optional.empty();
 
+    /**
+     * Maximum number of gets kept in flight by a single multi get, next get is issued as soon as any previous one
+     * completes.
+     */
+    private int maxConcurrentGets = 50;
+
     /**
      * default transcoder or null if not set
      *
      * @see ConnectionFactoryBuilder#setTranscoder(Transcoder)
      */
     private Transcoder<Object> defaultTranscoder;
+
+    /**
+     * Capacity of the ring buffer keeping sampled accesses (key, operation, value size, latency, hit), 0 disables
+     * recording. Recorded accesses can be dumped through JMX.
+     *
+     * @see AccessRecorder
+     */
+    private int accessLogCapacity = 0;
+
+    /**
+     * Fraction of accesses recorded if recording is enabled.
+     */
+    private double accessLogSampleRate = AccessRecorder.DEFAULT_SAMPLE_RATE;
+
+    /**
+     * Fractions of accesses recorded per namespace, overrides {@link #accessLogSampleRate} for listed namespaces.
+     * Namespace is the prefix of the raw key including cache name prefix and namespace code, see {@link AccessRecorder}.
+     */
+    private Map<String, Double> accessLogNamespaceSampleRates = Collections.emptyMap();
 }
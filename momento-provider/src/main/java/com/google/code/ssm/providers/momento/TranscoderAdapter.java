@@ -36,12 +36,13 @@ package com.google.code.ssm.providers.momento;
  */
 
 import net.spy.memcached.CachedData;
-import net.spy.memcached.transcoders.Transcoder;
 
 import com.google.code.ssm.providers.CacheTranscoder;
 import com.google.code.ssm.providers.CachedObject;
+import com.google.code.ssm.providers.momento.transcoders.FramedTranscoder;
+import com.google.code.ssm.providers.momento.transcoders.ValueFrame;
 
-class TranscoderAdapter<Transcode_t> implements Transcoder<Transcode_t> {
+class TranscoderAdapter<Transcode_t> implements FramedTranscoder<Transcode_t> {
 
     private final CacheTranscoder transcoder;
 
@@ -67,6 +68,20 @@ class TranscoderAdapter<Transcode_t> implements Transcoder<Transcode_t> {
         return new CachedData(cachedObject.getFlags(), cachedObject.getData(), CachedObject.MAX_SIZE);
     }
 
+    @Override
+    public byte[] encodeFramed(final Transcode_t o) {
+        CachedObject cachedObject = transcoder.encode(o);
+        return ValueFrame.frame(cachedObject.getFlags(), cachedObject.getData());
+    }
+
+    // transcoders that don't support decoding from an offset decode a copy of the data
+    @Override
+    @SuppressWarnings("unchecked")
+    public Transcode_t decodeFramed(final byte[] frame) {
+        return (Transcode_t) transcoder.decode(ValueFrame.getFlags(frame), frame, ValueFrame.HEADER_SIZE,
+                ValueFrame.getDataLength(frame));
+    }
+
     @Override
     public int getMaxSize() {
         return CachedObject.MAX_SIZE;
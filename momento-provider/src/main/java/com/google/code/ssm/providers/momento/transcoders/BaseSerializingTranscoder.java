@@ -25,18 +25,19 @@
 package com.google.code.ssm.providers.momento.transcoders;
 
 import java.io.ByteArrayInputStream;
-import java.io.ByteArrayOutputStream;
 import java.io.IOException;
 import java.io.ObjectInputStream;
 import java.io.ObjectOutputStream;
 import java.io.UnsupportedEncodingException;
-import java.util.zip.GZIPInputStream;
-import java.util.zip.GZIPOutputStream;
+import java.util.Arrays;
 
 import net.spy.memcached.CachedData;
 import net.spy.memcached.compat.CloseUtil;
 import net.spy.memcached.compat.SpyObject;
 
+import com.google.code.ssm.transcoders.compression.CompressionCodec;
+import com.google.code.ssm.transcoders.compression.CompressionCodecs;
+
 /**
  * Base class for any transcoders that may want to work with serialized or
  * compressed data.
@@ -51,6 +52,7 @@ public abstract class BaseSerializingTranscoder extends SpyObject {
     private static final String DEFAULT_CHARSET = "UTF-8";
 
     protected int compressionThreshold = DEFAULT_COMPRESSION_THRESHOLD;
+    protected CompressionCodec compressionCodec = CompressionCodecs.GZIP;
     protected String charset = DEFAULT_CHARSET;
 
     private final int maxSize;
@@ -77,6 +79,19 @@ public abstract class BaseSerializingTranscoder extends SpyObject {
         compressionThreshold = to;
     }
 
+    /**
+     * Set the codec used to compress data (defaults to GZIP). Data compressed by
+     * any codec are decompressed regardless of this setting.
+     *
+     * @param codec the codec
+     */
+    public void setCompressionCodec(CompressionCodec codec) {
+        if (codec == null) {
+            throw new NullPointerException("Compression codec can't be null");
+        }
+        compressionCodec = codec;
+    }
+
     /**
      * Set the character set for string value transcoding (defaults to UTF-8).
      */
@@ -94,50 +109,59 @@ public abstract class BaseSerializingTranscoder extends SpyObject {
      * Get the bytes representing the given serialized object.
      */
     protected byte[] serialize(Object o) {
+        return toData(serializeFramed(o));
+    }
+
+    /**
+     * Serialize the given object to a stream with {@link ValueFrame} header reserved.
+     */
+    protected ValueFrame.Output serializeFramed(Object o) {
         if (o == null) {
             throw new NullPointerException("Can't serialize null");
         }
-        byte[] rv=null;
-        ByteArrayOutputStream bos = null;
+        ValueFrame.Output bos = null;
         ObjectOutputStream os = null;
         try {
-            bos = new ByteArrayOutputStream();
+            bos = new ValueFrame.Output(512);
             os = new ObjectOutputStream(bos);
             os.writeObject(o);
             os.close();
             bos.close();
-            rv = bos.toByteArray();
         } catch (IOException e) {
-            System.out.println(e.getMessage());
             throw new IllegalArgumentException("Non-serializable object", e);
         } finally {
             CloseUtil.close(os);
             CloseUtil.close(bos);
         }
-        return rv;
+        return bos;
     }
 
     /**
      * Get the object represented by the given serialized bytes.
      */
     protected Object deserialize(byte[] in) {
+        return in == null ? null : deserialize(in, 0, in.length);
+    }
+
+    /**
+     * Get the object represented by the serialized bytes in the given part of the array.
+     */
+    protected Object deserialize(byte[] in, int offset, int length) {
         Object rv=null;
         ByteArrayInputStream bis = null;
         ObjectInputStream is = null;
         try {
-            if(in != null) {
-                bis=new ByteArrayInputStream(in);
-                is=new ObjectInputStream(bis);
-                rv=is.readObject();
-                is.close();
-                bis.close();
-            }
+            bis=new ByteArrayInputStream(in, offset, length);
+            is=new ObjectInputStream(bis);
+            rv=is.readObject();
+            is.close();
+            bis.close();
         } catch (IOException e) {
             getLogger().warn("Caught IOException decoding %d bytes of data",
-                    in == null ? 0 : in.length, e);
+                    length, e);
         } catch (ClassNotFoundException e) {
             getLogger().warn("Caught CNFE decoding %d bytes of data",
-                    in == null ? 0 : in.length, e);
+                    length, e);
         } finally {
             CloseUtil.close(is);
             CloseUtil.close(bis);
@@ -152,20 +176,23 @@ public abstract class BaseSerializingTranscoder extends SpyObject {
         if (in == null) {
             throw new NullPointerException("Can't compress null");
         }
-        ByteArrayOutputStream bos = new ByteArrayOutputStream();
-        GZIPOutputStream gz = null;
+        return toData(compressFramed(in, 0, in.length));
+    }
+
+    /**
+     * Compress the given part of the array to a stream with {@link ValueFrame} header reserved.
+     */
+    protected ValueFrame.Output compressFramed(byte[] in, int offset, int length) {
+        ValueFrame.Output bos = new ValueFrame.Output(length / 2);
         try {
-            gz = new GZIPOutputStream(bos);
-            gz.write(in);
+            compressionCodec.compress(in, offset, length, bos);
         } catch (IOException e) {
             throw new RuntimeException("IO exception compressing data", e);
         } finally {
-            CloseUtil.close(gz);
             CloseUtil.close(bos);
         }
-        byte[] rv = bos.toByteArray();
-        getLogger().debug("Compressed %d bytes to %d", in.length, rv.length);
-        return rv;
+        getLogger().debug("Compressed %d bytes to %d", length, bos.getDataLength());
+        return bos;
     }
 
     /**
@@ -174,44 +201,51 @@ public abstract class BaseSerializingTranscoder extends SpyObject {
      * @return null if the bytes cannot be decompressed
      */
     protected byte[] decompress(byte[] in) {
-        ByteArrayOutputStream bos = null;
-        if(in != null) {
-            ByteArrayInputStream bis = new ByteArrayInputStream(in);
-            bos = new ByteArrayOutputStream();
-            GZIPInputStream gis = null;
-            try {
-                gis = new GZIPInputStream(bis);
-
-                byte[] buf = new byte[8192];
-                int r = -1;
-                while ((r = gis.read(buf)) > 0) {
-                    bos.write(buf, 0, r);
-                }
-            } catch (IOException e) {
-                getLogger().warn("Failed to decompress data", e);
-                bos = null;
-            } finally {
-                CloseUtil.close(gis);
-                CloseUtil.close(bis);
-                CloseUtil.close(bos);
-            }
+        return in == null ? null : decompress(in, 0, in.length);
+    }
+
+    /**
+     * Decompress the given part of the array.
+     *
+     * @return null if the bytes cannot be decompressed
+     */
+    protected byte[] decompress(byte[] in, int offset, int length) {
+        return decompress(CompressionCodecs.COMPRESSED, in, offset, length);
+    }
+
+    /**
+     * Decompress the given part of the array using codec identified by the flags.
+     *
+     * @return null if the bytes cannot be decompressed
+     */
+    protected byte[] decompress(int flags, byte[] in, int offset, int length) {
+        if (in == null) {
+            return null;
+        }
+        try {
+            return CompressionCodecs.getCodec(flags, compressionCodec).decompress(in, offset, length);
+        } catch (IOException | IllegalStateException e) {
+            getLogger().warn("Failed to decompress data", e);
+            return null;
         }
-        return bos == null ? null : bos.toByteArray();
     }
 
     /**
      * Decode the string with the current character set.
      */
     protected String decodeString(byte[] data) {
-        String rv = null;
+        return data == null ? null : decodeString(data, 0, data.length);
+    }
+
+    /**
+     * Decode the string stored in the given part of the array with the current character set.
+     */
+    protected String decodeString(byte[] data, int offset, int length) {
         try {
-            if (data != null) {
-                rv = new String(data, charset);
-            }
+            return new String(data, offset, length, charset);
         } catch (UnsupportedEncodingException e) {
             throw new RuntimeException(e);
         }
-        return rv;
     }
 
     /**
@@ -230,4 +264,8 @@ public abstract class BaseSerializingTranscoder extends SpyObject {
     public int getMaxSize() {
         return maxSize;
     }
+
+    private byte[] toData(ValueFrame.Output out) {
+        return Arrays.copyOfRange(out.getBuffer(), ValueFrame.HEADER_SIZE, ValueFrame.HEADER_SIZE + out.getDataLength());
+    }
 }
@@ -22,16 +22,19 @@
 
 package com.google.code.ssm.providers.momento.transcoders;
 
+import java.util.Arrays;
 import java.util.Date;
 
 import net.spy.memcached.CachedData;
 import net.spy.memcached.util.StringUtils;
 
+import com.google.code.ssm.transcoders.compression.CompressionCodecs;
+
 /**
  * Transcoder that serializes and compresses objects.
  */
 public class SerializingTranscoder extends BaseSerializingTranscoder implements
-        Transcoder<Object> {
+        FramedTranscoder<Object> {
 
     // General flags
     static final int SERIALIZED = 1;
@@ -79,44 +82,67 @@ public class SerializingTranscoder extends BaseSerializingTranscoder implements
      */
     public Object decode(CachedData d) {
         byte[] data = d.getData();
-        Object rv = null;
-        if ((d.getFlags() & COMPRESSED) != 0) {
-            data = decompress(d.getData());
+        return decode(d.getFlags(), data, 0, data == null ? 0 : data.length);
+    }
+
+    public Object decodeFramed(byte[] frame) {
+        return decode(ValueFrame.getFlags(frame), frame, ValueFrame.HEADER_SIZE, ValueFrame.getDataLength(frame));
+    }
+
+    private Object decode(int flags, byte[] in, int offset, int length) {
+        if (in == null) {
+            return null;
         }
-        int flags = d.getFlags() & SPECIAL_MASK;
-        if ((d.getFlags() & SERIALIZED) != 0 && data != null) {
-            rv = deserialize(data);
-        } else if (flags != 0 && data != null) {
-            switch (flags) {
-                case SPECIAL_BOOLEAN:
-                    rv = tu.decodeBoolean(data);
-                    break;
-                case SPECIAL_INT:
-                    rv = tu.decodeInt(data);
-                    break;
-                case SPECIAL_LONG:
-                    rv = tu.decodeLong(data);
-                    break;
-                case SPECIAL_DATE:
-                    rv = new Date(tu.decodeLong(data));
-                    break;
-                case SPECIAL_BYTE:
-                    rv = tu.decodeByte(data);
-                    break;
-                case SPECIAL_FLOAT:
-                    rv = Float.intBitsToFloat(tu.decodeInt(data));
-                    break;
-                case SPECIAL_DOUBLE:
-                    rv = Double.longBitsToDouble(tu.decodeLong(data));
-                    break;
-                case SPECIAL_BYTEARRAY:
-                    rv = data;
-                    break;
-                default:
-                    getLogger().warn("Undecodeable with flags %x", flags);
+        byte[] data = in;
+        int dataOffset = offset;
+        int dataLength = length;
+        if ((flags & COMPRESSED) != 0) {
+            data = decompress(flags, in, offset, length);
+            if (data == null) {
+                return null;
             }
-        } else {
-            rv = decodeString(data);
+            dataOffset = 0;
+            dataLength = data.length;
+        }
+        int special = flags & SPECIAL_MASK;
+        if ((flags & SERIALIZED) != 0) {
+            return deserialize(data, dataOffset, dataLength);
+        }
+        if (special == 0) {
+            return decodeString(data, dataOffset, dataLength);
+        }
+
+        // special values are short, only byte arrays are worth not copying
+        byte[] value = dataOffset == 0 && dataLength == data.length ? data
+                : Arrays.copyOfRange(data, dataOffset, dataOffset + dataLength);
+        Object rv = null;
+        switch (special) {
+            case SPECIAL_BOOLEAN:
+                rv = tu.decodeBoolean(value);
+                break;
+            case SPECIAL_INT:
+                rv = tu.decodeInt(value);
+                break;
+            case SPECIAL_LONG:
+                rv = tu.decodeLong(value);
+                break;
+            case SPECIAL_DATE:
+                rv = new Date(tu.decodeLong(value));
+                break;
+            case SPECIAL_BYTE:
+                rv = tu.decodeByte(value);
+                break;
+            case SPECIAL_FLOAT:
+                rv = Float.intBitsToFloat(tu.decodeInt(value));
+                break;
+            case SPECIAL_DOUBLE:
+                rv = Double.longBitsToDouble(tu.decodeLong(value));
+                break;
+            case SPECIAL_BYTEARRAY:
+                rv = value;
+                break;
+            default:
+                getLogger().warn("Undecodeable with flags %x", special);
         }
         return rv;
     }
@@ -127,12 +153,19 @@ public class SerializingTranscoder extends BaseSerializingTranscoder implements
      * @see net.spy.memcached.Transcoder#encode(java.lang.Object)
      */
     public CachedData encode(Object o) {
+        byte[] frame = encodeFramed(o);
+        return new CachedData(ValueFrame.getFlags(frame),
+                Arrays.copyOfRange(frame, ValueFrame.HEADER_SIZE, frame.length), getMaxSize());
+    }
+
+    public byte[] encodeFramed(Object o) {
         byte[] b = null;
+        ValueFrame.Output serialized = null;
         int flags = 0;
         if (o instanceof String) {
             b = encodeString((String) o);
             if (StringUtils.isJsonObject((String) o)) {
-                return new CachedData(flags, b, getMaxSize());
+                return frame(flags, b);
             }
         } else if (o instanceof Long) {
             b = tu.encodeLong((Long) o);
@@ -159,22 +192,42 @@ public class SerializingTranscoder extends BaseSerializingTranscoder implements
             b = (byte[]) o;
             flags |= SPECIAL_BYTEARRAY;
         } else {
-            b = serialize(o);
+            // serialized straight into the frame, header is filled in at the end
+            serialized = serializeFramed(o);
             flags |= SERIALIZED;
         }
-        assert b != null;
-        if (b.length > compressionThreshold) {
-            byte[] compressed = compress(b);
-            if (compressed.length < b.length) {
+        byte[] data = serialized == null ? b : serialized.getBuffer();
+        int offset = serialized == null ? 0 : ValueFrame.HEADER_SIZE;
+        int length = serialized == null ? b.length : serialized.getDataLength();
+        if (length > compressionThreshold) {
+            ValueFrame.Output compressed = compressFramed(data, offset, length);
+            if (compressed.getDataLength() < length) {
                 getLogger().debug("Compressed %s from %d to %d",
-                        o.getClass().getName(), b.length, compressed.length);
-                b = compressed;
-                flags |= COMPRESSED;
+                        o.getClass().getName(), length, compressed.getDataLength());
+                checkSize(compressed.getDataLength());
+                return compressed.toFrame(flags | CompressionCodecs.getFlags(compressionCodec));
             } else {
                 getLogger().info("Compression increased the size of %s from %d to %d",
-                        o.getClass().getName(), b.length, compressed.length);
+                        o.getClass().getName(), length, compressed.getDataLength());
             }
         }
-        return new CachedData(flags, b, getMaxSize());
+        if (serialized == null) {
+            return frame(flags, b);
+        }
+        checkSize(length);
+        return serialized.toFrame(flags);
+    }
+
+    private byte[] frame(int flags, byte[] data) {
+        checkSize(data.length);
+        return ValueFrame.frame(flags, data);
+    }
+
+    // the same limit CachedData enforces
+    private void checkSize(int length) {
+        if (length > getMaxSize()) {
+            throw new IllegalArgumentException("Cannot cache data larger than "
+                    + getMaxSize() + " bytes (you tried to cache a " + length + " byte object)");
+        }
     }
 }
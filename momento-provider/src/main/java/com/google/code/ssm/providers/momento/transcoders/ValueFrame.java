@@ -0,0 +1,96 @@
+/*
+ * Copyright (c) 2022 Momento, Inc.
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy of this software and associated
+ * documentation files (the "Software"), to deal in the Software without restriction, including without limitation the
+ * rights to use, copy, modify, merge, publish, distribute, sublicense, and/or sell copies of the Software, and to
+ * permit persons to whom the Software is furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all copies or substantial portions of the
+ * Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR IMPLIED, INCLUDING BUT NOT LIMITED TO THE
+ * WARRANTIES OF MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR
+ * COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR
+ * OTHERWISE, ARISING FROM, OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE SOFTWARE.
+ */
+
+package com.google.code.ssm.providers.momento.transcoders;
+
+import java.io.ByteArrayOutputStream;
+import java.nio.ByteBuffer;
+import java.util.Arrays;
+
+import net.spy.memcached.CachedData;
+
+/**
+ * Layout of values stored in Momento: 4 bytes of serialization flags (big endian) followed by the data.
+ */
+public final class ValueFrame {
+
+    public static final int HEADER_SIZE = 4;
+
+    private ValueFrame() {
+
+    }
+
+    /**
+     * Frames data encoded by a transcoder that can't write into {@link Output}, copies the data.
+     */
+    public static byte[] frame(final int flags, final byte[] data) {
+        final byte[] frame = new byte[HEADER_SIZE + data.length];
+        ByteBuffer.wrap(frame).putInt(flags);
+        System.arraycopy(data, 0, frame, HEADER_SIZE, data.length);
+        return frame;
+    }
+
+    public static int getFlags(final byte[] frame) {
+        return ByteBuffer.wrap(frame).getInt();
+    }
+
+    public static int getDataLength(final byte[] frame) {
+        return frame.length - HEADER_SIZE;
+    }
+
+    /**
+     * Copies the data out of the frame for transcoders that can't decode from an offset.
+     */
+    public static CachedData toCachedData(final byte[] frame) {
+        final byte[] data = Arrays.copyOfRange(frame, HEADER_SIZE, frame.length);
+        return new CachedData(getFlags(frame), data, data.length);
+    }
+
+    /**
+     * Output stream that reserves the header at the beginning of its buffer, so encoded data doesn't have to be copied
+     * to a new array to prepend the flags.
+     */
+    public static class Output extends ByteArrayOutputStream {
+
+        public Output(final int expectedDataSize) {
+            super(HEADER_SIZE + expectedDataSize);
+            count = HEADER_SIZE;
+        }
+
+        /**
+         * @return the internal buffer, data start at {@link ValueFrame#HEADER_SIZE}
+         */
+        public byte[] getBuffer() {
+            return buf;
+        }
+
+        public int getDataLength() {
+            return count - HEADER_SIZE;
+        }
+
+        /**
+         * Writes the flags to the reserved header and returns the frame. The internal buffer is returned if it's
+         * exactly filled, otherwise it's trimmed.
+         */
+        public byte[] toFrame(final int flags) {
+            ByteBuffer.wrap(buf).putInt(flags);
+            return count == buf.length ? buf : Arrays.copyOf(buf, count);
+        }
+
+    }
+
+}
@@ -0,0 +1,411 @@
+/* Copyright (c) 2012-2019 Jakub Białek
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy of this software and associated
+ * documentation files (the "Software"), to deal in the Software without restriction, including without limitation the
+ * rights to use, copy, modify, merge, publish, distribute, sublicense, and/or sell copies of the Software, and to
+ * permit persons to whom the Software is furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all copies or substantial portions of the
+ * Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR IMPLIED, INCLUDING BUT NOT LIMITED TO THE
+ * WARRANTIES OF MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR
+ * COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR
+ * OTHERWISE, ARISING FROM, OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE SOFTWARE.
+ */
+
+package com.google.code.ssm.providers.momento;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import momento.sdk.CacheClient;
+import momento.sdk.responses.cache.GetResponse;
+import momento.sdk.responses.cache.IncrementResponse;
+import momento.sdk.responses.cache.SetIfNotExistsResponse;
+import momento.sdk.responses.cache.SetResponse;
+import momento.sdk.responses.cache.control.CacheFlushResponse;
+
+import org.easymock.EasyMock;
+import org.junit.Before;
+import org.junit.Test;
+
+import com.google.code.ssm.providers.CacheException;
+import com.google.code.ssm.providers.momento.transcoders.SerializingTranscoder;
+
+/**
+ *
+ * @author Jakub Białek
+ *
+ */
+public class MomentoClientWrapperTest {
+
+    private static final String CACHE_NAME = "test-cache";
+
+    private static final int TTL = 300;
+
+    private final SerializingTranscoder transcoder = new SerializingTranscoder();
+
+    private CacheClient client;
+
+    @Before
+    public void setUp() {
+        client = EasyMock.createMock(CacheClient.class);
+    }
+
+    @Test
+    public void getBulkReturnsValuesInOrderOfKeys() throws CacheException {
+        final Map<String, GetResponse> responses = new LinkedHashMap<>();
+        responses.put("key1", hit("value1"));
+        responses.put("key2", miss());
+        responses.put("key3", hit("value3"));
+        responses.put("key4", hit("value4"));
+        responses.put("key5", miss());
+        responses.put("key6", hit("value6"));
+        // duplicated key is read once
+        EasyMock.expect(client.get(EasyMock.eq(CACHE_NAME), EasyMock.anyString()))
+                .andAnswer(() -> CompletableFuture.completedFuture(responses.get(EasyMock.getCurrentArguments()[1])))
+                .times(responses.size());
+        EasyMock.replay(client);
+
+        final Map<String, Object> result = createWrapper(2).getBulk(Arrays.asList("key6", "key1", "key2", "key3", "key1", "key5",
+                "key4"));
+
+        assertEquals(Arrays.asList("key6", "key1", "key3", "key4"), new ArrayList<>(result.keySet()));
+        assertEquals("value6", result.get("key6"));
+        assertEquals("value1", result.get("key1"));
+        assertEquals("value3", result.get("key3"));
+        assertEquals("value4", result.get("key4"));
+        EasyMock.verify(client);
+    }
+
+    @Test
+    public void getBulkKeepsWindowOfGetsInFlight() {
+        final int window = 3;
+        final List<String> keys = new ArrayList<>();
+        for (int i = 0; i < 20; i++) {
+            keys.add("key" + i);
+        }
+
+        final List<CompletableFuture<GetResponse>> pending = Collections.synchronizedList(new ArrayList<>());
+        final List<String> requested = Collections.synchronizedList(new ArrayList<>());
+        final AtomicInteger inFlight = new AtomicInteger();
+        final AtomicInteger maxInFlight = new AtomicInteger();
+        EasyMock.expect(client.get(EasyMock.eq(CACHE_NAME), EasyMock.anyString())).andAnswer(() -> {
+            maxInFlight.accumulateAndGet(inFlight.incrementAndGet(), Math::max);
+            requested.add((String) EasyMock.getCurrentArguments()[1]);
+            final CompletableFuture<GetResponse> future = new CompletableFuture<>();
+            pending.add(future);
+            return future;
+        }).times(keys.size());
+        EasyMock.replay(client);
+
+        final CompletableFuture<Map<String, Object>> result = createWrapper(window).getBulkAsync(keys);
+        assertEquals(window, pending.size());
+
+        // complete the gets in reverse order of issuing them, every completion issues one more get
+        int completed = 0;
+        while (completed < keys.size()) {
+            final List<CompletableFuture<GetResponse>> toComplete = new ArrayList<>(pending.subList(completed, pending.size()));
+            Collections.reverse(toComplete);
+            for (CompletableFuture<GetResponse> future : toComplete) {
+                assertFalse(result.isDone());
+                final String key = requested.get(pending.indexOf(future));
+                inFlight.decrementAndGet();
+                future.complete(hit(key.replace("key", "value")));
+                completed++;
+            }
+        }
+
+        assertTrue(result.isDone());
+        assertEquals(window, maxInFlight.get());
+        assertEquals(keys, requested);
+        final Map<String, Object> values = result.join();
+        assertEquals(keys, new ArrayList<>(values.keySet()));
+        for (Map.Entry<String, Object> entry : values.entrySet()) {
+            assertEquals(entry.getKey().replace("key", "value"), entry.getValue());
+        }
+        EasyMock.verify(client);
+    }
+
+    @Test
+    public void getBulkWithSynchronouslyCompletedGets() throws CacheException {
+        // gets completed synchronously must not issue next ones recursively
+        final int size = 20000;
+        final List<String> keys = new ArrayList<>(size);
+        for (int i = 0; i < size; i++) {
+            keys.add("key" + i);
+        }
+        final GetResponse response = hit("value");
+        EasyMock.expect(client.get(EasyMock.eq(CACHE_NAME), EasyMock.anyString())).andReturn(CompletableFuture.completedFuture(response))
+                .times(size);
+        EasyMock.replay(client);
+
+        final Map<String, Object> result = createWrapper(1).getBulk(keys);
+
+        assertEquals(keys, new ArrayList<>(result.keySet()));
+        EasyMock.verify(client);
+    }
+
+    @Test
+    public void getBulkFailsOnFailedGet() {
+        final RuntimeException error = new IllegalStateException("failed get");
+        final CompletableFuture<GetResponse> failed = new CompletableFuture<>();
+        final CompletableFuture<GetResponse> succeeded = new CompletableFuture<>();
+        EasyMock.expect(client.get(CACHE_NAME, "key1")).andReturn(failed);
+        EasyMock.expect(client.get(CACHE_NAME, "key2")).andReturn(succeeded);
+        EasyMock.replay(client);
+
+        final CompletableFuture<Map<String, Object>> result = createWrapper(2).getBulkAsync(Arrays.asList("key1", "key2", "key3",
+                "key4"));
+        failed.completeExceptionally(error);
+
+        assertTrue(result.isCompletedExceptionally());
+        // get completed after the failure doesn't issue next ones
+        succeeded.complete(hit("value2"));
+        try {
+            result.join();
+            fail("Expected exception");
+        } catch (CompletionException e) {
+            assertSame(error, e.getCause());
+        }
+        EasyMock.verify(client);
+    }
+
+    @Test
+    public void getBulkFailsWhenGetCannotBeIssued() {
+        final RuntimeException error = new IllegalStateException("client closed");
+        EasyMock.expect(client.get(CACHE_NAME, "key1")).andReturn(CompletableFuture.completedFuture(hit("value1")));
+        EasyMock.expect(client.get(CACHE_NAME, "key2")).andThrow(error);
+        EasyMock.replay(client);
+
+        try {
+            createWrapper(1).getBulk(Arrays.asList("key1", "key2", "key3"));
+            fail("Expected exception");
+        } catch (CacheException e) {
+            assertSame(error, e.getCause().getCause());
+        }
+        EasyMock.verify(client);
+    }
+
+    @Test
+    public void getBulkOfNoKeys() throws CacheException {
+        EasyMock.replay(client);
+
+        assertTrue(createWrapper(2).getBulk(Collections.<String> emptyList()).isEmpty());
+        EasyMock.verify(client);
+    }
+
+    @Test
+    public void setBulkFailsListingFailedKeys() {
+        final Map<String, SetResponse> responses = new LinkedHashMap<>();
+        responses.put("key1", response(SetResponse.Success.class));
+        responses.put("key2", response(SetResponse.class));
+        responses.put("key3", response(SetResponse.Success.class));
+        EasyMock.expect(client.set(EasyMock.eq(CACHE_NAME), EasyMock.<byte[]> anyObject(), EasyMock.<byte[]> anyObject(),
+                EasyMock.eq(Duration.ofSeconds(TTL)))).andAnswer(() -> CompletableFuture.completedFuture(responses.get(new String(
+                (byte[]) EasyMock.getCurrentArguments()[1], StandardCharsets.UTF_8)))).times(responses.size());
+        EasyMock.replay(client);
+
+        final Map<String, Object> values = new LinkedHashMap<>();
+        for (String key : responses.keySet()) {
+            values.put(key, "value");
+        }
+        try {
+            createWrapper(1).setBulk(values, TTL);
+            fail("Expected exception");
+        } catch (CacheException e) {
+            assertTrue(e.getCause().getMessage(), e.getCause().getMessage().endsWith("1 of 3 keys failed: [key2]"));
+        }
+        EasyMock.verify(client);
+    }
+
+    @Test
+    public void addNotExisting() throws Exception {
+        expectSetIfNotExists("key1", transcoder.encodeFramed("value"), 100, true);
+        EasyMock.replay(client);
+
+        assertTrue(createWrapper(2).add("key1", 100, "value"));
+        EasyMock.verify(client);
+    }
+
+    @Test
+    public void addExisting() throws Exception {
+        expectSetIfNotExists("key1", transcoder.encodeFramed("value"), TTL, false);
+        EasyMock.replay(client);
+
+        assertFalse(createWrapper(2).add("key1", 0, "value"));
+        EasyMock.verify(client);
+    }
+
+    @Test
+    public void incrWithDefaultEqualToAmount() throws CacheException {
+        // Momento creates missing counter with 0, single increment initializes it with the default
+        expectIncrement("key1", 5, 5);
+        EasyMock.replay(client);
+
+        assertEquals(5, createWrapper(2).incr("key1", 5, 5));
+        EasyMock.verify(client);
+    }
+
+    @Test
+    public void incrMissingWithDefault() throws CacheException {
+        expectInit("key1", 10, true);
+        EasyMock.replay(client);
+
+        assertEquals(10, createWrapper(2).incr("key1", 5, 10));
+        EasyMock.verify(client);
+    }
+
+    @Test
+    public void incrExistingWithDefault() throws CacheException {
+        expectInit("key1", 10, false);
+        expectIncrement("key1", 5, 17);
+        EasyMock.replay(client);
+
+        assertEquals(17, createWrapper(2).incr("key1", 5, 10));
+        EasyMock.verify(client);
+    }
+
+    @Test
+    public void decr() throws Exception {
+        EasyMock.expect(client.get(CACHE_NAME, "key1")).andReturn(CompletableFuture.completedFuture(counter(7)));
+        expectIncrement("key1", -2, 5);
+        EasyMock.replay(client);
+
+        assertEquals(5, createWrapper(2).decr("key1", 2));
+        EasyMock.verify(client);
+    }
+
+    @Test
+    public void decrMissing() throws Exception {
+        // the counter isn't created
+        EasyMock.expect(client.get(CACHE_NAME, "key1")).andReturn(CompletableFuture.completedFuture(miss()));
+        EasyMock.replay(client);
+
+        assertEquals(-1, createWrapper(2).decr("key1", 2));
+        EasyMock.verify(client);
+    }
+
+    @Test
+    public void decrClampsAtZero() throws Exception {
+        EasyMock.expect(client.get(CACHE_NAME, "key1")).andReturn(CompletableFuture.completedFuture(counter(3)));
+        expectIncrement("key1", -5, -2);
+        // only the part below 0 is added back, counter isn't overwritten
+        expectIncrement("key1", 2, 0);
+        EasyMock.replay(client);
+
+        assertEquals(0, createWrapper(2).decr("key1", 5));
+        EasyMock.verify(client);
+    }
+
+    @Test
+    public void decrClampsAtZeroConcurrentDecrement() throws Exception {
+        // other decrement by 4 went below 0 first, each adds back at most what it has taken
+        expectInit("key1", 0, false);
+        expectIncrement("key1", -3, -5);
+        expectIncrement("key1", 3, -2);
+        EasyMock.replay(client);
+
+        assertEquals(0, createWrapper(2).decr("key1", 3, 0));
+        EasyMock.verify(client);
+    }
+
+    @Test
+    public void decrMissingWithDefault() throws Exception {
+        expectInit("key1", 4, true);
+        EasyMock.replay(client);
+
+        assertEquals(4, createWrapper(2).decr("key1", 2, 4));
+        EasyMock.verify(client);
+    }
+
+    @Test
+    public void flush() throws CacheException {
+        final CacheFlushResponse response = response(CacheFlushResponse.Success.class);
+        EasyMock.expect(client.flushCache(CACHE_NAME)).andReturn(CompletableFuture.completedFuture(response));
+        EasyMock.replay(client);
+
+        createWrapper(2).flush();
+        EasyMock.verify(client);
+    }
+
+    @Test(expected = CacheException.class)
+    public void flushFailed() throws CacheException {
+        final CacheFlushResponse error = EasyMock.createNiceMock(CacheFlushResponse.Error.class);
+        EasyMock.replay(error);
+        EasyMock.expect(client.flushCache(CACHE_NAME)).andReturn(CompletableFuture.completedFuture(error));
+        EasyMock.replay(client);
+
+        createWrapper(2).flush();
+    }
+
+    private MomentoClientWrapper createWrapper(final int maxConcurrentGets) {
+        return new MomentoClientWrapper(client, CACHE_NAME, TTL, maxConcurrentGets, transcoder);
+    }
+
+    private GetResponse hit(final Object value) {
+        final byte[] frame = transcoder.encodeFramed(value);
+        final GetResponse.Hit hit = EasyMock.createMock(GetResponse.Hit.class);
+        EasyMock.expect(hit.valueByteArray()).andReturn(frame).anyTimes();
+        EasyMock.replay(hit);
+        return hit;
+    }
+
+    private GetResponse miss() {
+        return response(GetResponse.Miss.class);
+    }
+
+    // counters are stored as decimal strings
+    private GetResponse counter(final long value) {
+        final GetResponse.Hit hit = EasyMock.createMock(GetResponse.Hit.class);
+        EasyMock.expect(hit.valueByteArray()).andReturn(toBytes(value)).anyTimes();
+        EasyMock.replay(hit);
+        return hit;
+    }
+
+    private void expectIncrement(final String key, final long amount, final long result) {
+        final IncrementResponse.Success response = EasyMock.createMock(IncrementResponse.Success.class);
+        EasyMock.expect(response.valueNumber()).andReturn(result).anyTimes();
+        EasyMock.replay(response);
+        EasyMock.expect(client.increment(CACHE_NAME, key, amount, Duration.ofSeconds(TTL))).andReturn(
+                CompletableFuture.<IncrementResponse> completedFuture(response));
+    }
+
+    private void expectInit(final String key, final long def, final boolean stored) {
+        expectSetIfNotExists(key, toBytes(def), TTL, stored);
+    }
+
+    private void expectSetIfNotExists(final String key, final byte[] value, final int ttl, final boolean stored) {
+        final SetIfNotExistsResponse response = stored ? response(SetIfNotExistsResponse.Stored.class)
+                : response(SetIfNotExistsResponse.NotStored.class);
+        EasyMock.expect(client.setIfNotExists(EasyMock.eq(CACHE_NAME), EasyMock.eq(key), EasyMock.aryEq(value),
+                EasyMock.eq(Duration.ofSeconds(ttl)))).andReturn(CompletableFuture.completedFuture(response));
+    }
+
+    private byte[] toBytes(final long value) {
+        return String.valueOf(value).getBytes(StandardCharsets.US_ASCII);
+    }
+
+    private <T> T response(final Class<T> type) {
+        final T response = EasyMock.createMock(type);
+        EasyMock.replay(response);
+        return response;
+    }
+
+}
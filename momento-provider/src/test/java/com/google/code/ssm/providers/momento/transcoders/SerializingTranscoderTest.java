@@ -0,0 +1,149 @@
+/* Copyright (c) 2012-2019 Jakub Białek
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy of this software and associated
+ * documentation files (the "Software"), to deal in the Software without restriction, including without limitation the
+ * rights to use, copy, modify, merge, publish, distribute, sublicense, and/or sell copies of the Software, and to
+ * permit persons to whom the Software is furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all copies or substantial portions of the
+ * Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR IMPLIED, INCLUDING BUT NOT LIMITED TO THE
+ * WARRANTIES OF MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR
+ * COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR
+ * OTHERWISE, ARISING FROM, OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE SOFTWARE.
+ */
+
+package com.google.code.ssm.providers.momento.transcoders;
+
+import static org.junit.Assert.*;
+
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Date;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import net.spy.memcached.CachedData;
+
+import org.junit.Test;
+
+import com.google.code.ssm.transcoders.compression.CompressionCodecs;
+
+/**
+ *
+ * @author Jakub Białek
+ *
+ */
+public class SerializingTranscoderTest {
+
+    private final SerializingTranscoder transcoder = new SerializingTranscoder();
+
+    @Test
+    public void encodeAndDecodeSpecialTypes() {
+        for (Object value : Arrays.<Object> asList("value", 1L, 2, true, new Date(3L), (byte) 4, 5.5f, 6.5d)) {
+            final byte[] frame = transcoder.encodeFramed(value);
+
+            assertEquals(value, transcoder.decodeFramed(frame));
+            assertDecodedFromOffset(frame);
+        }
+    }
+
+    @Test
+    public void encodeAndDecodeByteArray() {
+        final byte[] value = new byte[] { 1, 2, 3, 4, 5 };
+
+        final byte[] frame = transcoder.encodeFramed(value);
+
+        assertEquals(value.length, ValueFrame.getDataLength(frame));
+        assertArrayEquals(value, (byte[]) transcoder.decodeFramed(frame));
+    }
+
+    @Test
+    public void encodeAndDecodeSerialized() {
+        final Map<String, List<Integer>> value = new HashMap<>();
+        value.put("key", new ArrayList<>(Arrays.asList(1, 2, 3)));
+
+        // serialized straight into the frame
+        final byte[] frame = transcoder.encodeFramed(value);
+
+        assertEquals(SerializingTranscoder.SERIALIZED, ValueFrame.getFlags(frame));
+        assertEquals(value, transcoder.decodeFramed(frame));
+        assertDecodedFromOffset(frame);
+    }
+
+    @Test
+    public void encodeAndDecodeCompressed() {
+        transcoder.setCompressionThreshold(100);
+        final String value = createString(10000);
+        final List<String> serialized = new ArrayList<>(Arrays.asList(value, value));
+
+        final byte[] stringFrame = transcoder.encodeFramed(value);
+        final byte[] serializedFrame = transcoder.encodeFramed(serialized);
+
+        assertTrue(CompressionCodecs.isCompressed(ValueFrame.getFlags(stringFrame)));
+        assertTrue(ValueFrame.getDataLength(stringFrame) < value.length());
+        assertEquals(value, transcoder.decodeFramed(stringFrame));
+        assertDecodedFromOffset(stringFrame);
+        assertTrue(CompressionCodecs.isCompressed(ValueFrame.getFlags(serializedFrame)));
+        assertEquals(SerializingTranscoder.SERIALIZED, ValueFrame.getFlags(serializedFrame) & SerializingTranscoder.SERIALIZED);
+        assertEquals(serialized, transcoder.decodeFramed(serializedFrame));
+        assertDecodedFromOffset(serializedFrame);
+    }
+
+    @Test
+    public void decodeFramedByOtherTranscoder() {
+        // transcoders that can't write into the frame copy the data into it
+        final CachedData data = transcoder.encode("value");
+        final byte[] frame = ValueFrame.frame(data.getFlags(), data.getData());
+
+        assertEquals("value", transcoder.decodeFramed(frame));
+    }
+
+    @Test
+    public void decodeOnlyDataOfFrame() {
+        // data are decoded in place, the header before them mustn't be read
+        final byte[] frame = ValueFrame.frame(0, "value".getBytes(StandardCharsets.UTF_8));
+
+        assertEquals("value", transcoder.decodeFramed(frame));
+        assertEquals("value", transcoder.decode(ValueFrame.toCachedData(frame)));
+    }
+
+    @Test
+    public void outputToFrame() {
+        final ValueFrame.Output filled = new ValueFrame.Output(3);
+        filled.write(1);
+        filled.write(2);
+        filled.write(3);
+        final ValueFrame.Output trimmed = new ValueFrame.Output(10);
+        trimmed.write(1);
+
+        final byte[] filledFrame = filled.toFrame(7);
+        final byte[] trimmedFrame = trimmed.toFrame(8);
+
+        assertSame(filled.getBuffer(), filledFrame);
+        assertArrayEquals(new byte[] { 0, 0, 0, 7, 1, 2, 3 }, filledFrame);
+        assertArrayEquals(new byte[] { 0, 0, 0, 8, 1 }, trimmedFrame);
+        assertEquals(1, trimmed.getDataLength());
+    }
+
+    // decoding the frame in place must give the same value as decoding the data copied out of it
+    private void assertDecodedFromOffset(final byte[] frame) {
+        final CachedData data = ValueFrame.toCachedData(frame);
+
+        assertEquals(ValueFrame.getFlags(frame), data.getFlags());
+        assertArrayEquals(Arrays.copyOfRange(frame, ValueFrame.HEADER_SIZE, frame.length), data.getData());
+        assertEquals(transcoder.decode(data), transcoder.decodeFramed(frame));
+    }
+
+    private String createString(final int length) {
+        final StringBuilder sb = new StringBuilder(length);
+        for (int i = 0; i < length; i++) {
+            sb.append((char) ('a' + i % 7));
+        }
+        return sb.toString();
+    }
+
+}
@@ -0,0 +1,91 @@
+/*
+ * Copyright (c) 2012-2019 Jakub Białek
+ * 
+ * Permission is hereby granted, free of charge, to any person obtaining a copy of this software and associated
+ * documentation files (the "Software"), to deal in the Software without restriction, including without limitation the
+ * rights to use, copy, modify, merge, publish, distribute, sublicense, and/or sell copies of the Software, and to
+ * permit persons to whom the Software is furnished to do so, subject to the following conditions:
+ * 
+ * The above copyright notice and this permission notice shall be included in all copies or substantial portions of the
+ * Software.
+ * 
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR IMPLIED, INCLUDING BUT NOT LIMITED TO THE
+ * WARRANTIES OF MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR
+ * COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR
+ * OTHERWISE, ARISING FROM, OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE SOFTWARE.
+ */
+package com.google.code.ssm;
+
+import java.util.Collection;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+
+import com.google.code.ssm.api.format.SerializationType;
+import com.google.code.ssm.providers.AsyncCacheClient;
+
+/**
+ * Cache exposing non blocking operations. Caches created by {@link CacheFactory} implement this interface, operations
+ * are executed asynchronously if underlying cache client implements {@link AsyncCacheClient}, otherwise they are
+ * executed in the calling thread and returned future is already completed.
+ * 
+ * @author Jakub Białek
+ * @since 4.3.0
+ * 
+ */
+public interface AsyncCache extends Cache {
+
+    /**
+     * Get value by key.
+     * 
+     * @param <T>
+     * @param key
+     *            the key
+     * @param serializationType
+     *            the type of serialization to use
+     * @return future completed with value associated with given key or null
+     */
+    <T> CompletableFuture<T> getAsync(final String key, final SerializationType serializationType);
+
+    CompletableFuture<Map<String, Object>> getBulkAsync(final Collection<String> keys, final SerializationType serializationType);
+
+    /**
+     * Store key-value item to memcached.
+     * 
+     * @param key
+     *            stored key
+     * @param expiration
+     *            expiration time in seconds as defined in memcached specification
+     * @param value
+     *            stored data
+     * @param serializationType
+     *            the type of serialization to use
+     * @return future completed with true if the value was stored
+     */
+    CompletableFuture<Boolean> setAsync(final String key, final int expiration, final Object value,
+            final SerializationType serializationType);
+
+    /**
+     * Deletes value under given key.
+     * 
+     * @param key
+     *            the key
+     * @return future completed with true if the value was deleted
+     */
+    CompletableFuture<Boolean> deleteAsync(final String key);
+
+    /**
+     * Increments counter in cache by given value.
+     * 
+     * @param key
+     *            the key
+     * @param by
+     *            increment value
+     * @param def
+     *            initial value
+     * @param expiration
+     *            expiration time in seconds as defined in memcached specification
+     * @return future completed with current counter's value
+     */
+    CompletableFuture<Long> incrAsync(final String key, final int by, final long def, final int expiration);
+
+}
@@ -224,6 +224,35 @@ public interface Cache {
      */
     <T> void setSilently(final String key, final int expiration, final Object value, final SerializationType serializationType);
 
+    /**
+     * Store all key-value items to memcached in a batch.
+     * 
+     * @param values
+     *            the keys and values to store
+     * @param expiration
+     *            expiration time in seconds as defined in memcached specification
+     * @param serializationType
+     *            the type of serialization to use
+     * @throws TimeoutException
+     * @throws CacheException
+     * @since 4.3.0
+     */
+    void setBulk(final Map<String, Object> values, final int expiration, final SerializationType serializationType)
+            throws TimeoutException, CacheException;
+
+    /**
+     * Store all key-value items to memcached in a batch. Mute some exceptions.
+     * 
+     * @param values
+     *            the keys and values to store
+     * @param expiration
+     *            expiration time in seconds as defined in memcached specification
+     * @param serializationType
+     *            the type of serialization to use
+     * @since 4.3.0
+     */
+    void setBulkSilently(final Map<String, Object> values, final int expiration, final SerializationType serializationType);
+
     /**
      * Gets counter from cache without incrementing.
      * 
@@ -43,12 +43,15 @@ import com.google.code.ssm.config.AddressChangeListener;
 import com.google.code.ssm.config.AddressChangeNotifier;
 import com.google.code.ssm.config.AddressProvider;
 import com.google.code.ssm.mapper.JsonObjectMapper;
+import com.google.code.ssm.metrics.CacheMetrics;
 import com.google.code.ssm.providers.CacheClient;
 import com.google.code.ssm.providers.CacheClientFactory;
 import com.google.code.ssm.providers.CacheConfiguration;
 import com.google.code.ssm.providers.CacheTranscoder;
+import com.google.code.ssm.transcoders.BinaryTranscoder;
 import com.google.code.ssm.transcoders.JavaTranscoder;
 import com.google.code.ssm.transcoders.JsonTranscoder;
+import com.google.code.ssm.transcoders.compression.CompressingTranscoder;
 
 /**
  * Creates cache using provider factory and connection configuration.
@@ -94,12 +97,54 @@ public class CacheFactory implements AddressChangeListener, FactoryBean<Cache>,
     @Setter
     private CacheTranscoder customTranscoder;
 
+    /**
+     * Transcoder used by {@link SerializationType#BINARY}, set it to register classes written in compact form.
+     * 
+     * @since 4.3.0
+     */
+    @Setter
+    private BinaryTranscoder binaryTranscoder;
+
     @Setter
     private boolean initializeTranscoders = true;
 
+    /**
+     * If set then in-process near cache is put in front of memcached.
+     * 
+     * @since 4.3.0
+     */
+    @Setter
+    private NearCacheConfiguration nearCacheConfiguration;
+
+    /**
+     * If set then hot keys are detected and their values replicated.
+     * 
+     * @since 4.3.0
+     */
+    @Setter
+    private HotKeyConfiguration hotKeyConfiguration;
+
+    /**
+     * Detector of hot keys, available if {@link #hotKeyConfiguration} is set. Use {@link HotKeyDetector#getHotKeys()}
+     * to check the hottest keys.
+     * 
+     * @since 4.3.0
+     */
+    private HotKeyDetector hotKeyDetector;
+
     @Autowired(required = false)
     private CacheBase cacheBase;
 
+    /**
+     * If set then sizes of values written to and read from the cache are recorded. If not set explicitly then the
+     * {@link CacheMetrics} bean is used if defined.
+     * 
+     * @since 4.3.0
+     */
+    @Setter
+    @Autowired(required = false)
+    private CacheMetrics cacheMetrics;
+
     @Override
     public void afterPropertiesSet() throws Exception {
         Assert.notNull(configuration, "'configuration' cannot be null");
@@ -108,18 +153,34 @@ public class CacheFactory implements AddressChangeListener, FactoryBean<Cache>,
         Assert.notNull(cacheName, "'cacheName' cannot be null");
         Assert.notNull(defaultSerializationType, "'defaultSerializationType' cannot be null");
 
+        if (configuration.getCompressionCodec() != null) {
+            warnIfCompressionIgnored(jsonTranscoder, "jsonTranscoder");
+            warnIfCompressionIgnored(javaTranscoder, "javaTranscoder");
+            warnIfCompressionIgnored(binaryTranscoder, "binaryTranscoder");
+        }
+
         if (initializeTranscoders) {
             if (jsonTranscoder == null) {
                 jsonTranscoder = new JsonTranscoder(new JsonObjectMapper());
+                if (configuration.getCompressionCodec() != null) {
+                    jsonTranscoder.setCompressionCodec(configuration.getCompressionCodec());
+                    jsonTranscoder.setCompressionThreshold(configuration.getCompressionThreshold());
+                }
             }
             if (javaTranscoder == null) {
                 javaTranscoder = new JavaTranscoder();
+                configureCompression(javaTranscoder);
+            }
+            if (binaryTranscoder == null) {
+                binaryTranscoder = new BinaryTranscoder();
+                configureCompression(binaryTranscoder);
             }
         }
 
         validateTranscoder(SerializationType.JSON, jsonTranscoder, "jsonTranscoder");
         validateTranscoder(SerializationType.JAVA, javaTranscoder, "javaTranscoder");
         validateTranscoder(SerializationType.CUSTOM, customTranscoder, "customTranscoder");
+        validateTranscoder(SerializationType.BINARY, binaryTranscoder, "binaryTranscoder");
 
         if (addressChangeNotifier != null) {
             addressChangeNotifier.setAddressChangeListener(this);
@@ -156,7 +217,8 @@ public class CacheFactory implements AddressChangeListener, FactoryBean<Cache>,
             return;
         }
 
-        if (!(cache instanceof CacheImpl)) {
+        final Cache memcachedCache = (cache instanceof NearCacheImpl) ? ((NearCacheImpl) cache).getCache() : cache;
+        if (!(memcachedCache instanceof CacheImpl)) {
             LOGGER.warn("This client doesn't support changing memcached addresses on the fly");
             return;
         }
@@ -165,7 +227,7 @@ public class CacheFactory implements AddressChangeListener, FactoryBean<Cache>,
             LOGGER.info("Creating new memcached client for cache {} with new addresses: {}", cacheName, addresses);
             CacheClient memcacheClient = createClient(addresses);
             LOGGER.info("New memcached client for cache {} was created with addresses: {}", cacheName, addresses);
-            ((CacheImpl)cache).changeCacheClient(memcacheClient);
+            ((CacheImpl) memcachedCache).changeCacheClient(memcacheClient);
         } catch (IOException e) {
             if (LOGGER.isErrorEnabled()) {
                 LOGGER.error(String.format("Cannot change memcached client to new one with addresses %s", addresses), e);
@@ -188,7 +250,7 @@ public class CacheFactory implements AddressChangeListener, FactoryBean<Cache>,
 
         if (isCacheDisabled()) {
             LOGGER.warn("Cache {} is disabled", cacheName);
-            cache = (Cache) Proxy.newProxyInstance(Cache.class.getClassLoader(), new Class[] { Cache.class },
+            cache = (Cache) Proxy.newProxyInstance(Cache.class.getClassLoader(), new Class[] { AsyncCache.class },
                     new DisabledCacheInvocationHandler(cacheName, cacheAliases));
             return cache;
         }
@@ -198,8 +260,19 @@ public class CacheFactory implements AddressChangeListener, FactoryBean<Cache>,
         }
 
         List<InetSocketAddress> addrs = addressProvider.getAddresses();
+        if (hotKeyConfiguration != null) {
+            LOGGER.info("Hot keys detection is enabled for cache {}", cacheName);
+            hotKeyDetector = new HotKeyDetector(hotKeyConfiguration);
+        }
+
+        final CacheProperties properties = new CacheProperties(configuration.isUseNameAsKeyPrefix(), configuration.getKeyPrefixSeparator());
         cache = new CacheImpl(cacheName, cacheAliases, createClient(addrs), defaultSerializationType, jsonTranscoder, javaTranscoder,
-                customTranscoder, new CacheProperties(configuration.isUseNameAsKeyPrefix(), configuration.getKeyPrefixSeparator()));
+                binaryTranscoder, getCompressingCustomTranscoder(), properties, hotKeyDetector, cacheMetrics);
+
+        if (nearCacheConfiguration != null) {
+            LOGGER.info("Near cache is enabled for cache {}", cacheName);
+            cache = new NearCacheImpl(cache, nearCacheConfiguration);
+        }
 
         return cache;
     }
@@ -216,6 +289,28 @@ public class CacheFactory implements AddressChangeListener, FactoryBean<Cache>,
         return cacheClientFactory.create(addrs, configuration);
     }
 
+    private void configureCompression(final JavaTranscoder transcoder) {
+        if (configuration.getCompressionCodec() != null) {
+            transcoder.setCompressionCodec(configuration.getCompressionCodec());
+            transcoder.setCompressionThreshold(configuration.getCompressionThreshold());
+        }
+    }
+
+    private CacheTranscoder getCompressingCustomTranscoder() {
+        if (customTranscoder == null || configuration.getCompressionCodec() == null || !configuration.isCompressCustomTranscoder()) {
+            return customTranscoder;
+        }
+
+        return new CompressingTranscoder(customTranscoder, configuration.getCompressionCodec(), configuration.getCompressionThreshold());
+    }
+
+    private void warnIfCompressionIgnored(final CacheTranscoder transcoder, final String transcoderName) {
+        if (transcoder != null) {
+            LOGGER.warn("Compression codec of cache {} is not applied to explicitly set {}, configure compression on the transcoder",
+                    cacheName, transcoderName);
+        }
+    }
+
     private void validateTranscoder(final SerializationType serializationType, final CacheTranscoder cacheTranscoder,
             final String transcoderName) {
         if (defaultSerializationType == serializationType) {
@@ -18,8 +18,12 @@
 package com.google.code.ssm;
 
 import java.net.SocketAddress;
+import java.util.ArrayList;
 import java.util.Collection;
+import java.util.HashMap;
+import java.util.List;
 import java.util.Map;
+import java.util.concurrent.CompletableFuture;
 import java.util.concurrent.TimeoutException;
 
 import lombok.Getter;
@@ -29,9 +33,14 @@ import org.slf4j.LoggerFactory;
 import org.springframework.util.Assert;
 
 import com.google.code.ssm.api.format.SerializationType;
+import com.google.code.ssm.metrics.CacheMetricTags;
+import com.google.code.ssm.metrics.CacheMetrics;
+import com.google.code.ssm.metrics.MeteredCacheTranscoder;
+import com.google.code.ssm.providers.AsyncCacheClient;
 import com.google.code.ssm.providers.CacheClient;
 import com.google.code.ssm.providers.CacheException;
 import com.google.code.ssm.providers.CacheTranscoder;
+import com.google.code.ssm.transcoders.BinaryTranscoder;
 import com.google.code.ssm.transcoders.JavaTranscoder;
 import com.google.code.ssm.transcoders.JsonTranscoder;
 import com.google.code.ssm.transcoders.LongToStringTranscoder;
@@ -42,7 +51,7 @@ import com.google.code.ssm.transcoders.LongToStringTranscoder;
  * @since 2.0.0
  * 
  */
-class CacheImpl implements Cache {
+class CacheImpl implements AsyncCache {
 
     private static final Logger LOGGER = LoggerFactory.getLogger(CacheImpl.class);
 
@@ -57,19 +66,39 @@ class CacheImpl implements Cache {
 
     private final SerializationType defaultSerializationType;
 
-    private final JsonTranscoder jsonTranscoder;
+    private final CacheTranscoder jsonTranscoder;
 
-    private final JavaTranscoder javaTranscoder;
+    private final CacheTranscoder javaTranscoder;
+
+    private final CacheTranscoder binaryTranscoder;
 
     private final LongToStringTranscoder longToStringTranscoder = new LongToStringTranscoder();
 
     private final CacheTranscoder customTranscoder;
 
+    private final HotKeyDetector hotKeyDetector;
+
     private volatile CacheClient cacheClient;
 
     CacheImpl(final String name, final Collection<String> aliases, final CacheClient cacheClient,
             final SerializationType defaultSerializationType, final JsonTranscoder jsonTranscoder, final JavaTranscoder javaTranscoder,
             final CacheTranscoder customTranscoder, final CacheProperties properties) {
+        this(name, aliases, cacheClient, defaultSerializationType, jsonTranscoder, javaTranscoder, null, customTranscoder, properties,
+                null);
+    }
+
+    CacheImpl(final String name, final Collection<String> aliases, final CacheClient cacheClient,
+            final SerializationType defaultSerializationType, final JsonTranscoder jsonTranscoder, final JavaTranscoder javaTranscoder,
+            final BinaryTranscoder binaryTranscoder, final CacheTranscoder customTranscoder, final CacheProperties properties,
+            final HotKeyDetector hotKeyDetector) {
+        this(name, aliases, cacheClient, defaultSerializationType, jsonTranscoder, javaTranscoder, binaryTranscoder, customTranscoder,
+                properties, hotKeyDetector, null);
+    }
+
+    CacheImpl(final String name, final Collection<String> aliases, final CacheClient cacheClient,
+            final SerializationType defaultSerializationType, final JsonTranscoder jsonTranscoder, final JavaTranscoder javaTranscoder,
+            final BinaryTranscoder binaryTranscoder, final CacheTranscoder customTranscoder, final CacheProperties properties,
+            final HotKeyDetector hotKeyDetector, final CacheMetrics cacheMetrics) {
         Assert.hasText(name, "'name' must not be null, empty, or blank");
         Assert.notNull(aliases, "'aliases' cannot be null");
         Assert.notNull(cacheClient, "'cacheClient' cannot be null");
@@ -78,15 +107,20 @@ class CacheImpl implements Cache {
         validateTranscoder(SerializationType.JSON, jsonTranscoder, "jsonTranscoder");
         validateTranscoder(SerializationType.JAVA, javaTranscoder, "javaTranscoder");
         validateTranscoder(SerializationType.CUSTOM, customTranscoder, "customTranscoder");
+        validateTranscoder(SerializationType.BINARY, binaryTranscoder, "binaryTranscoder");
 
         this.name = name;
         this.aliases = aliases;
         this.cacheClient = cacheClient;
         this.defaultSerializationType = defaultSerializationType;
-        this.jsonTranscoder = jsonTranscoder;
-        this.javaTranscoder = javaTranscoder;
-        this.customTranscoder = customTranscoder;
+        // sizes of values are recorded per cache, namespace and annotation are not known here
+        final CacheMetricTags tags = new CacheMetricTags(name, null, null);
+        this.jsonTranscoder = MeteredCacheTranscoder.decorate(jsonTranscoder, cacheMetrics, tags);
+        this.javaTranscoder = MeteredCacheTranscoder.decorate(javaTranscoder, cacheMetrics, tags);
+        this.binaryTranscoder = MeteredCacheTranscoder.decorate(binaryTranscoder, cacheMetrics, tags);
+        this.customTranscoder = MeteredCacheTranscoder.decorate(customTranscoder, cacheMetrics, tags);
         this.properties = properties;
+        this.hotKeyDetector = hotKeyDetector;
     }
 
     @Override
@@ -106,6 +140,8 @@ class CacheImpl implements Cache {
             return get(cacheKey, SerializationType.PROVIDER, null);
         case CUSTOM:
             return get(cacheKey, SerializationType.CUSTOM, customTranscoder);
+        case BINARY:
+            return get(cacheKey, SerializationType.BINARY, binaryTranscoder);
         default:
             throw new IllegalArgumentException(String.format("Serialization type %s is not supported", serializationType));
         }
@@ -130,6 +166,9 @@ class CacheImpl implements Cache {
         case CUSTOM:
             set(cacheKey, expiration, (T) value, SerializationType.CUSTOM, customTranscoder);
             break;
+        case BINARY:
+            set(cacheKey, expiration, (T) value, SerializationType.BINARY, binaryTranscoder);
+            break;
         default:
             throw new IllegalArgumentException(String.format("Serialization type %s is not supported", serializationType));
         }
@@ -146,6 +185,45 @@ class CacheImpl implements Cache {
         }
     }
 
+    @Override
+    public void setBulk(final Map<String, Object> values, final int expiration, final SerializationType serializationType)
+            throws TimeoutException, CacheException {
+        if (values.isEmpty()) {
+            return;
+        }
+
+        switch (getSerializationType(serializationType)) {
+        case JAVA:
+            setBulk(values, expiration, SerializationType.JAVA, javaTranscoder);
+            break;
+        case JSON:
+            setBulk(values, expiration, SerializationType.JSON, jsonTranscoder);
+            break;
+        case PROVIDER:
+            setBulk(values, expiration, SerializationType.PROVIDER, null);
+            break;
+        case CUSTOM:
+            setBulk(values, expiration, SerializationType.CUSTOM, customTranscoder);
+            break;
+        case BINARY:
+            setBulk(values, expiration, SerializationType.BINARY, binaryTranscoder);
+            break;
+        default:
+            throw new IllegalArgumentException(String.format("Serialization type %s is not supported", serializationType));
+        }
+    }
+
+    @Override
+    public void setBulkSilently(final Map<String, Object> values, final int expiration, final SerializationType serializationType) {
+        try {
+            setBulk(values, expiration, serializationType);
+        } catch (TimeoutException e) {
+            warn(e, "Cannot set on keys %s", values.keySet());
+        } catch (CacheException e) {
+            warn(e, "Cannot set on keys %s", values.keySet());
+        }
+    }
+
     @Override
     public <T> boolean add(final String cacheKey, final int expiration, final Object value, final SerializationType serializationType)
             throws TimeoutException, CacheException {
@@ -164,6 +242,9 @@ class CacheImpl implements Cache {
         case CUSTOM:
             added = add(cacheKey, expiration, value, SerializationType.CUSTOM, customTranscoder);
             break;
+        case BINARY:
+            added = add(cacheKey, expiration, value, SerializationType.BINARY, binaryTranscoder);
+            break;
         default:
             throw new IllegalArgumentException(String.format("Serialization type %s is not supported", serializationType));
         }
@@ -197,6 +278,8 @@ class CacheImpl implements Cache {
             return getBulk(keys, SerializationType.PROVIDER, null);
         case CUSTOM:
             return getBulk(keys, SerializationType.CUSTOM, customTranscoder);
+        case BINARY:
+            return getBulk(keys, SerializationType.BINARY, binaryTranscoder);
         default:
             throw new IllegalArgumentException(String.format("Serialization type %s is not supported", serializationType));
         }
@@ -209,12 +292,25 @@ class CacheImpl implements Cache {
 
     @Override
     public boolean delete(final String key) throws TimeoutException, CacheException {
-        return cacheClient.delete(key);
+        final boolean deleted = cacheClient.delete(key);
+        if (hotKeyDetector != null && hotKeyDetector.isHot(key)) {
+            deleteReplicas(hotKeyDetector.getReplicaKeys(key));
+        }
+        return deleted;
     }
 
     @Override
     public void delete(final Collection<String> keys) throws TimeoutException, CacheException {
         cacheClient.delete(keys);
+        if (hotKeyDetector != null) {
+            final List<String> replicaKeys = new ArrayList<String>();
+            for (final String key : keys) {
+                if (hotKeyDetector.isHot(key)) {
+                    replicaKeys.addAll(hotKeyDetector.getReplicaKeys(key));
+                }
+            }
+            deleteReplicas(replicaKeys);
+        }
     }
 
     @Override
@@ -257,6 +353,112 @@ class CacheImpl implements Cache {
         return cacheClient.getNativeClient();
     }
 
+    @Override
+    public <T> CompletableFuture<T> getAsync(final String cacheKey, final SerializationType serializationType) {
+        final CacheClient client = cacheClient;
+        if (!(client instanceof AsyncCacheClient)) {
+            return execute(() -> this.<T> get(cacheKey, serializationType));
+        }
+
+        final AsyncCacheClient asyncClient = (AsyncCacheClient) client;
+        final SerializationType type = getSerializationType(serializationType);
+        final CacheTranscoder cacheTranscoder = getCacheTranscoder(type);
+        if (hotKeyDetector == null || !hotKeyDetector.record(cacheKey)) {
+            return doGetAsync(asyncClient, cacheKey, type, cacheTranscoder);
+        }
+
+        final String replicaKey = hotKeyDetector.pickReplicaKey(cacheKey);
+        if (replicaKey == null) {
+            return doGetAsync(asyncClient, cacheKey, type, cacheTranscoder);
+        }
+
+        return this.<T> doGetAsync(asyncClient, replicaKey, type, cacheTranscoder).thenCompose(replicaValue -> {
+            if (replicaValue != null) {
+                return CompletableFuture.completedFuture(replicaValue);
+            }
+
+            return this.<T> doGetAsync(asyncClient, cacheKey, type, cacheTranscoder).thenApply(value -> {
+                if (value != null) {
+                    setReplicaAsync(asyncClient, replicaKey, hotKeyDetector.getReplicaExpiration(0), value, type, cacheTranscoder);
+                }
+                return value;
+            });
+        });
+    }
+
+    @Override
+    public CompletableFuture<Map<String, Object>> getBulkAsync(final Collection<String> keys, final SerializationType serializationType) {
+        final CacheClient client = cacheClient;
+        if (!(client instanceof AsyncCacheClient)) {
+            return execute(() -> getBulk(keys, serializationType));
+        }
+
+        // replicas of hot keys are used only by blocking and single key reads
+        final SerializationType type = getSerializationType(serializationType);
+        final CacheTranscoder cacheTranscoder = getCacheTranscoder(type);
+        if (SerializationType.PROVIDER.equals(type)) {
+            return ((AsyncCacheClient) client).getBulkAsync(keys);
+        }
+
+        return ((AsyncCacheClient) client).getBulkAsync(keys, cacheTranscoder);
+    }
+
+    @Override
+    public CompletableFuture<Boolean> setAsync(final String cacheKey, final int expiration, final Object value,
+            final SerializationType serializationType) {
+        final CacheClient client = cacheClient;
+        if (!(client instanceof AsyncCacheClient)) {
+            return execute(() -> {
+                set(cacheKey, expiration, value, serializationType);
+                return true;
+            });
+        }
+
+        final AsyncCacheClient asyncClient = (AsyncCacheClient) client;
+        final SerializationType type = getSerializationType(serializationType);
+        final CacheTranscoder cacheTranscoder = getCacheTranscoder(type);
+        final CompletableFuture<Boolean> future = doSetAsync(asyncClient, cacheKey, expiration, value, type, cacheTranscoder);
+
+        if (hotKeyDetector != null && hotKeyDetector.isHot(cacheKey)) {
+            final int replicaExpiration = hotKeyDetector.getReplicaExpiration(expiration);
+            for (final String replicaKey : hotKeyDetector.getReplicaKeys(cacheKey)) {
+                setReplicaAsync(asyncClient, replicaKey, replicaExpiration, value, type, cacheTranscoder);
+            }
+        }
+        return future;
+    }
+
+    @Override
+    public CompletableFuture<Boolean> deleteAsync(final String cacheKey) {
+        final CacheClient client = cacheClient;
+        if (!(client instanceof AsyncCacheClient)) {
+            return execute(() -> delete(cacheKey));
+        }
+
+        final AsyncCacheClient asyncClient = (AsyncCacheClient) client;
+        final CompletableFuture<Boolean> future = asyncClient.deleteAsync(cacheKey);
+        if (hotKeyDetector != null && hotKeyDetector.isHot(cacheKey)) {
+            for (final String replicaKey : hotKeyDetector.getReplicaKeys(cacheKey)) {
+                asyncClient.deleteAsync(replicaKey).whenComplete((deleted, e) -> {
+                    if (e != null) {
+                        warn(e, "Cannot delete replica %s", replicaKey);
+                    }
+                });
+            }
+        }
+        return future;
+    }
+
+    @Override
+    public CompletableFuture<Long> incrAsync(final String cacheKey, final int by, final long def, final int expiration) {
+        final CacheClient client = cacheClient;
+        if (!(client instanceof AsyncCacheClient)) {
+            return execute(() -> incr(cacheKey, by, def, expiration));
+        }
+
+        return ((AsyncCacheClient) client).incrAsync(cacheKey, by, def, expiration);
+    }
+
     void changeCacheClient(final CacheClient newCacheClient) {
         if (newCacheClient != null) {
             LOGGER.info("Replacing the cache client");
@@ -269,9 +471,30 @@ class CacheImpl implements Cache {
         }
     }
 
-    @SuppressWarnings("unchecked")
     private <T> T get(final String cacheKey, final SerializationType serializationType, final CacheTranscoder cacheTranscoder)
             throws TimeoutException, CacheException {
+        if (hotKeyDetector == null || !hotKeyDetector.record(cacheKey)) {
+            return doGet(cacheKey, serializationType, cacheTranscoder);
+        }
+
+        final String replicaKey = hotKeyDetector.pickReplicaKey(cacheKey);
+        if (replicaKey == null) {
+            return doGet(cacheKey, serializationType, cacheTranscoder);
+        }
+
+        T value = doGet(replicaKey, serializationType, cacheTranscoder);
+        if (value == null) {
+            value = doGet(cacheKey, serializationType, cacheTranscoder);
+            if (value != null) {
+                setReplica(replicaKey, hotKeyDetector.getReplicaExpiration(0), value, serializationType, cacheTranscoder);
+            }
+        }
+        return value;
+    }
+
+    @SuppressWarnings("unchecked")
+    private <T> T doGet(final String cacheKey, final SerializationType serializationType, final CacheTranscoder cacheTranscoder)
+            throws TimeoutException, CacheException {
         if (SerializationType.PROVIDER.equals(serializationType)) {
             return (T) cacheClient.get(cacheKey);
         }
@@ -286,6 +509,66 @@ class CacheImpl implements Cache {
 
     private <T> void set(final String cacheKey, final int expiration, final T value, final SerializationType serializationType,
             final CacheTranscoder cacheTranscoder) throws TimeoutException, CacheException {
+        doSet(cacheKey, expiration, value, serializationType, cacheTranscoder);
+
+        if (hotKeyDetector != null && hotKeyDetector.isHot(cacheKey)) {
+            final int replicaExpiration = hotKeyDetector.getReplicaExpiration(expiration);
+            for (final String replicaKey : hotKeyDetector.getReplicaKeys(cacheKey)) {
+                setReplica(replicaKey, replicaExpiration, value, serializationType, cacheTranscoder);
+            }
+        }
+    }
+
+    private void setBulk(final Map<String, Object> values, final int expiration, final SerializationType serializationType,
+            final CacheTranscoder cacheTranscoder) throws TimeoutException, CacheException {
+        if (SerializationType.PROVIDER.equals(serializationType)) {
+            cacheClient.setBulk(values, expiration);
+        } else if (cacheTranscoder == null) {
+            throw new IllegalArgumentException(String.format("Cannot use %s serialization because dedicated cache transcoder is null!",
+                    serializationType));
+        } else {
+            cacheClient.setBulk(values, expiration, cacheTranscoder);
+        }
+
+        if (hotKeyDetector != null) {
+            final int replicaExpiration = hotKeyDetector.getReplicaExpiration(expiration);
+            for (final Map.Entry<String, Object> entry : values.entrySet()) {
+                if (hotKeyDetector.isHot(entry.getKey())) {
+                    for (final String replicaKey : hotKeyDetector.getReplicaKeys(entry.getKey())) {
+                        setReplica(replicaKey, replicaExpiration, entry.getValue(), serializationType, cacheTranscoder);
+                    }
+                }
+            }
+        }
+    }
+
+    private <T> void setReplica(final String replicaKey, final int expiration, final T value, final SerializationType serializationType,
+            final CacheTranscoder cacheTranscoder) {
+        try {
+            doSet(replicaKey, expiration, value, serializationType, cacheTranscoder);
+        } catch (TimeoutException e) {
+            warn(e, "Cannot set replica %s", replicaKey);
+        } catch (CacheException e) {
+            warn(e, "Cannot set replica %s", replicaKey);
+        }
+    }
+
+    private void deleteReplicas(final Collection<String> replicaKeys) {
+        if (replicaKeys.isEmpty()) {
+            return;
+        }
+
+        try {
+            cacheClient.delete(replicaKeys);
+        } catch (TimeoutException e) {
+            warn(e, "Cannot delete replicas %s", replicaKeys);
+        } catch (CacheException e) {
+            warn(e, "Cannot delete replicas %s", replicaKeys);
+        }
+    }
+
+    private <T> void doSet(final String cacheKey, final int expiration, final T value, final SerializationType serializationType,
+            final CacheTranscoder cacheTranscoder) throws TimeoutException, CacheException {
         if (SerializationType.PROVIDER.equals(serializationType)) {
             cacheClient.set(cacheKey, expiration, value);
             return;
@@ -315,6 +598,57 @@ class CacheImpl implements Cache {
 
     private Map<String, Object> getBulk(final Collection<String> keys, final SerializationType serializationType,
             final CacheTranscoder cacheTranscoder) throws TimeoutException, CacheException {
+        if (hotKeyDetector == null) {
+            return doGetBulk(keys, serializationType, cacheTranscoder);
+        }
+
+        final Map<String, String> replicaToKey = new HashMap<String, String>();
+        final List<String> requestedKeys = new ArrayList<String>(keys.size());
+        for (final String key : keys) {
+            final String replicaKey = hotKeyDetector.record(key) ? hotKeyDetector.pickReplicaKey(key) : null;
+            if (replicaKey != null) {
+                replicaToKey.put(replicaKey, key);
+                requestedKeys.add(replicaKey);
+            } else {
+                requestedKeys.add(key);
+            }
+        }
+
+        if (replicaToKey.isEmpty()) {
+            return doGetBulk(keys, serializationType, cacheTranscoder);
+        }
+
+        final Map<String, Object> results = new HashMap<String, Object>();
+        for (final Map.Entry<String, Object> entry : doGetBulk(requestedKeys, serializationType, cacheTranscoder).entrySet()) {
+            final String key = replicaToKey.get(entry.getKey());
+            results.put((key != null) ? key : entry.getKey(), entry.getValue());
+        }
+
+        // fall back to original keys if replicas are missing
+        final Map<String, String> missedKeyToReplica = new HashMap<String, String>();
+        for (final Map.Entry<String, String> entry : replicaToKey.entrySet()) {
+            if (!results.containsKey(entry.getValue())) {
+                missedKeyToReplica.put(entry.getValue(), entry.getKey());
+            }
+        }
+
+        if (!missedKeyToReplica.isEmpty()) {
+            final Map<String, Object> fetched = doGetBulk(missedKeyToReplica.keySet(), serializationType, cacheTranscoder);
+            final int replicaExpiration = hotKeyDetector.getReplicaExpiration(0);
+            for (final Map.Entry<String, Object> entry : fetched.entrySet()) {
+                if (entry.getValue() != null) {
+                    results.put(entry.getKey(), entry.getValue());
+                    setReplica(missedKeyToReplica.get(entry.getKey()), replicaExpiration, entry.getValue(), serializationType,
+                            cacheTranscoder);
+                }
+            }
+        }
+
+        return results;
+    }
+
+    private Map<String, Object> doGetBulk(final Collection<String> keys, final SerializationType serializationType,
+            final CacheTranscoder cacheTranscoder) throws TimeoutException, CacheException {
         if (SerializationType.PROVIDER.equals(serializationType)) {
             return cacheClient.getBulk(keys);
         }
@@ -327,11 +661,80 @@ class CacheImpl implements Cache {
         return cacheClient.getBulk(keys, cacheTranscoder);
     }
 
+    private <T> CompletableFuture<T> doGetAsync(final AsyncCacheClient asyncClient, final String cacheKey,
+            final SerializationType serializationType, final CacheTranscoder cacheTranscoder) {
+        if (SerializationType.PROVIDER.equals(serializationType)) {
+            @SuppressWarnings("unchecked")
+            final CompletableFuture<T> future = (CompletableFuture<T>) asyncClient.getAsync(cacheKey);
+            return future;
+        }
+
+        return asyncClient.getAsync(cacheKey, cacheTranscoder);
+    }
+
+    private CompletableFuture<Boolean> doSetAsync(final AsyncCacheClient asyncClient, final String cacheKey, final int expiration,
+            final Object value, final SerializationType serializationType, final CacheTranscoder cacheTranscoder) {
+        if (SerializationType.PROVIDER.equals(serializationType)) {
+            return asyncClient.setAsync(cacheKey, expiration, value);
+        }
+
+        return asyncClient.setAsync(cacheKey, expiration, value, cacheTranscoder);
+    }
+
+    private void setReplicaAsync(final AsyncCacheClient asyncClient, final String replicaKey, final int expiration, final Object value,
+            final SerializationType serializationType, final CacheTranscoder cacheTranscoder) {
+        doSetAsync(asyncClient, replicaKey, expiration, value, serializationType, cacheTranscoder).whenComplete((stored, e) -> {
+            if (e != null) {
+                warn(e, "Cannot set replica %s", replicaKey);
+            }
+        });
+    }
+
+    private CacheTranscoder getCacheTranscoder(final SerializationType serializationType) {
+        final CacheTranscoder cacheTranscoder;
+        switch (serializationType) {
+        case JAVA:
+            cacheTranscoder = javaTranscoder;
+            break;
+        case JSON:
+            cacheTranscoder = jsonTranscoder;
+            break;
+        case PROVIDER:
+            return null;
+        case CUSTOM:
+            cacheTranscoder = customTranscoder;
+            break;
+        case BINARY:
+            cacheTranscoder = binaryTranscoder;
+            break;
+        default:
+            throw new IllegalArgumentException(String.format("Serialization type %s is not supported", serializationType));
+        }
+
+        if (cacheTranscoder == null) {
+            throw new IllegalArgumentException(String.format("Cannot use %s serialization because dedicated cache transcoder is null!",
+                    serializationType));
+        }
+
+        return cacheTranscoder;
+    }
+
+    // used when cache client doesn't support asynchronous operations, executes operation in the calling thread
+    private <T> CompletableFuture<T> execute(final Operation<T> operation) {
+        final CompletableFuture<T> future = new CompletableFuture<T>();
+        try {
+            future.complete(operation.execute());
+        } catch (TimeoutException | CacheException | RuntimeException e) {
+            future.completeExceptionally(e);
+        }
+        return future;
+    }
+
     private SerializationType getSerializationType(final SerializationType serializationType) {
         return (serializationType != null) ? serializationType : defaultSerializationType;
     }
 
-    private void warn(final Exception e, final String format, final Object... args) {
+    private void warn(final Throwable e, final String format, final Object... args) {
         if (LOGGER.isWarnEnabled()) {
             LOGGER.warn(String.format(format, args), e);
         }
@@ -345,4 +748,10 @@ class CacheImpl implements Cache {
         }
     }
 
+    private interface Operation<T> {
+
+        T execute() throws TimeoutException, CacheException;
+
+    }
+
 }
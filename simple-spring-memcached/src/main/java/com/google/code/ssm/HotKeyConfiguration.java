@@ -0,0 +1,70 @@
+/*
+ * Copyright (c) 2012-2019 Jakub Białek
+ * 
+ * Permission is hereby granted, free of charge, to any person obtaining a copy of this software and associated
+ * documentation files (the "Software"), to deal in the Software without restriction, including without limitation the
+ * rights to use, copy, modify, merge, publish, distribute, sublicense, and/or sell copies of the Software, and to
+ * permit persons to whom the Software is furnished to do so, subject to the following conditions:
+ * 
+ * The above copyright notice and this permission notice shall be included in all copies or substantial portions of the
+ * Software.
+ * 
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR IMPLIED, INCLUDING BUT NOT LIMITED TO THE
+ * WARRANTIES OF MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR
+ * COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR
+ * OTHERWISE, ARISING FROM, OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE SOFTWARE.
+ */
+package com.google.code.ssm;
+
+import lombok.Data;
+
+/**
+ * Configuration of hot keys detection and replication set on {@link CacheFactory}. Keys read more often than
+ * {@link #threshold} times per {@link #window} are hot. Each value of hot key set in cache is also stored under
+ * {@link #replicas} - 1 additional keys (replicas), which usually land on different memcached servers, and reads of hot
+ * key are spread across all of them.
+ * 
+ * Replicas are refreshed only when the value is set or when a read of missing replica falls back to the original key.
+ * After the value of hot key is changed or deleted the old value can be read from replicas for up to
+ * {@link #replicaExpiration} seconds, so use it only for keys that tolerate such staleness.
+ * 
+ * @author Jakub Białek
+ * @since 4.3.0
+ * 
+ */
+@Data
+public class HotKeyConfiguration {
+
+    /**
+     * Number of reads of a key in a window after which the key is hot.
+     */
+    private int threshold = 1000;
+
+    /**
+     * Length of the window in seconds. Counters are halved at the end of each window, so keys that are no longer read
+     * cool down.
+     */
+    private int window = 10;
+
+    /**
+     * Number of copies of a hot key value, including the value stored under the original key.
+     */
+    private int replicas = 4;
+
+    /**
+     * Maximum expiration time in seconds of a replica.
+     */
+    private int replicaExpiration = 30;
+
+    /**
+     * Number of the hottest keys available in {@link HotKeyDetector#getHotKeys()}.
+     */
+    private int topSize = 16;
+
+    /**
+     * Number of counters in each row of the count-min sketch used to count reads. Greater width means lower
+     * overestimation of reads of rarely read keys and more memory.
+     */
+    private int sketchWidth = 4096;
+
+}
@@ -0,0 +1,226 @@
+/*
+ * Copyright (c) 2012-2019 Jakub Białek
+ * 
+ * Permission is hereby granted, free of charge, to any person obtaining a copy of this software and associated
+ * documentation files (the "Software"), to deal in the Software without restriction, including without limitation the
+ * rights to use, copy, modify, merge, publish, distribute, sublicense, and/or sell copies of the Software, and to
+ * permit persons to whom the Software is furnished to do so, subject to the following conditions:
+ * 
+ * The above copyright notice and this permission notice shall be included in all copies or substantial portions of the
+ * Software.
+ * 
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR IMPLIED, INCLUDING BUT NOT LIMITED TO THE
+ * WARRANTIES OF MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR
+ * COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR
+ * OTHERWISE, ARISING FROM, OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE SOFTWARE.
+ */
+package com.google.code.ssm;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.AtomicIntegerArray;
+import java.util.concurrent.atomic.AtomicLong;
+
+import org.springframework.util.Assert;
+
+/**
+ * Detects hot keys and builds keys of their replicas. Reads are counted in a count-min sketch which counters are halved
+ * at the end of each window. The hottest keys are tracked for monitoring purposes.
+ * 
+ * @author Jakub Białek
+ * @since 4.3.0
+ * 
+ */
+public class HotKeyDetector {
+
+    /**
+     * The suffix added to the key to build the key of its replica, followed by the number of the replica.
+     */
+    public static final String REPLICA_KEY_SUFFIX = "#r";
+
+    private static final int DEPTH = 4;
+
+    private static final int MAX_KEY_LENGTH = 250;
+
+    private static final int[] SEEDS = { 0x9E3779B9, 0x85EBCA6B, 0xC2B2AE35, 0x27D4EB2F };
+
+    private final HotKeyConfiguration configuration;
+
+    private final AtomicIntegerArray counters;
+
+    private final int widthMask;
+
+    private final AtomicLong nextDecay;
+
+    private final Map<String, Integer> topKeys = new ConcurrentHashMap<String, Integer>();
+
+    public HotKeyDetector(final HotKeyConfiguration configuration) {
+        Assert.notNull(configuration, "'configuration' cannot be null");
+        Assert.isTrue(configuration.getThreshold() > 0, "'threshold' must be greater than 0");
+        Assert.isTrue(configuration.getWindow() > 0, "'window' must be greater than 0");
+        Assert.isTrue(configuration.getReplicas() > 1, "'replicas' must be greater than 1");
+        Assert.isTrue(configuration.getReplicaExpiration() > 0, "'replicaExpiration' must be greater than 0");
+        Assert.isTrue(configuration.getTopSize() >= 0, "'topSize' must be 0 or greater");
+        Assert.isTrue(configuration.getSketchWidth() > 0, "'sketchWidth' must be greater than 0");
+
+        this.configuration = configuration;
+        final int width = Integer.highestOneBit(configuration.getSketchWidth() * 2 - 1);
+        this.counters = new AtomicIntegerArray(width * DEPTH);
+        this.widthMask = width - 1;
+        this.nextDecay = new AtomicLong(System.currentTimeMillis() + configuration.getWindow() * 1000L);
+    }
+
+    /**
+     * Counts the read of the key.
+     * 
+     * @param key
+     *            the key
+     * @return true if the key is hot
+     */
+    public boolean record(final String key) {
+        decayIfRequired(System.currentTimeMillis());
+
+        final int hash = key.hashCode();
+        int estimate = Integer.MAX_VALUE;
+        for (int i = 0; i < DEPTH; i++) {
+            final int count = counters.incrementAndGet(index(hash, i));
+            estimate = Math.min(estimate, count);
+        }
+
+        if (estimate < configuration.getThreshold()) {
+            return false;
+        }
+
+        track(key, estimate);
+        return true;
+    }
+
+    /**
+     * 
+     * @param key
+     *            the key
+     * @return true if the key is hot
+     */
+    public boolean isHot(final String key) {
+        final int hash = key.hashCode();
+        for (int i = 0; i < DEPTH; i++) {
+            if (counters.get(index(hash, i)) < configuration.getThreshold()) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * Picks randomly the key to read a value of hot key from.
+     * 
+     * @param key
+     *            the hot key
+     * @return the key of a replica or null if the original key should be used
+     */
+    public String pickReplicaKey(final String key) {
+        if (!isReplicable(key)) {
+            return null;
+        }
+
+        final int replica = ThreadLocalRandom.current().nextInt(configuration.getReplicas());
+        return (replica == 0) ? null : key + REPLICA_KEY_SUFFIX + replica;
+    }
+
+    /**
+     * 
+     * @param key
+     *            the hot key
+     * @return keys of all replicas, without the original key
+     */
+    public List<String> getReplicaKeys(final String key) {
+        if (!isReplicable(key)) {
+            return Collections.emptyList();
+        }
+
+        final List<String> replicaKeys = new ArrayList<String>(configuration.getReplicas() - 1);
+        for (int i = 1; i < configuration.getReplicas(); i++) {
+            replicaKeys.add(key + REPLICA_KEY_SUFFIX + i);
+        }
+        return replicaKeys;
+    }
+
+    /**
+     * 
+     * @param expiration
+     *            expiration of the value in cache
+     * @return expiration of the replica of the value
+     */
+    public int getReplicaExpiration(final int expiration) {
+        // memcached treats expiration greater than 30 days as unix time
+        if (expiration <= 0 || expiration > 60 * 60 * 24 * 30) {
+            return configuration.getReplicaExpiration();
+        }
+        return Math.min(expiration, configuration.getReplicaExpiration());
+    }
+
+    /**
+     * 
+     * @return the hottest keys with estimated number of reads in current window, the hottest first
+     */
+    public Map<String, Integer> getHotKeys() {
+        final List<Map.Entry<String, Integer>> entries = new ArrayList<Map.Entry<String, Integer>>(topKeys.entrySet());
+        Collections.sort(entries, Collections.reverseOrder(Map.Entry.<String, Integer> comparingByValue()));
+
+        final Map<String, Integer> hotKeys = new LinkedHashMap<String, Integer>();
+        for (final Map.Entry<String, Integer> entry : entries) {
+            hotKeys.put(entry.getKey(), entry.getValue());
+        }
+        return hotKeys;
+    }
+
+    void decayIfRequired(final long now) {
+        final long decayAt = nextDecay.get();
+        if (now < decayAt || !nextDecay.compareAndSet(decayAt, now + configuration.getWindow() * 1000L)) {
+            return;
+        }
+
+        for (int i = 0; i < counters.length(); i++) {
+            counters.updateAndGet(i, count -> count >>> 1);
+        }
+
+        for (final Map.Entry<String, Integer> entry : topKeys.entrySet()) {
+            final int count = entry.getValue() >>> 1;
+            if (count < configuration.getThreshold()) {
+                topKeys.remove(entry.getKey());
+            } else {
+                entry.setValue(count);
+            }
+        }
+    }
+
+    private void track(final String key, final int estimate) {
+        if (configuration.getTopSize() == 0) {
+            return;
+        }
+
+        topKeys.put(key, estimate);
+        if (topKeys.size() > configuration.getTopSize()) {
+            final Map.Entry<String, Integer> coldest = Collections.min(topKeys.entrySet(), Map.Entry.<String, Integer> comparingByValue());
+            topKeys.remove(coldest.getKey(), coldest.getValue());
+        }
+    }
+
+    private boolean isReplicable(final String key) {
+        return key.length() + REPLICA_KEY_SUFFIX.length() + String.valueOf(configuration.getReplicas()).length() <= MAX_KEY_LENGTH;
+    }
+
+    private int index(final int hash, final int row) {
+        int h = (hash ^ SEEDS[row]) * 0x85EBCA6B;
+        h ^= h >>> 13;
+        h *= 0xC2B2AE35;
+        h ^= h >>> 16;
+        return row * (widthMask + 1) + (h & widthMask);
+    }
+
+}
@@ -0,0 +1,341 @@
+/*
+ * Copyright (c) 2012-2019 Jakub Białek
+ * 
+ * Permission is hereby granted, free of charge, to any person obtaining a copy of this software and associated
+ * documentation files (the "Software"), to deal in the Software without restriction, including without limitation the
+ * rights to use, copy, modify, merge, publish, distribute, sublicense, and/or sell copies of the Software, and to
+ * permit persons to whom the Software is furnished to do so, subject to the following conditions:
+ * 
+ * The above copyright notice and this permission notice shall be included in all copies or substantial portions of the
+ * Software.
+ * 
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR IMPLIED, INCLUDING BUT NOT LIMITED TO THE
+ * WARRANTIES OF MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR
+ * COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR
+ * OTHERWISE, ARISING FROM, OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE SOFTWARE.
+ */
+
+package com.google.code.ssm;
+
+import java.net.SocketAddress;
+import java.util.Collection;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeoutException;
+import java.util.function.Supplier;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import com.google.code.ssm.api.format.SerializationType;
+import com.google.code.ssm.metrics.CacheMetricTags;
+import com.google.code.ssm.metrics.CacheMetrics;
+import com.google.code.ssm.metrics.CacheOperation;
+import com.google.code.ssm.providers.CacheException;
+
+/**
+ * Decorates {@link Cache} used by a single advised method and records hits, misses, errors and latencies of its
+ * operations. If decorated cache doesn't support asynchronous operations they are executed in the calling thread.
+ * Silent operations record errors like the other ones and then swallow them.
+ * 
+ * @author Jakub Białek
+ * @since 4.3.0
+ * 
+ */
+public class MeteredCacheImpl implements AsyncCache {
+
+    private static final Logger LOGGER = LoggerFactory.getLogger(MeteredCacheImpl.class);
+
+    private final Cache cache;
+
+    private final CacheMetrics metrics;
+
+    private final CacheMetricTags tags;
+
+    public MeteredCacheImpl(final Cache cache, final CacheMetrics metrics, final CacheMetricTags tags) {
+        this.cache = cache;
+        this.metrics = metrics;
+        this.tags = tags;
+    }
+
+    @Override
+    public Collection<SocketAddress> getAvailableServers() {
+        return cache.getAvailableServers();
+    }
+
+    @Override
+    public String getName() {
+        return cache.getName();
+    }
+
+    @Override
+    public Collection<String> getAliases() {
+        return cache.getAliases();
+    }
+
+    @Override
+    public CacheProperties getProperties() {
+        return cache.getProperties();
+    }
+
+    @Override
+    public <T> boolean add(final String key, final int exp, final Object value, final SerializationType serializationType)
+            throws TimeoutException, CacheException {
+        return record(CacheOperation.ADD, () -> cache.add(key, exp, value, serializationType));
+    }
+
+    @Override
+    public <T> boolean addSilently(final String cacheKey, final int expiration, final Object value,
+            final SerializationType serializationType) {
+        try {
+            return add(cacheKey, expiration, value, serializationType);
+        } catch (TimeoutException | CacheException e) {
+            warn(e, "Cannot add to key %s", cacheKey);
+        }
+
+        return false;
+    }
+
+    @Override
+    public long decr(final String key, final int by) throws TimeoutException, CacheException {
+        return cache.decr(key, by);
+    }
+
+    @Override
+    public boolean delete(final String key) throws TimeoutException, CacheException {
+        return record(CacheOperation.DELETE, () -> cache.delete(key));
+    }
+
+    @Override
+    public void delete(final Collection<String> keys) throws TimeoutException, CacheException {
+        record(CacheOperation.DELETE, () -> {
+            cache.delete(keys);
+            return null;
+        });
+    }
+
+    @Override
+    public void flush() throws TimeoutException, CacheException {
+        cache.flush();
+    }
+
+    @Override
+    public <T> T get(final String key, final SerializationType serializationType) throws TimeoutException, CacheException {
+        final T value = record(CacheOperation.GET, () -> cache.<T> get(key, serializationType));
+        recordHitOrMiss(value);
+        return value;
+    }
+
+    @Override
+    public Map<String, Object> getBulk(final Collection<String> keys, final SerializationType serializationType) throws TimeoutException,
+            CacheException {
+        final Map<String, Object> values = record(CacheOperation.GET_BULK, () -> cache.getBulk(keys, serializationType));
+        recordHitsAndMisses(keys, values);
+        return values;
+    }
+
+    @Override
+    public long incr(final String key, final int by, final long def) throws TimeoutException, CacheException {
+        return cache.incr(key, by, def);
+    }
+
+    @Override
+    public long incr(final String key, final int by, final long def, final int exp) throws TimeoutException, CacheException {
+        return cache.incr(key, by, def, exp);
+    }
+
+    @Override
+    public boolean isEnabled() {
+        return cache.isEnabled();
+    }
+
+    @Override
+    public <T> void set(final String key, final int exp, final Object value, final SerializationType serializationType)
+            throws TimeoutException, CacheException {
+        record(CacheOperation.SET, () -> {
+            cache.set(key, exp, value, serializationType);
+            return null;
+        });
+    }
+
+    @Override
+    public <T> void setSilently(final String cacheKey, final int expiration, final Object value, final SerializationType serializationType) {
+        try {
+            set(cacheKey, expiration, value, serializationType);
+        } catch (TimeoutException | CacheException e) {
+            warn(e, "Cannot set on key %s", cacheKey);
+        }
+    }
+
+    @Override
+    public void setBulk(final Map<String, Object> values, final int expiration, final SerializationType serializationType)
+            throws TimeoutException, CacheException {
+        record(CacheOperation.SET_BULK, () -> {
+            cache.setBulk(values, expiration, serializationType);
+            return null;
+        });
+    }
+
+    @Override
+    public void setBulkSilently(final Map<String, Object> values, final int expiration, final SerializationType serializationType) {
+        try {
+            setBulk(values, expiration, serializationType);
+        } catch (TimeoutException | CacheException e) {
+            warn(e, "Cannot set on keys %s", values.keySet());
+        }
+    }
+
+    @Override
+    public Long getCounter(final String cacheKey) throws TimeoutException, CacheException {
+        return cache.getCounter(cacheKey);
+    }
+
+    @Override
+    public void setCounter(final String cacheKey, final int expiration, final long value) throws TimeoutException, CacheException {
+        cache.setCounter(cacheKey, expiration, value);
+    }
+
+    @Override
+    public void shutdown() {
+        cache.shutdown();
+    }
+
+    @Override
+    public Object getNativeClient() {
+        return cache.getNativeClient();
+    }
+
+    @Override
+    public <T> CompletableFuture<T> getAsync(final String cacheKey, final SerializationType serializationType) {
+        final CompletableFuture<T> future = recordAsync(CacheOperation.GET, () -> (cache instanceof AsyncCache) ? ((AsyncCache) cache)
+                .<T> getAsync(cacheKey, serializationType) : execute(() -> cache.<T> get(cacheKey, serializationType)));
+        return future.whenComplete((value, e) -> {
+            if (e == null) {
+                recordHitOrMiss(value);
+            }
+        });
+    }
+
+    @Override
+    public CompletableFuture<Map<String, Object>> getBulkAsync(final Collection<String> keys, final SerializationType serializationType) {
+        final CompletableFuture<Map<String, Object>> future = recordAsync(CacheOperation.GET_BULK,
+                () -> (cache instanceof AsyncCache) ? ((AsyncCache) cache).getBulkAsync(keys, serializationType) : execute(() -> cache
+                        .getBulk(keys, serializationType)));
+        return future.whenComplete((values, e) -> {
+            if (e == null) {
+                recordHitsAndMisses(keys, values);
+            }
+        });
+    }
+
+    @Override
+    public CompletableFuture<Boolean> setAsync(final String cacheKey, final int expiration, final Object value,
+            final SerializationType serializationType) {
+        return recordAsync(CacheOperation.SET, () -> (cache instanceof AsyncCache) ? ((AsyncCache) cache).setAsync(cacheKey, expiration,
+                value, serializationType) : execute(() -> {
+            cache.set(cacheKey, expiration, value, serializationType);
+            return true;
+        }));
+    }
+
+    @Override
+    public CompletableFuture<Boolean> deleteAsync(final String cacheKey) {
+        return recordAsync(CacheOperation.DELETE, () -> (cache instanceof AsyncCache) ? ((AsyncCache) cache).deleteAsync(cacheKey)
+                : execute(() -> cache.delete(cacheKey)));
+    }
+
+    @Override
+    public CompletableFuture<Long> incrAsync(final String cacheKey, final int by, final long def, final int expiration) {
+        return (cache instanceof AsyncCache) ? ((AsyncCache) cache).incrAsync(cacheKey, by, def, expiration) : execute(() -> cache.incr(
+                cacheKey, by, def, expiration));
+    }
+
+    /**
+     * Gets decorated cache.
+     * 
+     * @return decorated cache
+     */
+    public Cache getCache() {
+        return cache;
+    }
+
+    private <T> T record(final CacheOperation operation, final Operation<T> op) throws TimeoutException, CacheException {
+        final long start = System.nanoTime();
+        try {
+            return op.execute();
+        } catch (TimeoutException | CacheException | RuntimeException e) {
+            metrics.recordError(tags, operation);
+            throw e;
+        } finally {
+            metrics.recordLatency(tags, operation, System.nanoTime() - start);
+        }
+    }
+
+    private <T> CompletableFuture<T> recordAsync(final CacheOperation operation, final Supplier<CompletableFuture<T>> op) {
+        final long start = System.nanoTime();
+        final CompletableFuture<T> future;
+        try {
+            future = op.get();
+        } catch (RuntimeException e) {
+            metrics.recordError(tags, operation);
+            metrics.recordLatency(tags, operation, System.nanoTime() - start);
+            throw e;
+        }
+
+        return future.whenComplete((value, e) -> {
+            if (e != null) {
+                metrics.recordError(tags, operation);
+            }
+            metrics.recordLatency(tags, operation, System.nanoTime() - start);
+        });
+    }
+
+    private void recordHitOrMiss(final Object value) {
+        if (value != null) {
+            metrics.recordHits(tags, 1);
+        } else {
+            metrics.recordMisses(tags, 1);
+        }
+    }
+
+    private void recordHitsAndMisses(final Collection<String> keys, final Map<String, Object> values) {
+        int hits = 0;
+        if (values != null) {
+            for (final Object value : values.values()) {
+                if (value != null) {
+                    hits++;
+                }
+            }
+        }
+
+        if (hits > 0) {
+            metrics.recordHits(tags, hits);
+        }
+        if (keys.size() > hits) {
+            metrics.recordMisses(tags, keys.size() - hits);
+        }
+    }
+
+    private void warn(final Exception e, final String format, final Object... args) {
+        if (LOGGER.isWarnEnabled()) {
+            LOGGER.warn(String.format(format, args), e);
+        }
+    }
+
+    private <T> CompletableFuture<T> execute(final Operation<T> operation) {
+        final CompletableFuture<T> future = new CompletableFuture<T>();
+        try {
+            future.complete(operation.execute());
+        } catch (TimeoutException | CacheException | RuntimeException e) {
+            future.completeExceptionally(e);
+        }
+        return future;
+    }
+
+    private interface Operation<T> {
+
+        T execute() throws TimeoutException, CacheException;
+
+    }
+
+}
@@ -0,0 +1,59 @@
+/*
+ * Copyright (c) 2012-2019 Jakub Białek
+ * 
+ * Permission is hereby granted, free of charge, to any person obtaining a copy of this software and associated
+ * documentation files (the "Software"), to deal in the Software without restriction, including without limitation the
+ * rights to use, copy, modify, merge, publish, distribute, sublicense, and/or sell copies of the Software, and to
+ * permit persons to whom the Software is furnished to do so, subject to the following conditions:
+ * 
+ * The above copyright notice and this permission notice shall be included in all copies or substantial portions of the
+ * Software.
+ * 
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR IMPLIED, INCLUDING BUT NOT LIMITED TO THE
+ * WARRANTIES OF MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR
+ * COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR
+ * OTHERWISE, ARISING FROM, OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE SOFTWARE.
+ */
+package com.google.code.ssm;
+
+import lombok.Data;
+
+/**
+ * Configuration of in-process near cache (L1) put in front of memcached by {@link CacheFactory}.
+ * 
+ * Near cache is local for each JVM, values updated or deleted on one node can be still returned from near cache on
+ * other nodes until they expire. Use it only for small, rarely changed and very often read values.
+ * 
+ * @author Jakub Białek
+ * @since 4.3.0
+ * 
+ */
+@Data
+public class NearCacheConfiguration {
+
+    /**
+     * Maximum number of values kept in near cache. When exceeded the least recently used values are evicted.
+     */
+    private int maxSize = 10000;
+
+    /**
+     * Time in seconds after which a value expires in near cache. Values expire earlier if their expiration in memcached
+     * is shorter.
+     */
+    private int expiration = 5;
+
+    /**
+     * If true then values are stored in near cache serialized with java serialization and deserialized on each read.
+     * Memory used by near cache is then limited by {@link #maxSize} and {@link #maxEntrySize} and each read returns a
+     * new copy of the value. Values that are not serializable are not stored in near cache. If false (default) then the
+     * very same instance is returned to all callers, so it must not be modified.
+     */
+    private boolean storeEncoded = false;
+
+    /**
+     * If {@link #storeEncoded} is true then values serialized to more bytes than this limit are not stored in near
+     * cache.
+     */
+    private int maxEntrySize = 16384;
+
+}
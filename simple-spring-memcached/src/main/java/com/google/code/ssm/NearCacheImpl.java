@@ -0,0 +1,413 @@
+/*
+ * Copyright (c) 2012-2019 Jakub Białek
+ * 
+ * Permission is hereby granted, free of charge, to any person obtaining a copy of this software and associated
+ * documentation files (the "Software"), to deal in the Software without restriction, including without limitation the
+ * rights to use, copy, modify, merge, publish, distribute, sublicense, and/or sell copies of the Software, and to
+ * permit persons to whom the Software is furnished to do so, subject to the following conditions:
+ * 
+ * The above copyright notice and this permission notice shall be included in all copies or substantial portions of the
+ * Software.
+ * 
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR IMPLIED, INCLUDING BUT NOT LIMITED TO THE
+ * WARRANTIES OF MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR
+ * COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR
+ * OTHERWISE, ARISING FROM, OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE SOFTWARE.
+ */
+package com.google.code.ssm;
+
+import java.net.SocketAddress;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeoutException;
+
+import lombok.Getter;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.util.Assert;
+
+import com.google.code.ssm.api.format.SerializationType;
+import com.google.code.ssm.providers.CacheException;
+import com.google.code.ssm.providers.CachedObject;
+import com.google.code.ssm.transcoders.JavaTranscoder;
+
+/**
+ * Puts in-process near cache (L1) in front of other cache. Values read from or written to the underlying cache are
+ * kept in near cache for a short time, reads are served from near cache and only missing values are fetched from the
+ * underlying cache. Values modified by counter operations are removed from near cache. Values are kept per key and
+ * serialization type, and a value read from the underlying cache isn't kept if the key was modified during the read.
+ * 
+ * @author Jakub Białek
+ * @since 4.3.0
+ * 
+ */
+public class NearCacheImpl implements AsyncCache {
+
+    private static final Logger LOGGER = LoggerFactory.getLogger(NearCacheImpl.class);
+
+    // memcached treats expiration greater than 30 days as unix time
+    private static final int MAX_RELATIVE_EXPIRATION = 60 * 60 * 24 * 30;
+
+    @Getter
+    private final Cache cache;
+
+    private final NearCacheConfiguration configuration;
+
+    private final NearCacheStore store;
+
+    private final JavaTranscoder transcoder;
+
+    public NearCacheImpl(final Cache cache, final NearCacheConfiguration configuration) {
+        Assert.notNull(cache, "'cache' cannot be null");
+        Assert.notNull(configuration, "'configuration' cannot be null");
+        Assert.isTrue(configuration.getMaxSize() > 0, "'maxSize' must be greater than 0");
+        Assert.isTrue(configuration.getExpiration() > 0, "'expiration' must be greater than 0");
+
+        this.cache = cache;
+        this.configuration = configuration;
+        this.store = new NearCacheStore(configuration.getMaxSize());
+        if (configuration.isStoreEncoded()) {
+            // values are decoded on each read, don't waste time on decompression
+            transcoder = new JavaTranscoder();
+            transcoder.setCompressionThreshold(Integer.MAX_VALUE);
+        } else {
+            transcoder = null;
+        }
+    }
+
+    @Override
+    public Collection<SocketAddress> getAvailableServers() {
+        return cache.getAvailableServers();
+    }
+
+    @Override
+    public String getName() {
+        return cache.getName();
+    }
+
+    @Override
+    public Collection<String> getAliases() {
+        return cache.getAliases();
+    }
+
+    @Override
+    public CacheProperties getProperties() {
+        return cache.getProperties();
+    }
+
+    @Override
+    public boolean isEnabled() {
+        return cache.isEnabled();
+    }
+
+    @Override
+    public <T> boolean add(final String key, final int expiration, final Object value, final SerializationType serializationType)
+            throws TimeoutException, CacheException {
+        store.remove(key);
+        final boolean added = cache.add(key, expiration, value, serializationType);
+        if (added) {
+            put(key, value, serializationType, expiration);
+        }
+        return added;
+    }
+
+    @Override
+    public <T> boolean addSilently(final String key, final int expiration, final Object value, final SerializationType serializationType) {
+        store.remove(key);
+        final boolean added = cache.addSilently(key, expiration, value, serializationType);
+        if (added) {
+            put(key, value, serializationType, expiration);
+        }
+        return added;
+    }
+
+    @Override
+    public long decr(final String key, final int by) throws TimeoutException, CacheException {
+        store.remove(key);
+        return cache.decr(key, by);
+    }
+
+    @Override
+    public boolean delete(final String key) throws TimeoutException, CacheException {
+        store.remove(key);
+        return cache.delete(key);
+    }
+
+    @Override
+    public void delete(final Collection<String> keys) throws TimeoutException, CacheException {
+        for (final String key : keys) {
+            store.remove(key);
+        }
+        cache.delete(keys);
+    }
+
+    @Override
+    public void flush() throws TimeoutException, CacheException {
+        store.clear();
+        cache.flush();
+    }
+
+    @Override
+    @SuppressWarnings("unchecked")
+    public <T> T get(final String key, final SerializationType serializationType) throws TimeoutException, CacheException {
+        Object value = lookup(key, serializationType);
+        if (value != null) {
+            return (T) value;
+        }
+
+        final long version = store.getVersion(key);
+        value = cache.get(key, serializationType);
+        fill(key, value, serializationType, version);
+        return (T) value;
+    }
+
+    @Override
+    public Map<String, Object> getBulk(final Collection<String> keys, final SerializationType serializationType) throws TimeoutException,
+            CacheException {
+        final Map<String, Object> results = new HashMap<String, Object>();
+        final List<String> missed = new ArrayList<String>();
+        for (final String key : keys) {
+            final Object value = lookup(key, serializationType);
+            if (value != null) {
+                results.put(key, value);
+            } else {
+                missed.add(key);
+            }
+        }
+
+        if (!missed.isEmpty()) {
+            final long[] versions = getVersions(missed);
+            final Map<String, Object> fetched = cache.getBulk(missed, serializationType);
+            if (fetched != null) {
+                fill(missed, fetched, serializationType, versions);
+                results.putAll(fetched);
+            }
+        }
+
+        return results;
+    }
+
+    @Override
+    public long incr(final String key, final int by, final long def) throws TimeoutException, CacheException {
+        store.remove(key);
+        return cache.incr(key, by, def);
+    }
+
+    @Override
+    public long incr(final String key, final int by, final long def, final int expiration) throws TimeoutException, CacheException {
+        store.remove(key);
+        return cache.incr(key, by, def, expiration);
+    }
+
+    @Override
+    public <T> void set(final String key, final int expiration, final Object value, final SerializationType serializationType)
+            throws TimeoutException, CacheException {
+        store.remove(key);
+        cache.set(key, expiration, value, serializationType);
+        put(key, value, serializationType, expiration);
+    }
+
+    @Override
+    public <T> void setSilently(final String key, final int expiration, final Object value, final SerializationType serializationType) {
+        // it's unknown if value was stored in underlying cache
+        store.remove(key);
+        cache.setSilently(key, expiration, value, serializationType);
+    }
+
+    @Override
+    public void setBulk(final Map<String, Object> values, final int expiration, final SerializationType serializationType)
+            throws TimeoutException, CacheException {
+        for (final String key : values.keySet()) {
+            store.remove(key);
+        }
+        cache.setBulk(values, expiration, serializationType);
+        for (final Map.Entry<String, Object> entry : values.entrySet()) {
+            put(entry.getKey(), entry.getValue(), serializationType, expiration);
+        }
+    }
+
+    @Override
+    public void setBulkSilently(final Map<String, Object> values, final int expiration, final SerializationType serializationType) {
+        // it's unknown which values were stored in underlying cache
+        for (final String key : values.keySet()) {
+            store.remove(key);
+        }
+        cache.setBulkSilently(values, expiration, serializationType);
+    }
+
+    @Override
+    public Long getCounter(final String key) throws TimeoutException, CacheException {
+        return cache.getCounter(key);
+    }
+
+    @Override
+    public void setCounter(final String key, final int expiration, final long value) throws TimeoutException, CacheException {
+        store.remove(key);
+        cache.setCounter(key, expiration, value);
+    }
+
+    @Override
+    public void shutdown() {
+        store.clear();
+        cache.shutdown();
+    }
+
+    @Override
+    public Object getNativeClient() {
+        return cache.getNativeClient();
+    }
+
+    @Override
+    @SuppressWarnings("unchecked")
+    public <T> CompletableFuture<T> getAsync(final String key, final SerializationType serializationType) {
+        final Object value = lookup(key, serializationType);
+        if (value != null) {
+            return CompletableFuture.completedFuture((T) value);
+        }
+
+        final long version = store.getVersion(key);
+        return getAsyncCache().<T> getAsync(key, serializationType).thenApply(fetched -> {
+            fill(key, fetched, serializationType, version);
+            return fetched;
+        });
+    }
+
+    @Override
+    public CompletableFuture<Map<String, Object>> getBulkAsync(final Collection<String> keys, final SerializationType serializationType) {
+        final Map<String, Object> results = new HashMap<String, Object>();
+        final List<String> missed = new ArrayList<String>();
+        for (final String key : keys) {
+            final Object value = lookup(key, serializationType);
+            if (value != null) {
+                results.put(key, value);
+            } else {
+                missed.add(key);
+            }
+        }
+
+        if (missed.isEmpty()) {
+            return CompletableFuture.completedFuture(results);
+        }
+
+        final long[] versions = getVersions(missed);
+        return getAsyncCache().getBulkAsync(missed, serializationType).thenApply(fetched -> {
+            if (fetched != null) {
+                fill(missed, fetched, serializationType, versions);
+                results.putAll(fetched);
+            }
+            return results;
+        });
+    }
+
+    @Override
+    public CompletableFuture<Boolean> setAsync(final String key, final int expiration, final Object value,
+            final SerializationType serializationType) {
+        store.remove(key);
+        return getAsyncCache().setAsync(key, expiration, value, serializationType).thenApply(stored -> {
+            if (Boolean.TRUE.equals(stored)) {
+                put(key, value, serializationType, expiration);
+            }
+            return stored;
+        });
+    }
+
+    @Override
+    public CompletableFuture<Boolean> deleteAsync(final String key) {
+        store.remove(key);
+        return getAsyncCache().deleteAsync(key);
+    }
+
+    @Override
+    public CompletableFuture<Long> incrAsync(final String key, final int by, final long def, final int expiration) {
+        store.remove(key);
+        return getAsyncCache().incrAsync(key, by, def, expiration);
+    }
+
+    int getNearCacheSize() {
+        return store.size();
+    }
+
+    private AsyncCache getAsyncCache() {
+        if (cache instanceof AsyncCache) {
+            return (AsyncCache) cache;
+        }
+
+        throw new UnsupportedOperationException(String.format("Cache %s doesn't support asynchronous operations", cache.getName()));
+    }
+
+    private Object lookup(final String key, final SerializationType serializationType) {
+        final Object value = store.get(key, serializationType, System.currentTimeMillis());
+        if (value == null || transcoder == null) {
+            return value;
+        }
+
+        try {
+            return transcoder.decode((CachedObject) value);
+        } catch (RuntimeException ex) {
+            LOGGER.warn(String.format("Cannot decode value of key %s from near cache", key), ex);
+            store.remove(key);
+            return null;
+        }
+    }
+
+    private long[] getVersions(final List<String> keys) {
+        final long[] versions = new long[keys.size()];
+        for (int i = 0; i < versions.length; i++) {
+            versions[i] = store.getVersion(keys.get(i));
+        }
+        return versions;
+    }
+
+    private void fill(final List<String> keys, final Map<String, Object> fetched, final SerializationType serializationType,
+            final long[] versions) {
+        for (int i = 0; i < versions.length; i++) {
+            fill(keys.get(i), fetched.get(keys.get(i)), serializationType, versions[i]);
+        }
+    }
+
+    // stores value read from underlying cache unless the key has been modified during the read
+    private void fill(final String key, final Object value, final SerializationType serializationType, final long version) {
+        final Object storedValue = toStoredValue(key, value);
+        if (storedValue != null) {
+            store.putIfNotModified(key, storedValue, serializationType, getExpiresAt(0), version);
+        }
+    }
+
+    private void put(final String key, final Object value, final SerializationType serializationType, final int expiration) {
+        final Object storedValue = toStoredValue(key, value);
+        if (storedValue != null) {
+            store.put(key, storedValue, serializationType, getExpiresAt(expiration));
+        }
+    }
+
+    private long getExpiresAt(final int expiration) {
+        final long now = System.currentTimeMillis();
+        long expiresAt = now + configuration.getExpiration() * 1000L;
+        if (expiration > MAX_RELATIVE_EXPIRATION) {
+            expiresAt = Math.min(expiresAt, expiration * 1000L);
+        } else if (expiration > 0) {
+            expiresAt = Math.min(expiresAt, now + expiration * 1000L);
+        }
+        return expiresAt;
+    }
+
+    private Object toStoredValue(final String key, final Object value) {
+        if (value == null || transcoder == null) {
+            return value;
+        }
+
+        try {
+            final CachedObject encoded = transcoder.encode(value);
+            return encoded.getData().length <= configuration.getMaxEntrySize() ? encoded : null;
+        } catch (RuntimeException ex) {
+            LOGGER.debug("Value of key {} cannot be stored in near cache: {}", key, ex.getMessage());
+            return null;
+        }
+    }
+
+}
@@ -0,0 +1,189 @@
+/*
+ * Copyright (c) 2012-2019 Jakub Białek
+ * 
+ * Permission is hereby granted, free of charge, to any person obtaining a copy of this software and associated
+ * documentation files (the "Software"), to deal in the Software without restriction, including without limitation the
+ * rights to use, copy, modify, merge, publish, distribute, sublicense, and/or sell copies of the Software, and to
+ * permit persons to whom the Software is furnished to do so, subject to the following conditions:
+ * 
+ * The above copyright notice and this permission notice shall be included in all copies or substantial portions of the
+ * Software.
+ * 
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR IMPLIED, INCLUDING BUT NOT LIMITED TO THE
+ * WARRANTIES OF MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR
+ * COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR
+ * OTHERWISE, ARISING FROM, OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE SOFTWARE.
+ */
+package com.google.code.ssm;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+import com.google.code.ssm.api.format.SerializationType;
+
+/**
+ * Size and time bounded map used by {@link NearCacheImpl}. To reduce contention entries are split into segments, each
+ * segment is guarded by own lock and evicts its least recently used entries.
+ * 
+ * Each write or removal of a key increments an invalidation counter shared by the key and a few other keys of its
+ * segment. A value read from the underlying cache is stored by {@link #putIfNotModified} only if the counter didn't
+ * change since the read started, so a slow read cannot replace a value written in the meantime.
+ * 
+ * @author Jakub Białek
+ * @since 4.3.0
+ * 
+ */
+class NearCacheStore {
+
+    private static final int SEGMENTS = 16;
+
+    private static final int VERSION_STRIPES = 64;
+
+    private final Segment[] segments = new Segment[SEGMENTS];
+
+    NearCacheStore(final int maxSize) {
+        final int segmentMaxSize = Math.max(1, (maxSize + SEGMENTS - 1) / SEGMENTS);
+        for (int i = 0; i < SEGMENTS; i++) {
+            segments[i] = new Segment(segmentMaxSize);
+        }
+    }
+
+    Object get(final String key, final SerializationType serializationType, final long now) {
+        final Segment segment = segmentFor(key);
+        synchronized (segment) {
+            final Entry entry = segment.get(key);
+            if (entry == null || entry.serializationType != serializationType) {
+                return null;
+            }
+            if (entry.expiresAt <= now) {
+                segment.remove(key);
+                return null;
+            }
+            return entry.value;
+        }
+    }
+
+    /**
+     * 
+     * @param key
+     *            the key
+     * @return the invalidation counter of the key, it has to be taken before the value is read from the underlying
+     *         cache
+     */
+    long getVersion(final String key) {
+        final int hash = spread(key);
+        final Segment segment = segments[hash & (SEGMENTS - 1)];
+        synchronized (segment) {
+            return segment.versions[versionIndex(hash)];
+        }
+    }
+
+    void put(final String key, final Object value, final SerializationType serializationType, final long expiresAt) {
+        final int hash = spread(key);
+        final Segment segment = segments[hash & (SEGMENTS - 1)];
+        synchronized (segment) {
+            segment.versions[versionIndex(hash)]++;
+            segment.put(key, new Entry(value, serializationType, expiresAt));
+        }
+    }
+
+    /**
+     * Stores the value read from the underlying cache unless the key was written or removed after the given version
+     * had been taken.
+     * 
+     * @return true if the value was stored
+     */
+    boolean putIfNotModified(final String key, final Object value, final SerializationType serializationType, final long expiresAt,
+            final long version) {
+        final int hash = spread(key);
+        final Segment segment = segments[hash & (SEGMENTS - 1)];
+        synchronized (segment) {
+            if (segment.versions[versionIndex(hash)] != version) {
+                return false;
+            }
+            segment.put(key, new Entry(value, serializationType, expiresAt));
+            return true;
+        }
+    }
+
+    void remove(final String key) {
+        final int hash = spread(key);
+        final Segment segment = segments[hash & (SEGMENTS - 1)];
+        synchronized (segment) {
+            segment.versions[versionIndex(hash)]++;
+            segment.remove(key);
+        }
+    }
+
+    void clear() {
+        for (final Segment segment : segments) {
+            synchronized (segment) {
+                for (int i = 0; i < VERSION_STRIPES; i++) {
+                    segment.versions[i]++;
+                }
+                segment.clear();
+            }
+        }
+    }
+
+    int size() {
+        int size = 0;
+        for (final Segment segment : segments) {
+            synchronized (segment) {
+                size += segment.size();
+            }
+        }
+        return size;
+    }
+
+    private Segment segmentFor(final String key) {
+        return segments[spread(key) & (SEGMENTS - 1)];
+    }
+
+    private static int spread(final String key) {
+        final int hash = key.hashCode();
+        return hash ^ (hash >>> 16);
+    }
+
+    private static int versionIndex(final int hash) {
+        // low bits select the segment
+        return (hash >>> 4) & (VERSION_STRIPES - 1);
+    }
+
+    private static final class Entry {
+
+        private final Object value;
+
+        private final SerializationType serializationType;
+
+        private final long expiresAt;
+
+        private Entry(final Object value, final SerializationType serializationType, final long expiresAt) {
+            this.value = value;
+            this.serializationType = serializationType;
+            this.expiresAt = expiresAt;
+        }
+
+    }
+
+    private static final class Segment extends LinkedHashMap<String, Entry> {
+
+        private static final long serialVersionUID = 1L;
+
+        private final int maxSize;
+
+        private final long[] versions = new long[VERSION_STRIPES];
+
+        private Segment(final int maxSize) {
+            super(16, 0.75f, true);
+            this.maxSize = maxSize;
+        }
+
+        @Override
+        protected boolean removeEldestEntry(final Map.Entry<String, Entry> eldest) {
+            return size() > maxSize;
+        }
+
+    }
+
+}
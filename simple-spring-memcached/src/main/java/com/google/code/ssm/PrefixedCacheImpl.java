@@ -21,8 +21,10 @@ import java.net.SocketAddress;
 import java.util.ArrayList;
 import java.util.Collection;
 import java.util.HashMap;
+import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Map;
+import java.util.concurrent.CompletableFuture;
 import java.util.concurrent.TimeoutException;
 
 import com.google.code.ssm.api.format.SerializationType;
@@ -34,7 +36,7 @@ import com.google.code.ssm.providers.CacheException;
  * @since 3.3.0
  * 
  */
-public class PrefixedCacheImpl implements Cache {
+public class PrefixedCacheImpl implements AsyncCache {
 
     private final Cache cache;
 
@@ -138,6 +140,17 @@ public class PrefixedCacheImpl implements Cache {
         cache.setSilently(alterKey(cacheKey), expiration, value, serializationType);
     }
 
+    @Override
+    public void setBulk(final Map<String, Object> values, final int expiration, final SerializationType serializationType)
+            throws TimeoutException, CacheException {
+        cache.setBulk(alterKeys(values), expiration, serializationType);
+    }
+
+    @Override
+    public void setBulkSilently(final Map<String, Object> values, final int expiration, final SerializationType serializationType) {
+        cache.setBulkSilently(alterKeys(values), expiration, serializationType);
+    }
+
     @Override
     public Long getCounter(final String cacheKey) throws TimeoutException, CacheException {
         return cache.getCounter(alterKey(cacheKey));
@@ -158,6 +171,40 @@ public class PrefixedCacheImpl implements Cache {
         return cache.getNativeClient();
     }
 
+    @Override
+    public <T> CompletableFuture<T> getAsync(final String cacheKey, final SerializationType serializationType) {
+        return getAsyncCache().getAsync(alterKey(cacheKey), serializationType);
+    }
+
+    @Override
+    public CompletableFuture<Map<String, Object>> getBulkAsync(final Collection<String> keys, final SerializationType serializationType) {
+        return getAsyncCache().getBulkAsync(alterKeys(keys), serializationType).thenApply(this::removeCacheNames);
+    }
+
+    @Override
+    public CompletableFuture<Boolean> setAsync(final String cacheKey, final int expiration, final Object value,
+            final SerializationType serializationType) {
+        return getAsyncCache().setAsync(alterKey(cacheKey), expiration, value, serializationType);
+    }
+
+    @Override
+    public CompletableFuture<Boolean> deleteAsync(final String cacheKey) {
+        return getAsyncCache().deleteAsync(alterKey(cacheKey));
+    }
+
+    @Override
+    public CompletableFuture<Long> incrAsync(final String cacheKey, final int by, final long def, final int expiration) {
+        return getAsyncCache().incrAsync(alterKey(cacheKey), by, def, expiration);
+    }
+
+    private AsyncCache getAsyncCache() {
+        if (cache instanceof AsyncCache) {
+            return (AsyncCache) cache;
+        }
+
+        throw new UnsupportedOperationException(String.format("Cache %s doesn't support asynchronous operations", cache.getName()));
+    }
+
     private String alterKey(final String cacheKey) {
         return name + namePrefixSeparator + cacheKey;
     }
@@ -171,6 +218,15 @@ public class PrefixedCacheImpl implements Cache {
         return alteredKeys;
     }
 
+    private Map<String, Object> alterKeys(final Map<String, Object> values) {
+        final Map<String, Object> alteredValues = new LinkedHashMap<String, Object>(values.size());
+        for (final Map.Entry<String, Object> entry : values.entrySet()) {
+            alteredValues.put(alterKey(entry.getKey()), entry.getValue());
+        }
+
+        return alteredValues;
+    }
+
     private Map<String, Object> removeCacheNames(final Map<String, Object> resultsWithCacheName) {
         final Map<String, Object> results = new HashMap<String, Object>();
         for (final Map.Entry<String, Object> entry : resultsWithCacheName.entrySet()) {
@@ -16,9 +16,14 @@
  */
 package com.google.code.ssm.aop;
 
+import org.aspectj.lang.ProceedingJoinPoint;
 import org.slf4j.Logger;
 import org.springframework.core.Ordered;
 
+import com.google.code.ssm.aop.support.AdvicePlan;
+import com.google.code.ssm.metrics.CacheMetrics;
+import com.google.code.ssm.metrics.NoOpCacheMetrics;
+
 /**
  * 
  * @author Jakub Białek
@@ -46,6 +51,46 @@ public abstract class CacheAdvice implements Ordered {
         return cacheBase.isCacheDisabled();
     }
 
+    /**
+     * Invokes the intercepted method and records its duration.
+     * 
+     * @param pjp
+     *            the join point
+     * @param plan
+     *            the plan of intercepted method
+     * @return the result of the method
+     * @throws Throwable
+     */
+    protected Object proceed(final ProceedingJoinPoint pjp, final AdvicePlan<?> plan) throws Throwable {
+        return proceed(pjp, plan, null);
+    }
+
+    /**
+     * Invokes the intercepted method with given arguments and records its duration.
+     * 
+     * @param pjp
+     *            the join point
+     * @param plan
+     *            the plan of intercepted method
+     * @param args
+     *            the arguments of the method or null to use original ones
+     * @return the result of the method
+     * @throws Throwable
+     */
+    protected Object proceed(final ProceedingJoinPoint pjp, final AdvicePlan<?> plan, final Object[] args) throws Throwable {
+        final CacheMetrics metrics = cacheBase.getCacheMetrics();
+        if (metrics == NoOpCacheMetrics.INSTANCE) {
+            return (args != null) ? pjp.proceed(args) : pjp.proceed();
+        }
+
+        final long start = System.nanoTime();
+        try {
+            return (args != null) ? pjp.proceed(args) : pjp.proceed();
+        } finally {
+            metrics.recordMethodLatency(plan.getMetricTags(), System.nanoTime() - start);
+        }
+    }
+
     protected void warn(final Exception e, final String format, final Object... args) {
         if (getLogger().isWarnEnabled()) {
             getLogger().warn(String.format(format, args), e);
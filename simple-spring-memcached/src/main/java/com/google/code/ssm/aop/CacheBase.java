@@ -26,21 +26,32 @@ import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
 import java.util.Objects;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
 
 import org.aspectj.lang.JoinPoint;
 import org.aspectj.lang.Signature;
 import org.aspectj.lang.reflect.MethodSignature;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.DisposableBean;
 import org.springframework.beans.factory.InitializingBean;
 import org.springframework.beans.factory.NoSuchBeanDefinitionException;
 import org.springframework.context.ApplicationContext;
 import org.springframework.context.ApplicationContextAware;
 
 import com.google.code.ssm.Cache;
+import com.google.code.ssm.MeteredCacheImpl;
 import com.google.code.ssm.PrefixedCacheImpl;
 import com.google.code.ssm.Settings;
+import com.google.code.ssm.aop.support.AdvicePlan;
 import com.google.code.ssm.aop.support.AnnotationData;
+import com.google.code.ssm.aop.support.AnnotationDataBuilder;
 import com.google.code.ssm.aop.support.BridgeMethodMappingStore;
 import com.google.code.ssm.aop.support.BridgeMethodMappingStoreImpl;
 import com.google.code.ssm.aop.support.CacheKeyBuilder;
@@ -49,6 +60,9 @@ import com.google.code.ssm.aop.support.InvalidAnnotationException;
 import com.google.code.ssm.aop.support.PertinentNegativeNull;
 import com.google.code.ssm.api.format.Serialization;
 import com.google.code.ssm.api.format.SerializationType;
+import com.google.code.ssm.metrics.CacheMetricTags;
+import com.google.code.ssm.metrics.CacheMetrics;
+import com.google.code.ssm.metrics.NoOpCacheMetrics;
 import com.google.code.ssm.util.Utils;
 
 /**
@@ -57,12 +71,16 @@ import com.google.code.ssm.util.Utils;
  * @author Jakub Białek
  * 
  */
-public class CacheBase implements ApplicationContextAware, InitializingBean {
+public class CacheBase implements ApplicationContextAware, InitializingBean, DisposableBean {
 
     public static final String DISABLE_CACHE_PROPERTY = "ssm.cache.disable";
 
     private static final Logger LOG = LoggerFactory.getLogger(CacheBase.class);
 
+    private static final int DEFAULT_REFRESH_THREADS = 2;
+
+    private static final int DEFAULT_REFRESH_QUEUE_SIZE = 1000;
+
     private CacheKeyBuilder cacheKeyBuilder = new CacheKeyBuilderImpl();
 
     private BridgeMethodMappingStore bridgeMethodMappingStore = new BridgeMethodMappingStoreImpl();
@@ -70,10 +88,20 @@ public class CacheBase implements ApplicationContextAware, InitializingBean {
     // mapping cache zone <-> cache
     private final Map<String, Cache> caches = new HashMap<String, Cache>();
 
+    // mapping annotation <-> target class <-> intercepted method <-> resolved advice plan
+    private final ConcurrentMap<Class<?>, ConcurrentMap<Class<?>, ConcurrentMap<Method, AdvicePlan<?>>>> advicePlans =
+            new ConcurrentHashMap<Class<?>, ConcurrentMap<Class<?>, ConcurrentMap<Method, AdvicePlan<?>>>>();
+
     private Settings settings = new Settings();
 
+    private CacheMetrics cacheMetrics;
+
     private ApplicationContext context;
 
+    private Executor refreshExecutor;
+
+    private ThreadPoolExecutor defaultRefreshExecutor;
+
     @Override
     public void afterPropertiesSet() throws Exception {
     	try {
@@ -81,12 +109,28 @@ public class CacheBase implements ApplicationContextAware, InitializingBean {
         } catch (NoSuchBeanDefinitionException ex) {
             LOG.info("Cannot obtain custom SSM settings, default is used");
         }
+
+        if (cacheMetrics == null) {
+            try {
+                cacheMetrics = context.getBean(CacheMetrics.class);
+            } catch (NoSuchBeanDefinitionException ex) {
+                LOG.info("Cannot obtain SSM cache metrics, measurements are not recorded");
+            }
+        }
     	
         for (Cache cache : context.getBeansOfType(Cache.class).values()) {
             addCache(cache);
         }        
     }
 
+    @Override
+    public synchronized void destroy() throws Exception {
+        if (defaultRefreshExecutor != null) {
+            defaultRefreshExecutor.shutdown();
+            defaultRefreshExecutor = null;
+        }
+    }
+
     @Override
     public void setApplicationContext(final ApplicationContext applicationContext) {
         this.context = applicationContext;
@@ -108,6 +152,48 @@ public class CacheBase implements ApplicationContextAware, InitializingBean {
         this.bridgeMethodMappingStore = bridgeMethodMappingStore;
     }
 
+    /**
+     * Sets the executor used to refresh cached values in background. If not set then a bounded pool of
+     * {@value #DEFAULT_REFRESH_THREADS} daemon threads is used. Refreshes rejected by the executor are skipped. Set an
+     * executor that propagates thread bound state (e.g. security context) if the refreshed methods need it.
+     * 
+     * @param refreshExecutor
+     *            the executor
+     * @since 4.3.0
+     */
+    public synchronized void setRefreshExecutor(final Executor refreshExecutor) {
+        this.refreshExecutor = refreshExecutor;
+    }
+
+    public synchronized Executor getRefreshExecutor() {
+        if (refreshExecutor == null) {
+            if (defaultRefreshExecutor == null) {
+                defaultRefreshExecutor = createDefaultRefreshExecutor();
+            }
+            return defaultRefreshExecutor;
+        }
+
+        return refreshExecutor;
+    }
+
+    /**
+     * Sets the metrics recording hits, misses, errors and latencies of advised methods. If not set then the
+     * {@link CacheMetrics} bean is used if defined, otherwise nothing is recorded.
+     * 
+     * @param cacheMetrics
+     *            the metrics
+     * @since 4.3.0
+     */
+    public void setCacheMetrics(final CacheMetrics cacheMetrics) {
+        this.cacheMetrics = cacheMetrics;
+        // plans keep decorated caches so they have to be created again
+        advicePlans.clear();
+    }
+
+    public CacheMetrics getCacheMetrics() {
+        return (cacheMetrics != null) ? cacheMetrics : NoOpCacheMetrics.INSTANCE;
+    }
+
     public Cache getCache(final AnnotationData data) {
         Cache cache = caches.get(data.getCacheName());
         if (cache == null) {
@@ -127,15 +213,50 @@ public class CacheBase implements ApplicationContextAware, InitializingBean {
                 && settings.isDisableCache();
     }
     
-    public <T extends Annotation> Method getMethodToCache(final JoinPoint jp, final Class<T> annotationClass) throws NoSuchMethodException {
-        final Signature sig = jp.getSignature();
-        if (!(sig instanceof MethodSignature)) {
-            throw new InvalidAnnotationException("This annotation is only valid on a method.");
+    /**
+     * Gets the plan of intercepted method. The plan is created only once per annotation, target class and method, all
+     * subsequent invocations reuse it.
+     * 
+     * @param jp
+     *            the join point
+     * @param annotationClass
+     *            the class of cache annotation handled by the calling advice
+     * @return the plan of intercepted method
+     * @throws NoSuchMethodException
+     * @since 4.3.0
+     */
+    @SuppressWarnings("unchecked")
+    public <T extends Annotation> AdvicePlan<T> getAdvicePlan(final JoinPoint jp, final Class<T> annotationClass)
+            throws NoSuchMethodException {
+        final MethodSignature msig = getMethodSignature(jp);
+        final Object target = jp.getTarget();
+        // the intercepted method is resolved once by AspectJ/Spring AOP and reused, so the lookup doesn't allocate
+        final ConcurrentMap<Method, AdvicePlan<?>> plans = getAdvicePlans(annotationClass, target.getClass());
+
+        AdvicePlan<?> plan = plans.get(msig.getMethod());
+        if (plan == null) {
+            final Method methodToCache = getMethodToCache(msig, target, annotationClass);
+            if (methodToCache == null) {
+                throw new InvalidAnnotationException(String.format("Method %s of %s is not annotated with %s", msig.getName(),
+                        target.getClass().getName(), annotationClass.getName()));
+            }
+
+            plan = createAdvicePlan(methodToCache, annotationClass);
+            final AdvicePlan<?> existingPlan = plans.putIfAbsent(msig.getMethod(), plan);
+            if (existingPlan != null) {
+                plan = existingPlan;
+            }
         }
 
-        final MethodSignature msig = (MethodSignature) sig;
-        final Object target = jp.getTarget();
+        return (AdvicePlan<T>) plan;
+    }
 
+    public <T extends Annotation> Method getMethodToCache(final JoinPoint jp, final Class<T> annotationClass) throws NoSuchMethodException {
+        return getMethodToCache(getMethodSignature(jp), jp.getTarget(), annotationClass);
+    }
+
+    private <T extends Annotation> Method getMethodToCache(final MethodSignature msig, final Object target, final Class<T> annotationClass)
+            throws NoSuchMethodException {
         // cannot use msig.getMethod() because it can return the method where annotation was declared i.e. method in
         // interface
         String name = msig.getName();
@@ -154,7 +275,7 @@ public class CacheBase implements ApplicationContextAware, InitializingBean {
 
         if (method.getAnnotation(annotationClass) == null && settings.isEnableAnnotationsInInterface()) {
             // look for annotation on implemented interfaces
-             method = Arrays.stream(jp.getTarget().getClass().getInterfaces())
+             method = Arrays.stream(target.getClass().getInterfaces())
             .map(i -> {
                 try {
                     return i.getMethod(msig.getName(), msig.getParameterTypes());
@@ -182,6 +303,12 @@ public class CacheBase implements ApplicationContextAware, InitializingBean {
         return data.isReturnDataIndex() ? (T) returnValue : (T) Utils.getMethodArg(data.getDataIndex(), args, method.toString());
     }
 
+    @SuppressWarnings("unchecked")
+    public <T> T getUpdateData(final AdvicePlan<?> plan, final Object[] args, final Object returnValue) throws Exception {
+        final AnnotationData data = plan.getAnnotationData();
+        return data.isReturnDataIndex() ? (T) returnValue : (T) Utils.getMethodArg(data.getDataIndex(), args, plan.getMethodDesc());
+    }
+
     protected Settings getSettings() {
         return settings;
     }
@@ -237,6 +364,9 @@ public class CacheBase implements ApplicationContextAware, InitializingBean {
             return;
         }
 
+        // plans keep resolved caches so they have to be created again
+        advicePlans.clear();
+
         if (caches.put(cache.getName(), cache) != null) {
             String errorMsg = "There are two or more caches with the same name '" + cache.getName() + "'";
             getLogger().error(errorMsg);
@@ -255,6 +385,60 @@ public class CacheBase implements ApplicationContextAware, InitializingBean {
         }
     }
 
+    private <T extends Annotation> AdvicePlan<T> createAdvicePlan(final Method method, final Class<T> annotationClass) {
+        final T annotation = method.getAnnotation(annotationClass);
+        final AnnotationData data = AnnotationDataBuilder.buildAnnotationData(annotation, annotationClass, method);
+
+        final Cache unmeteredCache = getCache(data);
+        final CacheMetricTags tags = new CacheMetricTags(unmeteredCache.getName(), data.getNamespace(), annotationClass.getSimpleName());
+        Cache cache = unmeteredCache;
+        if (getCacheMetrics() != NoOpCacheMetrics.INSTANCE) {
+            cache = new MeteredCacheImpl(unmeteredCache, getCacheMetrics(), tags);
+        }
+
+        return new AdvicePlan<T>(method, annotation, data, getSerializationType(method), cache, unmeteredCache, tags);
+    }
+
+    private ConcurrentMap<Method, AdvicePlan<?>> getAdvicePlans(final Class<?> annotationClass, final Class<?> targetClass) {
+        ConcurrentMap<Class<?>, ConcurrentMap<Method, AdvicePlan<?>>> plansByTarget = advicePlans.get(annotationClass);
+        if (plansByTarget == null) {
+            plansByTarget = putIfAbsent(advicePlans, annotationClass, new ConcurrentHashMap<Class<?>, ConcurrentMap<Method, AdvicePlan<?>>>());
+        }
+
+        ConcurrentMap<Method, AdvicePlan<?>> plans = plansByTarget.get(targetClass);
+        if (plans == null) {
+            plans = putIfAbsent(plansByTarget, targetClass, new ConcurrentHashMap<Method, AdvicePlan<?>>());
+        }
+
+        return plans;
+    }
+
+    private static <K, V> V putIfAbsent(final ConcurrentMap<K, V> map, final K key, final V value) {
+        final V existingValue = map.putIfAbsent(key, value);
+        return existingValue != null ? existingValue : value;
+    }
+
+    private ThreadPoolExecutor createDefaultRefreshExecutor() {
+        final AtomicInteger threadNumber = new AtomicInteger();
+        final ThreadPoolExecutor executor = new ThreadPoolExecutor(DEFAULT_REFRESH_THREADS, DEFAULT_REFRESH_THREADS, 60, TimeUnit.SECONDS,
+                new ArrayBlockingQueue<Runnable>(DEFAULT_REFRESH_QUEUE_SIZE), runnable -> {
+                    final Thread thread = new Thread(runnable, "ssm-refresh-" + threadNumber.incrementAndGet());
+                    thread.setDaemon(true);
+                    return thread;
+                });
+        executor.allowCoreThreadTimeOut(true);
+        return executor;
+    }
+
+    private MethodSignature getMethodSignature(final JoinPoint jp) {
+        final Signature sig = jp.getSignature();
+        if (!(sig instanceof MethodSignature)) {
+            throw new InvalidAnnotationException("This annotation is only valid on a method.");
+        }
+
+        return (MethodSignature) sig;
+    }
+
     private Method findMethodFromTargetGivenNameAndParams(final Object target, final String name, final Class<?>[] parameters)
             throws NoSuchMethodException {
         Method method = target.getClass().getMethod(name, parameters);
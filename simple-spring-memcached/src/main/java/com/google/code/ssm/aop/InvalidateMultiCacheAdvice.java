@@ -18,7 +18,6 @@
 
 package com.google.code.ssm.aop;
 
-import java.lang.reflect.Method;
 import java.util.Collection;
 import java.util.List;
 
@@ -30,7 +29,7 @@ import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
 import com.google.code.ssm.aop.support.AnnotationData;
-import com.google.code.ssm.aop.support.AnnotationDataBuilder;
+import com.google.code.ssm.aop.support.AdvicePlan;
 import com.google.code.ssm.aop.support.InvalidAnnotationException;
 import com.google.code.ssm.api.InvalidateMultiCache;
 
@@ -59,14 +58,13 @@ public class InvalidateMultiCacheAdvice extends CacheAdvice {
         // This is injected caching. If anything goes wrong in the caching, LOG
         // the crap outta it, but do not let it surface up past the AOP injection itself.
         Collection<String> cacheKeys = null;
+        final AdvicePlan<InvalidateMultiCache> plan;
         final AnnotationData data;
-        final Method methodToCache;
         try {
-            methodToCache = getCacheBase().getMethodToCache(pjp, InvalidateMultiCache.class);
-            final InvalidateMultiCache annotation = methodToCache.getAnnotation(InvalidateMultiCache.class);
-            data = AnnotationDataBuilder.buildAnnotationData(annotation, InvalidateMultiCache.class, methodToCache);
+            plan = getCacheBase().getAdvicePlan(pjp, InvalidateMultiCache.class);
+            data = plan.getAnnotationData();
             if (!data.isReturnKeyIndex()) {
-                cacheKeys = getCacheBase().getCacheKeyBuilder().getCacheKeys(data, pjp.getArgs(), methodToCache.toString());
+                cacheKeys = getCacheBase().getCacheKeyBuilder().getCacheKeys(data, pjp.getArgs(), plan.getMethodDesc());
             }
         } catch (Exception ex) {
             warn(ex, "Caching on method %s aborted due to an error.", pjp.toShortString());
@@ -82,14 +80,14 @@ public class InvalidateMultiCacheAdvice extends CacheAdvice {
             if (data.isReturnKeyIndex()) {
                 if (!getCacheBase().verifyTypeIsList(result.getClass())) {
                     throw new InvalidAnnotationException(String.format("The return type is not a [%s]. "
-                            + "The method [%s] does not fulfill the requirements.", List.class.getName(), methodToCache.toString()));
+                            + "The method [%s] does not fulfill the requirements.", List.class.getName(), plan.getMethodDesc()));
                 }
 
                 @SuppressWarnings("unchecked")
                 final List<Object> keyObjects = (List<Object>) result;
                 cacheKeys = getCacheBase().getCacheKeyBuilder().getCacheKeys(keyObjects, data.getNamespace());
             }
-            getCacheBase().getCache(data).delete(cacheKeys);
+            plan.getCache().delete(cacheKeys);
         } catch (Exception ex) {
             warn(ex, "Caching on method %s aborted due to an error.", pjp.toShortString());
         }
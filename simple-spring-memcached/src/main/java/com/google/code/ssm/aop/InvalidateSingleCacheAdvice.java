@@ -18,8 +18,6 @@
 
 package com.google.code.ssm.aop;
 
-import java.lang.reflect.Method;
-
 import org.aspectj.lang.ProceedingJoinPoint;
 import org.aspectj.lang.annotation.Around;
 import org.aspectj.lang.annotation.Aspect;
@@ -28,7 +26,7 @@ import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
 import com.google.code.ssm.aop.support.AnnotationData;
-import com.google.code.ssm.aop.support.AnnotationDataBuilder;
+import com.google.code.ssm.aop.support.AdvicePlan;
 import com.google.code.ssm.api.InvalidateSingleCache;
 
 /**
@@ -57,14 +55,13 @@ public class InvalidateSingleCacheAdvice extends CacheAdvice {
         // This is injected caching. If anything goes wrong in the caching, LOG
         // the crap outta it, but do not let it surface up past the AOP injection itself.
         String cacheKey = null;
+        final AdvicePlan<InvalidateSingleCache> plan;
         final AnnotationData data;
-        final Method methodToCache;
         try {
-            methodToCache = getCacheBase().getMethodToCache(pjp, InvalidateSingleCache.class);
-            final InvalidateSingleCache annotation = methodToCache.getAnnotation(InvalidateSingleCache.class);
-            data = AnnotationDataBuilder.buildAnnotationData(annotation, InvalidateSingleCache.class, methodToCache);
+            plan = getCacheBase().getAdvicePlan(pjp, InvalidateSingleCache.class);
+            data = plan.getAnnotationData();
             if (!data.isReturnKeyIndex()) {
-                cacheKey = getCacheBase().getCacheKeyBuilder().getCacheKey(data, pjp.getArgs(), methodToCache.toString());
+                cacheKey = getCacheBase().getCacheKeyBuilder().getCacheKey(data, pjp.getArgs(), plan.getMethodDesc());
             }
         } catch (Exception ex) {
             warn(ex, "Caching on method %s and key [%s] aborted due to an error.", pjp.toShortString(), cacheKey);
@@ -77,11 +74,11 @@ public class InvalidateSingleCacheAdvice extends CacheAdvice {
         // the crap outta it, but do not let it surface up past the AOP injection itself.
         try {
             if (data.isReturnKeyIndex()) {
-                getCacheBase().verifyReturnTypeIsNoVoid(methodToCache, InvalidateSingleCache.class);
+                getCacheBase().verifyReturnTypeIsNoVoid(plan.getMethod(), InvalidateSingleCache.class);
                 cacheKey = getCacheBase().getCacheKeyBuilder().getCacheKey(result, data.getNamespace());
             }
 
-            getCacheBase().getCache(data).delete(cacheKey);
+            plan.getCache().delete(cacheKey);
         } catch (Exception ex) {
             warn(ex, "Caching on method %s and key [%s] aborted due to an error.", pjp.toShortString(), cacheKey);
         }
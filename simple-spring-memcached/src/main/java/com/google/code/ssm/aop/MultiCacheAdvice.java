@@ -20,13 +20,13 @@ package com.google.code.ssm.aop;
 import java.lang.reflect.Method;
 import java.util.ArrayList;
 import java.util.HashMap;
-import java.util.Iterator;
 import java.util.LinkedHashMap;
 import java.util.LinkedHashSet;
 import java.util.List;
 import java.util.Map;
 import java.util.Set;
 
+import com.google.code.ssm.Cache;
 import com.google.code.ssm.aop.support.AnnotationData;
 import com.google.code.ssm.aop.support.PertinentNegativeNull;
 import com.google.code.ssm.api.ParameterValueKeyProvider;
@@ -41,51 +41,58 @@ import com.google.code.ssm.util.Utils;
  */
 abstract class MultiCacheAdvice extends CacheAdvice {
 
-    MapHolder createObjectIdCacheKeyMapping(final AnnotationData data, final Object[] args, final Method methodToCache) throws Exception {
-        final MapHolder holder = new MapHolder();
-        List<String> cacheKeys = getCacheBase().getCacheKeyBuilder().getCacheKeys(data, args, methodToCache.toString());
-
+    MapHolder createObjectIdCacheKeyMapping(final AnnotationData data, final Object[] args, final String methodDesc) throws Exception {
         @SuppressWarnings("unchecked")
-        List<Object> listObjects = (List<Object>) Utils.getMethodArg(data.getListIndexInMethodArgs(), args, methodToCache.toString());
-
-        Iterator<Object> listObjectsIter = listObjects.iterator();
-        Iterator<String> cacheKeysIter = cacheKeys.iterator();
-
-        Object obj;
-        String cacheKey;
-        while (listObjectsIter.hasNext()) {
-            obj = listObjectsIter.next();
-            cacheKey = cacheKeysIter.next();
-            if (holder.getObj2Key().get(obj) == null) {
-                holder.getObj2Key().put(obj, cacheKey);
-            }
-            if (holder.getKey2Obj().get(cacheKey) == null) {
-                holder.getKey2Obj().put(cacheKey, obj);
-            }
-        }
+        List<Object> listObjects = (List<Object>) Utils.getMethodArg(data.getListIndexInMethodArgs(), args, methodDesc);
+
+        final MapHolder holder = new MapHolder(listObjects.size());
+        getCacheBase().getCacheKeyBuilder().forEachCacheKey(data, args, methodDesc, holder::put);
 
         return holder;
     }
 
-    protected void addNullValues(final List<Object> missObjects, final MultiCacheCoordinator coord,
+    protected void addNullValues(final List<Object> missObjects, final MultiCacheCoordinator coord, final Cache cache,
             final SerializationType serializationType) {
         for (Object keyObject : missObjects) {
-            getCacheBase().getCache(coord.getAnnotationData()).addSilently(coord.getObj2Key().get(keyObject),
-                    coord.getAnnotationData().getExpiration(), PertinentNegativeNull.NULL, serializationType);
+            cache.addSilently(coord.getObj2Key().get(keyObject), coord.getAnnotationData().getExpiration(), PertinentNegativeNull.NULL,
+                    serializationType);
         }
     }
 
-    protected void setNullValues(final List<Object> missObjects, final MultiCacheCoordinator coord,
+    protected void setNullValues(final List<Object> missObjects, final MultiCacheCoordinator coord, final Cache cache,
             final SerializationType serializationType) {
+        if (missObjects.isEmpty()) {
+            return;
+        }
+
+        final Map<String, Object> key2NullValue = new LinkedHashMap<String, Object>();
         for (Object keyObject : missObjects) {
-            getCacheBase().getCache(coord.getAnnotationData()).setSilently(coord.getObj2Key().get(keyObject),
-                    coord.getAnnotationData().getExpiration(), PertinentNegativeNull.NULL, serializationType);
+            key2NullValue.put(coord.getObj2Key().get(keyObject), PertinentNegativeNull.NULL);
         }
+        cache.setBulkSilently(key2NullValue, coord.getAnnotationData().getExpiration(), serializationType);
     }
 
     static class MapHolder {
-        private final Map<String, Object> key2Obj = new LinkedHashMap<String, Object>();
-        private final Map<Object, String> obj2Key = new LinkedHashMap<Object, String>();
+        private final Map<String, Object> key2Obj;
+        private final Map<Object, String> obj2Key;
+
+        MapHolder() {
+            this(16);
+        }
+
+        MapHolder(final int expectedSize) {
+            final int capacity = Math.max(16, (int) (expectedSize / 0.75f) + 1);
+            key2Obj = new LinkedHashMap<String, Object>(capacity);
+            obj2Key = new LinkedHashMap<Object, String>(capacity);
+        }
+
+        /**
+         * Maps the object and the cache key to each other unless they are already mapped.
+         */
+        void put(final Object obj, final String cacheKey) {
+            obj2Key.putIfAbsent(obj, cacheKey);
+            key2Obj.putIfAbsent(cacheKey, obj);
+        }
 
         public Map<String, Object> getKey2Obj() {
             return key2Obj;
@@ -99,8 +106,8 @@ abstract class MultiCacheAdvice extends CacheAdvice {
     static class MultiCacheCoordinator {
         private final Method method;
         private final AnnotationData data;
-        private final Map<String, Object> key2Obj = new LinkedHashMap<String, Object>();
-        private final Map<Object, String> obj2Key = new LinkedHashMap<Object, String>();
+        private Map<String, Object> key2Obj = new LinkedHashMap<String, Object>();
+        private Map<Object, String> obj2Key = new LinkedHashMap<Object, String>();
         private final Map<String, Object> key2Result = new HashMap<String, Object>();
         private List<Object> listKeyObjects = new ArrayList<Object>();
         // list is not the best collection to store missed objects because remove operation is used in some cases,
@@ -140,8 +147,9 @@ abstract class MultiCacheAdvice extends CacheAdvice {
         }
 
         public void setHolder(final MapHolder holder) {
-            key2Obj.putAll(holder.getKey2Obj());
-            obj2Key.putAll(holder.getObj2Key());
+            // maps are taken over from the holder instead of copied, the holder isn't used afterwards
+            key2Obj = holder.getKey2Obj();
+            obj2Key = holder.getObj2Key();
         }
 
         public Map<String, Object> getKey2Obj() {
@@ -18,9 +18,14 @@
 
 package com.google.code.ssm.aop;
 
-import java.lang.reflect.Method;
+import java.util.ArrayList;
+import java.util.Collection;
 import java.util.Iterator;
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.RejectedExecutionException;
 
 import org.aspectj.lang.ProceedingJoinPoint;
 import org.aspectj.lang.annotation.Around;
@@ -29,11 +34,16 @@ import org.aspectj.lang.annotation.Pointcut;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
+import com.google.code.ssm.AsyncCache;
+import com.google.code.ssm.Cache;
+import com.google.code.ssm.aop.support.AdvicePlan;
 import com.google.code.ssm.aop.support.AnnotationData;
-import com.google.code.ssm.aop.support.AnnotationDataBuilder;
+import com.google.code.ssm.aop.support.InvalidAnnotationException;
 import com.google.code.ssm.api.ReadThroughMultiCache;
 import com.google.code.ssm.api.ReadThroughMultiCacheOption;
 import com.google.code.ssm.api.format.SerializationType;
+import com.google.code.ssm.metrics.CacheMetrics;
+import com.google.code.ssm.metrics.NoOpCacheMetrics;
 import com.google.code.ssm.util.Utils;
 
 /**
@@ -62,34 +72,26 @@ public class ReadThroughMultiCacheAdvice extends MultiCacheAdvice {
 
         // This is injected caching. If anything goes wrong in the caching, LOG
         // the crap outta it, but do not let it surface up past the AOP injection itself.
-        final ReadThroughMultiCache annotation;
+        final AdvicePlan<ReadThroughMultiCache> plan;
         final MultiCacheCoordinator coord;
-        final AnnotationData data;
         final SerializationType serializationType;
+        final Cache cache;
 
         Object[] args = pjp.getArgs();
         try {
-            // Get the target method being invoked, and make sure it returns the correct info.
-            final Method methodToCache = getCacheBase().getMethodToCache(pjp, ReadThroughMultiCache.class);
-            getCacheBase().verifyReturnTypeIsList(methodToCache, ReadThroughMultiCache.class);
-
-            // Get the annotation associated with this method, and make sure the values are valid.
-            annotation = methodToCache.getAnnotation(ReadThroughMultiCache.class);
-            serializationType = getCacheBase().getSerializationType(methodToCache);
-
-            data = AnnotationDataBuilder.buildAnnotationData(annotation, ReadThroughMultiCache.class, methodToCache);
-            coord = new MultiCacheCoordinator(methodToCache, data);
-            setMultiCacheOptions(coord, annotation.option());
-
-            // Create key->object and object->key mappings.
-            coord.setHolder(createObjectIdCacheKeyMapping(data, args, coord.getMethod()));
+            // Get the plan of the target method being invoked, and make sure it returns the correct info.
+            plan = getCacheBase().getAdvicePlan(pjp, ReadThroughMultiCache.class);
+            if (plan.getAsyncResultAdapter() != null) {
+                return plan.getAsyncResultAdapter().fromFuture(() -> cacheMultiAsync(pjp, plan));
+            }
+            getCacheBase().verifyReturnTypeIsList(plan.getMethod(), ReadThroughMultiCache.class);
 
-            List<Object> listKeyObjects = (List<Object>) Utils.getMethodArg(data.getListIndexInMethodArgs(), args, coord.getMethod()
-                    .toString());
-            coord.setListKeyObjects(listKeyObjects);
+            serializationType = plan.getSerializationType();
+            cache = plan.getCache();
+            coord = createCoordinator(plan, args);
 
             // Get the full list of cache keys and ask the cache for the corresponding values.
-            coord.setInitialKey2Result(getCacheBase().getCache(data).getBulk(coord.getKey2Obj().keySet(), serializationType));
+            coord.setInitialKey2Result(cache.getBulk(coord.getKey2Obj().keySet(), serializationType));
 
             // We've gotten all positive cache results back, so build up a results list and return it.
             if (coord.getMissedObjects().isEmpty()) {
@@ -109,26 +111,167 @@ public class ReadThroughMultiCacheAdvice extends MultiCacheAdvice {
          * in case there are some 'not our fault' problems with the target method. (Connection issues, etc...) Though,
          * this decision could go either way, really.
          */
-        final List<Object> results = (List<Object>) pjp.proceed(args);
+        final List<Object> results = (List<Object>) proceed(pjp, plan, args);
 
         try {
             // there are no results
-            if (results == null || results.isEmpty()) {
-                if (coord.isAddNullsToCache()) {
-                    addNullValues(coord.getMissedObjects(), coord, serializationType);
+            return generateResultList(results, coord, cache, serializationType, false);
+        } catch (Exception ex) {
+            warn(ex, "Caching on %s aborted due to an error. The underlying method will be called twice.", pjp.toShortString());
+            // invoke underlying method again using unmodified arguments array
+            return pjp.proceed(pjp.getArgs());
+        }
+    }
+
+    private MultiCacheCoordinator createCoordinator(final AdvicePlan<ReadThroughMultiCache> plan, final Object[] args) throws Exception {
+        final AnnotationData data = plan.getAnnotationData();
+        final MultiCacheCoordinator coord = new MultiCacheCoordinator(plan.getMethod(), data);
+        setMultiCacheOptions(coord, plan.getAnnotation().option());
+
+        // Create key->object and object->key mappings.
+        coord.setHolder(createObjectIdCacheKeyMapping(data, args, plan.getMethodDesc()));
+
+        @SuppressWarnings("unchecked")
+        List<Object> listKeyObjects = (List<Object>) Utils.getMethodArg(data.getListIndexInMethodArgs(), args, plan.getMethodDesc());
+        coord.setListKeyObjects(listKeyObjects);
+
+        return coord;
+    }
+
+    // the same steps as in cacheMulti but the cache is read and written without blocking and the list of results is
+    // taken from the future returned by the adapter
+    private CompletableFuture<Object> cacheMultiAsync(final ProceedingJoinPoint pjp, final AdvicePlan<ReadThroughMultiCache> plan) {
+        final Object[] args = pjp.getArgs();
+        final MultiCacheCoordinator coord;
+        try {
+            coord = createCoordinator(plan, args);
+        } catch (Exception ex) {
+            warn(ex, "Caching on %s aborted due to an error.", pjp.toShortString());
+            return proceedAsync(pjp, plan, args);
+        }
+
+        return getBulkAsync(plan, coord.getKey2Obj().keySet()).handle((key2Result, ex) -> {
+            if (ex != null) {
+                getLogger().warn(String.format("Caching on %s aborted due to an error.", pjp.toShortString()), ex);
+                return null;
+            }
+            return key2Result;
+        }).thenCompose(key2Result -> {
+            final Object[] missedArgs;
+            try {
+                coord.setInitialKey2Result(key2Result);
+                if (coord.getMissedObjects().isEmpty()) {
+                    return CompletableFuture.<Object> completedFuture(coord.generateResultList());
                 }
-                return coord.generatePartialResultList();
+                missedArgs = coord.createModifiedArgumentList(args);
+            } catch (Exception ex) {
+                warn(ex, "Caching on %s aborted due to an error.", pjp.toShortString());
+                return proceedAsync(pjp, plan, args);
             }
 
-            if (coord.isGenerateKeysFromResult()) {
-                return generateByKeysFromResult(results, coord, serializationType);
-            } else {
-                return generateByKeysProviders(results, coord, serializationType);
+            return proceedAsync(pjp, plan, missedArgs).thenCompose(results -> {
+                try {
+                    return CompletableFuture.<Object> completedFuture(generateResultList(toList(results), coord, plan.getCache(),
+                            plan.getSerializationType(), true));
+                } catch (Exception ex) {
+                    warn(ex, "Caching on %s aborted due to an error. The underlying method will be called twice.", pjp.toShortString());
+                    return proceedAsync(pjp, plan, pjp.getArgs());
+                }
+            });
+        });
+    }
+
+    private CompletableFuture<Object> proceedAsync(final ProceedingJoinPoint pjp, final AdvicePlan<ReadThroughMultiCache> plan,
+            final Object[] args) {
+        final CacheMetrics metrics = getCacheBase().getCacheMetrics();
+        final long start = System.nanoTime();
+        final CompletableFuture<Object> result;
+        try {
+            result = plan.getAsyncResultAdapter().toFuture(pjp.proceed(args));
+        } catch (Throwable t) {
+            final CompletableFuture<Object> failed = new CompletableFuture<Object>();
+            failed.completeExceptionally(t);
+            return failed;
+        }
+
+        if (metrics != NoOpCacheMetrics.INSTANCE) {
+            result.whenComplete((value, ex) -> metrics.recordMethodLatency(plan.getMetricTags(), System.nanoTime() - start));
+        }
+        return result;
+    }
+
+    private CompletableFuture<Map<String, Object>> getBulkAsync(final AdvicePlan<ReadThroughMultiCache> plan, final Collection<String> keys) {
+        try {
+            if (plan.getCache() instanceof AsyncCache) {
+                return ((AsyncCache) plan.getCache()).getBulkAsync(keys, plan.getSerializationType());
             }
+            return CompletableFuture.completedFuture(plan.getCache().getBulk(keys, plan.getSerializationType()));
         } catch (Exception ex) {
-            warn(ex, "Caching on %s aborted due to an error. The underlying method will be called twice.", pjp.toShortString());
-            // invoke underlying method again using unmodified arguments array
-            return pjp.proceed(pjp.getArgs());
+            final CompletableFuture<Map<String, Object>> failed = new CompletableFuture<Map<String, Object>>();
+            failed.completeExceptionally(ex);
+            return failed;
+        }
+    }
+
+    @SuppressWarnings("unchecked")
+    private List<Object> toList(final Object results) {
+        if (results == null || results instanceof List) {
+            return (List<Object>) results;
+        }
+
+        throw new InvalidAnnotationException(String.format("The annotation [%s] is only valid on a method that returns a [%s] "
+                + "asynchronously. [%s] was returned.", ReadThroughMultiCache.class.getName(), List.class.getName(), results.getClass()));
+    }
+
+    private List<?> generateResultList(final List<Object> results, final MultiCacheCoordinator coord, final Cache cache,
+            final SerializationType serializationType, final boolean async) throws Exception {
+        // there are no results
+        if (results == null || results.isEmpty()) {
+            if (coord.isAddNullsToCache()) {
+                addNullValues(coord.getMissedObjects(), coord, cache, serializationType, async);
+            }
+            return coord.generatePartialResultList();
+        }
+
+        if (coord.isGenerateKeysFromResult()) {
+            return generateByKeysFromResult(results, coord, cache, serializationType, async);
+        } else {
+            return generateByKeysProviders(results, coord, cache, serializationType, async);
+        }
+    }
+
+    private void setValues(final Map<String, Object> key2Result, final MultiCacheCoordinator coord, final Cache cache,
+            final SerializationType serializationType, final boolean async) {
+        final int expiration = coord.getAnnotationData().getExpiration();
+        if (!async || !(cache instanceof AsyncCache)) {
+            cache.setBulkSilently(key2Result, expiration, serializationType);
+            return;
+        }
+
+        // don't make the caller wait for the writes
+        for (final Map.Entry<String, Object> entry : key2Result.entrySet()) {
+            ((AsyncCache) cache).setAsync(entry.getKey(), expiration, entry.getValue(), serializationType).whenComplete((stored, ex) -> {
+                if (ex != null) {
+                    getLogger().warn(String.format("Caching on method %s and key [%s] aborted due to an error.", coord.getMethod().getName(),
+                            entry.getKey()), ex);
+                }
+            });
+        }
+    }
+
+    private void addNullValues(final List<Object> missObjects, final MultiCacheCoordinator coord, final Cache cache,
+            final SerializationType serializationType, final boolean async) {
+        if (!async) {
+            addNullValues(missObjects, coord, cache, serializationType);
+            return;
+        }
+
+        // there is no asynchronous add, blocking adds are moved to the background executor
+        final List<Object> missed = new ArrayList<Object>(missObjects);
+        try {
+            getCacheBase().getRefreshExecutor().execute(() -> addNullValues(missed, coord, cache, serializationType));
+        } catch (RejectedExecutionException ex) {
+            warn(ex, "Adding nulls to cache on method %s rejected.", coord.getMethod().getName());
         }
     }
 
@@ -138,30 +281,31 @@ public class ReadThroughMultiCacheAdvice extends MultiCacheAdvice {
         coord.setSkipNullsInResult(options.skipNullsInResult());
     }
 
-    private List<?> generateByKeysFromResult(final List<Object> results, final MultiCacheCoordinator coord,
-            final SerializationType serializationType) throws Exception {
+    private List<?> generateByKeysFromResult(final List<Object> results, final MultiCacheCoordinator coord, final Cache cache,
+            final SerializationType serializationType, final boolean async) throws Exception {
         if (!results.isEmpty()) {
             final AnnotationData data = coord.getAnnotationData();
+            final Map<String, Object> key2Result = new LinkedHashMap<String, Object>();
             String cacheKey;
 
             for (Object resultObject : results) {
                 cacheKey = getCacheBase().getCacheKeyBuilder().getCacheKey(resultObject, data.getNamespace());
-                getCacheBase().getCache(coord.getAnnotationData()).setSilently(cacheKey, data.getExpiration(), resultObject,
-                        serializationType);
+                key2Result.put(cacheKey, resultObject);
                 coord.getMissedObjects().remove(coord.getKey2Obj().get(cacheKey));
                 coord.getKey2Result().put(cacheKey, resultObject);
             }
+            setValues(key2Result, coord, cache, serializationType, async);
         }
 
         if (coord.isAddNullsToCache()) {
-            addNullValues(coord.getMissedObjects(), coord, serializationType);
+            addNullValues(coord.getMissedObjects(), coord, cache, serializationType, async);
         }
 
         return coord.generatePartialResultList();
     }
 
-    private List<?> generateByKeysProviders(final List<Object> results, final MultiCacheCoordinator coord,
-            final SerializationType serializationType) {
+    private List<?> generateByKeysProviders(final List<Object> results, final MultiCacheCoordinator coord, final Cache cache,
+            final SerializationType serializationType, final boolean async) {
         if (results.size() != coord.getMissedObjects().size()) {
             getLogger().warn(
                     "Did not receive a correlated amount of data from the target method: {}. "
@@ -171,16 +315,17 @@ public class ReadThroughMultiCacheAdvice extends MultiCacheAdvice {
             return results;
         }
 
+        final Map<String, Object> key2Result = new LinkedHashMap<String, Object>();
         Iterator<Object> misssedObjectsIter = coord.getMissedObjects().iterator();
         for (Object resultObject : results) {
             resultObject = getCacheBase().getSubmission(resultObject);
             Object keyObject = misssedObjectsIter.next();
             String cacheKey = coord.getObj2Key().get(keyObject);
-            getCacheBase().getCache(coord.getAnnotationData()).setSilently(cacheKey, coord.getAnnotationData().getExpiration(),
-                    resultObject, serializationType);
+            key2Result.put(cacheKey, resultObject);
             coord.getKey2Result().put(cacheKey, resultObject);
 
         }
+        setValues(key2Result, coord, cache, serializationType, async);
 
         return coord.generateResultList();
     }
@@ -19,13 +19,24 @@
 package com.google.code.ssm.aop;
 
 import java.lang.annotation.Annotation;
-import java.lang.reflect.Method;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadLocalRandom;
 
 import org.aspectj.lang.ProceedingJoinPoint;
 
+import com.google.code.ssm.AsyncCache;
+import com.google.code.ssm.Cache;
+import com.google.code.ssm.aop.support.AdvicePlan;
 import com.google.code.ssm.aop.support.AnnotationData;
-import com.google.code.ssm.aop.support.AnnotationDataBuilder;
+import com.google.code.ssm.aop.support.PertinentNegativeNull;
+import com.google.code.ssm.aop.support.RefreshableValue;
+import com.google.code.ssm.aop.support.SingleFlight;
 import com.google.code.ssm.api.format.SerializationType;
+import com.google.code.ssm.metrics.CacheMetrics;
+import com.google.code.ssm.metrics.NoOpCacheMetrics;
 
 /**
  * 
@@ -38,8 +49,16 @@ import com.google.code.ssm.api.format.SerializationType;
  */
 abstract class SingleReadCacheAdvice<T extends Annotation> extends CacheAdvice {
 
+    private static final long LOCK_POLL_INTERVAL = 50;
+
+    private static final int MAX_RELATIVE_EXPIRATION = 60 * 60 * 24 * 30;
+
     private final Class<T> annotationClass;
 
+    private final SingleFlight singleFlight = new SingleFlight();
+
+    private final Set<String> refreshing = ConcurrentHashMap.newKeySet();
+
     protected SingleReadCacheAdvice(final Class<T> annotationClass) {
         this.annotationClass = annotationClass;
     }
@@ -51,42 +70,289 @@ abstract class SingleReadCacheAdvice<T extends Annotation> extends CacheAdvice {
         }
         // This is injected caching. If anything goes wrong in the caching, LOG
         // the crap outta it, but do not let it surface up past the AOP injection itself.
-        final T annotation;
-        final AnnotationData data;
-        final SerializationType serializationType;
+        final AdvicePlan<T> plan;
         String cacheKey = null;
         try {
-            final Method methodToCache = getCacheBase().getMethodToCache(pjp, annotationClass);
-            getCacheBase().verifyReturnTypeIsNoVoid(methodToCache, annotationClass);
-            annotation = methodToCache.getAnnotation(annotationClass);
-            serializationType = getCacheBase().getSerializationType(methodToCache);
-            data = AnnotationDataBuilder.buildAnnotationData(annotation, annotationClass, methodToCache);
+            plan = getCacheBase().getAdvicePlan(pjp, annotationClass);
+            getCacheBase().verifyReturnTypeIsNoVoid(plan.getMethod(), annotationClass);
+
+            cacheKey = getCacheKey(plan.getAnnotationData(), pjp.getArgs(), plan.getMethodDesc());
 
-            cacheKey = getCacheKey(data, pjp.getArgs(), methodToCache.toString());
+            if (plan.getAsyncResultAdapter() != null) {
+                final String asyncKey = cacheKey;
+                return plan.getAsyncResultAdapter().fromFuture(() -> cacheAsync(pjp, plan, asyncKey));
+            }
 
-            final Object result = getCacheBase().getCache(data).get(cacheKey, serializationType);
+            final Object result = plan.getCache().get(cacheKey, plan.getSerializationType());
             if (result != null) {
-                getLogger().debug("Cache hit.");
-                return getCacheBase().getResult(result);
+                if (isRefreshRequired(plan.getAnnotationData(), result)) {
+                    getLogger().debug("Cache hit, value will be refreshed in background.");
+                    refreshInBackground(pjp, plan, cacheKey);
+                } else {
+                    getLogger().debug("Cache hit.");
+                }
+                return toResult(result);
             }
         } catch (Exception ex) {
             warn(ex, "Caching on method %s and key [%s] aborted due to an error.", pjp.toShortString(), cacheKey);
             return pjp.proceed();
         }
 
-        final Object result = pjp.proceed();
+        if (plan.getAnnotationData().isCoalesceMisses()) {
+            final String missedKey = cacheKey;
+            return singleFlight.load(getJvmKey(plan, missedKey), () -> load(pjp, plan, missedKey));
+        }
+
+        return load(pjp, plan, cacheKey);
+    }
+
+    protected abstract String getCacheKey(final AnnotationData data, final Object[] args, final String methodDesc) throws Exception;
+
+    private Object load(final ProceedingJoinPoint pjp, final AdvicePlan<T> plan, final String cacheKey) throws Throwable {
+        final AnnotationData data = plan.getAnnotationData();
+        if (!data.isDistributedLock()) {
+            return proceedAndStore(pjp, plan, cacheKey);
+        }
+
+        final String lockKey = getCacheBase().getCacheKeyBuilder().getLockKey(cacheKey);
+        final LockResult lock = lock(pjp, plan, lockKey);
+        if (lock == LockResult.FAILED) {
+            return proceedAndStore(pjp, plan, cacheKey);
+        }
+        if (lock == LockResult.ACQUIRED) {
+            try {
+                return proceedAndStore(pjp, plan, cacheKey);
+            } finally {
+                unlock(pjp, plan, lockKey);
+            }
+        }
+
+        // other caller holds the lock, wait until it stores the value
+        final Object result = waitForValue(pjp, plan, cacheKey, data.getLockWaitTime());
+        if (result != null) {
+            getLogger().debug("Cache hit after waiting for lock.");
+            return toResult(result);
+        }
+
+        getLogger().debug("Value didn't appear in cache in {} ms, invoking method.", data.getLockWaitTime());
+        return proceedAndStore(pjp, plan, cacheKey);
+    }
+
+    // provider can reject the lock key even if the cache key is valid, then the method is invoked without lock
+    private LockResult lock(final ProceedingJoinPoint pjp, final AdvicePlan<T> plan, final String lockKey) {
+        try {
+            return plan.getCache().addSilently(lockKey, plan.getAnnotationData().getLockExpiration(), PertinentNegativeNull.NULL,
+                    SerializationType.JAVA) ? LockResult.ACQUIRED : LockResult.HELD;
+        } catch (Exception ex) {
+            warn(ex, "Adding lock on method %s and key [%s] aborted due to an error.", pjp.toShortString(), lockKey);
+            return LockResult.FAILED;
+        }
+    }
+
+    private void unlock(final ProceedingJoinPoint pjp, final AdvicePlan<T> plan, final String lockKey) {
+        try {
+            plan.getCache().delete(lockKey);
+        } catch (Exception ex) {
+            warn(ex, "Removing lock on method %s and key [%s] aborted due to an error.", pjp.toShortString(), lockKey);
+        }
+    }
+
+    private Object waitForValue(final ProceedingJoinPoint pjp, final AdvicePlan<T> plan, final String cacheKey, final long waitTime) {
+        final long deadline = System.currentTimeMillis() + waitTime;
+        // the miss that made the caller wait is already recorded, polls aren't metered
+        final Cache cache = plan.getUnmeteredCache();
+        try {
+            long remaining = waitTime;
+            while (remaining > 0) {
+                Thread.sleep(Math.min(LOCK_POLL_INTERVAL, remaining));
+                final Object result = cache.get(cacheKey, plan.getSerializationType());
+                if (result != null) {
+                    return result;
+                }
+                remaining = deadline - System.currentTimeMillis();
+            }
+        } catch (InterruptedException ex) {
+            Thread.currentThread().interrupt();
+        } catch (Exception ex) {
+            warn(ex, "Waiting for value on method %s and key [%s] aborted due to an error.", pjp.toShortString(), cacheKey);
+        }
+
+        return null;
+    }
+
+    private Object proceedAndStore(final ProceedingJoinPoint pjp, final AdvicePlan<T> plan, final String cacheKey) throws Throwable {
+        final long start = System.currentTimeMillis();
+        final Object result = proceed(pjp, plan);
 
         // This is injected caching. If anything goes wrong in the caching, LOG
         // the crap outta it, but do not let it surface up past the AOP injection itself.
         try {
-            final Object submission = getCacheBase().getSubmission(result);
-            getCacheBase().getCache(data).set(cacheKey, data.getExpiration(), submission, serializationType);
+            final AnnotationData data = plan.getAnnotationData();
+            Object submission = getCacheBase().getSubmission(result);
+            if (data.isEarlyRefresh() || data.getRefreshAfter() > 0) {
+                final long now = System.currentTimeMillis();
+                submission = new RefreshableValue(submission, now - start, getExpiresAt(data.getExpiration(), now),
+                        data.getRefreshAfter() > 0 ? now + data.getRefreshAfter() * 1000L : 0);
+            }
+            plan.getCache().set(cacheKey, data.getExpiration(), submission, plan.getSerializationType());
         } catch (Exception ex) {
             warn(ex, "Caching on method %s and key [%s] aborted due to an error.", pjp.toShortString(), cacheKey);
         }
         return result;
     }
 
-    protected abstract String getCacheKey(final AnnotationData data, final Object[] args, final String methodDesc) throws Exception;
+    private CompletableFuture<Object> cacheAsync(final ProceedingJoinPoint pjp, final AdvicePlan<T> plan, final String cacheKey) {
+        return getAsync(plan, cacheKey).handle((cached, ex) -> {
+            if (ex != null) {
+                getLogger().warn(String.format("Caching on method %s and key [%s] aborted due to an error.", pjp.toShortString(), cacheKey),
+                        ex);
+                return null;
+            }
+            return cached;
+        }).thenCompose(cached -> {
+            if (cached != null) {
+                getLogger().debug("Cache hit.");
+                return CompletableFuture.completedFuture(toResult(cached));
+            }
+            return proceedAndStoreAsync(pjp, plan, cacheKey);
+        });
+    }
+
+    private CompletableFuture<Object> proceedAndStoreAsync(final ProceedingJoinPoint pjp, final AdvicePlan<T> plan,
+            final String cacheKey) {
+        final CacheMetrics metrics = getCacheBase().getCacheMetrics();
+        final long start = System.nanoTime();
+        final CompletableFuture<Object> result;
+        try {
+            result = plan.getAsyncResultAdapter().toFuture(pjp.proceed());
+        } catch (Throwable t) {
+            return failed(t);
+        }
+
+        if (metrics != NoOpCacheMetrics.INSTANCE) {
+            result.whenComplete((value, ex) -> metrics.recordMethodLatency(plan.getMetricTags(), System.nanoTime() - start));
+        }
+
+        return result.thenApply(value -> {
+            // don't make the caller wait for the write
+            setAsync(plan, cacheKey, getCacheBase().getSubmission(value)).whenComplete((stored, ex) -> {
+                if (ex != null) {
+                    getLogger().warn(
+                            String.format("Caching on method %s and key [%s] aborted due to an error.", pjp.toShortString(), cacheKey), ex);
+                }
+            });
+            return value;
+        });
+    }
+
+    private CompletableFuture<Object> getAsync(final AdvicePlan<T> plan, final String cacheKey) {
+        try {
+            if (plan.getCache() instanceof AsyncCache) {
+                return ((AsyncCache) plan.getCache()).getAsync(cacheKey, plan.getSerializationType());
+            }
+            return CompletableFuture.completedFuture(plan.getCache().get(cacheKey, plan.getSerializationType()));
+        } catch (Exception ex) {
+            return failed(ex);
+        }
+    }
+
+    private CompletableFuture<Boolean> setAsync(final AdvicePlan<T> plan, final String cacheKey, final Object value) {
+        final int expiration = plan.getAnnotationData().getExpiration();
+        try {
+            if (plan.getCache() instanceof AsyncCache) {
+                return ((AsyncCache) plan.getCache()).setAsync(cacheKey, expiration, value, plan.getSerializationType());
+            }
+            plan.getCache().set(cacheKey, expiration, value, plan.getSerializationType());
+            return CompletableFuture.completedFuture(true);
+        } catch (Exception ex) {
+            return failed(ex);
+        }
+    }
+
+    private <V> CompletableFuture<V> failed(final Throwable t) {
+        final CompletableFuture<V> future = new CompletableFuture<V>();
+        future.completeExceptionally(t);
+        return future;
+    }
+
+    private boolean isRefreshRequired(final AnnotationData data, final Object cachedValue) {
+        if (!(cachedValue instanceof RefreshableValue)) {
+            return false;
+        }
+
+        final RefreshableValue value = (RefreshableValue) cachedValue;
+        final long now = System.currentTimeMillis();
+        return (data.getRefreshAfter() > 0 && value.isStaleAt(now))
+                || (data.isEarlyRefresh() && value.shouldRefresh(data.getEarlyRefreshBeta(), now, 1.0 - ThreadLocalRandom.current()
+                        .nextDouble()));
+    }
+
+    private void refreshInBackground(final ProceedingJoinPoint pjp, final AdvicePlan<T> plan, final String cacheKey) {
+        final String refreshKey = getJvmKey(plan, cacheKey);
+        if (!refreshing.add(refreshKey)) {
+            getLogger().debug("Value is already being refreshed.");
+            return;
+        }
+
+        try {
+            getCacheBase().getRefreshExecutor().execute(() -> {
+                try {
+                    refresh(pjp, plan, cacheKey);
+                } catch (Throwable t) {
+                    getLogger().warn(String.format("Refreshing value on method %s and key [%s] failed.", pjp.toShortString(), cacheKey), t);
+                } finally {
+                    refreshing.remove(refreshKey);
+                }
+            });
+        } catch (RejectedExecutionException ex) {
+            refreshing.remove(refreshKey);
+            warn(ex, "Refreshing value on method %s and key [%s] rejected.", pjp.toShortString(), cacheKey);
+        }
+    }
+
+    private void refresh(final ProceedingJoinPoint pjp, final AdvicePlan<T> plan, final String cacheKey) throws Throwable {
+        if (!plan.getAnnotationData().isDistributedLock()) {
+            proceedAndStore(pjp, plan, cacheKey);
+            return;
+        }
+
+        // only one node refreshes the value, the others keep serving the stale copy until the fresh one is stored
+        final String lockKey = getCacheBase().getCacheKeyBuilder().getLockKey(cacheKey);
+        final LockResult lock = lock(pjp, plan, lockKey);
+        if (lock == LockResult.FAILED) {
+            proceedAndStore(pjp, plan, cacheKey);
+            return;
+        }
+        if (lock == LockResult.HELD) {
+            getLogger().debug("Value is being refreshed by other caller.");
+            return;
+        }
+
+        try {
+            proceedAndStore(pjp, plan, cacheKey);
+        } finally {
+            unlock(pjp, plan, lockKey);
+        }
+    }
+
+    private String getJvmKey(final AdvicePlan<T> plan, final String cacheKey) {
+        // the same key can be used in different caches, memcached keys cannot contain spaces
+        return plan.getCache().getName() + " " + cacheKey;
+    }
+
+    private Object toResult(final Object cachedValue) {
+        // value could be stored with early refresh enabled
+        final Object value = (cachedValue instanceof RefreshableValue) ? ((RefreshableValue) cachedValue).getValue() : cachedValue;
+        return getCacheBase().getResult(value);
+    }
+
+    private long getExpiresAt(final int expiration, final long now) {
+        // memcached treats expiration greater than 30 days as unix time
+        return expiration > MAX_RELATIVE_EXPIRATION ? expiration * 1000L : now + expiration * 1000L;
+    }
+
+    private enum LockResult {
+        ACQUIRED, HELD, FAILED
+    }
 
 }
@@ -19,13 +19,11 @@
 package com.google.code.ssm.aop;
 
 import java.lang.annotation.Annotation;
-import java.lang.reflect.Method;
 
 import org.aspectj.lang.JoinPoint;
 
+import com.google.code.ssm.aop.support.AdvicePlan;
 import com.google.code.ssm.aop.support.AnnotationData;
-import com.google.code.ssm.aop.support.AnnotationDataBuilder;
-import com.google.code.ssm.api.format.SerializationType;
 
 /**
  * 
@@ -55,20 +53,18 @@ abstract class SingleUpdateCacheAdvice<T extends Annotation> extends CacheAdvice
         // the same access to the method params.
         String cacheKey = null;
         try {
-            final Method methodToCache = getCacheBase().getMethodToCache(jp, annotationClass);
-            final T annotation = methodToCache.getAnnotation(annotationClass);
-            final AnnotationData data = AnnotationDataBuilder.buildAnnotationData(annotation, annotationClass, methodToCache);
+            final AdvicePlan<T> plan = getCacheBase().getAdvicePlan(jp, annotationClass);
+            final AnnotationData data = plan.getAnnotationData();
 
             if (data.isReturnKeyIndex()) {
                 cacheKey = getCacheBase().getCacheKeyBuilder().getCacheKey(retVal, data.getNamespace());
             } else {
-                cacheKey = getCacheKey(data, jp.getArgs(), methodToCache.toString());
+                cacheKey = getCacheKey(data, jp.getArgs(), plan.getMethodDesc());
             }
 
-            final Object dataObject = getCacheBase().<Object> getUpdateData(data, methodToCache, jp.getArgs(), retVal);
-            final SerializationType serializationType = getCacheBase().getSerializationType(methodToCache);
+            final Object dataObject = getCacheBase().<Object> getUpdateData(plan, jp.getArgs(), retVal);
             final Object submission = getCacheBase().getSubmission(dataObject);
-            getCacheBase().getCache(data).set(cacheKey, data.getExpiration(), submission, serializationType);
+            plan.getCache().set(cacheKey, data.getExpiration(), submission, plan.getSerializationType());
         } catch (Exception ex) {
             warn(ex, "Caching on method %s and key [%s] aborted due to an error.", jp.toShortString(), cacheKey);
         }
@@ -23,6 +23,7 @@ import java.security.InvalidParameterException;
 import java.util.ArrayList;
 import java.util.HashMap;
 import java.util.Iterator;
+import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Map;
 
@@ -33,8 +34,9 @@ import org.aspectj.lang.annotation.Pointcut;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
+import com.google.code.ssm.Cache;
+import com.google.code.ssm.aop.support.AdvicePlan;
 import com.google.code.ssm.aop.support.AnnotationData;
-import com.google.code.ssm.aop.support.AnnotationDataBuilder;
 import com.google.code.ssm.aop.support.InvalidAnnotationException;
 import com.google.code.ssm.api.UpdateMultiCache;
 import com.google.code.ssm.api.UpdateMultiCacheOption;
@@ -67,11 +69,12 @@ public class UpdateMultiCacheAdvice extends MultiCacheAdvice {
         // apply our caching after the underlying method completes successfully, and we will have
         // the same access to the method params.
         try {
-            final Method methodToCache = getCacheBase().getMethodToCache(jp, UpdateMultiCache.class);
-            final UpdateMultiCache annotation = methodToCache.getAnnotation(UpdateMultiCache.class);
-            final AnnotationData data = AnnotationDataBuilder.buildAnnotationData(annotation, UpdateMultiCache.class, methodToCache);
-            final List<Object> dataList = getCacheBase().<List<Object>> getUpdateData(data, methodToCache, jp.getArgs(), retVal);
-            final SerializationType serializationType = getCacheBase().getSerializationType(methodToCache);
+            final AdvicePlan<UpdateMultiCache> plan = getCacheBase().getAdvicePlan(jp, UpdateMultiCache.class);
+            final Method methodToCache = plan.getMethod();
+            final UpdateMultiCache annotation = plan.getAnnotation();
+            final AnnotationData data = plan.getAnnotationData();
+            final List<Object> dataList = getCacheBase().<List<Object>> getUpdateData(plan, jp.getArgs(), retVal);
+            final SerializationType serializationType = plan.getSerializationType();
             final MultiCacheCoordinator coord = new MultiCacheCoordinator(methodToCache, data);
             coord.setAddNullsToCache(annotation.option().addNullsToCache());
 
@@ -83,24 +86,24 @@ public class UpdateMultiCacheAdvice extends MultiCacheAdvice {
                 cacheKeys = getCacheBase().getCacheKeyBuilder().getCacheKeys(keyObjects, data.getNamespace());
             } else {
                 // Create key->object and object->key mappings.
-                coord.setHolder(createObjectIdCacheKeyMapping(coord.getAnnotationData(), jp.getArgs(), coord.getMethod()));
+                coord.setHolder(createObjectIdCacheKeyMapping(coord.getAnnotationData(), jp.getArgs(), plan.getMethodDesc()));
                 @SuppressWarnings("unchecked")
                 List<Object> listKeyObjects = (List<Object>) Utils.getMethodArg(data.getListIndexInMethodArgs(), jp.getArgs(),
-                        methodToCache.toString());
+                        plan.getMethodDesc());
                 coord.setListKeyObjects(listKeyObjects);
                 // keySet is sorted
                 cacheKeys = new ArrayList<String>(coord.getKey2Obj().keySet());
             }
 
             if (!annotation.option().addNullsToCache()) {
-                updateCache(cacheKeys, dataList, methodToCache, data, serializationType);
+                updateCache(cacheKeys, dataList, methodToCache, data, plan.getCache(), serializationType);
             } else {
                 Map<String, Object> key2Result = new HashMap<String, Object>();
                 for (String cacheKey : cacheKeys) {
                     key2Result.put(cacheKey, null);
                 }
                 coord.setInitialKey2Result(key2Result);
-                updateCacheWithMissed(dataList, coord, annotation.option(), serializationType);
+                updateCacheWithMissed(dataList, coord, plan.getCache(), annotation.option(), serializationType);
             }
         } catch (Exception ex) {
             warn(ex, "Updating caching via %s aborted due to an error.", jp.toShortString());
@@ -108,32 +111,27 @@ public class UpdateMultiCacheAdvice extends MultiCacheAdvice {
     }
 
     MapHolder convertIdObjectsToKeyMap(final List<Object> idObjects, final AnnotationData data) throws Exception {
-        final MapHolder holder = new MapHolder();
+        final MapHolder holder = new MapHolder(idObjects.size());
 
         for (final Object obj : idObjects) {
             if (obj == null) {
                 throw new InvalidParameterException("One of the passed in key objects is null");
             }
 
-            String cacheKey = getCacheBase().getCacheKeyBuilder().getCacheKey(obj, data.getNamespace());
-            if (holder.getObj2Key().get(obj) == null) {
-                holder.getObj2Key().put(obj, cacheKey);
-            }
-            if (holder.getKey2Obj().get(cacheKey) == null) {
-                holder.getKey2Obj().put(cacheKey, obj);
-            }
+            holder.put(obj, getCacheBase().getCacheKeyBuilder().getCacheKey(obj, data.getNamespace()));
         }
 
         return holder;
     }
 
     void updateCache(final List<String> cacheKeys, final List<Object> returnList, final Method methodToCache, final AnnotationData data,
-            final SerializationType serializationType) {
+            final Cache cache, final SerializationType serializationType) {
         if (returnList.size() != cacheKeys.size()) {
             throw new InvalidAnnotationException(String.format(
                     "The key generation objects, and the resulting objects do not match in size for [%s].", methodToCache.toString()));
         }
 
+        final Map<String, Object> key2CacheObject = new LinkedHashMap<String, Object>();
         Iterator<Object> returnListIter = returnList.iterator();
         Iterator<String> cacheKeyIter = cacheKeys.iterator();
         String cacheKey;
@@ -142,30 +140,35 @@ public class UpdateMultiCacheAdvice extends MultiCacheAdvice {
             result = returnListIter.next();
             cacheKey = cacheKeyIter.next();
             cacheObject = getCacheBase().getSubmission(result);
-            getCacheBase().getCache(data).setSilently(cacheKey, data.getExpiration(), cacheObject, serializationType);
+            key2CacheObject.put(cacheKey, cacheObject);
+        }
+
+        if (!key2CacheObject.isEmpty()) {
+            cache.setBulkSilently(key2CacheObject, data.getExpiration(), serializationType);
         }
     }
 
-    private void updateCacheWithMissed(final List<Object> dataUpdateContents, final MultiCacheCoordinator coord,
+    private void updateCacheWithMissed(final List<Object> dataUpdateContents, final MultiCacheCoordinator coord, final Cache cache,
             final UpdateMultiCacheOption option, final SerializationType serializationType) throws Exception {
         if (!dataUpdateContents.isEmpty()) {
             List<String> cacheKeys = getCacheBase().getCacheKeyBuilder().getCacheKeys(dataUpdateContents,
                     coord.getAnnotationData().getNamespace());
+            final Map<String, Object> key2Result = new LinkedHashMap<String, Object>();
             String cacheKey;
 
             Iterator<String> iter = cacheKeys.iterator();
             for (Object resultObject : dataUpdateContents) {
                 cacheKey = iter.next();
-                getCacheBase().getCache(coord.getAnnotationData()).setSilently(cacheKey, coord.getAnnotationData().getExpiration(),
-                        resultObject, serializationType);
+                key2Result.put(cacheKey, resultObject);
                 coord.getMissedObjects().remove(coord.getKey2Obj().get(cacheKey));
             }
+            cache.setBulkSilently(key2Result, coord.getAnnotationData().getExpiration(), serializationType);
         }
 
         if (option.overwriteNoNulls()) {
-            setNullValues(coord.getMissedObjects(), coord, serializationType);
+            setNullValues(coord.getMissedObjects(), coord, cache, serializationType);
         } else {
-            addNullValues(coord.getMissedObjects(), coord, serializationType);
+            addNullValues(coord.getMissedObjects(), coord, cache, serializationType);
         }
     }
 
@@ -17,8 +17,6 @@
 
 package com.google.code.ssm.aop.counter;
 
-import java.lang.reflect.Method;
-
 import org.aspectj.lang.JoinPoint;
 import org.aspectj.lang.annotation.AfterReturning;
 import org.aspectj.lang.annotation.Aspect;
@@ -26,8 +24,7 @@ import org.aspectj.lang.annotation.Pointcut;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
-import com.google.code.ssm.aop.support.AnnotationData;
-import com.google.code.ssm.aop.support.AnnotationDataBuilder;
+import com.google.code.ssm.aop.support.AdvicePlan;
 import com.google.code.ssm.api.counter.UpdateCounterInCache;
 
 /**
@@ -57,17 +54,14 @@ public class UpdateCounterInCacheAdvice extends CounterInCacheBase {
         // apply our caching after the underlying method completes successfully, and we will have
         // the same access to the method params.
         String cacheKey = null;
-        UpdateCounterInCache annotation;
         try {
-            Method methodToCache = getCacheBase().getMethodToCache(jp, UpdateCounterInCache.class);
-            annotation = methodToCache.getAnnotation(UpdateCounterInCache.class);
-            AnnotationData data = AnnotationDataBuilder.buildAnnotationData(annotation, UpdateCounterInCache.class, methodToCache);
-            cacheKey = getCacheBase().getCacheKeyBuilder().getCacheKey(data, jp.getArgs(), methodToCache.toString());
+            AdvicePlan<UpdateCounterInCache> plan = getCacheBase().getAdvicePlan(jp, UpdateCounterInCache.class);
+            cacheKey = getCacheBase().getCacheKeyBuilder().getCacheKey(plan.getAnnotationData(), jp.getArgs(), plan.getMethodDesc());
 
-            Object dataObject = getCacheBase().getUpdateData(data, methodToCache, jp.getArgs(), retVal);
+            Object dataObject = getCacheBase().getUpdateData(plan, jp.getArgs(), retVal);
             if (checkData(dataObject, jp)) {
                 long value = ((Number) dataObject).longValue();
-                getCacheBase().getCache(data).setCounter(cacheKey, annotation.expiration(), value);
+                plan.getCache().setCounter(cacheKey, plan.getAnnotation().expiration(), value);
             }
         } catch (Exception ex) {
             warn(ex, "Updating counter [%s] in cache via %s aborted due to an error.", cacheKey, jp.toShortString());
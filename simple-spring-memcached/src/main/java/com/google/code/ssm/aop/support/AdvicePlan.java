@@ -0,0 +1,97 @@
+/*
+ * Copyright (c) 2012-2019 Jakub Białek
+ * 
+ * Permission is hereby granted, free of charge, to any person obtaining a copy of this software and associated
+ * documentation files (the "Software"), to deal in the Software without restriction, including without limitation the
+ * rights to use, copy, modify, merge, publish, distribute, sublicense, and/or sell copies of the Software, and to
+ * permit persons to whom the Software is furnished to do so, subject to the following conditions:
+ * 
+ * The above copyright notice and this permission notice shall be included in all copies or substantial portions of the
+ * Software.
+ * 
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR IMPLIED, INCLUDING BUT NOT LIMITED TO THE
+ * WARRANTIES OF MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR
+ * COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR
+ * OTHERWISE, ARISING FROM, OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE SOFTWARE.
+ */
+
+package com.google.code.ssm.aop.support;
+
+import java.lang.annotation.Annotation;
+import java.lang.reflect.Method;
+
+import lombok.Getter;
+
+import com.google.code.ssm.Cache;
+import com.google.code.ssm.api.format.SerializationType;
+import com.google.code.ssm.metrics.CacheMetricTags;
+
+/**
+ * Everything that the cache advices need to know about an intercepted method and that doesn't change between
+ * invocations: the resolved target method, its cache annotation, the annotation data, the serialization type and the
+ * cache. Once created the plan is reused by all subsequent invocations of the same method, so no reflection is
+ * required on the hot path.
+ * 
+ * @author Jakub Białek
+ * @since 4.3.0
+ * 
+ */
+@Getter
+public class AdvicePlan<T extends Annotation> {
+
+    private final Method method;
+
+    /**
+     * The result of {@link Method#toString()} used as a method description in error messages and key builders.
+     */
+    private final String methodDesc;
+
+    private final T annotation;
+
+    private final AnnotationData annotationData;
+
+    /**
+     * The serialization type defined on method or class level or null if default serialization type of the cache
+     * should be used.
+     */
+    private final SerializationType serializationType;
+
+    private final Cache cache;
+
+    /**
+     * The same cache as {@link #cache} but without measurements, used by operations that mustn't be recorded (e.g.
+     * polls while waiting for a value stored by other client). If metrics are disabled it's the same instance as
+     * {@link #cache}.
+     */
+    private final Cache unmeteredCache;
+
+    /**
+     * The adapter of asynchronous return type (e.g. CompletableFuture or Mono) or null if the method returns value
+     * synchronously. It's used only by single and multi read through advices.
+     */
+    private final AsyncResultAdapter asyncResultAdapter;
+
+    /**
+     * The tags of measurements recorded for the method.
+     */
+    private final CacheMetricTags metricTags;
+
+    public AdvicePlan(final Method method, final T annotation, final AnnotationData annotationData,
+            final SerializationType serializationType, final Cache cache, final CacheMetricTags metricTags) {
+        this(method, annotation, annotationData, serializationType, cache, cache, metricTags);
+    }
+
+    public AdvicePlan(final Method method, final T annotation, final AnnotationData annotationData,
+            final SerializationType serializationType, final Cache cache, final Cache unmeteredCache, final CacheMetricTags metricTags) {
+        this.method = method;
+        this.methodDesc = method.toString();
+        this.annotation = annotation;
+        this.annotationData = annotationData;
+        this.serializationType = serializationType;
+        this.cache = cache;
+        this.unmeteredCache = unmeteredCache;
+        this.asyncResultAdapter = AsyncResultAdapters.forType(method.getReturnType());
+        this.metricTags = metricTags;
+    }
+
+}
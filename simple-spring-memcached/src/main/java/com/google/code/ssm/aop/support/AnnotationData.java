@@ -48,6 +48,13 @@ public class AnnotationData {
     private String className = "";
     private String assignedKey = "";
     private String cacheName = AnnotationConstants.DEFAULT_CACHE_NAME;
+    private boolean coalesceMisses;
+    private boolean distributedLock;
+    private int lockExpiration;
+    private int lockWaitTime;
+    private boolean earlyRefresh;
+    private double earlyRefreshBeta;
+    private int refreshAfter;
 
     public boolean isReturnDataIndex() {
         return dataIndex == RETURN_INDEX;
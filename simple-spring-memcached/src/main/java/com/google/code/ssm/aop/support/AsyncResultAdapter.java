@@ -0,0 +1,52 @@
+/*
+ * Copyright (c) 2012-2019 Jakub Białek
+ * 
+ * Permission is hereby granted, free of charge, to any person obtaining a copy of this software and associated
+ * documentation files (the "Software"), to deal in the Software without restriction, including without limitation the
+ * rights to use, copy, modify, merge, publish, distribute, sublicense, and/or sell copies of the Software, and to
+ * permit persons to whom the Software is furnished to do so, subject to the following conditions:
+ * 
+ * The above copyright notice and this permission notice shall be included in all copies or substantial portions of the
+ * Software.
+ * 
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR IMPLIED, INCLUDING BUT NOT LIMITED TO THE
+ * WARRANTIES OF MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR
+ * COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR
+ * OTHERWISE, ARISING FROM, OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE SOFTWARE.
+ */
+
+package com.google.code.ssm.aop.support;
+
+import java.util.concurrent.CompletableFuture;
+import java.util.function.Supplier;
+
+/**
+ * Bridges asynchronous return type of intercepted method (e.g. {@link CompletableFuture} or Reactor's Mono and Flux)
+ * and {@link CompletableFuture} used by read through advices to lookup and store values without blocking.
+ * 
+ * @author Jakub Białek
+ * @since 4.3.0
+ * 
+ */
+public interface AsyncResultAdapter {
+
+    /**
+     * Converts value returned by intercepted method to future completed with the value that should be cached.
+     * 
+     * @param returned
+     *            the value returned by intercepted method, may be null
+     * @return future completed with the value to cache or null
+     */
+    CompletableFuture<Object> toFuture(final Object returned);
+
+    /**
+     * Creates value returned to the caller of intercepted method. If the return type supports lazy execution the
+     * source is invoked on subscription, otherwise it's invoked immediately.
+     * 
+     * @param source
+     *            the source of future completed with the result of intercepted method
+     * @return value of intercepted method's return type
+     */
+    Object fromFuture(final Supplier<CompletableFuture<Object>> source);
+
+}
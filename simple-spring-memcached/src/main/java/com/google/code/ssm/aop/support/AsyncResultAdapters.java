@@ -0,0 +1,84 @@
+/*
+ * Copyright (c) 2012-2019 Jakub Białek
+ * 
+ * Permission is hereby granted, free of charge, to any person obtaining a copy of this software and associated
+ * documentation files (the "Software"), to deal in the Software without restriction, including without limitation the
+ * rights to use, copy, modify, merge, publish, distribute, sublicense, and/or sell copies of the Software, and to
+ * permit persons to whom the Software is furnished to do so, subject to the following conditions:
+ * 
+ * The above copyright notice and this permission notice shall be included in all copies or substantial portions of the
+ * Software.
+ * 
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR IMPLIED, INCLUDING BUT NOT LIMITED TO THE
+ * WARRANTIES OF MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR
+ * COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR
+ * OTHERWISE, ARISING FROM, OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE SOFTWARE.
+ */
+
+package com.google.code.ssm.aop.support;
+
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionStage;
+import java.util.function.Supplier;
+
+import org.springframework.util.ClassUtils;
+
+/**
+ * Resolves {@link AsyncResultAdapter} for the return type of intercepted method. {@link CompletableFuture} and
+ * {@link CompletionStage} are always supported, Reactor's Mono and Flux only if reactor-core is on the classpath.
+ * 
+ * @author Jakub Białek
+ * @since 4.3.0
+ * 
+ */
+public final class AsyncResultAdapters {
+
+    private static final boolean REACTOR_PRESENT = ClassUtils.isPresent("reactor.core.publisher.Mono",
+            AsyncResultAdapters.class.getClassLoader());
+
+    private static final AsyncResultAdapter FUTURE_ADAPTER = new CompletableFutureAdapter();
+
+    private AsyncResultAdapters() {
+
+    }
+
+    /**
+     * 
+     * @param returnType
+     *            the return type of intercepted method
+     * @return the adapter for given type or null if the type is not asynchronous
+     */
+    public static AsyncResultAdapter forType(final Class<?> returnType) {
+        if (CompletionStage.class.isAssignableFrom(returnType) && returnType.isAssignableFrom(CompletableFuture.class)) {
+            return FUTURE_ADAPTER;
+        }
+
+        if (REACTOR_PRESENT) {
+            // reactor classes are referenced only from separate class to not load them if reactor is missing
+            return ReactorResultAdapters.forType(returnType);
+        }
+
+        return null;
+    }
+
+    private static class CompletableFutureAdapter implements AsyncResultAdapter {
+
+        @Override
+        @SuppressWarnings("unchecked")
+        public CompletableFuture<Object> toFuture(final Object returned) {
+            if (returned == null) {
+                return CompletableFuture.completedFuture(null);
+            }
+
+            return ((CompletionStage<Object>) returned).toCompletableFuture();
+        }
+
+        @Override
+        public Object fromFuture(final Supplier<CompletableFuture<Object>> source) {
+            // future is eager, there is nothing to defer
+            return source.get();
+        }
+
+    }
+
+}
@@ -18,6 +18,9 @@
 package com.google.code.ssm.aop.support;
 
 import java.util.List;
+import java.util.function.BiConsumer;
+
+import com.google.code.ssm.api.ReadThroughCacheOption;
 
 /**
  * Builds whole cache key.
@@ -36,6 +39,41 @@ public interface CacheKeyBuilder {
 
     List<String> getCacheKeys(final AnnotationData data, final Object[] args, final String methodDesc);
 
+    /**
+     * Generates cache key of each element of the list argument and passes the element together with its key to the
+     * consumer, in the order of the list.
+     * 
+     * @param data
+     * @param args
+     * @param methodDesc
+     * @param consumer
+     *            receives list element and its cache key
+     * @since 4.3.0
+     */
+    default void forEachCacheKey(final AnnotationData data, final Object[] args, final String methodDesc,
+            final BiConsumer<Object, String> consumer) {
+        final List<String> cacheKeys = getCacheKeys(data, args, methodDesc);
+        @SuppressWarnings("unchecked")
+        final List<Object> listObjects = (List<Object>) args[data.getListIndexInMethodArgs()];
+
+        int i = 0;
+        for (final Object obj : listObjects) {
+            consumer.accept(obj, cacheKeys.get(i++));
+        }
+    }
+
     String getAssignCacheKey(final AnnotationData data);
 
+    /**
+     * Builds key of the lock guarding loading of the value stored under given cache key.
+     * 
+     * @param cacheKey
+     *            the whole cache key
+     * @return cache key with {@link ReadThroughCacheOption#LOCK_KEY_SUFFIX}
+     * @since 4.3.0
+     */
+    default String getLockKey(final String cacheKey) {
+        return cacheKey + ReadThroughCacheOption.LOCK_KEY_SUFFIX;
+    }
+
 }
@@ -20,10 +20,14 @@ package com.google.code.ssm.aop.support;
 import java.security.InvalidParameterException;
 import java.util.ArrayList;
 import java.util.List;
+import java.util.function.BiConsumer;
 
+import com.google.code.ssm.api.ReadThroughCacheOption;
 import com.google.code.ssm.util.Utils;
 
 /**
+ * Builds cache keys in format <code>namespace:id1/id2/...</code>, each key is passed through {@link CacheKeyEncoder} so
+ * namespace can be replaced by a short code and too long keys are hashed.
  * 
  * @author Jakub Białek
  * @since 2.0.0
@@ -37,6 +41,8 @@ public class CacheKeyBuilderImpl implements CacheKeyBuilder { // NO_UCD
 
     private KeyProvider defaultKeyProvider = new DefaultKeyProvider();
 
+    private CacheKeyEncoder keyEncoder = new CacheKeyEncoder();
+
     public void setDefaultKeyProvider(final KeyProvider defaultKeyProvider) {
         this.defaultKeyProvider = defaultKeyProvider;
     }
@@ -45,6 +51,20 @@ public class CacheKeyBuilderImpl implements CacheKeyBuilder { // NO_UCD
         return this.defaultKeyProvider;
     }
 
+    /**
+     * @since 4.3.0
+     */
+    public void setKeyEncoder(final CacheKeyEncoder keyEncoder) {
+        this.keyEncoder = keyEncoder;
+    }
+
+    /**
+     * @since 4.3.0
+     */
+    public CacheKeyEncoder getKeyEncoder() {
+        return this.keyEncoder;
+    }
+
     @Override
     public String getCacheKey(final AnnotationData data, final Object[] args, final String methodDesc) throws Exception {
         final Object[] keysObjects = Utils.getMethodArgs(data.getKeyIndexes(), args, methodDesc);
@@ -60,15 +80,15 @@ public class CacheKeyBuilderImpl implements CacheKeyBuilder { // NO_UCD
      */
     @Override
     public String getCacheKey(final Object keyObject, final String namespace) {
-        return namespace + SEPARATOR + defaultKeyProvider.generateKey(keyObject);
+        return keyEncoder.encodeKey(keyEncoder.encodeNamespace(namespace) + SEPARATOR + defaultKeyProvider.generateKey(keyObject));
     }
 
     @Override
     public List<String> getCacheKeys(final List<Object> keyObjects, final String namespace) throws Exception {
-        final List<String> results = new ArrayList<String>();
+        final List<String> results = new ArrayList<String>(keyObjects.size());
+        final String prefix = keyEncoder.encodeNamespace(namespace) + SEPARATOR;
         for (final Object object : keyObjects) {
-            final String objectId = defaultKeyProvider.generateKey(object);
-            results.add(getCacheKey(objectId, namespace));
+            results.add(keyEncoder.encodeKey(prefix.concat(defaultKeyProvider.generateKey(object))));
         }
 
         return results;
@@ -79,21 +99,44 @@ public class CacheKeyBuilderImpl implements CacheKeyBuilder { // NO_UCD
         @SuppressWarnings("unchecked")
         final List<Object> listObjects = (List<Object>) args[data.getListIndexInMethodArgs()];
         final List<String> cacheKeys = new ArrayList<String>(listObjects.size());
+        forEachCacheKey(data, args, methodDesc, (obj, cacheKey) -> cacheKeys.add(cacheKey));
+
+        return cacheKeys;
+    }
+
+    @Override
+    public void forEachCacheKey(final AnnotationData data, final Object[] args, final String methodDesc,
+            final BiConsumer<Object, String> consumer) {
+        @SuppressWarnings("unchecked")
+        final List<Object> listObjects = (List<Object>) args[data.getListIndexInMethodArgs()];
+        if (listObjects.isEmpty()) {
+            return;
+        }
+
         final Object[] keyObjects = Utils.getMethodArgs(data.getKeyIndexes(), args, methodDesc);
+        final int listIndex = data.getListIndexInKeys();
 
-        Object[] keys = new Object[keyObjects.length];
-        System.arraycopy(keyObjects, 0, keys, 0, keys.length);
+        // namespace and parts of the key generated from other arguments are the same for each element of the list
+        final StringBuilder cacheKey = new StringBuilder(64).append(keyEncoder.encodeNamespace(data.getNamespace())).append(SEPARATOR);
+        for (int i = 0; i < listIndex; i++) {
+            cacheKey.append(generateKeyPart(keyObjects[i])).append(ID_SEPARATOR);
+        }
+        final int prefixLength = cacheKey.length();
+
+        final StringBuilder suffix = new StringBuilder();
+        for (int i = listIndex + 1; i < keyObjects.length; i++) {
+            suffix.append(ID_SEPARATOR).append(generateKeyPart(keyObjects[i]));
+        }
 
         for (final Object obj : listObjects) {
             if (obj == null) {
                 throw new InvalidParameterException("One of the passed in key objects is null");
             }
 
-            keys[data.getListIndexInKeys()] = obj;
-            cacheKeys.add(getCacheKey(keys, data.getNamespace()));
+            cacheKey.setLength(prefixLength);
+            cacheKey.append(generateKeyPart(obj)).append(suffix);
+            consumer.accept(obj, keyEncoder.encodeKey(cacheKey.toString()));
         }
-
-        return cacheKeys;
     }
 
     @Override
@@ -101,7 +144,13 @@ public class CacheKeyBuilderImpl implements CacheKeyBuilder { // NO_UCD
         if (data == null || data.getAssignedKey() == null || data.getAssignedKey().length() < 1) {
             throw new InvalidParameterException("Ids for objects in the cache must be at least 1 character long.");
         }
-        return data.getNamespace() + SEPARATOR + data.getAssignedKey();
+        return keyEncoder.encodeKey(keyEncoder.encodeNamespace(data.getNamespace()) + SEPARATOR + data.getAssignedKey());
+    }
+
+    // suffix can make valid cache key too long, so lock key is encoded again
+    @Override
+    public String getLockKey(final String cacheKey) {
+        return keyEncoder.encodeKey(cacheKey + ReadThroughCacheOption.LOCK_KEY_SUFFIX);
     }
 
     private String getCacheKey(final Object[] keyObjects, final String namespace) {
@@ -110,7 +159,7 @@ public class CacheKeyBuilderImpl implements CacheKeyBuilder { // NO_UCD
         }
 
         final String[] objectIds = defaultKeyProvider.generateKeys(keyObjects);
-        return buildCacheKey(objectIds, namespace);
+        return keyEncoder.encodeKey(buildCacheKey(objectIds, keyEncoder.encodeNamespace(namespace)));
     }
 
     /**
@@ -138,6 +187,12 @@ public class CacheKeyBuilderImpl implements CacheKeyBuilder { // NO_UCD
         return cacheKey.toString();
     }
 
+    private String generateKeyPart(final Object keyObject) {
+        final String keyPart = defaultKeyProvider.generateKey(keyObject);
+        checkKeyPart(keyPart);
+        return keyPart;
+    }
+
     private void checkKeyPart(final String keyPart) {
         if (keyPart == null || keyPart.length() < 1) {
             throw new InvalidParameterException("Ids for objects in the cache must be at least 1 character long.");
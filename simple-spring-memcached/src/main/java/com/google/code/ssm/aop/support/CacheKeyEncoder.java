@@ -0,0 +1,171 @@
+/*
+ * Copyright (c) 2012-2019 Jakub Białek
+ * 
+ * Permission is hereby granted, free of charge, to any person obtaining a copy of this software and associated
+ * documentation files (the "Software"), to deal in the Software without restriction, including without limitation the
+ * rights to use, copy, modify, merge, publish, distribute, sublicense, and/or sell copies of the Software, and to
+ * permit persons to whom the Software is furnished to do so, subject to the following conditions:
+ * 
+ * The above copyright notice and this permission notice shall be included in all copies or substantial portions of the
+ * Software.
+ * 
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR IMPLIED, INCLUDING BUT NOT LIMITED TO THE
+ * WARRANTIES OF MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR
+ * COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR
+ * OTHERWISE, ARISING FROM, OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE SOFTWARE.
+ */
+
+package com.google.code.ssm.aop.support;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Base64;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Map;
+
+import com.google.code.ssm.util.MurmurHash3;
+
+/**
+ * Last stage of building cache keys. Replaces namespaces with registered short codes and hashes keys that cannot be
+ * used in memcached: longer than {@link #getMaxKeyLength()} bytes or containing whitespace, control or non ASCII
+ * characters. Hashed key keeps a readable prefix of the original key followed by '#' and base64 of its 128 bits
+ * MurmurHash3 (22 characters). Keys that can be used as they are remain unchanged.
+ * 
+ * Hashing can be disabled by {@link #setHashUnsafeKeys(boolean)}. Memcached rejects keys that are hashed, so for it
+ * hashing doesn't change any key that could have been stored before. Other providers, e.g. Momento, accept such keys
+ * as they are; with hashing enabled their values cached under long or unsafe keys are no longer found after the
+ * upgrade and have to be read through again, so for them hashing should be disabled to keep existing keys.
+ * 
+ * If the cache is prefixed with its name (see {@link com.google.code.ssm.PrefixedCacheImpl}) the max key length should
+ * be lowered by length of the prefix.
+ * 
+ * @author Jakub Białek
+ * @since 4.3.0
+ * 
+ */
+public class CacheKeyEncoder {
+
+    public static final int DEFAULT_MAX_KEY_LENGTH = 250;
+
+    public static final int DEFAULT_HASHED_KEY_PREFIX_LENGTH = 64;
+
+    private static final char HASH_SEPARATOR = '#';
+
+    // length of 16 bytes hash encoded in base64 without padding
+    private static final int HASH_LENGTH = 22;
+
+    private static final Base64.Encoder BASE64 = Base64.getUrlEncoder().withoutPadding();
+
+    private Map<String, String> namespaceCodes = Collections.emptyMap();
+
+    private int maxKeyLength = DEFAULT_MAX_KEY_LENGTH;
+
+    private int hashedKeyPrefixLength = DEFAULT_HASHED_KEY_PREFIX_LENGTH;
+
+    private boolean hashUnsafeKeys = true;
+
+    public Map<String, String> getNamespaceCodes() {
+        return namespaceCodes;
+    }
+
+    /**
+     * Registers short codes used in cache keys instead of namespaces. Changing the code of a namespace invalidates all
+     * cached values of the namespace.
+     * 
+     * @param namespaceCodes
+     *            mapping namespace -> code, codes have to be unique
+     */
+    public void setNamespaceCodes(final Map<String, String> namespaceCodes) {
+        if (new HashSet<String>(namespaceCodes.values()).size() != namespaceCodes.size()) {
+            throw new IllegalArgumentException("Each namespace has to have different code: " + namespaceCodes);
+        }
+        this.namespaceCodes = Collections.unmodifiableMap(new HashMap<String, String>(namespaceCodes));
+    }
+
+    public int getMaxKeyLength() {
+        return maxKeyLength;
+    }
+
+    /**
+     * 
+     * @param maxKeyLength
+     *            keys longer than given number of bytes are hashed
+     */
+    public void setMaxKeyLength(final int maxKeyLength) {
+        if (maxKeyLength <= HASH_LENGTH) {
+            throw new IllegalArgumentException(String.format("Max key length has to be greater than %d", HASH_LENGTH));
+        }
+        this.maxKeyLength = maxKeyLength;
+    }
+
+    public int getHashedKeyPrefixLength() {
+        return hashedKeyPrefixLength;
+    }
+
+    /**
+     * 
+     * @param hashedKeyPrefixLength
+     *            max number of characters of the original key kept in the hashed key, 0 to keep only the hash
+     */
+    public void setHashedKeyPrefixLength(final int hashedKeyPrefixLength) {
+        if (hashedKeyPrefixLength < 0) {
+            throw new IllegalArgumentException("Prefix length cannot be negative");
+        }
+        this.hashedKeyPrefixLength = hashedKeyPrefixLength;
+    }
+
+    public boolean isHashUnsafeKeys() {
+        return hashUnsafeKeys;
+    }
+
+    /**
+     * 
+     * @param hashUnsafeKeys
+     *            false to keep keys that cannot be used in memcached as they are, for providers accepting any keys
+     */
+    public void setHashUnsafeKeys(final boolean hashUnsafeKeys) {
+        this.hashUnsafeKeys = hashUnsafeKeys;
+    }
+
+    /**
+     * 
+     * @param namespace
+     * @return the code registered for the namespace or the namespace if there is no code
+     */
+    public String encodeNamespace(final String namespace) {
+        final String code = namespaceCodes.get(namespace);
+        return code != null ? code : namespace;
+    }
+
+    /**
+     * 
+     * @param cacheKey
+     *            the whole cache key
+     * @return the key or its hashed form if the key cannot be used in memcached and hashing is enabled
+     */
+    public String encodeKey(final String cacheKey) {
+        final int length = cacheKey.length();
+        if (!hashUnsafeKeys || length <= maxKeyLength && readablePrefixLength(cacheKey, length) == length) {
+            return cacheKey;
+        }
+
+        final byte[] hash = MurmurHash3.hash128(cacheKey.getBytes(StandardCharsets.UTF_8));
+        final int prefixLength = readablePrefixLength(cacheKey, Math.min(hashedKeyPrefixLength, maxKeyLength - HASH_LENGTH - 1));
+        return new StringBuilder(prefixLength + HASH_LENGTH + 1).append(cacheKey, 0, prefixLength).append(HASH_SEPARATOR)
+                .append(BASE64.encodeToString(hash)).toString();
+    }
+
+    // number of leading printable ASCII characters, each takes single byte in the key
+    private int readablePrefixLength(final String cacheKey, final int maxLength) {
+        final int limit = Math.min(maxLength, cacheKey.length());
+        for (int i = 0; i < limit; i++) {
+            final char c = cacheKey.charAt(i);
+            if (c <= ' ' || c > '~') {
+                return i;
+            }
+        }
+        return limit;
+    }
+
+}
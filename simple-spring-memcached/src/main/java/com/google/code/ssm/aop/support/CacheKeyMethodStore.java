@@ -19,6 +19,7 @@
 package com.google.code.ssm.aop.support;
 
 import java.lang.reflect.Method;
+import java.util.function.Function;
 
 import com.google.code.ssm.api.CacheKeyMethod;
 
@@ -41,4 +42,25 @@ public interface CacheKeyMethodStore {
      */
     Method getKeyMethod(final Class<?> keyClass) throws NoSuchMethodException;
 
+    /**
+     * Gets function calculating cache key of objects of given class. By default the function invokes the method
+     * returned by {@link #getKeyMethod(Class)} using reflection.
+     * 
+     * @param keyClass
+     * @return function used to calculate cache key
+     * @throws NoSuchMethodException
+     *             if class doesn't contain method annotated by {@link CacheKeyMethod} or toString() method
+     * @since 4.3.0
+     */
+    default Function<Object, String> getKeyExtractor(final Class<?> keyClass) throws NoSuchMethodException {
+        final Method keyMethod = getKeyMethod(keyClass);
+        return keyObject -> {
+            try {
+                return (String) keyMethod.invoke(keyObject, (Object[]) null);
+            } catch (ReflectiveOperationException ex) {
+                throw new RuntimeException(ex);
+            }
+        };
+    }
+
 }
@@ -18,9 +18,21 @@
 
 package com.google.code.ssm.aop.support;
 
+import java.lang.invoke.CallSite;
+import java.lang.invoke.LambdaMetafactory;
+import java.lang.invoke.MethodHandle;
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.MethodType;
 import java.lang.reflect.Method;
+import java.lang.reflect.Modifier;
+import java.math.BigDecimal;
+import java.math.BigInteger;
 import java.util.Map;
+import java.util.UUID;
 import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Function;
+
+import org.springframework.util.ClassUtils;
 
 import com.google.code.ssm.api.CacheKeyMethod;
 
@@ -34,8 +46,14 @@ public class CacheKeyMethodStoreImpl implements CacheKeyMethodStore { // NO_UCD
 
     public static final String DEFAULT_KEY_METHOD_NAME = "toString";
 
+    private static final Function<Object, String> TO_STRING = Object::toString;
+
+    private static final Function<Object, String> STRING = keyObject -> (String) keyObject;
+
     private final Map<Class<?>, Method> map = new ConcurrentHashMap<Class<?>, Method>();
 
+    private final Map<Class<?>, Function<Object, String>> extractors = new ConcurrentHashMap<Class<?>, Function<Object, String>>();
+
     @Override
     public Method getKeyMethod(final Class<?> keyClass) throws NoSuchMethodException {
         final Method storedMethod = find(keyClass);
@@ -61,6 +79,90 @@ public class CacheKeyMethodStoreImpl implements CacheKeyMethodStore { // NO_UCD
         return targetMethod;
     }
 
+    /**
+     * Gets function calculating cache key of objects of given class. Keys of strings, boxed primitives, big numbers and
+     * UUIDs (final classes that cannot declare {@link CacheKeyMethod}) are calculated without any lookup, for other
+     * classes the key method is compiled to a function once and stored.
+     */
+    @Override
+    public Function<Object, String> getKeyExtractor(final Class<?> keyClass) throws NoSuchMethodException {
+        if (keyClass == String.class) {
+            return STRING;
+        }
+        if (keyClass == Long.class || keyClass == Integer.class || keyClass == UUID.class || keyClass == Short.class
+                || keyClass == Byte.class || keyClass == Character.class || keyClass == Boolean.class || keyClass == BigInteger.class
+                || keyClass == BigDecimal.class) {
+            return TO_STRING;
+        }
+
+        Function<Object, String> extractor = extractors.get(keyClass);
+        if (extractor == null) {
+            extractor = compile(getKeyMethod(keyClass));
+            extractors.put(keyClass, extractor);
+        }
+
+        return extractor;
+    }
+
+    private Function<Object, String> compile(final Method method) {
+        if (DEFAULT_KEY_METHOD_NAME.equals(method.getName())) {
+            // virtual call invokes toString overridden in the key class
+            return TO_STRING;
+        }
+
+        final MethodHandles.Lookup lookup = MethodHandles.lookup();
+        if (isLinkable(method)) {
+            try {
+                return createLambda(lookup, method);
+            } catch (Throwable ex) {
+                // fall back to method handle below
+            }
+        }
+
+        final MethodHandle handle;
+        try {
+            method.setAccessible(true);
+            handle = lookup.unreflect(method).asType(MethodType.methodType(String.class, Object.class));
+        } catch (IllegalAccessException | RuntimeException ex) {
+            // inaccessible method, e.g. in a module that isn't open, is invoked using reflection
+            return keyObject -> invoke(method, keyObject);
+        }
+
+        return keyObject -> {
+            try {
+                return (String) handle.invokeExact(keyObject);
+            } catch (RuntimeException | Error ex) {
+                throw ex;
+            } catch (Throwable ex) {
+                throw new RuntimeException(ex);
+            }
+        };
+    }
+
+    // generated lambda class is defined in this class loader so the key class has to be public and visible from it
+    private boolean isLinkable(final Method method) {
+        final Class<?> declaringClass = method.getDeclaringClass();
+        return Modifier.isPublic(method.getModifiers()) && Modifier.isPublic(declaringClass.getModifiers())
+                && ClassUtils.isVisible(declaringClass, CacheKeyMethodStoreImpl.class.getClassLoader());
+    }
+
+    @SuppressWarnings("unchecked")
+    private Function<Object, String> createLambda(final MethodHandles.Lookup lookup, final Method method) throws Throwable {
+        final MethodHandle handle = lookup.unreflect(method);
+        final CallSite site = LambdaMetafactory.metafactory(lookup, "apply", MethodType.methodType(Function.class),
+                MethodType.methodType(Object.class, Object.class), handle,
+                MethodType.methodType(String.class, method.getDeclaringClass()));
+        return (Function<Object, String>) site.getTarget().invokeExact();
+    }
+
+    private String invoke(final Method method, final Object keyObject) {
+        try {
+            return (String) method.invoke(keyObject, (Object[]) null);
+        } catch (ReflectiveOperationException ex) {
+            throw new RuntimeException(ex);
+        }
+    }
+
     private Method getFromClass(final Class<?> keyClass) {
         Method targetMethod = null;
         final Method[] methods = keyClass.getDeclaredMethods();
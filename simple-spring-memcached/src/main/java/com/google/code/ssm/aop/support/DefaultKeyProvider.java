@@ -18,7 +18,6 @@
 
 package com.google.code.ssm.aop.support;
 
-import java.lang.reflect.Method;
 import java.security.InvalidParameterException;
 
 /**
@@ -44,12 +43,17 @@ public class DefaultKeyProvider implements KeyProvider { // NO_UCD
         if (keyObject == null) {
             throw new InvalidParameterException("keyObject must be defined");
         }
+        final String objectId;
         try {
-            final Method keyMethod = getKeyMethod(keyObject);
-            return generateObjectId(keyMethod, keyObject);
+            objectId = methodStore.getKeyExtractor(keyObject.getClass()).apply(keyObject);
         } catch (Exception ex) {
             throw new RuntimeException(ex);
         }
+
+        if (objectId == null || objectId.length() < 1) {
+            throw new RuntimeException("Got an empty key value from " + keyObject.getClass().getName());
+        }
+        return objectId;
     }
 
     @Override
@@ -66,16 +70,4 @@ public class DefaultKeyProvider implements KeyProvider { // NO_UCD
         return results;
     }
 
-    Method getKeyMethod(final Object keyObject) throws NoSuchMethodException {
-        return methodStore.getKeyMethod(keyObject.getClass());
-    }
-
-    String generateObjectId(final Method keyMethod, final Object keyObject) throws Exception {
-        final String objectId = (String) keyMethod.invoke(keyObject, (Object[]) null);
-        if (objectId == null || objectId.length() < 1) {
-            throw new RuntimeException("Got an empty key value from " + keyMethod.getName());
-        }
-        return objectId;
-    }
-
 }
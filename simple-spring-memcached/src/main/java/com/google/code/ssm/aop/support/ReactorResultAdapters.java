@@ -0,0 +1,97 @@
+/*
+ * Copyright (c) 2012-2019 Jakub Białek
+ * 
+ * Permission is hereby granted, free of charge, to any person obtaining a copy of this software and associated
+ * documentation files (the "Software"), to deal in the Software without restriction, including without limitation the
+ * rights to use, copy, modify, merge, publish, distribute, sublicense, and/or sell copies of the Software, and to
+ * permit persons to whom the Software is furnished to do so, subject to the following conditions:
+ * 
+ * The above copyright notice and this permission notice shall be included in all copies or substantial portions of the
+ * Software.
+ * 
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR IMPLIED, INCLUDING BUT NOT LIMITED TO THE
+ * WARRANTIES OF MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR
+ * COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR
+ * OTHERWISE, ARISING FROM, OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE SOFTWARE.
+ */
+
+package com.google.code.ssm.aop.support;
+
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.function.Supplier;
+
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+/**
+ * Adapters for Reactor's {@link Mono} and {@link Flux}. The cache lookup and the intercepted method are executed when
+ * the returned publisher is subscribed. Elements emitted by {@link Flux} are collected to a list, single read advices
+ * cache the list, multi read advices cache each element under its own key.
+ * 
+ * @author Jakub Białek
+ * @since 4.3.0
+ * 
+ */
+final class ReactorResultAdapters {
+
+    private static final AsyncResultAdapter MONO_ADAPTER = new MonoAdapter();
+
+    private static final AsyncResultAdapter FLUX_ADAPTER = new FluxAdapter();
+
+    private ReactorResultAdapters() {
+
+    }
+
+    static AsyncResultAdapter forType(final Class<?> returnType) {
+        if (Mono.class.equals(returnType)) {
+            return MONO_ADAPTER;
+        }
+
+        if (Flux.class.equals(returnType)) {
+            return FLUX_ADAPTER;
+        }
+
+        return null;
+    }
+
+    private static class MonoAdapter implements AsyncResultAdapter {
+
+        @Override
+        @SuppressWarnings("unchecked")
+        public CompletableFuture<Object> toFuture(final Object returned) {
+            if (returned == null) {
+                return CompletableFuture.completedFuture(null);
+            }
+
+            return ((Mono<Object>) returned).toFuture();
+        }
+
+        @Override
+        public Object fromFuture(final Supplier<CompletableFuture<Object>> source) {
+            return Mono.defer(() -> Mono.fromFuture(source.get()));
+        }
+
+    }
+
+    private static class FluxAdapter implements AsyncResultAdapter {
+
+        @Override
+        @SuppressWarnings("unchecked")
+        public CompletableFuture<Object> toFuture(final Object returned) {
+            if (returned == null) {
+                return CompletableFuture.completedFuture(null);
+            }
+
+            return ((Flux<Object>) returned).collectList().<Object> map(list -> list).toFuture();
+        }
+
+        @Override
+        @SuppressWarnings("unchecked")
+        public Object fromFuture(final Supplier<CompletableFuture<Object>> source) {
+            return Mono.defer(() -> Mono.fromFuture(source.get())).flatMapMany(list -> Flux.fromIterable((List<Object>) list));
+        }
+
+    }
+
+}
@@ -0,0 +1,96 @@
+/*
+ * Copyright (c) 2012-2019 Jakub Białek
+ * 
+ * Permission is hereby granted, free of charge, to any person obtaining a copy of this software and associated
+ * documentation files (the "Software"), to deal in the Software without restriction, including without limitation the
+ * rights to use, copy, modify, merge, publish, distribute, sublicense, and/or sell copies of the Software, and to
+ * permit persons to whom the Software is furnished to do so, subject to the following conditions:
+ * 
+ * The above copyright notice and this permission notice shall be included in all copies or substantial portions of the
+ * Software.
+ * 
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR IMPLIED, INCLUDING BUT NOT LIMITED TO THE
+ * WARRANTIES OF MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR
+ * COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR
+ * OTHERWISE, ARISING FROM, OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE SOFTWARE.
+ */
+
+package com.google.code.ssm.aop.support;
+
+import java.io.Serializable;
+
+import lombok.Data;
+
+/**
+ * Envelope stored in cache instead of a bare value when early refresh or refresh after is enabled. Besides the value it
+ * keeps the time needed to compute the value, the time when the value expires and the time after which the value is
+ * stale. They are required to decide if the value should be refreshed before it expires (XFetch: "Optimal Probabilistic
+ * Cache Stampede Prevention", Vattani et al.) or because it is stale.
+ * 
+ * @author Jakub Białek
+ * @since 4.3.0
+ * 
+ */
+@Data
+public class RefreshableValue implements Serializable {
+
+    private static final long serialVersionUID = 1L;
+
+    /**
+     * Wrapped value, {@link PertinentNegativeNull#NULL} if intercepted method returned null.
+     */
+    private Object value;
+
+    /**
+     * Time in milliseconds needed to compute the value.
+     */
+    private long computeTime;
+
+    /**
+     * Time in milliseconds since epoch when the value expires.
+     */
+    private long expiresAt;
+
+    /**
+     * Time in milliseconds since epoch after which the value is stale, 0 if the value never gets stale.
+     */
+    private long refreshAt;
+
+    public RefreshableValue() {
+
+    }
+
+    public RefreshableValue(final Object value, final long computeTime, final long expiresAt, final long refreshAt) {
+        this.value = value;
+        this.computeTime = computeTime;
+        this.expiresAt = expiresAt;
+        this.refreshAt = refreshAt;
+    }
+
+    /**
+     * 
+     * @param now
+     *            current time in milliseconds since epoch
+     * @return true if the value is stale and should be refreshed
+     */
+    public boolean isStaleAt(final long now) {
+        return refreshAt > 0 && now >= refreshAt;
+    }
+
+    /**
+     * Decides if the value should be recomputed now. The probability grows when the expiration time gets closer and
+     * is higher for values that take longer to compute.
+     * 
+     * @param beta
+     *            values greater than 1.0 favor earlier recomputation, lower than 1.0 favor later
+     * @param now
+     *            current time in milliseconds since epoch
+     * @param random
+     *            random number from (0, 1]
+     * @return true if the value should be recomputed
+     */
+    public boolean shouldRefresh(final double beta, final long now, final double random) {
+        return expiresAt > 0 && now - computeTime * beta * Math.log(random) >= expiresAt;
+    }
+
+}
@@ -0,0 +1,98 @@
+/*
+ * Copyright (c) 2012-2019 Jakub Białek
+ * 
+ * Permission is hereby granted, free of charge, to any person obtaining a copy of this software and associated
+ * documentation files (the "Software"), to deal in the Software without restriction, including without limitation the
+ * rights to use, copy, modify, merge, publish, distribute, sublicense, and/or sell copies of the Software, and to
+ * permit persons to whom the Software is furnished to do so, subject to the following conditions:
+ * 
+ * The above copyright notice and this permission notice shall be included in all copies or substantial portions of the
+ * Software.
+ * 
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR IMPLIED, INCLUDING BUT NOT LIMITED TO THE
+ * WARRANTIES OF MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR
+ * COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR
+ * OTHERWISE, ARISING FROM, OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE SOFTWARE.
+ */
+
+package com.google.code.ssm.aop.support.builder;
+
+import java.lang.annotation.Annotation;
+import java.lang.reflect.Method;
+
+import com.google.code.ssm.aop.support.AnnotationData;
+import com.google.code.ssm.aop.support.AsyncResultAdapters;
+import com.google.code.ssm.aop.support.InvalidAnnotationException;
+import com.google.code.ssm.api.ReadThroughAssignCache;
+import com.google.code.ssm.api.ReadThroughCacheOption;
+import com.google.code.ssm.api.ReadThroughSingleCache;
+
+/**
+ * 
+ * @author Jakub Białek
+ * @since 4.3.0
+ * 
+ */
+public class ReadThroughOptionBuilder extends AbstractDataBuilder {
+
+    @Override
+    protected void build(final AnnotationData data, final Annotation annotation, final Class<? extends Annotation> expectedAnnotationClass,
+            final Method targetMethod) throws Exception {
+        final ReadThroughCacheOption option = invokeMethod(annotation, expectedAnnotationClass, "option");
+        if (AsyncResultAdapters.forType(targetMethod.getReturnType()) != null && hasSyncOnlyOption(option)) {
+            throw new InvalidAnnotationException(String.format(
+                    "Options coalesceMisses, distributedLock, earlyRefresh and refreshAfter of annotation [%s] are not supported "
+                            + "on method [%s] with asynchronous return type [%s]", expectedAnnotationClass.getName(), targetMethod,
+                    targetMethod.getReturnType().getName()));
+        }
+
+        data.setCoalesceMisses(option.coalesceMisses());
+
+        if (option.distributedLock()) {
+            if (option.lockExpiration() <= 0) {
+                throwException("Lock expiration for annotation [%s] must be greater than 0 on [%s]", expectedAnnotationClass, targetMethod);
+            }
+            if (option.lockWaitTime() < 0) {
+                throwException("Lock wait time for annotation [%s] must be 0 or greater on [%s]", expectedAnnotationClass, targetMethod);
+            }
+            data.setDistributedLock(true);
+            data.setLockExpiration(option.lockExpiration());
+            data.setLockWaitTime(option.lockWaitTime());
+        }
+
+        if (option.earlyRefresh()) {
+            if (data.getExpiration() <= 0) {
+                throwException("Early refresh for annotation [%s] requires expiration greater than 0 on [%s]", expectedAnnotationClass,
+                        targetMethod);
+            }
+            if (option.earlyRefreshBeta() <= 0) {
+                throwException("Early refresh beta for annotation [%s] must be greater than 0 on [%s]", expectedAnnotationClass,
+                        targetMethod);
+            }
+            data.setEarlyRefresh(true);
+            data.setEarlyRefreshBeta(option.earlyRefreshBeta());
+        }
+
+        if (option.refreshAfter() != 0) {
+            if (option.refreshAfter() < 0) {
+                throwException("Refresh after for annotation [%s] must be 0 or greater on [%s]", expectedAnnotationClass, targetMethod);
+            }
+            if (data.getExpiration() > 0 && option.refreshAfter() >= data.getExpiration()) {
+                throwException("Refresh after for annotation [%s] must be lower than expiration on [%s]", expectedAnnotationClass,
+                        targetMethod);
+            }
+            data.setRefreshAfter(option.refreshAfter());
+        }
+    }
+
+    private boolean hasSyncOnlyOption(final ReadThroughCacheOption option) {
+        return option.coalesceMisses() || option.distributedLock() || option.earlyRefresh() || option.refreshAfter() != 0;
+    }
+
+    @Override
+    protected boolean support(final Class<? extends Annotation> expectedAnnotationClass) {
+        // counter annotations are also READ SINGLE but don't have options
+        return ReadThroughSingleCache.class.equals(expectedAnnotationClass) || ReadThroughAssignCache.class.equals(expectedAnnotationClass);
+    }
+
+}
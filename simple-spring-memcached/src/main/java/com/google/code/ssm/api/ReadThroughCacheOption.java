@@ -0,0 +1,130 @@
+/*
+ * Copyright (c) 2012-2019 Jakub Białek
+ * 
+ * Permission is hereby granted, free of charge, to any person obtaining a copy of this software and associated
+ * documentation files (the "Software"), to deal in the Software without restriction, including without limitation the
+ * rights to use, copy, modify, merge, publish, distribute, sublicense, and/or sell copies of the Software, and to
+ * permit persons to whom the Software is furnished to do so, subject to the following conditions:
+ * 
+ * The above copyright notice and this permission notice shall be included in all copies or substantial portions of the
+ * Software.
+ * 
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR IMPLIED, INCLUDING BUT NOT LIMITED TO THE
+ * WARRANTIES OF MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR
+ * COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR
+ * OTHERWISE, ARISING FROM, OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE SOFTWARE.
+ */
+
+package com.google.code.ssm.api;
+
+import java.lang.annotation.ElementType;
+import java.lang.annotation.Retention;
+import java.lang.annotation.RetentionPolicy;
+import java.lang.annotation.Target;
+
+/**
+ * Options of {@link ReadThroughSingleCache} and {@link ReadThroughAssignCache}.
+ * 
+ * The options are supported only on methods returning the value synchronously. If the method returns
+ * {@link java.util.concurrent.CompletableFuture} (or other asynchronous type) then setting any of
+ * {@link #coalesceMisses()}, {@link #distributedLock()}, {@link #earlyRefresh()} or {@link #refreshAfter()} is rejected
+ * with {@link com.google.code.ssm.aop.support.InvalidAnnotationException}.
+ * 
+ * @author Jakub Białek
+ * @since 4.3.0
+ * 
+ */
+@Retention(RetentionPolicy.RUNTIME)
+@Target(ElementType.ANNOTATION_TYPE)
+public @interface ReadThroughCacheOption {
+
+    /**
+     * If true then concurrent misses of the same cache key within single JVM are coalesced: only the first caller
+     * invokes the intercepted method and stores result in cache, the others wait for it and get the same result (the
+     * same instance) or the same exception.
+     * 
+     * Use it for expensive methods of popular keys to avoid many concurrent invocations when the key expires.
+     * 
+     */
+    boolean coalesceMisses() default false;
+
+    /**
+     * If true then on cache miss a lock entry is added to cache under cache key with {@link #LOCK_KEY_SUFFIX} suffix
+     * using memcached add operation. Only the caller that added the lock (on any node) invokes the intercepted method
+     * and stores result in cache, the others poll the cache for up to {@link #lockWaitTime()} milliseconds and if the
+     * value doesn't appear they invoke the intercepted method themselves.
+     * 
+     * Use it together with {@link #coalesceMisses()} to have at most one invocation in the whole cluster.
+     * 
+     * If {@link #refreshAfter()} or {@link #earlyRefresh()} is set as well, the background refresh of a stale value
+     * takes the same lock. All callers get the stale value from cache while the caller that added the lock refreshes
+     * it, callers on other nodes don't invoke the intercepted method. Polling happens only if the value is missing in
+     * cache, then there is no stale copy to return.
+     * 
+     * Lock key that would be too long is hashed like other keys. If adding the lock fails the intercepted method is
+     * invoked without the lock.
+     * 
+     */
+    boolean distributedLock() default false;
+
+    /**
+     * Expiration time of the lock entry in seconds. It should be longer than the time of the intercepted method
+     * invocation. It is used only if {@link #distributedLock()} is true.
+     * 
+     */
+    int lockExpiration() default 10;
+
+    /**
+     * How long in milliseconds a caller that didn't get the lock waits for the value to appear in cache. It is used
+     * only if {@link #distributedLock()} is true.
+     * 
+     */
+    int lockWaitTime() default 1000;
+
+    /**
+     * If true then the value is stored in cache together with the time needed to compute it and its expiration time
+     * (see {@link com.google.code.ssm.aop.support.RefreshableValue}). On each cache hit the value may be recomputed
+     * before it expires with probability growing when the expiration time gets closer. Only the unlucky caller
+     * refreshes the value in background (see {@link com.google.code.ssm.aop.CacheBase#setRefreshExecutor}), all callers
+     * get the value from cache, so popular keys never expire in cache.
+     * 
+     * Requires expiration greater than 0. Custom serialization has to support
+     * {@link com.google.code.ssm.aop.support.RefreshableValue}. The intercepted method is invoked on a refresh thread,
+     * see {@link #refreshAfter()} for restrictions.
+     * 
+     */
+    boolean earlyRefresh() default false;
+
+    /**
+     * Tunes how early the value is recomputed if {@link #earlyRefresh()} is true. Values greater than 1.0 favor
+     * earlier recomputation, lower than 1.0 favor later.
+     * 
+     */
+    double earlyRefreshBeta() default 1.0;
+
+    /**
+     * Time in seconds after which the cached value is stale. Stale value is still returned from cache but the intercepted
+     * method is invoked in background (see {@link com.google.code.ssm.aop.CacheBase#setRefreshExecutor}) to store fresh
+     * value in cache. The expiration of the annotation is still used as expiration of the value in cache so it should be
+     * greater than refresh after. If 0 (default) then the value never gets stale.
+     * 
+     * The value is stored in cache together with its stale time (see
+     * {@link com.google.code.ssm.aop.support.RefreshableValue}). Custom serialization has to support it.
+     * 
+     * The refresh calls {@code proceed()} of the intercepted join point on a refresh thread after the caller got the
+     * stale value. Only the advices and interceptors applied after the SSM aspect run again, on the refresh thread, and
+     * they don't see thread bound state of the caller. The intercepted method and these interceptors must not rely on
+     * transaction synchronization, security context, request scoped beans or
+     * {@code ExposeInvocationInterceptor.currentInvocation()}. Order the SSM aspect after (inside) transaction and
+     * security interceptors, or set a context propagating executor with
+     * {@link com.google.code.ssm.aop.CacheBase#setRefreshExecutor}. The same applies to {@link #earlyRefresh()}.
+     * 
+     */
+    int refreshAfter() default 0;
+
+    /**
+     * The suffix added to cache key to build the key of the lock entry.
+     */
+    String LOCK_KEY_SUFFIX = ":ssm-lock";
+
+}
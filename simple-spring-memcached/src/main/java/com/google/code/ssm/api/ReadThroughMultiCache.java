@@ -24,6 +24,11 @@ import java.lang.annotation.RetentionPolicy;
 import java.lang.annotation.Target;
 
 /**
+ * Methods returning {@link java.util.concurrent.CompletableFuture} of {@link java.util.List}, Reactor's Mono of List or
+ * Flux are cached without blocking: the cache is looked up asynchronously, the method is invoked only with missed keys
+ * (on subscription for Mono and Flux) and its results are stored in background. Elements emitted by Flux are treated
+ * as the list of results. If {@link ReadThroughMultiCacheOption#addNullsToCache()} is set, nulls are added on the
+ * background executor (see {@link com.google.code.ssm.aop.CacheBase#setRefreshExecutor}).
  * 
  * @author Nelson Carpentier
  * @author Jakub Białek
@@ -24,6 +24,10 @@ import java.lang.annotation.RetentionPolicy;
 import java.lang.annotation.Target;
 
 /**
+ * Methods returning {@link java.util.concurrent.CompletableFuture}, Reactor's Mono or Flux are cached without blocking:
+ * the cache is looked up asynchronously, the method is invoked on a miss (on subscription for Mono and Flux) and its
+ * result is stored in background. Elements of Flux are cached as a list. Distributed lock, coalescing misses and
+ * refreshing options are not applied to such methods.
  * 
  * @author Nelson Carpentier
  * @since 1.0.0
@@ -58,4 +62,12 @@ public @interface ReadThroughSingleCache {
      */
     int expiration() default 0;
 
+    /**
+     * Additional cache options.
+     * 
+     * @return additional options
+     * @since 4.3.0
+     */
+    ReadThroughCacheOption option() default @ReadThroughCacheOption();
+
 }
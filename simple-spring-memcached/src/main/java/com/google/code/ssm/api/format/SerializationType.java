@@ -32,5 +32,12 @@ public enum SerializationType {
     /** Data are serialized to and deserialized using java default machanizm. */
     JAVA,
     /** Custom serialization/deserialization which requires to register custom transcoder. */
-    CUSTOM;
+    CUSTOM,
+    /**
+     * Data are serialized to and deserialized from compact binary format, see
+     * {@link com.google.code.ssm.transcoders.BinaryTranscoder}.
+     * 
+     * @since 4.3.0
+     */
+    BINARY;
 }
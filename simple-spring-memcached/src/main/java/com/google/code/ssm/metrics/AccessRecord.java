@@ -0,0 +1,73 @@
+/*
+ * Copyright (c) 2012-2019 Jakub Białek
+ * 
+ * Permission is hereby granted, free of charge, to any person obtaining a copy of this software and associated
+ * documentation files (the "Software"), to deal in the Software without restriction, including without limitation the
+ * rights to use, copy, modify, merge, publish, distribute, sublicense, and/or sell copies of the Software, and to
+ * permit persons to whom the Software is furnished to do so, subject to the following conditions:
+ * 
+ * The above copyright notice and this permission notice shall be included in all copies or substantial portions of the
+ * Software.
+ * 
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR IMPLIED, INCLUDING BUT NOT LIMITED TO THE
+ * WARRANTIES OF MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR
+ * COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR
+ * OTHERWISE, ARISING FROM, OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE SOFTWARE.
+ */
+
+package com.google.code.ssm.metrics;
+
+import java.text.SimpleDateFormat;
+import java.util.Date;
+
+import lombok.Getter;
+
+/**
+ * Single sampled access to cache recorded by {@link AccessRecorder}.
+ * 
+ * @author Jakub Białek
+ * @since 4.3.0
+ * 
+ */
+@Getter
+public final class AccessRecord {
+
+    /**
+     * The time of access in milliseconds since epoch.
+     */
+    private final long timestamp;
+
+    private final String operation;
+
+    private final String key;
+
+    /**
+     * The size of value in bytes or -1 if unknown (e.g. value not found).
+     */
+    private final int size;
+
+    /**
+     * True if value was found (reads) or stored (writes).
+     */
+    private final boolean hit;
+
+    private final long latencyNanos;
+
+    public AccessRecord(final long timestamp, final String operation, final String key, final int size, final boolean hit,
+            final long latencyNanos) {
+        this.timestamp = timestamp;
+        this.operation = operation;
+        this.key = key;
+        this.size = size;
+        this.hit = hit;
+        this.latencyNanos = latencyNanos;
+    }
+
+    @Override
+    public String toString() {
+        // formatted only when dumped, never on the hot path
+        return new SimpleDateFormat("yyyy-MM-dd'T'HH:mm:ss.SSS").format(new Date(timestamp)) + " " + operation + " " + key + " "
+                + (hit ? "HIT" : "MISS") + " size: " + size + " latency: " + latencyNanos / 1000 + " us";
+    }
+
+}
@@ -0,0 +1,282 @@
+/*
+ * Copyright (c) 2012-2019 Jakub Białek
+ * 
+ * Permission is hereby granted, free of charge, to any person obtaining a copy of this software and associated
+ * documentation files (the "Software"), to deal in the Software without restriction, including without limitation the
+ * rights to use, copy, modify, merge, publish, distribute, sublicense, and/or sell copies of the Software, and to
+ * permit persons to whom the Software is furnished to do so, subject to the following conditions:
+ * 
+ * The above copyright notice and this permission notice shall be included in all copies or substantial portions of the
+ * Software.
+ * 
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR IMPLIED, INCLUDING BUT NOT LIMITED TO THE
+ * WARRANTIES OF MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR
+ * COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR
+ * OTHERWISE, ARISING FROM, OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE SOFTWARE.
+ */
+
+package com.google.code.ssm.metrics;
+
+import java.lang.management.ManagementFactory;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+
+import javax.management.JMException;
+import javax.management.ObjectName;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Records sampled accesses to cache in a fixed size ring buffer, the oldest records are overwritten by new ones.
+ * Recording is lock free and allocates only for sampled accesses. Sample rate can be set per namespace, namespace is
+ * the part of the raw key sent to the cache before the first {@value #NAMESPACE_SEPARATOR}. The raw key includes the
+ * cache name prefix added if {@link com.google.code.ssm.providers.CacheConfiguration#isUseNameAsKeyPrefix()} is set
+ * (e.g. {@code users#profiles} for cache {@code users}) and the namespace is replaced by its code registered in
+ * {@link com.google.code.ssm.aop.support.CacheKeyEncoder#setNamespaceCodes(Map)}, so the sample rate has to be set for
+ * the namespace as it appears in the key. Records can be dumped on demand through JMX, see
+ * {@link #registerMBean(String)}.
+ * 
+ * @author Jakub Białek
+ * @since 4.3.0
+ * 
+ */
+public class AccessRecorder implements AccessRecorderMBean {
+
+    public static final String NAMESPACE_SEPARATOR = ":";
+
+    public static final String OBJECT_NAME_PREFIX = "com.google.code.ssm:type=AccessRecorder,cache=";
+
+    public static final double DEFAULT_SAMPLE_RATE = 0.01;
+
+    private static final Logger LOGGER = LoggerFactory.getLogger(AccessRecorder.class);
+
+    private final AtomicReferenceArray<AccessRecord> records;
+
+    private final int mask;
+
+    private final AtomicLong sequence = new AtomicLong();
+
+    private volatile double defaultSampleRate = DEFAULT_SAMPLE_RATE;
+
+    // copied on write, namespaces are rarely changed and read on every access
+    private volatile NamespaceSampleRates namespaceSampleRates = new NamespaceSampleRates(Collections.<String, Double> emptyMap());
+
+    private ObjectName objectName;
+
+    /**
+     * Creates recorder.
+     * 
+     * @param capacity
+     *            the maximum number of kept records, rounded up to the power of two
+     */
+    public AccessRecorder(final int capacity) {
+        if (capacity < 1 || capacity > 1 << 30) {
+            throw new IllegalArgumentException("Capacity must be between 1 and 2^30 but is " + capacity);
+        }
+
+        final int size = Integer.highestOneBit(capacity) == capacity ? capacity : Integer.highestOneBit(capacity) << 1;
+        records = new AtomicReferenceArray<AccessRecord>(size);
+        mask = size - 1;
+    }
+
+    /**
+     * Records access if it's sampled.
+     * 
+     * @param operation
+     *            the operation (e.g. Get, Set)
+     * @param key
+     *            the key
+     * @param size
+     *            the size of value in bytes or -1 if unknown
+     * @param hit
+     *            true if value was found (reads) or stored (writes)
+     * @param latencyNanos
+     *            the duration of operation in nanoseconds
+     */
+    public void record(final String operation, final String key, final int size, final boolean hit, final long latencyNanos) {
+        if (!isSampled(key)) {
+            return;
+        }
+
+        final AccessRecord record = new AccessRecord(System.currentTimeMillis(), operation, key, size, hit, latencyNanos);
+        records.set((int) (sequence.getAndIncrement() & mask), record);
+    }
+
+    /**
+     * Gets recorded accesses from the oldest to the newest one. Accesses recorded during the call may or may not be
+     * included.
+     * 
+     * @return the records
+     */
+    public List<AccessRecord> getRecords() {
+        final long end = sequence.get();
+        final long start = Math.max(0, end - records.length());
+        final List<AccessRecord> result = new ArrayList<AccessRecord>((int) (end - start));
+        for (long i = start; i < end; i++) {
+            final AccessRecord record = records.get((int) (i & mask));
+            if (record != null) {
+                result.add(record);
+            }
+        }
+
+        return result;
+    }
+
+    @Override
+    public String[] dump() {
+        final List<AccessRecord> recorded = getRecords();
+        final String[] result = new String[recorded.size()];
+        for (int i = 0; i < result.length; i++) {
+            result[i] = recorded.get(i).toString();
+        }
+
+        return result;
+    }
+
+    @Override
+    public void clear() {
+        for (int i = 0; i < records.length(); i++) {
+            records.set(i, null);
+        }
+    }
+
+    @Override
+    public int getCapacity() {
+        return records.length();
+    }
+
+    @Override
+    public long getRecordedCount() {
+        return sequence.get();
+    }
+
+    @Override
+    public double getDefaultSampleRate() {
+        return defaultSampleRate;
+    }
+
+    @Override
+    public void setDefaultSampleRate(final double sampleRate) {
+        this.defaultSampleRate = validateSampleRate(sampleRate);
+    }
+
+    @Override
+    public synchronized void setNamespaceSampleRate(final String namespace, final double sampleRate) {
+        final Map<String, Double> copy = new HashMap<String, Double>(namespaceSampleRates.map);
+        copy.put(namespace, validateSampleRate(sampleRate));
+        namespaceSampleRates = new NamespaceSampleRates(copy);
+    }
+
+    /**
+     * Sets sample rates of namespaces, keys in other namespaces are sampled with default rate.
+     * 
+     * @param sampleRates
+     *            the mapping namespace - sample rate
+     */
+    public synchronized void setNamespaceSampleRates(final Map<String, Double> sampleRates) {
+        final Map<String, Double> copy = new HashMap<String, Double>();
+        for (final Map.Entry<String, Double> entry : sampleRates.entrySet()) {
+            copy.put(entry.getKey(), validateSampleRate(entry.getValue()));
+        }
+        namespaceSampleRates = new NamespaceSampleRates(copy);
+    }
+
+    public Map<String, Double> getNamespaceSampleRates() {
+        return Collections.unmodifiableMap(namespaceSampleRates.map);
+    }
+
+    /**
+     * Registers this recorder in platform MBean server. Failure is logged and doesn't prevent recording.
+     * 
+     * @param cacheName
+     *            the name of cache used in the object name
+     */
+    public synchronized void registerMBean(final String cacheName) {
+        try {
+            final ObjectName name = new ObjectName(OBJECT_NAME_PREFIX + ObjectName.quote(cacheName));
+            ManagementFactory.getPlatformMBeanServer().registerMBean(this, name);
+            objectName = name;
+        } catch (JMException e) {
+            LOGGER.warn(String.format("Cannot register access recorder of cache %s in MBean server", cacheName), e);
+        }
+    }
+
+    /**
+     * Unregisters this recorder from platform MBean server if it was registered.
+     */
+    public synchronized void unregisterMBean() {
+        if (objectName == null) {
+            return;
+        }
+
+        try {
+            ManagementFactory.getPlatformMBeanServer().unregisterMBean(objectName);
+        } catch (JMException e) {
+            LOGGER.warn(String.format("Cannot unregister access recorder %s from MBean server", objectName), e);
+        }
+        objectName = null;
+    }
+
+    private boolean isSampled(final String key) {
+        final double rate = key != null ? namespaceSampleRates.get(key, defaultSampleRate) : defaultSampleRate;
+        return rate >= 1.0 || (rate > 0.0 && ThreadLocalRandom.current().nextDouble() < rate);
+    }
+
+    private double validateSampleRate(final double sampleRate) {
+        if (sampleRate < 0.0 || sampleRate > 1.0) {
+            throw new IllegalArgumentException("Sample rate must be between 0 and 1 but is " + sampleRate);
+        }
+        return sampleRate;
+    }
+
+    /**
+     * Sample rates of namespaces. Namespaces are kept in an array as well to match the key prefix with
+     * {@link String#regionMatches(int, String, int, int)} without creating substring on each access, linear scan is
+     * fine for the few namespaces that are usually sampled differently.
+     */
+    private static final class NamespaceSampleRates {
+
+        private final Map<String, Double> map;
+
+        private final String[] namespaces;
+
+        private final double[] rates;
+
+        private NamespaceSampleRates(final Map<String, Double> map) {
+            this.map = map;
+            this.namespaces = new String[map.size()];
+            this.rates = new double[map.size()];
+            int i = 0;
+            for (final Map.Entry<String, Double> entry : map.entrySet()) {
+                namespaces[i] = entry.getKey();
+                rates[i++] = entry.getValue();
+            }
+        }
+
+        private double get(final String key, final double defaultRate) {
+            if (namespaces.length == 0) {
+                return defaultRate;
+            }
+
+            final int index = key.indexOf(NAMESPACE_SEPARATOR);
+            if (index > 0) {
+                for (int i = 0; i < namespaces.length; i++) {
+                    if (namespaces[i].length() == index && key.regionMatches(0, namespaces[i], 0, index)) {
+                        return rates[i];
+                    }
+                }
+            }
+
+            return defaultRate;
+        }
+
+    }
+
+}
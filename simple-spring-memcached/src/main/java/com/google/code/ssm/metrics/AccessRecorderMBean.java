@@ -0,0 +1,64 @@
+/*
+ * Copyright (c) 2012-2019 Jakub Białek
+ * 
+ * Permission is hereby granted, free of charge, to any person obtaining a copy of this software and associated
+ * documentation files (the "Software"), to deal in the Software without restriction, including without limitation the
+ * rights to use, copy, modify, merge, publish, distribute, sublicense, and/or sell copies of the Software, and to
+ * permit persons to whom the Software is furnished to do so, subject to the following conditions:
+ * 
+ * The above copyright notice and this permission notice shall be included in all copies or substantial portions of the
+ * Software.
+ * 
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR IMPLIED, INCLUDING BUT NOT LIMITED TO THE
+ * WARRANTIES OF MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR
+ * COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR
+ * OTHERWISE, ARISING FROM, OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE SOFTWARE.
+ */
+
+package com.google.code.ssm.metrics;
+
+/**
+ * JMX interface of {@link AccessRecorder}.
+ * 
+ * @author Jakub Białek
+ * @since 4.3.0
+ * 
+ */
+public interface AccessRecorderMBean {
+
+    /**
+     * Gets recorded accesses from the oldest to the newest one.
+     * 
+     * @return formatted records
+     */
+    String[] dump();
+
+    /**
+     * Removes all recorded accesses.
+     */
+    void clear();
+
+    int getCapacity();
+
+    /**
+     * Gets the number of accesses recorded since creation, including accesses already overwritten.
+     * 
+     * @return the number of recorded accesses
+     */
+    long getRecordedCount();
+
+    double getDefaultSampleRate();
+
+    void setDefaultSampleRate(final double sampleRate);
+
+    /**
+     * Sets the sample rate of keys in given namespace.
+     * 
+     * @param namespace
+     *            the namespace
+     * @param sampleRate
+     *            the sample rate from 0 (nothing recorded) to 1 (everything recorded)
+     */
+    void setNamespaceSampleRate(final String namespace, final double sampleRate);
+
+}
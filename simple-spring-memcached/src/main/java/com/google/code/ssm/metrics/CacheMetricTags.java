@@ -0,0 +1,55 @@
+/*
+ * Copyright (c) 2012-2019 Jakub Białek
+ * 
+ * Permission is hereby granted, free of charge, to any person obtaining a copy of this software and associated
+ * documentation files (the "Software"), to deal in the Software without restriction, including without limitation the
+ * rights to use, copy, modify, merge, publish, distribute, sublicense, and/or sell copies of the Software, and to
+ * permit persons to whom the Software is furnished to do so, subject to the following conditions:
+ * 
+ * The above copyright notice and this permission notice shall be included in all copies or substantial portions of the
+ * Software.
+ * 
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR IMPLIED, INCLUDING BUT NOT LIMITED TO THE
+ * WARRANTIES OF MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR
+ * COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR
+ * OTHERWISE, ARISING FROM, OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE SOFTWARE.
+ */
+
+package com.google.code.ssm.metrics;
+
+import lombok.EqualsAndHashCode;
+import lombok.Getter;
+import lombok.ToString;
+
+/**
+ * Identifies what is measured: the cache, the namespace and the type of cache annotation. Tags are created once per
+ * advised method so implementations of {@link CacheMetrics} can use them as keys to look up their meters.
+ * 
+ * @author Jakub Białek
+ * @since 4.3.0
+ * 
+ */
+@Getter
+@ToString
+@EqualsAndHashCode
+public final class CacheMetricTags {
+
+    private final String cacheName;
+
+    /**
+     * The namespace or null if unknown.
+     */
+    private final String namespace;
+
+    /**
+     * The simple name of cache annotation (e.g. ReadThroughSingleCache) or null if unknown.
+     */
+    private final String annotation;
+
+    public CacheMetricTags(final String cacheName, final String namespace, final String annotation) {
+        this.cacheName = cacheName;
+        this.namespace = namespace;
+        this.annotation = annotation;
+    }
+
+}
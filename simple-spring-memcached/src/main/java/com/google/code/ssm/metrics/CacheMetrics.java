@@ -0,0 +1,94 @@
+/*
+ * Copyright (c) 2012-2019 Jakub Białek
+ * 
+ * Permission is hereby granted, free of charge, to any person obtaining a copy of this software and associated
+ * documentation files (the "Software"), to deal in the Software without restriction, including without limitation the
+ * rights to use, copy, modify, merge, publish, distribute, sublicense, and/or sell copies of the Software, and to
+ * permit persons to whom the Software is furnished to do so, subject to the following conditions:
+ * 
+ * The above copyright notice and this permission notice shall be included in all copies or substantial portions of the
+ * Software.
+ * 
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR IMPLIED, INCLUDING BUT NOT LIMITED TO THE
+ * WARRANTIES OF MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR
+ * COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR
+ * OTHERWISE, ARISING FROM, OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE SOFTWARE.
+ */
+
+package com.google.code.ssm.metrics;
+
+/**
+ * Receives measurements of cache advices and caches. Implementations must be thread safe and fast, they are invoked on
+ * every cache access. Durations are given in nanoseconds and sizes in bytes.
+ * 
+ * @author Jakub Białek
+ * @since 4.3.0
+ * 
+ */
+public interface CacheMetrics {
+
+    /**
+     * Records values found in cache.
+     * 
+     * @param tags
+     *            the tags of measurement
+     * @param count
+     *            the number of values found
+     */
+    void recordHits(final CacheMetricTags tags, final int count);
+
+    /**
+     * Records values not found in cache.
+     * 
+     * @param tags
+     *            the tags of measurement
+     * @param count
+     *            the number of values not found
+     */
+    void recordMisses(final CacheMetricTags tags, final int count);
+
+    /**
+     * Records failed cache operation.
+     * 
+     * @param tags
+     *            the tags of measurement
+     * @param operation
+     *            the failed operation
+     */
+    void recordError(final CacheMetricTags tags, final CacheOperation operation);
+
+    /**
+     * Records the duration of cache operation, both successful and failed.
+     * 
+     * @param tags
+     *            the tags of measurement
+     * @param operation
+     *            the operation
+     * @param nanos
+     *            the duration in nanoseconds
+     */
+    void recordLatency(final CacheMetricTags tags, final CacheOperation operation, final long nanos);
+
+    /**
+     * Records the size of serialized value written to or read from cache.
+     * 
+     * @param tags
+     *            the tags of measurement, namespace and annotation are not known at this level so they are null
+     * @param operation
+     *            {@link CacheOperation#SET} if value was written or {@link CacheOperation#GET} if it was read
+     * @param bytes
+     *            the size of serialized value
+     */
+    void recordPayloadSize(final CacheMetricTags tags, final CacheOperation operation, final int bytes);
+
+    /**
+     * Records the duration of intercepted method invoked because value was missing in cache.
+     * 
+     * @param tags
+     *            the tags of measurement
+     * @param nanos
+     *            the duration in nanoseconds
+     */
+    void recordMethodLatency(final CacheMetricTags tags, final long nanos);
+
+}
@@ -0,0 +1,82 @@
+/*
+ * Copyright (c) 2012-2019 Jakub Białek
+ * 
+ * Permission is hereby granted, free of charge, to any person obtaining a copy of this software and associated
+ * documentation files (the "Software"), to deal in the Software without restriction, including without limitation the
+ * rights to use, copy, modify, merge, publish, distribute, sublicense, and/or sell copies of the Software, and to
+ * permit persons to whom the Software is furnished to do so, subject to the following conditions:
+ * 
+ * The above copyright notice and this permission notice shall be included in all copies or substantial portions of the
+ * Software.
+ * 
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR IMPLIED, INCLUDING BUT NOT LIMITED TO THE
+ * WARRANTIES OF MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR
+ * COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR
+ * OTHERWISE, ARISING FROM, OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE SOFTWARE.
+ */
+
+package com.google.code.ssm.metrics;
+
+import com.google.code.ssm.providers.CacheTranscoder;
+import com.google.code.ssm.providers.CachedObject;
+
+/**
+ * Decorates {@link CacheTranscoder} and records sizes of encoded and decoded values.
+ * 
+ * @author Jakub Białek
+ * @since 4.3.0
+ * 
+ */
+public class MeteredCacheTranscoder implements CacheTranscoder {
+
+    private final CacheTranscoder transcoder;
+
+    private final CacheMetrics metrics;
+
+    private final CacheMetricTags tags;
+
+    public MeteredCacheTranscoder(final CacheTranscoder transcoder, final CacheMetrics metrics, final CacheMetricTags tags) {
+        this.transcoder = transcoder;
+        this.metrics = metrics;
+        this.tags = tags;
+    }
+
+    /**
+     * Decorates the transcoder if measurements are not ignored.
+     * 
+     * @param transcoder
+     *            the transcoder to decorate, can be null
+     * @param metrics
+     *            the metrics, can be null
+     * @param tags
+     *            the tags of measurements
+     * @return decorated transcoder or the given one if there is nothing to measure
+     */
+    public static CacheTranscoder decorate(final CacheTranscoder transcoder, final CacheMetrics metrics, final CacheMetricTags tags) {
+        if (transcoder == null || metrics == null || metrics == NoOpCacheMetrics.INSTANCE) {
+            return transcoder;
+        }
+
+        return new MeteredCacheTranscoder(transcoder, metrics, tags);
+    }
+
+    @Override
+    public Object decode(final CachedObject data) {
+        metrics.recordPayloadSize(tags, CacheOperation.GET, data.getData().length);
+        return transcoder.decode(data);
+    }
+
+    @Override
+    public Object decode(final int flags, final byte[] data, final int offset, final int length) {
+        metrics.recordPayloadSize(tags, CacheOperation.GET, length);
+        return transcoder.decode(flags, data, offset, length);
+    }
+
+    @Override
+    public CachedObject encode(final Object o) {
+        final CachedObject cachedObject = transcoder.encode(o);
+        metrics.recordPayloadSize(tags, CacheOperation.SET, cachedObject.getData().length);
+        return cachedObject;
+    }
+
+}
@@ -0,0 +1,58 @@
+/*
+ * Copyright (c) 2012-2019 Jakub Białek
+ * 
+ * Permission is hereby granted, free of charge, to any person obtaining a copy of this software and associated
+ * documentation files (the "Software"), to deal in the Software without restriction, including without limitation the
+ * rights to use, copy, modify, merge, publish, distribute, sublicense, and/or sell copies of the Software, and to
+ * permit persons to whom the Software is furnished to do so, subject to the following conditions:
+ * 
+ * The above copyright notice and this permission notice shall be included in all copies or substantial portions of the
+ * Software.
+ * 
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR IMPLIED, INCLUDING BUT NOT LIMITED TO THE
+ * WARRANTIES OF MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR
+ * COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR
+ * OTHERWISE, ARISING FROM, OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE SOFTWARE.
+ */
+
+package com.google.code.ssm.metrics;
+
+/**
+ * Ignores all measurements, used when no other {@link CacheMetrics} is configured.
+ * 
+ * @author Jakub Białek
+ * @since 4.3.0
+ * 
+ */
+public final class NoOpCacheMetrics implements CacheMetrics {
+
+    public static final NoOpCacheMetrics INSTANCE = new NoOpCacheMetrics();
+
+    private NoOpCacheMetrics() {
+    }
+
+    @Override
+    public void recordHits(final CacheMetricTags tags, final int count) {
+    }
+
+    @Override
+    public void recordMisses(final CacheMetricTags tags, final int count) {
+    }
+
+    @Override
+    public void recordError(final CacheMetricTags tags, final CacheOperation operation) {
+    }
+
+    @Override
+    public void recordLatency(final CacheMetricTags tags, final CacheOperation operation, final long nanos) {
+    }
+
+    @Override
+    public void recordPayloadSize(final CacheMetricTags tags, final CacheOperation operation, final int bytes) {
+    }
+
+    @Override
+    public void recordMethodLatency(final CacheMetricTags tags, final long nanos) {
+    }
+
+}
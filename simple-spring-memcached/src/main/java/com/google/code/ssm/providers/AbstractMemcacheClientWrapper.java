@@ -18,6 +18,7 @@
 package com.google.code.ssm.providers;
 
 import java.util.Collection;
+import java.util.Map;
 import java.util.concurrent.TimeoutException;
 
 /**
@@ -42,4 +43,27 @@ public abstract class AbstractMemcacheClientWrapper implements CacheClient {
 
     }
 
+    @Override
+    public void setBulk(final Map<String, ?> values, final int exp) throws TimeoutException, CacheException {
+        if (values == null || values.isEmpty()) {
+            return;
+        }
+
+        for (final Map.Entry<String, ?> entry : values.entrySet()) {
+            set(entry.getKey(), exp, entry.getValue());
+        }
+    }
+
+    @Override
+    public <T> void setBulk(final Map<String, T> values, final int exp, final CacheTranscoder transcoder) throws TimeoutException,
+            CacheException {
+        if (values == null || values.isEmpty()) {
+            return;
+        }
+
+        for (final Map.Entry<String, T> entry : values.entrySet()) {
+            set(entry.getKey(), exp, entry.getValue(), transcoder);
+        }
+    }
+
 }
@@ -0,0 +1,88 @@
+/*
+ * Copyright (c) 2012-2019 Jakub Białek
+ * 
+ * Permission is hereby granted, free of charge, to any person obtaining a copy of this software and associated
+ * documentation files (the "Software"), to deal in the Software without restriction, including without limitation the
+ * rights to use, copy, modify, merge, publish, distribute, sublicense, and/or sell copies of the Software, and to
+ * permit persons to whom the Software is furnished to do so, subject to the following conditions:
+ * 
+ * The above copyright notice and this permission notice shall be included in all copies or substantial portions of the
+ * Software.
+ * 
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR IMPLIED, INCLUDING BUT NOT LIMITED TO THE
+ * WARRANTIES OF MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR
+ * COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR
+ * OTHERWISE, ARISING FROM, OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE SOFTWARE.
+ */
+package com.google.code.ssm.providers;
+
+import java.util.Collection;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+
+/**
+ * Cache client exposing non blocking operations. Returned futures are completed by the underlying client when the
+ * response arrives so callers don't have to park a thread waiting for cache I/O. Failed operations complete the future
+ * exceptionally with {@link CacheException} or {@link java.util.concurrent.TimeoutException}.
+ * 
+ * @author Jakub Białek
+ * @since 4.3.0
+ * 
+ */
+public interface AsyncCacheClient extends CacheClient {
+
+    /**
+     * Gets value by key using the default transcoder.
+     * 
+     * @param key
+     *            the key
+     * @return future completed with value associated with given key or null
+     */
+    CompletableFuture<Object> getAsync(final String key);
+
+    /**
+     * Gets value by key.
+     * 
+     * @param <T>
+     * @param key
+     *            the key
+     * @param transcoder
+     *            the transcoder to use
+     * @return future completed with value associated with given key or null
+     */
+    <T> CompletableFuture<T> getAsync(final String key, final CacheTranscoder transcoder);
+
+    CompletableFuture<Map<String, Object>> getBulkAsync(final Collection<String> keys);
+
+    <T> CompletableFuture<Map<String, T>> getBulkAsync(final Collection<String> keys, final CacheTranscoder transcoder);
+
+    CompletableFuture<Boolean> setAsync(final String key, final int exp, final Object value);
+
+    /**
+     * Stores key-value item to memcached.
+     * 
+     * @param <T>
+     * @param key
+     *            stored key
+     * @param exp
+     *            expire time
+     * @param value
+     *            stored data
+     * @param transcoder
+     *            the transcoder to use
+     * @return future completed with true if the value was stored
+     */
+    <T> CompletableFuture<Boolean> setAsync(final String key, final int exp, final T value, final CacheTranscoder transcoder);
+
+    /**
+     * Deletes value under given key.
+     * 
+     * @param key
+     *            the key
+     * @return future completed with true if the value was deleted
+     */
+    CompletableFuture<Boolean> deleteAsync(final String key);
+
+    CompletableFuture<Long> incrAsync(final String key, final int by, final long def, final int exp);
+
+}
@@ -152,6 +152,38 @@ public interface CacheClient {
     <T> boolean set(final String key, final int exp, final T value, final CacheTranscoder transcoder) throws TimeoutException,
             CacheException;
 
+    /**
+     * Stores all key-value items in memcached using the default transcoder. Implementations should send the items in
+     * as few round trips as the underlying client allows instead of waiting for each item separately.
+     * 
+     * @param values
+     *            the keys and values to store
+     * @param exp
+     *            expire time
+     * @throws TimeoutException
+     * @throws CacheException
+     * @since 4.3.0
+     */
+    void setBulk(final Map<String, ?> values, final int exp) throws TimeoutException, CacheException;
+
+    /**
+     * Stores all key-value items in memcached. Implementations should send the items in as few round trips as the
+     * underlying client allows instead of waiting for each item separately.
+     * 
+     * @param <T>
+     * @param values
+     *            the keys and values to store
+     * @param exp
+     *            expire time
+     * @param transcoder
+     *            the transcoder to use
+     * @throws TimeoutException
+     * @throws CacheException
+     * @since 4.3.0
+     */
+    <T> void setBulk(final Map<String, T> values, final int exp, final CacheTranscoder transcoder) throws TimeoutException,
+            CacheException;
+
     /**
      * Shutdowns memcached client.
      */
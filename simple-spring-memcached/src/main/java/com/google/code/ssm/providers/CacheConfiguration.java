@@ -20,6 +20,9 @@ package com.google.code.ssm.providers;
 
 import lombok.Data;
 
+import com.google.code.ssm.transcoders.JavaTranscoder;
+import com.google.code.ssm.transcoders.compression.CompressionCodec;
+
 /**
  * 
  * @author Nelson Carpentier
@@ -50,4 +53,35 @@ public class CacheConfiguration {
      */
     private String keyPrefixSeparator = "#";
 
+    /**
+     * Codec used to compress values of this cache. It's applied to transcoders created by
+     * {@link com.google.code.ssm.CacheFactory} (JAVA, BINARY and JSON serialization types), to custom transcoder if
+     * {@link #compressCustomTranscoder} is true and to provider's default transcoder if the provider supports it.
+     * Transcoders set explicitly on the factory aren't changed, configure compression on them directly. If not set then
+     * each transcoder uses its own default: GZIP for JAVA and BINARY, no compression for JSON and CUSTOM. Small values
+     * compress well only with
+     * {@link com.google.code.ssm.transcoders.compression.ZstdDictionaryCompressionCodec} and lowered
+     * {@link #compressionThreshold}.
+     * 
+     * @since 4.3.0
+     */
+    private CompressionCodec compressionCodec;
+
+    /**
+     * Values bigger than this number of bytes are compressed by {@link CacheConfiguration#compressionCodec}.
+     * 
+     * @since 4.3.0
+     */
+    private int compressionThreshold = JavaTranscoder.DEFAULT_COMPRESSION_THRESHOLD;
+
+    /**
+     * If true and {@link #compressionCodec} is set then values encoded by custom transcoder are compressed as well. The
+     * custom transcoder mustn't use flags reserved for compression
+     * ({@link com.google.code.ssm.transcoders.compression.CompressionCodecs#FLAGS_MASK}). Enabling it makes values
+     * stored before unreadable for clients without compression.
+     * 
+     * @since 4.3.0
+     */
+    private boolean compressCustomTranscoder;
+
 }
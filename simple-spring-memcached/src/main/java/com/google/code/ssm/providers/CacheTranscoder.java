@@ -17,6 +17,8 @@
 
 package com.google.code.ssm.providers;
 
+import java.util.Arrays;
+
 /**
  * 
  * @author Jakub Białek
@@ -43,4 +45,37 @@ public interface CacheTranscoder {
      */
     CachedObject encode(final Object o);
 
+    /**
+     * Decodes data stored in a part of given array. Lets providers that keep own header in front of the data decode
+     * values without copying them out of the buffer they were read to. The default implementation decodes a copy of
+     * the data.
+     * 
+     * @param flags
+     *            the flags stored with the data
+     * @param data
+     *            the array containing the data
+     * @param offset
+     *            the offset of the data in the array
+     * @param length
+     *            the length of the data
+     * @return decoded object
+     * @since 4.3.0
+     */
+    default Object decode(final int flags, final byte[] data, final int offset, final int length) {
+        final byte[] copy = (offset == 0 && length == data.length) ? data : Arrays.copyOfRange(data, offset, offset + length);
+        return decode(new CachedObject() {
+
+            @Override
+            public byte[] getData() {
+                return copy;
+            }
+
+            @Override
+            public int getFlags() {
+                return flags;
+            }
+
+        });
+    }
+
 }
@@ -37,8 +37,25 @@ public class CachedObjectImpl implements CachedObject {
     private final byte[] data;
 
     public CachedObjectImpl(final int flags, final byte[] data) {
+        this(flags, data, true);
+    }
+
+    private CachedObjectImpl(final int flags, final byte[] data, final boolean copy) {
         this.flags = flags;
-        this.data = data.clone();
+        this.data = copy ? data.clone() : data;
+    }
+
+    /**
+     * Creates cached object using the given array without copying it. The caller mustn't modify the array afterwards.
+     * 
+     * @param flags
+     * @param data
+     *            the array owned by created object
+     * @return cached object
+     * @since 4.3.0
+     */
+    public static CachedObjectImpl wrap(final int flags, final byte[] data) {
+        return new CachedObjectImpl(flags, data, false);
     }
 
     @Override
@@ -0,0 +1,74 @@
+/*
+ * Copyright (c) 2010-2019 Jakub Białek
+ * 
+ * Permission is hereby granted, free of charge, to any person obtaining a copy of this software and associated
+ * documentation files (the "Software"), to deal in the Software without restriction, including without limitation the
+ * rights to use, copy, modify, merge, publish, distribute, sublicense, and/or sell copies of the Software, and to
+ * permit persons to whom the Software is furnished to do so, subject to the following conditions:
+ * 
+ * The above copyright notice and this permission notice shall be included in all copies or substantial portions of the
+ * Software.
+ * 
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR IMPLIED, INCLUDING BUT NOT LIMITED TO THE
+ * WARRANTIES OF MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR
+ * COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR
+ * OTHERWISE, ARISING FROM, OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE SOFTWARE.
+ */
+
+package com.google.code.ssm.providers;
+
+import java.util.IdentityHashMap;
+import java.util.Map;
+import java.util.function.Function;
+
+/**
+ * Thread safe registry of provider specific adapters of {@link CacheTranscoder}s. Transcoders are looked up by
+ * identity, so resolving an adapter never calls equals/hashCode of the transcoder. The registry is copied on write,
+ * reads are lock free. New adapters are created only for transcoders seen for the first time and there are just a few of
+ * them in an application.
+ * 
+ * @author Jakub Białek
+ * @since 4.3.0
+ * 
+ * @param <A>
+ *            type of the adapter
+ */
+public final class TranscoderAdapterRegistry<A> {
+
+    private final Function<CacheTranscoder, ? extends A> adapterFactory;
+
+    private volatile Map<CacheTranscoder, A> adapters = new IdentityHashMap<>();
+
+    public TranscoderAdapterRegistry(final Function<CacheTranscoder, ? extends A> adapterFactory) {
+        this.adapterFactory = adapterFactory;
+    }
+
+    /**
+     * Returns adapter of the given transcoder, the adapter is created on first use.
+     * 
+     * @param transcoder
+     *            the transcoder to adapt
+     * @return adapter of the transcoder, always the same instance for the same transcoder
+     */
+    public A get(final CacheTranscoder transcoder) {
+        final A adapter = adapters.get(transcoder);
+        if (adapter != null) {
+            return adapter;
+        }
+
+        return register(transcoder);
+    }
+
+    private synchronized A register(final CacheTranscoder transcoder) {
+        A adapter = adapters.get(transcoder);
+        if (adapter == null) {
+            adapter = adapterFactory.apply(transcoder);
+            final Map<CacheTranscoder, A> copy = new IdentityHashMap<>(adapters);
+            copy.put(transcoder, adapter);
+            adapters = copy;
+        }
+
+        return adapter;
+    }
+
+}
@@ -0,0 +1,809 @@
+/*
+ * Copyright (c) 2012-2019 Jakub Białek
+ * 
+ * Permission is hereby granted, free of charge, to any person obtaining a copy of this software and associated
+ * documentation files (the "Software"), to deal in the Software without restriction, including without limitation the
+ * rights to use, copy, modify, merge, publish, distribute, sublicense, and/or sell copies of the Software, and to
+ * permit persons to whom the Software is furnished to do so, subject to the following conditions:
+ * 
+ * The above copyright notice and this permission notice shall be included in all copies or substantial portions of the
+ * Software.
+ * 
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR IMPLIED, INCLUDING BUT NOT LIMITED TO THE
+ * WARRANTIES OF MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR
+ * COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR
+ * OTHERWISE, ARISING FROM, OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE SOFTWARE.
+ */
+
+package com.google.code.ssm.transcoders;
+
+import java.lang.reflect.Constructor;
+import java.lang.reflect.Field;
+import java.lang.reflect.Modifier;
+import java.math.BigDecimal;
+import java.math.BigInteger;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.Date;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.IdentityHashMap;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.LinkedList;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.TreeSet;
+
+import lombok.EqualsAndHashCode;
+import lombok.Getter;
+import lombok.ToString;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * 
+ * Transcoder responsible to decode and encode objects using compact binary format. Each value is prefixed by a small
+ * type id instead of the class descriptor written by java serialization. Strings, boxed primitives, byte and object
+ * arrays, dates, big numbers and the common {@link List}, {@link java.util.Set} and {@link Map} implementations are
+ * supported out of the box. Classes registered by {@link BinaryTranscoder#setRegisteredClasses(List)} are written field
+ * by field (all non static and non transient fields including inherited ones), enums by ordinal. Values of other
+ * types fall back to java serialization.
+ * 
+ * Ids of registered classes are assigned in the order of registration, so all applications sharing the cache have to
+ * register the same classes in the same order. Registered classes require no-arg constructor (may be private) and
+ * their instances cannot be part of cyclic graphs. Changing fields of a registered class makes already cached values
+ * unreadable, such values are treated as missing.
+ * 
+ * Data stored by {@link JavaTranscoder} are still readable by this transcoder, so serialization type of the cache can be
+ * switched from {@link com.google.code.ssm.api.format.SerializationType#JAVA} to
+ * {@link com.google.code.ssm.api.format.SerializationType#BINARY} without flushing it. Compression works the same way
+ * as in {@link JavaTranscoder}.
+ * 
+ * @author Jakub Białek
+ * @since 4.3.0
+ * 
+ */
+@ToString(callSuper = true, of = "registeredClasses")
+@EqualsAndHashCode(callSuper = true, of = "registeredClasses")
+public class BinaryTranscoder extends JavaTranscoder {
+
+    private static final Logger LOGGER = LoggerFactory.getLogger(BinaryTranscoder.class);
+
+    private static final int FORMAT_VERSION = 1;
+
+    // first bytes of java serialization stream
+    private static final byte JAVA_MAGIC_FIRST = (byte) 0xAC;
+    private static final byte JAVA_MAGIC_SECOND = (byte) 0xED;
+
+    private static final int INITIAL_BUFFER_SIZE = 1024;
+
+    // bigger buffers are not kept to not waste memory of each thread after encoding single huge value
+    private static final int MAX_RETAINED_BUFFER_SIZE = 64 * 1024;
+
+    // reusable output buffer of each thread, only JDK type is kept in the thread to not pin the class loader
+    private static final ThreadLocal<byte[]> BUFFERS = new ThreadLocal<byte[]>();
+
+    // Type ids
+    private static final int NULL = 0;
+    private static final int STRING = 1;
+    private static final int INTEGER = 2;
+    private static final int LONG = 3;
+    private static final int BOOLEAN = 4;
+    private static final int DOUBLE = 5;
+    private static final int FLOAT = 6;
+    private static final int SHORT = 7;
+    private static final int BYTE = 8;
+    private static final int CHARACTER = 9;
+    private static final int BYTE_ARRAY = 10;
+    private static final int OBJECT_ARRAY = 11;
+    private static final int ARRAY_LIST = 12;
+    private static final int LINKED_LIST = 13;
+    private static final int HASH_SET = 14;
+    private static final int LINKED_HASH_SET = 15;
+    private static final int TREE_SET = 16;
+    private static final int HASH_MAP = 17;
+    private static final int LINKED_HASH_MAP = 18;
+    private static final int TREE_MAP = 19;
+    private static final int DATE = 20;
+    private static final int BIG_INTEGER = 21;
+    private static final int BIG_DECIMAL = 22;
+    private static final int JAVA_SERIALIZED = 23;
+    private static final int FIRST_REGISTERED_ID = 32;
+
+    private static final Map<Class<?>, Integer> BUILT_IN_TYPES = new IdentityHashMap<Class<?>, Integer>();
+
+    private static final Map<Class<?>, Integer> PRIMITIVE_TYPES = new IdentityHashMap<Class<?>, Integer>();
+
+    static {
+        BUILT_IN_TYPES.put(String.class, STRING);
+        BUILT_IN_TYPES.put(Integer.class, INTEGER);
+        BUILT_IN_TYPES.put(Long.class, LONG);
+        BUILT_IN_TYPES.put(Boolean.class, BOOLEAN);
+        BUILT_IN_TYPES.put(Double.class, DOUBLE);
+        BUILT_IN_TYPES.put(Float.class, FLOAT);
+        BUILT_IN_TYPES.put(Short.class, SHORT);
+        BUILT_IN_TYPES.put(Byte.class, BYTE);
+        BUILT_IN_TYPES.put(Character.class, CHARACTER);
+        BUILT_IN_TYPES.put(byte[].class, BYTE_ARRAY);
+        BUILT_IN_TYPES.put(Object[].class, OBJECT_ARRAY);
+        BUILT_IN_TYPES.put(ArrayList.class, ARRAY_LIST);
+        BUILT_IN_TYPES.put(LinkedList.class, LINKED_LIST);
+        BUILT_IN_TYPES.put(HashSet.class, HASH_SET);
+        BUILT_IN_TYPES.put(LinkedHashSet.class, LINKED_HASH_SET);
+        BUILT_IN_TYPES.put(TreeSet.class, TREE_SET);
+        BUILT_IN_TYPES.put(HashMap.class, HASH_MAP);
+        BUILT_IN_TYPES.put(LinkedHashMap.class, LINKED_HASH_MAP);
+        BUILT_IN_TYPES.put(TreeMap.class, TREE_MAP);
+        BUILT_IN_TYPES.put(Date.class, DATE);
+        BUILT_IN_TYPES.put(BigInteger.class, BIG_INTEGER);
+        BUILT_IN_TYPES.put(BigDecimal.class, BIG_DECIMAL);
+
+        PRIMITIVE_TYPES.put(int.class, INTEGER);
+        PRIMITIVE_TYPES.put(long.class, LONG);
+        PRIMITIVE_TYPES.put(boolean.class, BOOLEAN);
+        PRIMITIVE_TYPES.put(double.class, DOUBLE);
+        PRIMITIVE_TYPES.put(float.class, FLOAT);
+        PRIMITIVE_TYPES.put(short.class, SHORT);
+        PRIMITIVE_TYPES.put(byte.class, BYTE);
+        PRIMITIVE_TYPES.put(char.class, CHARACTER);
+    }
+
+    @Getter
+    private List<Class<?>> registeredClasses = Collections.emptyList();
+
+    private Map<Class<?>, ClassSerializer> serializers = Collections.emptyMap();
+
+    private ClassSerializer[] serializersById = new ClassSerializer[0];
+
+    public BinaryTranscoder() {
+        super();
+    }
+
+    public BinaryTranscoder(final List<Class<?>> registeredClasses) {
+        setRegisteredClasses(registeredClasses);
+    }
+
+    /**
+     * Registers classes written field by field. The order of classes defines their ids and has to be the same in all
+     * applications sharing the cache.
+     * 
+     * @param registeredClasses
+     *            classes to register
+     */
+    public void setRegisteredClasses(final List<Class<?>> registeredClasses) {
+        final Map<Class<?>, ClassSerializer> byType = new IdentityHashMap<Class<?>, ClassSerializer>();
+        final ClassSerializer[] byId = new ClassSerializer[registeredClasses.size()];
+        for (int i = 0; i < byId.length; i++) {
+            final Class<?> type = registeredClasses.get(i);
+            if (BUILT_IN_TYPES.containsKey(type) || byType.containsKey(type)) {
+                throw new IllegalArgumentException(String.format("Class %s is already supported by binary transcoder", type.getName()));
+            }
+
+            byId[i] = new ClassSerializer(FIRST_REGISTERED_ID + i, type);
+            byType.put(type, byId[i]);
+        }
+
+        this.registeredClasses = Collections.unmodifiableList(new ArrayList<Class<?>>(registeredClasses));
+        this.serializers = byType;
+        this.serializersById = byId;
+    }
+
+    @Override
+    protected byte[] serialize(final Object o) {
+        if (o == null) {
+            throw new NullPointerException("Can't serialize null");
+        }
+
+        byte[] buffer = BUFFERS.get();
+        if (buffer == null) {
+            buffer = new byte[INITIAL_BUFFER_SIZE];
+        } else {
+            // nested serialization in the same thread gets its own buffer
+            BUFFERS.set(null);
+        }
+
+        final Output out = new Output(buffer);
+        try {
+            out.writeByte(FORMAT_VERSION);
+            write(out, o);
+            return out.toByteArray();
+        } finally {
+            if (out.buffer.length <= MAX_RETAINED_BUFFER_SIZE) {
+                BUFFERS.set(out.buffer);
+            }
+        }
+    }
+
+    @Override
+    protected Object deserialize(final byte[] in, final int offset, final int length) {
+        if (length >= 2 && in[offset] == JAVA_MAGIC_FIRST && in[offset + 1] == JAVA_MAGIC_SECOND) {
+            return super.deserialize(in, offset, length);
+        }
+
+        try {
+            final Input input = new Input(in, offset, length);
+            final int version = input.readByte();
+            if (version != FORMAT_VERSION) {
+                throw new IllegalStateException(String.format("Unsupported format version %d", version));
+            }
+            return read(input);
+        } catch (RuntimeException e) {
+            // data written with different registration or class version may fail anywhere, e.g. when adding to sorted set
+            LOGGER.warn(String.format("Caught exception decoding %d bytes of data", length), e);
+            return null;
+        }
+    }
+
+    private void write(final Output out, final Object value) {
+        if (value == null) {
+            out.writeVarInt(NULL);
+            return;
+        }
+
+        final ClassSerializer serializer = getSerializer(value);
+        if (serializer != null) {
+            out.writeVarInt(serializer.id);
+            serializer.write(out, value);
+            return;
+        }
+
+        final Integer type = BUILT_IN_TYPES.get(value.getClass());
+        if (type == null || !isSupported(value)) {
+            final byte[] data = super.serialize(value);
+            out.writeVarInt(JAVA_SERIALIZED);
+            out.writeVarInt(data.length);
+            out.writeBytes(data, 0, data.length);
+            return;
+        }
+
+        out.writeVarInt(type);
+        switch (type) {
+        case STRING:
+            out.writeString((String) value);
+            break;
+        case OBJECT_ARRAY:
+            final Object[] array = (Object[]) value;
+            out.writeVarInt(array.length);
+            for (Object element : array) {
+                write(out, element);
+            }
+            break;
+        case BYTE_ARRAY:
+            final byte[] bytes = (byte[]) value;
+            out.writeVarInt(bytes.length);
+            out.writeBytes(bytes, 0, bytes.length);
+            break;
+        case ARRAY_LIST:
+        case LINKED_LIST:
+        case HASH_SET:
+        case LINKED_HASH_SET:
+        case TREE_SET:
+            final Collection<?> collection = (Collection<?>) value;
+            out.writeVarInt(collection.size());
+            for (Object element : collection) {
+                write(out, element);
+            }
+            break;
+        case HASH_MAP:
+        case LINKED_HASH_MAP:
+        case TREE_MAP:
+            final Map<?, ?> map = (Map<?, ?>) value;
+            out.writeVarInt(map.size());
+            for (Map.Entry<?, ?> entry : map.entrySet()) {
+                write(out, entry.getKey());
+                write(out, entry.getValue());
+            }
+            break;
+        case DATE:
+            out.writeVarLong(zigZag(((Date) value).getTime()));
+            break;
+        case BIG_INTEGER:
+            writeBigInteger(out, (BigInteger) value);
+            break;
+        case BIG_DECIMAL:
+            final BigDecimal decimal = (BigDecimal) value;
+            out.writeVarInt(zigZag(decimal.scale()));
+            writeBigInteger(out, decimal.unscaledValue());
+            break;
+        default:
+            writePrimitive(out, type, value);
+        }
+    }
+
+    private Object read(final Input in) {
+        final int type = in.readVarInt();
+        if (type >= FIRST_REGISTERED_ID) {
+            final int index = type - FIRST_REGISTERED_ID;
+            if (index >= serializersById.length) {
+                throw new IllegalStateException(String.format("Class with id %d is not registered", type));
+            }
+            return serializersById[index].read(in);
+        }
+
+        switch (type) {
+        case NULL:
+            return null;
+        case STRING:
+            return in.readString();
+        case OBJECT_ARRAY:
+            final Object[] array = new Object[in.readSize()];
+            for (int i = 0; i < array.length; i++) {
+                array[i] = read(in);
+            }
+            return array;
+        case BYTE_ARRAY:
+            return in.readBytes(in.readSize());
+        case ARRAY_LIST:
+            final int listSize = in.readSize();
+            return readElements(in, listSize, new ArrayList<Object>(listSize));
+        case LINKED_LIST:
+            return readElements(in, in.readSize(), new LinkedList<Object>());
+        case HASH_SET:
+            final int setSize = in.readSize();
+            return readElements(in, setSize, new HashSet<Object>(capacity(setSize)));
+        case LINKED_HASH_SET:
+            final int linkedSetSize = in.readSize();
+            return readElements(in, linkedSetSize, new LinkedHashSet<Object>(capacity(linkedSetSize)));
+        case TREE_SET:
+            return readElements(in, in.readSize(), new TreeSet<Object>());
+        case HASH_MAP:
+            final int mapSize = in.readSize();
+            return readEntries(in, mapSize, new HashMap<Object, Object>(capacity(mapSize)));
+        case LINKED_HASH_MAP:
+            final int linkedMapSize = in.readSize();
+            return readEntries(in, linkedMapSize, new LinkedHashMap<Object, Object>(capacity(linkedMapSize)));
+        case TREE_MAP:
+            return readEntries(in, in.readSize(), new TreeMap<Object, Object>());
+        case DATE:
+            return new Date(unZigZag(in.readVarLong()));
+        case BIG_INTEGER:
+            return new BigInteger(in.readBytes(in.readSize()));
+        case BIG_DECIMAL:
+            final int scale = unZigZag(in.readVarInt());
+            return new BigDecimal(new BigInteger(in.readBytes(in.readSize())), scale);
+        case JAVA_SERIALIZED:
+            final int length = in.readSize();
+            final Object o = super.deserialize(in.buffer, in.position, length);
+            in.position += length;
+            return o;
+        default:
+            return readPrimitive(in, type);
+        }
+    }
+
+    private ClassSerializer getSerializer(final Object value) {
+        final ClassSerializer serializer = serializers.get(value.getClass());
+        if (serializer == null && value instanceof Enum) {
+            // constant with body is an instance of anonymous subclass of the enum
+            return serializers.get(((Enum<?>) value).getDeclaringClass());
+        }
+        return serializer;
+    }
+
+    private boolean isSupported(final Object value) {
+        // sorted collections with custom comparator need java serialization to keep the comparator
+        if (value instanceof TreeSet) {
+            return ((TreeSet<?>) value).comparator() == null;
+        }
+        if (value instanceof TreeMap) {
+            return ((TreeMap<?, ?>) value).comparator() == null;
+        }
+        return true;
+    }
+
+    private Collection<Object> readElements(final Input in, final int size, final Collection<Object> collection) {
+        for (int i = 0; i < size; i++) {
+            collection.add(read(in));
+        }
+        return collection;
+    }
+
+    private Map<Object, Object> readEntries(final Input in, final int size, final Map<Object, Object> map) {
+        for (int i = 0; i < size; i++) {
+            final Object key = read(in);
+            map.put(key, read(in));
+        }
+        return map;
+    }
+
+    private static void writePrimitive(final Output out, final int type, final Object value) {
+        switch (type) {
+        case INTEGER:
+            out.writeVarInt(zigZag((Integer) value));
+            break;
+        case LONG:
+            out.writeVarLong(zigZag((Long) value));
+            break;
+        case BOOLEAN:
+            out.writeByte((Boolean) value ? 1 : 0);
+            break;
+        case DOUBLE:
+            out.writeLong(Double.doubleToRawLongBits((Double) value));
+            break;
+        case FLOAT:
+            out.writeInt(Float.floatToRawIntBits((Float) value));
+            break;
+        case SHORT:
+            out.writeVarInt(zigZag((Short) value));
+            break;
+        case BYTE:
+            out.writeByte((Byte) value);
+            break;
+        case CHARACTER:
+            out.writeVarInt((Character) value);
+            break;
+        default:
+            throw new IllegalArgumentException(String.format("Type id %d is not primitive", type));
+        }
+    }
+
+    private static Object readPrimitive(final Input in, final int type) {
+        switch (type) {
+        case INTEGER:
+            return unZigZag(in.readVarInt());
+        case LONG:
+            return unZigZag(in.readVarLong());
+        case BOOLEAN:
+            return in.readByte() != 0;
+        case DOUBLE:
+            return Double.longBitsToDouble(in.readLong());
+        case FLOAT:
+            return Float.intBitsToFloat(in.readInt());
+        case SHORT:
+            return (short) unZigZag(in.readVarInt());
+        case BYTE:
+            return (byte) in.readByte();
+        case CHARACTER:
+            return (char) in.readVarInt();
+        default:
+            throw new IllegalStateException(String.format("Unknown type id %d", type));
+        }
+    }
+
+    private static void writeBigInteger(final Output out, final BigInteger value) {
+        final byte[] bytes = value.toByteArray();
+        out.writeVarInt(bytes.length);
+        out.writeBytes(bytes, 0, bytes.length);
+    }
+
+    private static int capacity(final int size) {
+        return (int) (size / 0.75f) + 1;
+    }
+
+    private static int zigZag(final int value) {
+        return (value << 1) ^ (value >> 31);
+    }
+
+    private static long zigZag(final long value) {
+        return (value << 1) ^ (value >> 63);
+    }
+
+    private static int unZigZag(final int value) {
+        return (value >>> 1) ^ -(value & 1);
+    }
+
+    private static long unZigZag(final long value) {
+        return (value >>> 1) ^ -(value & 1);
+    }
+
+    /**
+     * Writes and reads instances of single registered class.
+     */
+    private final class ClassSerializer {
+
+        private final int id;
+
+        private final Object[] constants;
+
+        private final Constructor<?> constructor;
+
+        private final Field[] fields;
+
+        // type id of each primitive field or null for object fields
+        private final Integer[] primitives;
+
+        private ClassSerializer(final int id, final Class<?> type) {
+            this.id = id;
+            if (type.isEnum()) {
+                this.constants = type.getEnumConstants();
+                this.constructor = null;
+                this.fields = new Field[0];
+                this.primitives = new Integer[0];
+                return;
+            }
+
+            if (type.isInterface() || type.isArray() || type.isPrimitive() || Modifier.isAbstract(type.getModifiers())) {
+                throw new IllegalArgumentException(String.format("Cannot register %s, only concrete classes are supported",
+                        type.getName()));
+            }
+
+            try {
+                this.constructor = type.getDeclaredConstructor();
+                this.constructor.setAccessible(true);
+            } catch (NoSuchMethodException e) {
+                throw new IllegalArgumentException(String.format("Cannot register %s, no-arg constructor is required", type.getName()), e);
+            }
+
+            this.constants = null;
+            this.fields = getFields(type);
+            this.primitives = new Integer[fields.length];
+            for (int i = 0; i < fields.length; i++) {
+                primitives[i] = PRIMITIVE_TYPES.get(fields[i].getType());
+            }
+        }
+
+        private void write(final Output out, final Object value) {
+            if (constants != null) {
+                out.writeVarInt(((Enum<?>) value).ordinal());
+                return;
+            }
+
+            try {
+                for (int i = 0; i < fields.length; i++) {
+                    if (primitives[i] == null) {
+                        BinaryTranscoder.this.write(out, fields[i].get(value));
+                    } else {
+                        writePrimitive(out, primitives[i], fields[i].get(value));
+                    }
+                }
+            } catch (IllegalAccessException e) {
+                throw new IllegalArgumentException(String.format("Cannot serialize %s", value.getClass().getName()), e);
+            }
+        }
+
+        private Object read(final Input in) {
+            if (constants != null) {
+                final int ordinal = in.readVarInt();
+                if (ordinal < 0 || ordinal >= constants.length) {
+                    throw new IllegalStateException(String.format("Unknown ordinal %d of enum with id %d", ordinal, id));
+                }
+                return constants[ordinal];
+            }
+
+            try {
+                final Object value = constructor.newInstance();
+                for (int i = 0; i < fields.length; i++) {
+                    fields[i].set(value, primitives[i] == null ? BinaryTranscoder.this.read(in) : readPrimitive(in, primitives[i]));
+                }
+                return value;
+            } catch (ReflectiveOperationException | IllegalArgumentException e) {
+                throw new IllegalStateException(String.format("Cannot deserialize %s", constructor.getDeclaringClass().getName()), e);
+            }
+        }
+
+        private Field[] getFields(final Class<?> type) {
+            final List<Class<?>> hierarchy = new ArrayList<Class<?>>();
+            for (Class<?> clazz = type; clazz != null && clazz != Object.class; clazz = clazz.getSuperclass()) {
+                hierarchy.add(0, clazz);
+            }
+
+            final List<Field> result = new ArrayList<Field>();
+            for (Class<?> clazz : hierarchy) {
+                final Field[] declared = clazz.getDeclaredFields();
+                // order returned by reflection is not specified
+                Arrays.sort(declared, Comparator.comparing(Field::getName));
+                for (Field field : declared) {
+                    if (!Modifier.isStatic(field.getModifiers()) && !Modifier.isTransient(field.getModifiers())) {
+                        field.setAccessible(true);
+                        result.add(field);
+                    }
+                }
+            }
+
+            return result.toArray(new Field[result.size()]);
+        }
+
+    }
+
+    /**
+     * Growable output buffer.
+     */
+    private static final class Output {
+
+        private byte[] buffer;
+
+        private int position;
+
+        private Output(final byte[] buffer) {
+            this.buffer = buffer;
+        }
+
+        private void require(final int count) {
+            if (buffer.length - position < count) {
+                buffer = Arrays.copyOf(buffer, Math.max(buffer.length * 2, position + count));
+            }
+        }
+
+        private void writeByte(final int value) {
+            require(1);
+            buffer[position++] = (byte) value;
+        }
+
+        private void writeBytes(final byte[] bytes, final int offset, final int length) {
+            require(length);
+            System.arraycopy(bytes, offset, buffer, position, length);
+            position += length;
+        }
+
+        private void writeInt(final int value) {
+            require(4);
+            buffer[position++] = (byte) (value >>> 24);
+            buffer[position++] = (byte) (value >>> 16);
+            buffer[position++] = (byte) (value >>> 8);
+            buffer[position++] = (byte) value;
+        }
+
+        private void writeLong(final long value) {
+            writeInt((int) (value >>> 32));
+            writeInt((int) value);
+        }
+
+        private void writeVarInt(final int value) {
+            require(5);
+            int remaining = value;
+            while ((remaining & ~0x7F) != 0) {
+                buffer[position++] = (byte) ((remaining & 0x7F) | 0x80);
+                remaining >>>= 7;
+            }
+            buffer[position++] = (byte) remaining;
+        }
+
+        private void writeVarLong(final long value) {
+            require(10);
+            long remaining = value;
+            while ((remaining & ~0x7FL) != 0) {
+                buffer[position++] = (byte) ((remaining & 0x7F) | 0x80);
+                remaining >>>= 7;
+            }
+            buffer[position++] = (byte) remaining;
+        }
+
+        // UTF-8 encoded directly into the buffer, unpaired surrogates are replaced by '?' like in String.getBytes
+        private void writeString(final String value) {
+            final int length = value.length();
+            int encodedLength = 0;
+            for (int i = 0; i < length; i++) {
+                final char c = value.charAt(i);
+                if (c < 0x80) {
+                    encodedLength++;
+                } else if (c < 0x800) {
+                    encodedLength += 2;
+                } else if (isSurrogatePair(value, i)) {
+                    encodedLength += 4;
+                    i++;
+                } else if (Character.isSurrogate(c)) {
+                    encodedLength++;
+                } else {
+                    encodedLength += 3;
+                }
+            }
+
+            writeVarInt(encodedLength);
+            require(encodedLength);
+            for (int i = 0; i < length; i++) {
+                final char c = value.charAt(i);
+                if (c < 0x80) {
+                    buffer[position++] = (byte) c;
+                } else if (c < 0x800) {
+                    buffer[position++] = (byte) (0xC0 | (c >> 6));
+                    buffer[position++] = (byte) (0x80 | (c & 0x3F));
+                } else if (isSurrogatePair(value, i)) {
+                    final int codePoint = Character.toCodePoint(c, value.charAt(++i));
+                    buffer[position++] = (byte) (0xF0 | (codePoint >> 18));
+                    buffer[position++] = (byte) (0x80 | ((codePoint >> 12) & 0x3F));
+                    buffer[position++] = (byte) (0x80 | ((codePoint >> 6) & 0x3F));
+                    buffer[position++] = (byte) (0x80 | (codePoint & 0x3F));
+                } else if (Character.isSurrogate(c)) {
+                    buffer[position++] = (byte) '?';
+                } else {
+                    buffer[position++] = (byte) (0xE0 | (c >> 12));
+                    buffer[position++] = (byte) (0x80 | ((c >> 6) & 0x3F));
+                    buffer[position++] = (byte) (0x80 | (c & 0x3F));
+                }
+            }
+        }
+
+        private boolean isSurrogatePair(final String value, final int index) {
+            return Character.isHighSurrogate(value.charAt(index)) && index + 1 < value.length()
+                    && Character.isLowSurrogate(value.charAt(index + 1));
+        }
+
+        private byte[] toByteArray() {
+            return Arrays.copyOf(buffer, position);
+        }
+
+    }
+
+    /**
+     * Reads part of the array, corrupted or truncated data end with {@link IllegalStateException}.
+     */
+    private static final class Input {
+
+        private final byte[] buffer;
+
+        private final int limit;
+
+        private int position;
+
+        private Input(final byte[] buffer, final int offset, final int length) {
+            this.buffer = buffer;
+            this.position = offset;
+            this.limit = offset + length;
+        }
+
+        private void require(final int count) {
+            if (count < 0 || limit - position < count) {
+                throw new IllegalStateException("Unexpected end of data");
+            }
+        }
+
+        // each element takes at least one byte so bigger size means corrupted data
+        private int readSize() {
+            final int size = readVarInt();
+            require(size);
+            return size;
+        }
+
+        private int readByte() {
+            require(1);
+            return buffer[position++];
+        }
+
+        private byte[] readBytes(final int length) {
+            require(length);
+            final byte[] bytes = Arrays.copyOfRange(buffer, position, position + length);
+            position += length;
+            return bytes;
+        }
+
+        private int readInt() {
+            require(4);
+            return ((buffer[position++] & 0xFF) << 24) | ((buffer[position++] & 0xFF) << 16) | ((buffer[position++] & 0xFF) << 8)
+                    | (buffer[position++] & 0xFF);
+        }
+
+        private long readLong() {
+            return ((long) readInt() << 32) | (readInt() & 0xFFFFFFFFL);
+        }
+
+        private int readVarInt() {
+            int result = 0;
+            for (int shift = 0; shift < 32; shift += 7) {
+                final int b = readByte();
+                result |= (b & 0x7F) << shift;
+                if ((b & 0x80) == 0) {
+                    return result;
+                }
+            }
+            throw new IllegalStateException("Malformed variable length int");
+        }
+
+        private long readVarLong() {
+            long result = 0;
+            for (int shift = 0; shift < 64; shift += 7) {
+                final int b = readByte();
+                result |= (long) (b & 0x7F) << shift;
+                if ((b & 0x80) == 0) {
+                    return result;
+                }
+            }
+            throw new IllegalStateException("Malformed variable length long");
+        }
+
+        private String readString() {
+            final int length = readSize();
+            final String value = new String(buffer, position, length, StandardCharsets.UTF_8);
+            position += length;
+            return value;
+        }
+
+    }
+
+}
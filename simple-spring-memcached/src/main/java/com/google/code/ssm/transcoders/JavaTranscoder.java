@@ -22,8 +22,6 @@ import java.io.ByteArrayOutputStream;
 import java.io.Closeable;
 import java.io.IOException;
 import java.io.ObjectOutputStream;
-import java.util.zip.GZIPInputStream;
-import java.util.zip.GZIPOutputStream;
 
 import lombok.EqualsAndHashCode;
 import lombok.Getter;
@@ -37,12 +35,15 @@ import org.springframework.core.ConfigurableObjectInputStream;
 import com.google.code.ssm.providers.CacheTranscoder;
 import com.google.code.ssm.providers.CachedObject;
 import com.google.code.ssm.providers.CachedObjectImpl;
+import com.google.code.ssm.transcoders.compression.CompressionCodec;
+import com.google.code.ssm.transcoders.compression.CompressionCodecs;
 
 /**
  * 
  * Transcoder responsible to decode and encode objects using default java serialization/deserialization. Before storing
  * data if size of data is bigger than defined {@link JavaTranscoder#setCompressionThreshold(int)} those data are
- * compressed using GZIP. This transcoder is similar to SerializingTranscoder in xmemcached or spymemcached.
+ * compressed using {@link JavaTranscoder#setCompressionCodec(CompressionCodec)}, GZIP by default. Values compressed by
+ * any codec can be decoded. This transcoder is similar to SerializingTranscoder in xmemcached or spymemcached.
  * 
  * @author Jakub Białek
  * @since 3.0.0
@@ -63,26 +64,39 @@ public class JavaTranscoder implements CacheTranscoder { // NO_UCD
 
     // General flags
     private static final int SERIALIZED = 1;
-    private static final int COMPRESSED = 2;
 
     @Getter
     @Setter
     private int compressionThreshold = DEFAULT_COMPRESSION_THRESHOLD;
 
+    /**
+     * Codec used to compress data bigger than {@link #compressionThreshold}, if null data aren't compressed.
+     * 
+     * @since 4.3.0
+     */
+    @Getter
+    @Setter
+    private CompressionCodec compressionCodec = CompressionCodecs.GZIP;
+
     @Override
     public Object decode(final CachedObject d) {
-        byte[] data = d.getData();
-
-        if ((d.getFlags() & COMPRESSED) != 0) {
-            data = decompress(d.getData());
-        }
+        final byte[] data = d.getData();
+        return decode(d.getFlags(), data, 0, data == null ? 0 : data.length);
+    }
 
-        if ((d.getFlags() & SERIALIZED) != 0 && data != null) {
-            return deserialize(data);
-        } else {
+    @Override
+    public Object decode(final int flags, final byte[] data, final int offset, final int length) {
+        if ((flags & SERIALIZED) == 0 || data == null) {
             LOGGER.warn("Cannot decode cached data {} using java transcoder", data);
             throw new RuntimeException("Cannot decode cached data using java transcoder");
         }
+
+        if (CompressionCodecs.isCompressed(flags)) {
+            final byte[] decompressed = decompress(flags, data, offset, length);
+            return deserialize(decompressed, 0, decompressed.length);
+        }
+
+        return deserialize(data, offset, length);
     }
 
     @Override
@@ -90,12 +104,12 @@ public class JavaTranscoder implements CacheTranscoder { // NO_UCD
         byte[] data = serialize(o);
         int flags = SERIALIZED;
 
-        if (data.length > getCompressionThreshold()) {
+        if (compressionCodec != null && data.length > getCompressionThreshold()) {
             byte[] compressed = compress(data);
             if (compressed.length < data.length) {
                 LOGGER.debug("Compressed {} from {} to {}", new Object[] { o.getClass().getName(), data.length, compressed.length });
                 data = compressed;
-                flags |= COMPRESSED;
+                flags |= CompressionCodecs.getFlags(compressionCodec);
             } else {
                 LOGGER.info("Compression increased the size of {} from {} to {}", new Object[] { o.getClass().getName(), data.length,
                         compressed.length });
@@ -144,22 +158,36 @@ public class JavaTranscoder implements CacheTranscoder { // NO_UCD
      * @return deserialized object
      */
     protected Object deserialize(final byte[] in) {
+        return (in == null) ? null : deserialize(in, 0, in.length);
+    }
+
+    /**
+     * Deserialize part of given array using java deserialization.
+     * 
+     * @param in
+     *            the array containing data to deserialize
+     * @param offset
+     *            the offset of the data
+     * @param length
+     *            the length of the data
+     * @return deserialized object
+     * @since 4.3.0
+     */
+    protected Object deserialize(final byte[] in, final int offset, final int length) {
         Object o = null;
         ByteArrayInputStream bis = null;
         ConfigurableObjectInputStream is = null;
 
         try {
-            if (in != null) {
-                bis = new ByteArrayInputStream(in);
-                is = new ConfigurableObjectInputStream(bis, Thread.currentThread().getContextClassLoader());
-                o = is.readObject();
-                is.close();
-                bis.close();
-            }
+            bis = new ByteArrayInputStream(in, offset, length);
+            is = new ConfigurableObjectInputStream(bis, Thread.currentThread().getContextClassLoader());
+            o = is.readObject();
+            is.close();
+            bis.close();
         } catch (IOException e) {
-            LOGGER.warn(String.format("Caught IOException decoding %d bytes of data", in.length), e);
+            LOGGER.warn(String.format("Caught IOException decoding %d bytes of data", length), e);
         } catch (ClassNotFoundException e) {
-            LOGGER.warn(String.format("Caught CNFE decoding %d bytes of data", in.length), e);
+            LOGGER.warn(String.format("Caught CNFE decoding %d bytes of data", length), e);
         } finally {
             close(is);
             close(bis);
@@ -169,65 +197,58 @@ public class JavaTranscoder implements CacheTranscoder { // NO_UCD
     }
 
     /**
-     * Compress the given array of bytes.
+     * Compress the given array of bytes using {@link #compressionCodec}.
      * 
      * @param in
      *            data to compress
      */
     protected byte[] compress(final byte[] in) {
-        if (in == null) {
-            throw new NullPointerException("Can't compress null");
-        }
-
-        ByteArrayOutputStream bos = new ByteArrayOutputStream();
-        GZIPOutputStream gz = null;
-
-        try {
-            gz = new GZIPOutputStream(bos);
-            gz.write(in);
-        } catch (IOException e) {
-            throw new RuntimeException("IO exception compressing data", e);
-        } finally {
-            close(gz);
-            close(bos);
-        }
-
-        return bos.toByteArray();
+        return CompressionCodecs.compress(compressionCodec, in);
     }
 
     /**
-     * Decompress the given array of bytes.
+     * Decompress the given array of bytes compressed by GZIP.
      * 
      * @param in
      *            data to decompress
      * @return null if the bytes cannot be decompressed
      */
     protected byte[] decompress(final byte[] in) {
-        if (in == null) {
-            return null;
-        }
-
-        ByteArrayOutputStream bos = new ByteArrayOutputStream();
-        ByteArrayInputStream bis = new ByteArrayInputStream(in);
-        GZIPInputStream gis = null;
-
-        try {
-            gis = new GZIPInputStream(bis);
+        return (in == null) ? null : decompress(in, 0, in.length);
+    }
 
-            byte[] buf = new byte[8192];
-            int r = -1;
-            while ((r = gis.read(buf)) > 0) {
-                bos.write(buf, 0, r);
-            }
+    /**
+     * Decompress part of given array compressed by GZIP.
+     * 
+     * @param in
+     *            the array containing data to decompress
+     * @param offset
+     *            the offset of the data
+     * @param length
+     *            the length of the data
+     * @return decompressed data
+     * @since 4.3.0
+     */
+    protected byte[] decompress(final byte[] in, final int offset, final int length) {
+        return decompress(CompressionCodecs.COMPRESSED, in, offset, length);
+    }
 
-            return bos.toByteArray();
-        } catch (IOException e) {
-            throw new RuntimeException("IO exception decompressing data", e);
-        } finally {
-            close(gis);
-            close(bis);
-            close(bos);
-        }
+    /**
+     * Decompress part of given array using codec identified by the flags.
+     * 
+     * @param flags
+     *            the flags of the compressed value
+     * @param in
+     *            the array containing data to decompress
+     * @param offset
+     *            the offset of the data
+     * @param length
+     *            the length of the data
+     * @return decompressed data
+     * @since 4.3.0
+     */
+    protected byte[] decompress(final int flags, final byte[] in, final int offset, final int length) {
+        return CompressionCodecs.decompress(flags, in, offset, length, compressionCodec);
     }
 
     protected void close(final Closeable closeable) {
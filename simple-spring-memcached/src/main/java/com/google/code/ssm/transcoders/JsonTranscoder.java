@@ -17,12 +17,13 @@
 
 package com.google.code.ssm.transcoders;
 
-import java.io.ByteArrayInputStream;
-import java.io.ByteArrayOutputStream;
 import java.io.IOException;
+import java.io.OutputStream;
+import java.util.Arrays;
 
 import lombok.EqualsAndHashCode;
 import lombok.Getter;
+import lombok.Setter;
 import lombok.ToString;
 
 import org.slf4j.Logger;
@@ -30,14 +31,26 @@ import org.slf4j.LoggerFactory;
 import org.springframework.util.Assert;
 
 import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectReader;
+import com.fasterxml.jackson.databind.ObjectWriter;
 import com.google.code.ssm.json.Holder;
 import com.google.code.ssm.providers.CacheTranscoder;
 import com.google.code.ssm.providers.CachedObject;
 import com.google.code.ssm.providers.CachedObjectImpl;
+import com.google.code.ssm.transcoders.compression.CompressionCodec;
+import com.google.code.ssm.transcoders.compression.CompressionCodecs;
+import com.google.code.ssm.transcoders.compression.DictionaryCompressionCodec;
 
 /**
  * 
- * Transcoder responsible to decode and encode objects from/to JSON format.
+ * Transcoder responsible to decode and encode objects from/to JSON format. If
+ * {@link JsonTranscoder#setCompressionCodec(CompressionCodec)} is set then JSON bigger than
+ * {@link JsonTranscoder#setCompressionThreshold(int)} is compressed. Compressed values are always decoded, values
+ * compressed using a dictionary only if the configured {@link DictionaryCompressionCodec} or one of its previous
+ * versions has the dictionary.
+ * 
+ * Reader and writer of {@link Holder} are created from the mapper on first use so the mapper shouldn't be reconfigured
+ * after the transcoder started encoding or decoding. JSON is written into reusable buffer of the current thread.
  * 
  * @author Jakub Białek
  * @since 2.0.0
@@ -51,9 +64,49 @@ public class JsonTranscoder implements CacheTranscoder { // NO_UCD
 
     private static final int JSON_SERIALIZED = 8; // json format
 
+    private static final int MIN_BUFFER_SIZE = 256;
+
+    // bigger buffers are not kept to not waste memory of each thread after encoding single huge value
+    private static final int MAX_RETAINED_BUFFER_SIZE = 64 * 1024;
+
+    // reusable output buffer of each thread, only JDK type is kept in the thread to not pin the class loader
+    private static final ThreadLocal<byte[]> BUFFERS = new ThreadLocal<byte[]>();
+
     @Getter
     private final ObjectMapper mapper;
 
+    /**
+     * Codec used to compress JSON bigger than {@link #compressionThreshold}, by default JSON isn't compressed.
+     * 
+     * @since 4.3.0
+     */
+    @Getter
+    @Setter
+    private CompressionCodec compressionCodec;
+
+    /**
+     * @since 4.3.0
+     */
+    @Getter
+    @Setter
+    private int compressionThreshold = JavaTranscoder.DEFAULT_COMPRESSION_THRESHOLD;
+
+    @ToString.Exclude
+    @EqualsAndHashCode.Exclude
+    private volatile ObjectReader reader;
+
+    @ToString.Exclude
+    @EqualsAndHashCode.Exclude
+    private volatile ObjectWriter writer;
+
+    // running average of encoded sizes used only to size new buffers of threads without a buffer; the race is
+    // intentional: concurrent updates may be lost, that only makes the next buffer slightly smaller or bigger and
+    // the buffer grows anyway if needed, so it's not worth synchronization or a per-thread average that would be empty
+    // exactly when a thread needs it
+    @ToString.Exclude
+    @EqualsAndHashCode.Exclude
+    private volatile int averageSize = MIN_BUFFER_SIZE;
+
     public JsonTranscoder(final ObjectMapper mapper) {
         Assert.notNull(mapper, "'mapper' is required and cannot be null");
 
@@ -66,48 +119,128 @@ public class JsonTranscoder implements CacheTranscoder { // NO_UCD
 
     @Override
     public Object decode(final CachedObject data) {
-        if ((data.getFlags() & JSON_SERIALIZED) == 0) {
-            LOGGER.warn("Cannot decode cached data {} using json transcoder", data);
+        return decode(data.getFlags(), data.getData(), 0, data.getData().length);
+    }
+
+    @Override
+    public Object decode(final int flags, final byte[] data, final int offset, final int length) {
+        if ((flags & JSON_SERIALIZED) == 0) {
+            LOGGER.warn("Cannot decode cached data with flags {} using json transcoder", flags);
             throw new RuntimeException("Cannot decode cached data using json transcoder");
         }
 
-        ByteArrayInputStream bais = new ByteArrayInputStream(data.getData());
+        if (CompressionCodecs.isCompressed(flags)) {
+            final byte[] decompressed = CompressionCodecs.decompress(flags, data, offset, length, compressionCodec);
+            return decode(CompressionCodecs.clearFlags(flags), decompressed, 0, decompressed.length);
+        }
 
         try {
-            return mapper.readValue(bais, Holder.class).getValue();
+            final Holder holder = getReader().readValue(data, offset, length);
+            return holder.getValue();
         } catch (IOException e) {
-            LOGGER.warn(String.format("Error deserializing cached data %s", data.toString()), e);
+            LOGGER.warn(String.format("Error deserializing %d bytes of cached data", length), e);
             throw new RuntimeException(e);
-        } finally {
-            try {
-                bais.close();
-            } catch (IOException e) {
-                LOGGER.warn("Error while closing stream", e);
-            }
         }
     }
 
     @Override
     public CachedObject encode(final Object o) {
-        ByteArrayOutputStream baos = new ByteArrayOutputStream();
+        byte[] buffer = BUFFERS.get();
+        if (buffer == null) {
+            buffer = new byte[Math.min(MAX_RETAINED_BUFFER_SIZE, Math.max(MIN_BUFFER_SIZE, averageSize + (averageSize >> 2)))];
+        } else {
+            // nested serialization in the same thread gets its own buffer
+            BUFFERS.set(null);
+        }
 
+        final Output out = new Output(buffer);
         try {
-            mapper.writeValue(baos, new Holder(o));
-            return new CachedObjectImpl(JSON_SERIALIZED, baos.toByteArray());
+            getWriter().writeValue(out, new Holder(o));
+            final int size = out.count;
+            averageSize += (size - averageSize) >> 3;
+            return compress(o, out.buffer, size);
         } catch (IOException e) {
             LOGGER.warn(String.format("Error serializing object %s", o), e);
             throw new RuntimeException(e);
         } finally {
-            try {
-                baos.close();
-            } catch (IOException e) {
-                LOGGER.warn("Error while closing stream", e);
+            if (out.buffer.length <= MAX_RETAINED_BUFFER_SIZE) {
+                BUFFERS.set(out.buffer);
             }
         }
     }
 
+    private CachedObject compress(final Object o, final byte[] buffer, final int size) {
+        if (compressionCodec == null || size <= compressionThreshold) {
+            return CachedObjectImpl.wrap(JSON_SERIALIZED, Arrays.copyOf(buffer, size));
+        }
+
+        final byte[] compressed = CompressionCodecs.compress(compressionCodec, buffer, 0, size);
+        if (compressed.length >= size) {
+            LOGGER.info("Compression increased the size of {} from {} to {}", new Object[] { o.getClass().getName(), size,
+                    compressed.length });
+            return CachedObjectImpl.wrap(JSON_SERIALIZED, Arrays.copyOf(buffer, size));
+        }
+
+        LOGGER.debug("Compressed {} from {} to {}", new Object[] { o.getClass().getName(), size, compressed.length });
+        return CachedObjectImpl.wrap(JSON_SERIALIZED | CompressionCodecs.getFlags(compressionCodec), compressed);
+    }
+
+    private ObjectReader getReader() {
+        ObjectReader r = reader;
+        if (r == null) {
+            r = mapper.readerFor(Holder.class);
+            reader = r;
+        }
+
+        return r;
+    }
+
+    private ObjectWriter getWriter() {
+        ObjectWriter w = writer;
+        if (w == null) {
+            w = mapper.writerFor(Holder.class);
+            writer = w;
+        }
+
+        return w;
+    }
+
     public int getMaxSize() {
         return CachedObject.MAX_SIZE;
     }
 
+    /**
+     * Growable output stream writing directly into the given buffer.
+     */
+    private static final class Output extends OutputStream {
+
+        private byte[] buffer;
+
+        private int count;
+
+        private Output(final byte[] buffer) {
+            this.buffer = buffer;
+        }
+
+        @Override
+        public void write(final int b) {
+            ensureCapacity(1);
+            buffer[count++] = (byte) b;
+        }
+
+        @Override
+        public void write(final byte[] bytes, final int offset, final int length) {
+            ensureCapacity(length);
+            System.arraycopy(bytes, offset, buffer, count, length);
+            count += length;
+        }
+
+        private void ensureCapacity(final int length) {
+            if (buffer.length - count < length) {
+                buffer = Arrays.copyOf(buffer, Math.max(buffer.length * 2, count + length));
+            }
+        }
+
+    }
+
 }
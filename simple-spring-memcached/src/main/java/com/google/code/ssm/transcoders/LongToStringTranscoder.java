@@ -43,12 +43,21 @@ public class LongToStringTranscoder implements CacheTranscoder {
     @Override
     public Object decode(final CachedObject data) {
         byte[] value = data.getData();
-        if (value == null || value.length == 0) {
+        if (value == null) {
+            return null;
+        }
+
+        return decode(data.getFlags(), value, 0, value.length);
+    }
+
+    @Override
+    public Object decode(final int flags, final byte[] data, final int offset, final int length) {
+        if (length == 0) {
             return null;
         }
 
         try {
-            return Long.parseLong(new String(value, "UTF-8").trim());
+            return Long.parseLong(new String(data, offset, length, "UTF-8").trim());
         } catch (NumberFormatException e) {
             throw new RuntimeException(e);
         } catch (UnsupportedEncodingException e) {
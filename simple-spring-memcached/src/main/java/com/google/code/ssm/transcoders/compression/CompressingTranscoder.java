@@ -0,0 +1,105 @@
+/*
+ * Copyright (c) 2012-2019 Jakub Białek
+ * 
+ * Permission is hereby granted, free of charge, to any person obtaining a copy of this software and associated
+ * documentation files (the "Software"), to deal in the Software without restriction, including without limitation the
+ * rights to use, copy, modify, merge, publish, distribute, sublicense, and/or sell copies of the Software, and to
+ * permit persons to whom the Software is furnished to do so, subject to the following conditions:
+ * 
+ * The above copyright notice and this permission notice shall be included in all copies or substantial portions of the
+ * Software.
+ * 
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR IMPLIED, INCLUDING BUT NOT LIMITED TO THE
+ * WARRANTIES OF MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR
+ * COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR
+ * OTHERWISE, ARISING FROM, OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE SOFTWARE.
+ */
+
+package com.google.code.ssm.transcoders.compression;
+
+import lombok.EqualsAndHashCode;
+import lombok.Getter;
+import lombok.ToString;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.util.Assert;
+
+import com.google.code.ssm.providers.CacheTranscoder;
+import com.google.code.ssm.providers.CachedObject;
+import com.google.code.ssm.providers.CachedObjectImpl;
+
+/**
+ * Compresses values encoded by other transcoder if they are bigger than the threshold. Used to compress values of
+ * {@link com.google.code.ssm.api.format.SerializationType#CUSTOM} serialization type if
+ * {@link com.google.code.ssm.providers.CacheConfiguration#isCompressCustomTranscoder()} is enabled, the wrapped
+ * transcoder mustn't use {@link CompressionCodecs#FLAGS_MASK} flags.
+ * 
+ * @author Jakub Białek
+ * @since 4.3.0
+ * 
+ */
+@ToString
+@EqualsAndHashCode
+public class CompressingTranscoder implements CacheTranscoder {
+
+    private static final Logger LOGGER = LoggerFactory.getLogger(CompressingTranscoder.class);
+
+    @Getter
+    private final CacheTranscoder transcoder;
+
+    @Getter
+    private final CompressionCodec compressionCodec;
+
+    @Getter
+    private final int compressionThreshold;
+
+    public CompressingTranscoder(final CacheTranscoder transcoder, final CompressionCodec compressionCodec, final int compressionThreshold) {
+        Assert.notNull(transcoder, "'transcoder' is required and cannot be null");
+        Assert.notNull(compressionCodec, "'compressionCodec' is required and cannot be null");
+
+        this.transcoder = transcoder;
+        this.compressionCodec = compressionCodec;
+        this.compressionThreshold = compressionThreshold;
+    }
+
+    @Override
+    public Object decode(final CachedObject data) {
+        return decode(data.getFlags(), data.getData(), 0, data.getData().length);
+    }
+
+    @Override
+    public Object decode(final int flags, final byte[] data, final int offset, final int length) {
+        if (!CompressionCodecs.isCompressed(flags)) {
+            return transcoder.decode(flags, data, offset, length);
+        }
+
+        final byte[] decompressed = CompressionCodecs.decompress(flags, data, offset, length, compressionCodec);
+        return transcoder.decode(CompressionCodecs.clearFlags(flags), decompressed, 0, decompressed.length);
+    }
+
+    @Override
+    public CachedObject encode(final Object o) {
+        final CachedObject encoded = transcoder.encode(o);
+        if ((encoded.getFlags() & CompressionCodecs.FLAGS_MASK) != 0) {
+            throw new IllegalStateException(String.format("Flags %d of %s collide with compression flags", encoded.getFlags(),
+                    transcoder));
+        }
+
+        final byte[] data = encoded.getData();
+        if (data.length <= compressionThreshold) {
+            return encoded;
+        }
+
+        final byte[] compressed = CompressionCodecs.compress(compressionCodec, data);
+        if (compressed.length >= data.length) {
+            LOGGER.info("Compression increased the size of {} from {} to {}", new Object[] { o.getClass().getName(), data.length,
+                    compressed.length });
+            return encoded;
+        }
+
+        LOGGER.debug("Compressed {} from {} to {}", new Object[] { o.getClass().getName(), data.length, compressed.length });
+        return new CachedObjectImpl(encoded.getFlags() | CompressionCodecs.getFlags(compressionCodec), compressed);
+    }
+
+}
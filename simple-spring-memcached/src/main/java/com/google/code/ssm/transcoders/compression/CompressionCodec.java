@@ -0,0 +1,68 @@
+/*
+ * Copyright (c) 2012-2019 Jakub Białek
+ * 
+ * Permission is hereby granted, free of charge, to any person obtaining a copy of this software and associated
+ * documentation files (the "Software"), to deal in the Software without restriction, including without limitation the
+ * rights to use, copy, modify, merge, publish, distribute, sublicense, and/or sell copies of the Software, and to
+ * permit persons to whom the Software is furnished to do so, subject to the following conditions:
+ * 
+ * The above copyright notice and this permission notice shall be included in all copies or substantial portions of the
+ * Software.
+ * 
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR IMPLIED, INCLUDING BUT NOT LIMITED TO THE
+ * WARRANTIES OF MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR
+ * COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR
+ * OTHERWISE, ARISING FROM, OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE SOFTWARE.
+ */
+
+package com.google.code.ssm.transcoders.compression;
+
+import java.io.IOException;
+import java.io.OutputStream;
+
+/**
+ * Compresses and decompresses cached values. Id of the codec is stored in flags of each compressed value, so the value
+ * can be decompressed regardless of the codec currently configured for the cache.
+ * 
+ * @author Jakub Białek
+ * @since 4.3.0
+ * 
+ */
+public interface CompressionCodec {
+
+    /**
+     * 
+     * @return id of the codec stored in flags of compressed values, from 0 to {@link CompressionCodecs#MAX_CODEC_ID}
+     */
+    int getId();
+
+    /**
+     * Compresses part of the array.
+     * 
+     * @param data
+     *            the array containing data to compress
+     * @param offset
+     *            the offset of the data
+     * @param length
+     *            the length of the data
+     * @param out
+     *            the stream compressed data are written to, it's not closed
+     * @throws IOException
+     */
+    void compress(byte[] data, int offset, int length, OutputStream out) throws IOException;
+
+    /**
+     * Decompresses part of the array.
+     * 
+     * @param data
+     *            the array containing data to decompress
+     * @param offset
+     *            the offset of the data
+     * @param length
+     *            the length of the data
+     * @return decompressed data
+     * @throws IOException
+     */
+    byte[] decompress(byte[] data, int offset, int length) throws IOException;
+
+}
@@ -0,0 +1,234 @@
+/*
+ * Copyright (c) 2012-2019 Jakub Białek
+ * 
+ * Permission is hereby granted, free of charge, to any person obtaining a copy of this software and associated
+ * documentation files (the "Software"), to deal in the Software without restriction, including without limitation the
+ * rights to use, copy, modify, merge, publish, distribute, sublicense, and/or sell copies of the Software, and to
+ * permit persons to whom the Software is furnished to do so, subject to the following conditions:
+ * 
+ * The above copyright notice and this permission notice shall be included in all copies or substantial portions of the
+ * Software.
+ * 
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR IMPLIED, INCLUDING BUT NOT LIMITED TO THE
+ * WARRANTIES OF MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR
+ * COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR
+ * OTHERWISE, ARISING FROM, OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE SOFTWARE.
+ */
+
+package com.google.code.ssm.transcoders.compression;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+
+import org.springframework.util.ClassUtils;
+
+/**
+ * Flags of compressed values and lookup of codecs. Compressed value has {@link #COMPRESSED} flag set and id of the codec
+ * stored in bits 4-6 of the flags, GZIP has id 0 so values compressed by it have the same flags as before codecs were
+ * introduced. Version of dictionary used by {@link DictionaryCompressionCodec} is stored in bits 16-23, bits 8-15 are
+ * left to transcoders which use them to mark special types.
+ * 
+ * @author Jakub Białek
+ * @since 4.3.0
+ * 
+ */
+public final class CompressionCodecs {
+
+    /**
+     * Flag of compressed value.
+     */
+    public static final int COMPRESSED = 2;
+
+    public static final int MAX_CODEC_ID = 7;
+
+    private static final int CODEC_SHIFT = 4;
+
+    private static final int CODEC_MASK = MAX_CODEC_ID << CODEC_SHIFT;
+
+    private static final int DICTIONARY_SHIFT = 16;
+
+    private static final int DICTIONARY_MASK = DictionaryCompressionCodec.MAX_VERSION << DICTIONARY_SHIFT;
+
+    /**
+     * All flags used to mark compressed values, transcoders which values are compressed mustn't use them.
+     */
+    public static final int FLAGS_MASK = COMPRESSED | CODEC_MASK | DICTIONARY_MASK;
+
+    public static final CompressionCodec GZIP = new GzipCompressionCodec();
+
+    public static final CompressionCodec DEFLATE = new DeflateCompressionCodec();
+
+    private static final boolean ZSTD_PRESENT = ClassUtils.isPresent("com.github.luben.zstd.Zstd",
+            CompressionCodecs.class.getClassLoader());
+
+    private CompressionCodecs() {
+
+    }
+
+    /**
+     * 
+     * @param codec
+     *            the codec used to compress a value
+     * @return flags that have to be added to flags of the value compressed by the codec
+     */
+    public static int getFlags(final CompressionCodec codec) {
+        final int id = codec.getId();
+        if (id < 0 || id > MAX_CODEC_ID) {
+            throw new IllegalArgumentException(String.format("Id of codec %s must be between 0 and %d", codec, MAX_CODEC_ID));
+        }
+        if (codec instanceof DictionaryCompressionCodec) {
+            return COMPRESSED | (id << CODEC_SHIFT) | (((DictionaryCompressionCodec) codec).getVersion() << DICTIONARY_SHIFT);
+        }
+        return COMPRESSED | (id << CODEC_SHIFT);
+    }
+
+    public static boolean isCompressed(final int flags) {
+        return (flags & COMPRESSED) != 0;
+    }
+
+    /**
+     * 
+     * @param flags
+     *            flags of compressed value
+     * @return codec the value was compressed by
+     */
+    public static CompressionCodec getCodec(final int flags) {
+        return getCodec(flags, null);
+    }
+
+    /**
+     * 
+     * @param flags
+     *            flags of compressed value
+     * @param configured
+     *            the codec configured in transcoder, used to find the dictionary if the value was compressed with a
+     *            dictionary, may be null
+     * @return codec the value was compressed by
+     */
+    public static CompressionCodec getCodec(final int flags, final CompressionCodec configured) {
+        final int id = (flags & CODEC_MASK) >>> CODEC_SHIFT;
+        final int dictionaryVersion = (flags & DICTIONARY_MASK) >>> DICTIONARY_SHIFT;
+        if (dictionaryVersion != 0) {
+            final CompressionCodec codec = configured instanceof DictionaryCompressionCodec && configured.getId() == id
+                    ? ((DictionaryCompressionCodec) configured).getCodec(dictionaryVersion) : null;
+            if (codec == null) {
+                throw new IllegalStateException(String.format(
+                        "Value is compressed by codec %d using dictionary %d which isn't configured", id, dictionaryVersion));
+            }
+            return codec;
+        }
+
+        switch (id) {
+        case GzipCompressionCodec.ID:
+            return GZIP;
+        case DeflateCompressionCodec.ID:
+            return DEFLATE;
+        case ZstdCompressionCodec.ID:
+            if (!ZSTD_PRESENT) {
+                throw new IllegalStateException("Value is compressed by zstd, add com.github.luben:zstd-jni to the classpath");
+            }
+            return ZstdHolder.ZSTD;
+        default:
+            throw new IllegalStateException(String.format("Value is compressed by unknown codec %d", id));
+        }
+    }
+
+    /**
+     * Compresses the data.
+     * 
+     * @param codec
+     *            the codec to use
+     * @param data
+     *            the data to compress
+     * @return compressed data
+     */
+    public static byte[] compress(final CompressionCodec codec, final byte[] data) {
+        if (data == null) {
+            throw new NullPointerException("Can't compress null");
+        }
+
+        return compress(codec, data, 0, data.length);
+    }
+
+    /**
+     * Compresses part of the array.
+     * 
+     * @param codec
+     *            the codec to use
+     * @param data
+     *            the array containing data to compress
+     * @param offset
+     *            the offset of the data
+     * @param length
+     *            the length of the data
+     * @return compressed data
+     */
+    public static byte[] compress(final CompressionCodec codec, final byte[] data, final int offset, final int length) {
+        final ByteArrayOutputStream bos = new ByteArrayOutputStream(length / 2 + 16);
+        try {
+            codec.compress(data, offset, length, bos);
+        } catch (IOException e) {
+            throw new RuntimeException("IO exception compressing data", e);
+        }
+        return bos.toByteArray();
+    }
+
+    /**
+     * Decompresses part of the array using codec the data were compressed by.
+     * 
+     * @param flags
+     *            flags of compressed value
+     * @param data
+     *            the array containing data to decompress
+     * @param offset
+     *            the offset of the data
+     * @param length
+     *            the length of the data
+     * @return decompressed data
+     */
+    public static byte[] decompress(final int flags, final byte[] data, final int offset, final int length) {
+        return decompress(flags, data, offset, length, null);
+    }
+
+    /**
+     * Decompresses part of the array using codec the data were compressed by.
+     * 
+     * @param flags
+     *            flags of compressed value
+     * @param data
+     *            the array containing data to decompress
+     * @param offset
+     *            the offset of the data
+     * @param length
+     *            the length of the data
+     * @param configured
+     *            the codec configured in transcoder, it provides dictionaries, may be null
+     * @return decompressed data
+     */
+    public static byte[] decompress(final int flags, final byte[] data, final int offset, final int length,
+            final CompressionCodec configured) {
+        try {
+            return getCodec(flags, configured).decompress(data, offset, length);
+        } catch (IOException e) {
+            throw new RuntimeException("IO exception decompressing data", e);
+        }
+    }
+
+    /**
+     * 
+     * @param flags
+     *            flags of compressed value
+     * @return flags of the value before compression
+     */
+    public static int clearFlags(final int flags) {
+        return flags & ~FLAGS_MASK;
+    }
+
+    // loaded only if zstd is used, the codec class refers zstd-jni classes
+    private static final class ZstdHolder {
+
+        private static final CompressionCodec ZSTD = new ZstdCompressionCodec();
+
+    }
+
+}
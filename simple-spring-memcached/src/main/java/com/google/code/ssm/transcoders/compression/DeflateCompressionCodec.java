@@ -0,0 +1,109 @@
+/*
+ * Copyright (c) 2012-2019 Jakub Białek
+ * 
+ * Permission is hereby granted, free of charge, to any person obtaining a copy of this software and associated
+ * documentation files (the "Software"), to deal in the Software without restriction, including without limitation the
+ * rights to use, copy, modify, merge, publish, distribute, sublicense, and/or sell copies of the Software, and to
+ * permit persons to whom the Software is furnished to do so, subject to the following conditions:
+ * 
+ * The above copyright notice and this permission notice shall be included in all copies or substantial portions of the
+ * Software.
+ * 
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR IMPLIED, INCLUDING BUT NOT LIMITED TO THE
+ * WARRANTIES OF MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR
+ * COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR
+ * OTHERWISE, ARISING FROM, OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE SOFTWARE.
+ */
+
+package com.google.code.ssm.transcoders.compression;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.util.Arrays;
+import java.util.zip.DataFormatException;
+import java.util.zip.Deflater;
+import java.util.zip.Inflater;
+
+import lombok.EqualsAndHashCode;
+import lombok.Getter;
+import lombok.Setter;
+import lombok.ToString;
+
+/**
+ * Raw deflate compression provided by JDK. With default {@link Deflater#BEST_SPEED} level it's considerably faster than
+ * {@link GzipCompressionCodec} which uses default level and computes checksum of the data, at the cost of slightly bigger
+ * values.
+ * 
+ * @author Jakub Białek
+ * @since 4.3.0
+ * 
+ */
+@ToString
+@EqualsAndHashCode
+public class DeflateCompressionCodec implements CompressionCodec {
+
+    public static final int ID = 1;
+
+    private static final int BUFFER_SIZE = 8192;
+
+    /**
+     * Compression level from 1 (fastest) to 9 (best compression), the level isn't needed to decompress.
+     */
+    @Getter
+    @Setter
+    private int level = Deflater.BEST_SPEED;
+
+    @Override
+    public int getId() {
+        return ID;
+    }
+
+    @Override
+    public void compress(final byte[] data, final int offset, final int length, final OutputStream out) throws IOException {
+        final Deflater deflater = new Deflater(level, true);
+        try {
+            deflater.setInput(data, offset, length);
+            deflater.finish();
+            final byte[] buf = new byte[Math.min(BUFFER_SIZE, length + 64)];
+            while (!deflater.finished()) {
+                out.write(buf, 0, deflater.deflate(buf));
+            }
+        } finally {
+            deflater.end();
+        }
+    }
+
+    @Override
+    public byte[] decompress(final byte[] data, final int offset, final int length) throws IOException {
+        final Inflater inflater = new Inflater(true);
+        try {
+            inflater.setInput(data, offset, length);
+            byte[] result = new byte[Math.max(length * 3, 64)];
+            int size = 0;
+            boolean dummySupplied = false;
+            while (!inflater.finished()) {
+                if (size == result.length) {
+                    result = Arrays.copyOf(result, result.length * 2);
+                }
+                final int inflated = inflater.inflate(result, size, result.length - size);
+                if (inflated == 0 && inflater.needsInput()) {
+                    // inflater without zlib wrapper may need extra dummy byte to finish
+                    if (dummySupplied) {
+                        throw new IOException("Unexpected end of deflate data");
+                    }
+                    inflater.setInput(new byte[1]);
+                    dummySupplied = true;
+                } else if (inflated == 0 && inflater.needsDictionary()) {
+                    throw new IOException("Deflate data require dictionary");
+                }
+                size += inflated;
+            }
+            return size == result.length ? result : Arrays.copyOf(result, size);
+        } catch (DataFormatException e) {
+            throw new IOException(e);
+        } finally {
+            inflater.end();
+        }
+    }
+
+}
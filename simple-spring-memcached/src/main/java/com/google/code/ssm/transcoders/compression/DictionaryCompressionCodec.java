@@ -0,0 +1,98 @@
+/*
+ * Copyright (c) 2012-2019 Jakub Białek
+ * 
+ * Permission is hereby granted, free of charge, to any person obtaining a copy of this software and associated
+ * documentation files (the "Software"), to deal in the Software without restriction, including without limitation the
+ * rights to use, copy, modify, merge, publish, distribute, sublicense, and/or sell copies of the Software, and to
+ * permit persons to whom the Software is furnished to do so, subject to the following conditions:
+ * 
+ * The above copyright notice and this permission notice shall be included in all copies or substantial portions of the
+ * Software.
+ * 
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR IMPLIED, INCLUDING BUT NOT LIMITED TO THE
+ * WARRANTIES OF MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR
+ * COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR
+ * OTHERWISE, ARISING FROM, OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE SOFTWARE.
+ */
+
+package com.google.code.ssm.transcoders.compression;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+import lombok.Getter;
+
+/**
+ * Codec compressing values using a dictionary. Small values that share structure (field names, class aliases) compress
+ * well only with a dictionary trained on samples of such values. Version of the dictionary is stored in flags of each
+ * compressed value so the dictionary can be replaced by a new one, values compressed by the previous dictionaries can be
+ * decompressed as long as codecs of these dictionaries are set in {@link #setPreviousVersions(List)}.
+ * 
+ * The same dictionary under the same version has to be used by all clients of the cache.
+ * 
+ * @author Jakub Białek
+ * @since 4.3.0
+ * 
+ */
+public abstract class DictionaryCompressionCodec implements CompressionCodec {
+
+    public static final int MAX_VERSION = 255;
+
+    /**
+     * Version of the dictionary, from 1 to {@link #MAX_VERSION}.
+     */
+    @Getter
+    private final int version;
+
+    private volatile List<DictionaryCompressionCodec> previousVersions = Collections.emptyList();
+
+    protected DictionaryCompressionCodec(final int version) {
+        if (version < 1 || version > MAX_VERSION) {
+            throw new IllegalArgumentException(String.format("Version of dictionary must be between 1 and %d", MAX_VERSION));
+        }
+        this.version = version;
+    }
+
+    public List<DictionaryCompressionCodec> getPreviousVersions() {
+        return previousVersions;
+    }
+
+    /**
+     * Sets codecs of previously used dictionaries, values compressed by them still can be decompressed.
+     * 
+     * @param previousVersions
+     *            codecs with the same id and different versions
+     */
+    public void setPreviousVersions(final List<? extends DictionaryCompressionCodec> previousVersions) {
+        final List<DictionaryCompressionCodec> codecs = new ArrayList<DictionaryCompressionCodec>(previousVersions);
+        for (DictionaryCompressionCodec codec : codecs) {
+            if (codec.getId() != getId() || codec.getVersion() == version) {
+                throw new IllegalArgumentException(String.format("Codec %s has to have id %d and version other than %d", codec,
+                        getId(), version));
+            }
+        }
+        this.previousVersions = Collections.unmodifiableList(codecs);
+    }
+
+    /**
+     * 
+     * @param dictionaryVersion
+     *            the version of dictionary
+     * @return this codec or one of previous versions using dictionary with given version, null if there is no such codec
+     */
+    public DictionaryCompressionCodec getCodec(final int dictionaryVersion) {
+        if (dictionaryVersion == version) {
+            return this;
+        }
+
+        for (DictionaryCompressionCodec codec : previousVersions) {
+            if (codec.getVersion() == dictionaryVersion) {
+                return codec;
+            }
+        }
+
+        return null;
+    }
+
+}
@@ -0,0 +1,89 @@
+/*
+ * Copyright (c) 2012-2019 Jakub Białek
+ * 
+ * Permission is hereby granted, free of charge, to any person obtaining a copy of this software and associated
+ * documentation files (the "Software"), to deal in the Software without restriction, including without limitation the
+ * rights to use, copy, modify, merge, publish, distribute, sublicense, and/or sell copies of the Software, and to
+ * permit persons to whom the Software is furnished to do so, subject to the following conditions:
+ * 
+ * The above copyright notice and this permission notice shall be included in all copies or substantial portions of the
+ * Software.
+ * 
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR IMPLIED, INCLUDING BUT NOT LIMITED TO THE
+ * WARRANTIES OF MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR
+ * COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR
+ * OTHERWISE, ARISING FROM, OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE SOFTWARE.
+ */
+
+package com.google.code.ssm.transcoders.compression;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.FilterOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.util.zip.GZIPInputStream;
+import java.util.zip.GZIPOutputStream;
+
+import lombok.EqualsAndHashCode;
+import lombok.ToString;
+
+/**
+ * GZIP compression, the format used by all versions of simple-spring-memcached. Values compressed by this codec are
+ * stored with the same flags as before codecs were introduced.
+ * 
+ * @author Jakub Białek
+ * @since 4.3.0
+ * 
+ */
+@ToString
+@EqualsAndHashCode
+public class GzipCompressionCodec implements CompressionCodec {
+
+    public static final int ID = 0;
+
+    @Override
+    public int getId() {
+        return ID;
+    }
+
+    @Override
+    public void compress(final byte[] data, final int offset, final int length, final OutputStream out) throws IOException {
+        // closing the gzip stream releases its deflater but mustn't close the target
+        try (GZIPOutputStream gz = new GZIPOutputStream(new NonClosingOutputStream(out))) {
+            gz.write(data, offset, length);
+        }
+    }
+
+    @Override
+    public byte[] decompress(final byte[] data, final int offset, final int length) throws IOException {
+        final ByteArrayOutputStream bos = new ByteArrayOutputStream(length * 2);
+        try (GZIPInputStream gis = new GZIPInputStream(new ByteArrayInputStream(data, offset, length))) {
+            final byte[] buf = new byte[8192];
+            int r;
+            while ((r = gis.read(buf)) > 0) {
+                bos.write(buf, 0, r);
+            }
+        }
+        return bos.toByteArray();
+    }
+
+    private static class NonClosingOutputStream extends FilterOutputStream {
+
+        NonClosingOutputStream(final OutputStream out) {
+            super(out);
+        }
+
+        @Override
+        public void write(final byte[] b, final int off, final int len) throws IOException {
+            out.write(b, off, len);
+        }
+
+        @Override
+        public void close() throws IOException {
+            flush();
+        }
+
+    }
+
+}
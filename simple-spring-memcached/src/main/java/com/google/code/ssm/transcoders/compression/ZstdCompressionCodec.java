@@ -0,0 +1,81 @@
+/*
+ * Copyright (c) 2012-2019 Jakub Białek
+ * 
+ * Permission is hereby granted, free of charge, to any person obtaining a copy of this software and associated
+ * documentation files (the "Software"), to deal in the Software without restriction, including without limitation the
+ * rights to use, copy, modify, merge, publish, distribute, sublicense, and/or sell copies of the Software, and to
+ * permit persons to whom the Software is furnished to do so, subject to the following conditions:
+ * 
+ * The above copyright notice and this permission notice shall be included in all copies or substantial portions of the
+ * Software.
+ * 
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR IMPLIED, INCLUDING BUT NOT LIMITED TO THE
+ * WARRANTIES OF MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR
+ * COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR
+ * OTHERWISE, ARISING FROM, OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE SOFTWARE.
+ */
+
+package com.google.code.ssm.transcoders.compression;
+
+import java.io.IOException;
+import java.io.OutputStream;
+
+import lombok.EqualsAndHashCode;
+import lombok.Getter;
+import lombok.Setter;
+import lombok.ToString;
+
+import com.github.luben.zstd.Zstd;
+
+/**
+ * Zstandard compression, fast and with good compression ratio. Requires com.github.luben:zstd-jni on the classpath.
+ * 
+ * @author Jakub Białek
+ * @since 4.3.0
+ * 
+ */
+@ToString
+@EqualsAndHashCode
+public class ZstdCompressionCodec implements CompressionCodec {
+
+    public static final int ID = 2;
+
+    /**
+     * Compression level, 1 is the fastest, the level isn't needed to decompress.
+     */
+    @Getter
+    @Setter
+    private int level = 1;
+
+    @Override
+    public int getId() {
+        return ID;
+    }
+
+    @Override
+    public void compress(final byte[] data, final int offset, final int length, final OutputStream out) throws IOException {
+        final byte[] compressed = new byte[(int) Zstd.compressBound(length)];
+        final long size = Zstd.compressByteArray(compressed, 0, compressed.length, data, offset, length, level);
+        if (Zstd.isError(size)) {
+            throw new IOException("Zstd compression failed: " + Zstd.getErrorName(size));
+        }
+        out.write(compressed, 0, (int) size);
+    }
+
+    @Override
+    public byte[] decompress(final byte[] data, final int offset, final int length) throws IOException {
+        // content size is always written to the frame by compress
+        final long contentSize = Zstd.decompressedSize(data, offset, length);
+        if (contentSize < 0 || contentSize > Integer.MAX_VALUE) {
+            throw new IOException("Unknown size of zstd compressed data");
+        }
+
+        final byte[] decompressed = new byte[(int) contentSize];
+        final long size = Zstd.decompressByteArray(decompressed, 0, decompressed.length, data, offset, length);
+        if (Zstd.isError(size)) {
+            throw new IOException("Zstd decompression failed: " + Zstd.getErrorName(size));
+        }
+        return decompressed;
+    }
+
+}
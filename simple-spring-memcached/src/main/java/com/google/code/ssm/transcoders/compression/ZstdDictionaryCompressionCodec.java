@@ -0,0 +1,129 @@
+/*
+ * Copyright (c) 2012-2019 Jakub Białek
+ * 
+ * Permission is hereby granted, free of charge, to any person obtaining a copy of this software and associated
+ * documentation files (the "Software"), to deal in the Software without restriction, including without limitation the
+ * rights to use, copy, modify, merge, publish, distribute, sublicense, and/or sell copies of the Software, and to
+ * permit persons to whom the Software is furnished to do so, subject to the following conditions:
+ * 
+ * The above copyright notice and this permission notice shall be included in all copies or substantial portions of the
+ * Software.
+ * 
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR IMPLIED, INCLUDING BUT NOT LIMITED TO THE
+ * WARRANTIES OF MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR
+ * COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR
+ * OTHERWISE, ARISING FROM, OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE SOFTWARE.
+ */
+
+package com.google.code.ssm.transcoders.compression;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.util.List;
+
+import lombok.Getter;
+import lombok.ToString;
+
+import org.springframework.util.Assert;
+
+import com.github.luben.zstd.Zstd;
+import com.github.luben.zstd.ZstdDictCompress;
+import com.github.luben.zstd.ZstdDictDecompress;
+import com.github.luben.zstd.ZstdDictTrainer;
+import com.github.luben.zstd.ZstdException;
+
+/**
+ * Zstandard compression using a dictionary, designed for small values (hundreds of bytes) below the usual compression
+ * threshold. Dictionary can be trained offline or from samples of encoded values using
+ * {@link #train(List, int)}. Requires com.github.luben:zstd-jni on the classpath.
+ * 
+ * @author Jakub Białek
+ * @since 4.3.0
+ * 
+ */
+@ToString(of = { "version", "level" })
+public class ZstdDictionaryCompressionCodec extends DictionaryCompressionCodec {
+
+    public static final int ID = 3;
+
+    public static final int DEFAULT_LEVEL = 3;
+
+    @Getter
+    private final int level;
+
+    private final ZstdDictCompress compressDictionary;
+
+    private final ZstdDictDecompress decompressDictionary;
+
+    public ZstdDictionaryCompressionCodec(final int version, final byte[] dictionary) {
+        this(version, dictionary, DEFAULT_LEVEL);
+    }
+
+    public ZstdDictionaryCompressionCodec(final int version, final byte[] dictionary, final int level) {
+        super(version);
+        Assert.notNull(dictionary, "'dictionary' is required and cannot be null");
+
+        this.level = level;
+        this.compressDictionary = new ZstdDictCompress(dictionary, level);
+        this.decompressDictionary = new ZstdDictDecompress(dictionary);
+    }
+
+    /**
+     * Trains a dictionary.
+     * 
+     * @param samples
+     *            samples of uncompressed values, e.g. data of values encoded without compression
+     * @param dictionarySize
+     *            maximum size of the dictionary in bytes
+     * @return the dictionary
+     */
+    public static byte[] train(final List<byte[]> samples, final int dictionarySize) {
+        int samplesSize = 0;
+        for (byte[] sample : samples) {
+            samplesSize += sample.length;
+        }
+
+        final ZstdDictTrainer trainer = new ZstdDictTrainer(samplesSize, dictionarySize);
+        for (byte[] sample : samples) {
+            trainer.addSample(sample);
+        }
+
+        try {
+            return trainer.trainSamples();
+        } catch (ZstdException e) {
+            throw new IllegalArgumentException("Cannot train dictionary from " + samples.size() + " samples", e);
+        }
+    }
+
+    @Override
+    public int getId() {
+        return ID;
+    }
+
+    @Override
+    public void compress(final byte[] data, final int offset, final int length, final OutputStream out) throws IOException {
+        final byte[] compressed = new byte[(int) Zstd.compressBound(length)];
+        final long size = Zstd.compressFastDict(compressed, 0, data, offset, length, compressDictionary);
+        if (Zstd.isError(size)) {
+            throw new IOException("Zstd compression failed: " + Zstd.getErrorName(size));
+        }
+        out.write(compressed, 0, (int) size);
+    }
+
+    @Override
+    public byte[] decompress(final byte[] data, final int offset, final int length) throws IOException {
+        // content size is always written to the frame by compress
+        final long contentSize = Zstd.decompressedSize(data, offset, length);
+        if (contentSize < 0 || contentSize > Integer.MAX_VALUE) {
+            throw new IOException("Unknown size of zstd compressed data");
+        }
+
+        final byte[] decompressed = new byte[(int) contentSize];
+        final long size = Zstd.decompressFastDict(decompressed, 0, data, offset, length, decompressDictionary);
+        if (Zstd.isError(size)) {
+            throw new IOException("Zstd decompression failed: " + Zstd.getErrorName(size));
+        }
+        return decompressed;
+    }
+
+}
@@ -19,7 +19,11 @@ package com.google.code.ssm;
 
 import static org.junit.Assert.assertEquals;
 import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
 import static org.mockito.Matchers.any;
+import static org.mockito.Matchers.anyMap;
+import static org.mockito.Matchers.eq;
 import static org.mockito.Mockito.when;
 import static org.mockito.Mockito.verify;
 
@@ -29,6 +33,7 @@ import java.net.SocketAddress;
 import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.Collection;
+import java.util.Collections;
 import java.util.List;
 
 import javax.naming.NamingException;
@@ -36,6 +41,7 @@ import javax.naming.NamingException;
 import org.junit.Before;
 import org.junit.Test;
 import org.junit.runner.RunWith;
+import org.mockito.ArgumentCaptor;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
 import org.mockito.invocation.InvocationOnMock;
@@ -43,12 +49,17 @@ import org.mockito.junit.MockitoJUnitRunner;
 import org.mockito.stubbing.Answer;
 
 import com.google.code.ssm.aop.CacheBase;
+import com.google.code.ssm.api.format.SerializationType;
 import com.google.code.ssm.config.AddressProvider;
 import com.google.code.ssm.config.DefaultAddressProvider;
 import com.google.code.ssm.config.JndiAddressProvider;
 import com.google.code.ssm.providers.CacheClient;
 import com.google.code.ssm.providers.CacheClientFactory;
 import com.google.code.ssm.providers.CacheConfiguration;
+import com.google.code.ssm.providers.CacheTranscoder;
+import com.google.code.ssm.transcoders.JavaTranscoder;
+import com.google.code.ssm.transcoders.compression.CompressingTranscoder;
+import com.google.code.ssm.transcoders.compression.CompressionCodecs;
 
 /**
  * 
@@ -155,4 +166,89 @@ public class CacheFactoryTest {
         verify(cacheClientFactory).create(addrsProvider.getAddresses(), conf);
     }
 
+    @Test
+    public void shouldConfigureCompression() throws Exception {
+        CacheConfiguration conf = new CacheConfiguration();
+        conf.setCompressionCodec(CompressionCodecs.DEFLATE);
+        conf.setCompressionThreshold(100);
+        factory.setConfiguration(conf);
+        factory.setAddressProvider(new DefaultAddressProvider("127.0.0.1:11211"));
+        factory.afterPropertiesSet();
+
+        assertSame(CompressionCodecs.DEFLATE, factory.getJavaTranscoder().getCompressionCodec());
+        assertEquals(100, factory.getJavaTranscoder().getCompressionThreshold());
+        assertSame(CompressionCodecs.DEFLATE, factory.getBinaryTranscoder().getCompressionCodec());
+        assertSame(CompressionCodecs.DEFLATE, factory.getJsonTranscoder().getCompressionCodec());
+        assertEquals(100, factory.getJsonTranscoder().getCompressionThreshold());
+    }
+
+    @Test
+    public void shouldNotConfigureCompressionOfExplicitTranscoders() throws Exception {
+        CacheConfiguration conf = new CacheConfiguration();
+        conf.setCompressionCodec(CompressionCodecs.DEFLATE);
+        JavaTranscoder javaTranscoder = new JavaTranscoder();
+        factory.setConfiguration(conf);
+        factory.setAddressProvider(new DefaultAddressProvider("127.0.0.1:11211"));
+        factory.setJavaTranscoder(javaTranscoder);
+        factory.afterPropertiesSet();
+
+        assertSame(javaTranscoder, factory.getJavaTranscoder());
+        assertSame(CompressionCodecs.GZIP, javaTranscoder.getCompressionCodec());
+        assertSame(CompressionCodecs.DEFLATE, factory.getBinaryTranscoder().getCompressionCodec());
+    }
+
+    @Test
+    public void shouldNotCompressCustomTranscoderByDefault() throws Exception {
+        CacheTranscoder customTranscoder = new JavaTranscoder();
+
+        assertSame(customTranscoder, getCustomTranscoderOfCache(customTranscoder, false));
+    }
+
+    @Test
+    public void shouldCompressCustomTranscoderIfEnabled() throws Exception {
+        CacheTranscoder customTranscoder = new JavaTranscoder();
+
+        CacheTranscoder used = getCustomTranscoderOfCache(customTranscoder, true);
+
+        assertTrue(used instanceof CompressingTranscoder);
+        assertSame(customTranscoder, ((CompressingTranscoder) used).getTranscoder());
+        assertSame(CompressionCodecs.DEFLATE, ((CompressingTranscoder) used).getCompressionCodec());
+    }
+
+    @Test
+    public void shouldCreateNearCache() throws Exception {
+        CacheConfiguration conf = new CacheConfiguration();
+        AddressProvider addrsProvider = new DefaultAddressProvider("127.0.0.1:11211");
+        factory.setConfiguration(conf);
+        factory.setAddressProvider(addrsProvider);
+        factory.setNearCacheConfiguration(new NearCacheConfiguration());
+        factory.afterPropertiesSet();
+
+        Cache cache = factory.createCache();
+        assertTrue(cache instanceof NearCacheImpl);
+
+        List<InetSocketAddress> newAddrs = Arrays.asList(new InetSocketAddress("127.0.0.2", 11221));
+        factory.changeAddresses(newAddrs);
+
+        assertEquals(newAddrs, cache.getAvailableServers());
+    }
+
+    @SuppressWarnings("unchecked")
+    private CacheTranscoder getCustomTranscoderOfCache(final CacheTranscoder customTranscoder, final boolean compressCustomTranscoder)
+            throws Exception {
+        CacheConfiguration conf = new CacheConfiguration();
+        conf.setCompressionCodec(CompressionCodecs.DEFLATE);
+        conf.setCompressCustomTranscoder(compressCustomTranscoder);
+        factory.setConfiguration(conf);
+        factory.setAddressProvider(new DefaultAddressProvider("127.0.0.1:11211"));
+        factory.setCustomTranscoder(customTranscoder);
+        factory.afterPropertiesSet();
+
+        factory.createCache().setBulk(Collections.<String, Object> singletonMap("key", "value"), 10, SerializationType.CUSTOM);
+
+        ArgumentCaptor<CacheTranscoder> transcoder = ArgumentCaptor.forClass(CacheTranscoder.class);
+        verify(cacheClient).setBulk(anyMap(), eq(10), transcoder.capture());
+        return transcoder.getValue();
+    }
+
 }
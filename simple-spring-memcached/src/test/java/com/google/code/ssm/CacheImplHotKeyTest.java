@@ -0,0 +1,149 @@
+/*
+ * Copyright (c) 2012-2019 Jakub Białek
+ * 
+ * Permission is hereby granted, free of charge, to any person obtaining a copy of this software and associated
+ * documentation files (the "Software"), to deal in the Software without restriction, including without limitation the
+ * rights to use, copy, modify, merge, publish, distribute, sublicense, and/or sell copies of the Software, and to
+ * permit persons to whom the Software is furnished to do so, subject to the following conditions:
+ * 
+ * The above copyright notice and this permission notice shall be included in all copies or substantial portions of the
+ * Software.
+ * 
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR IMPLIED, INCLUDING BUT NOT LIMITED TO THE
+ * WARRANTIES OF MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR
+ * COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR
+ * OTHERWISE, ARISING FROM, OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE SOFTWARE.
+ */
+package com.google.code.ssm;
+
+import static org.junit.Assert.assertEquals;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.Map;
+
+import org.junit.Before;
+import org.junit.Test;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Mockito;
+
+import com.google.code.ssm.api.format.SerializationType;
+import com.google.code.ssm.providers.CacheClient;
+import com.google.code.ssm.transcoders.JavaTranscoder;
+import com.google.code.ssm.transcoders.JsonTranscoder;
+
+/**
+ * 
+ * @author Jakub Białek
+ * 
+ */
+public class CacheImplHotKeyTest {
+
+    private CacheClient cacheClient;
+
+    private HotKeyDetector detector;
+
+    private Cache cache;
+
+    @Before
+    public void setUp() {
+        cacheClient = Mockito.mock(CacheClient.class);
+        final HotKeyConfiguration configuration = new HotKeyConfiguration();
+        configuration.setThreshold(1);
+        configuration.setReplicas(2);
+        configuration.setReplicaExpiration(30);
+        detector = new HotKeyDetector(configuration);
+        cache = new CacheImpl("cache", Collections.<String> emptyList(), cacheClient, SerializationType.PROVIDER,
+                Mockito.mock(JsonTranscoder.class), Mockito.mock(JavaTranscoder.class), null, null, new CacheProperties(),
+                detector);
+    }
+
+    @Test
+    public void shouldNotReplicateColdKey() throws Exception {
+        cache.set("key", 100, "value", SerializationType.PROVIDER);
+
+        verify(cacheClient).set("key", 100, "value");
+        verify(cacheClient, never()).set(eq("key#r1"), Mockito.anyInt(), Mockito.any());
+    }
+
+    @Test
+    public void shouldReplicateHotKeyOnSet() throws Exception {
+        detector.record("key");
+
+        cache.set("key", 100, "value", SerializationType.PROVIDER);
+
+        verify(cacheClient).set("key", 100, "value");
+        verify(cacheClient).set("key#r1", 30, "value");
+    }
+
+    @Test
+    public void shouldReadHotKeyFromReplicas() throws Exception {
+        when(cacheClient.get("key")).thenReturn("value");
+        when(cacheClient.get("key#r1")).thenReturn("value");
+
+        for (int i = 0; i < 100; i++) {
+            assertEquals("value", cache.get("key", SerializationType.PROVIDER));
+        }
+
+        verify(cacheClient, Mockito.atLeastOnce()).get("key");
+        verify(cacheClient, Mockito.atLeastOnce()).get("key#r1");
+        verify(cacheClient, never()).set(anyString(), Mockito.anyInt(), Mockito.any());
+    }
+
+    @Test
+    public void shouldRepairMissingReplica() throws Exception {
+        when(cacheClient.get("key")).thenReturn("value");
+
+        for (int i = 0; i < 100; i++) {
+            assertEquals("value", cache.get("key", SerializationType.PROVIDER));
+        }
+
+        verify(cacheClient, Mockito.atLeastOnce()).set("key#r1", 30, "value");
+    }
+
+    @Test
+    @SuppressWarnings("unchecked")
+    public void shouldReadHotKeysInBulkFromReplicas() throws Exception {
+        detector.record("key1");
+        final ArgumentCaptor<Collection<String>> keys = ArgumentCaptor.forClass(Collection.class);
+        when(cacheClient.getBulk(keys.capture())).thenAnswer(invocation -> {
+            final Map<String, Object> results = new HashMap<String, Object>();
+            for (String key : (Collection<String>) invocation.getArguments()[0]) {
+                results.put(key, key.startsWith("key1") ? "value1" : "value2");
+            }
+            return results;
+        });
+
+        for (int i = 0; i < 50; i++) {
+            final Map<String, Object> results = cache.getBulk(Arrays.asList("key1", "key2"), SerializationType.PROVIDER);
+
+            assertEquals(2, results.size());
+            assertEquals("value1", results.get("key1"));
+            assertEquals("value2", results.get("key2"));
+        }
+
+        boolean replicaRead = false;
+        for (Collection<String> requested : keys.getAllValues()) {
+            replicaRead |= requested.contains("key1#r1");
+        }
+        assertEquals(true, replicaRead);
+    }
+
+    @Test
+    public void shouldDeleteReplicasOfHotKey() throws Exception {
+        detector.record("key");
+
+        cache.delete("key");
+
+        verify(cacheClient).delete("key");
+        verify(cacheClient).delete(Collections.singletonList("key#r1"));
+    }
+
+}
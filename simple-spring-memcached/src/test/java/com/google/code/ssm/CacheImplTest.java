@@ -18,12 +18,17 @@ package com.google.code.ssm;
 
 import static org.junit.Assert.assertEquals;
 import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
 import static com.google.code.ssm.test.Matcher.any;
 
 import java.net.SocketAddress;
 import java.util.ArrayList;
 import java.util.Collection;
+import java.util.Collections;
 import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
 import java.util.concurrent.TimeoutException;
 
 import org.junit.Before;
@@ -32,9 +37,12 @@ import org.mockito.ArgumentMatcher;
 import org.mockito.Mockito;
 
 import com.google.code.ssm.api.format.SerializationType;
+import com.google.code.ssm.providers.AsyncCacheClient;
 import com.google.code.ssm.providers.CacheClient;
 import com.google.code.ssm.providers.CacheException;
+import com.google.code.ssm.providers.CacheTranscoder;
 import com.google.code.ssm.test.Point;
+import com.google.code.ssm.transcoders.BinaryTranscoder;
 import com.google.code.ssm.transcoders.JavaTranscoder;
 import com.google.code.ssm.transcoders.JsonTranscoder;
 import com.google.code.ssm.transcoders.LongToStringTranscoder;
@@ -57,6 +65,8 @@ public class CacheImplTest {
 
     protected JavaTranscoder javaTranscoder;
 
+    protected BinaryTranscoder binaryTranscoder;
+
     protected CacheClient cacheClient;
 
     protected Cache cache;
@@ -66,8 +76,13 @@ public class CacheImplTest {
         cacheClient = Mockito.mock(CacheClient.class);
         jsonTranscoder = Mockito.mock(JsonTranscoder.class);
         javaTranscoder = Mockito.mock(JavaTranscoder.class);
-        cache = new CacheImpl(name, aliases, cacheClient, defaultSerializationType, jsonTranscoder, javaTranscoder, null,
-                new CacheProperties());
+        binaryTranscoder = Mockito.mock(BinaryTranscoder.class);
+        cache = createCache(cacheClient);
+    }
+
+    protected Cache createCache(CacheClient client) {
+        return new CacheImpl(name, aliases, client, defaultSerializationType, jsonTranscoder, javaTranscoder, binaryTranscoder, null,
+                new CacheProperties(), null);
     }
 
     @Test
@@ -101,6 +116,9 @@ public class CacheImplTest {
         cache.add(cacheKey, expiration, value, SerializationType.JSON);
         Mockito.verify(cacheClient).add(getKey(cacheKey), expiration, value, jsonTranscoder);
 
+        cache.add(cacheKey, expiration, value, SerializationType.BINARY);
+        Mockito.verify(cacheClient).add(getKey(cacheKey), expiration, value, binaryTranscoder);
+
     }
 
     @Test
@@ -157,6 +175,9 @@ public class CacheImplTest {
 
         cache.get(cacheKey, SerializationType.JSON);
         Mockito.verify(cacheClient).get(getKey(cacheKey), jsonTranscoder);
+
+        cache.get(cacheKey, SerializationType.BINARY);
+        Mockito.verify(cacheClient).get(getKey(cacheKey), binaryTranscoder);
     }
 
     @Test
@@ -202,6 +223,9 @@ public class CacheImplTest {
 
         cache.set(cacheKey, exp, value, SerializationType.JSON);
         Mockito.verify(cacheClient).set(getKey(cacheKey), exp, value, jsonTranscoder);
+
+        cache.set(cacheKey, exp, value, SerializationType.BINARY);
+        Mockito.verify(cacheClient).set(getKey(cacheKey), exp, value, binaryTranscoder);
     }
 
     @Test
@@ -217,6 +241,35 @@ public class CacheImplTest {
         Mockito.verify(cacheClient).set(getKey(cacheKey), exp, value, jsonTranscoder);
     }
 
+    @Test
+    public void setBulk() throws TimeoutException, CacheException {
+        int exp = 60000;
+        Map<String, Object> values = new LinkedHashMap<String, Object>();
+        values.put("key1", new Point(11, 22));
+        values.put("key2", new Point(33, 44));
+
+        cache.setBulk(values, exp, SerializationType.PROVIDER);
+        Mockito.verify(cacheClient).setBulk(getValues(values), exp);
+
+        cache.setBulk(values, exp, SerializationType.JSON);
+        Mockito.verify(cacheClient).setBulk(getValues(values), exp, jsonTranscoder);
+    }
+
+    @Test
+    public void setBulkSilently() throws TimeoutException, CacheException {
+        int exp = 60000;
+        Map<String, Object> values = new LinkedHashMap<String, Object>();
+        values.put("key1", new Point(11, 22));
+        values.put("key2", new Point(33, 44));
+        Mockito.doThrow(new TimeoutException()).when(cacheClient).setBulk(getValues(values), exp);
+
+        cache.setBulkSilently(values, exp, SerializationType.PROVIDER);
+        Mockito.verify(cacheClient).setBulk(getValues(values), exp);
+
+        cache.setBulkSilently(values, exp, SerializationType.JSON);
+        Mockito.verify(cacheClient).setBulk(getValues(values), exp, jsonTranscoder);
+    }
+
     @Test
     public void getCounter() throws TimeoutException, CacheException {
         String cacheKey = "key1";
@@ -248,6 +301,53 @@ public class CacheImplTest {
         Mockito.verify(cacheClient).getNativeClient();
     }
 
+    @Test
+    public void getAsyncWithBlockingClient() throws Exception {
+        String cacheKey = "key1";
+        Object value = new Point(11, 22);
+        Mockito.when(cacheClient.get(getKey(cacheKey), jsonTranscoder)).thenReturn(value);
+
+        CompletableFuture<Object> future = ((AsyncCache) cache).getAsync(cacheKey, SerializationType.JSON);
+
+        assertTrue(future.isDone());
+        assertEquals(value, future.get());
+    }
+
+    @Test
+    public void setAsyncWithBlockingClientFailed() throws Exception {
+        String cacheKey = "key1";
+        int exp = 60000;
+        Object value = new Point(11, 22);
+        Mockito.doThrow(new TimeoutException()).when(cacheClient).set(getKey(cacheKey), exp, value);
+
+        CompletableFuture<Boolean> future = ((AsyncCache) cache).setAsync(cacheKey, exp, value, SerializationType.PROVIDER);
+
+        assertTrue(future.isCompletedExceptionally());
+    }
+
+    @Test
+    public void asyncOperationsWithAsyncClient() throws Exception {
+        AsyncCacheClient asyncClient = Mockito.mock(AsyncCacheClient.class);
+        AsyncCache asyncCache = (AsyncCache) createCache(asyncClient);
+        String cacheKey = "key1";
+        int exp = 60000;
+        Object value = new Point(11, 22);
+        Mockito.when(asyncClient.getAsync(getKey(cacheKey), jsonTranscoder)).thenReturn(CompletableFuture.completedFuture(value));
+        Mockito.when(asyncClient.getBulkAsync(sameItems(getKeys(ImmutableSet.of(cacheKey))))).thenReturn(
+                CompletableFuture.completedFuture(Collections.singletonMap(getKey(cacheKey), value)));
+        Mockito.when(asyncClient.setAsync(getKey(cacheKey), exp, value)).thenReturn(CompletableFuture.completedFuture(true));
+        Mockito.when(asyncClient.deleteAsync(getKey(cacheKey))).thenReturn(CompletableFuture.completedFuture(true));
+        Mockito.when(asyncClient.incrAsync(getKey(cacheKey), 1, 10, exp)).thenReturn(CompletableFuture.completedFuture(11L));
+
+        assertEquals(value, asyncCache.getAsync(cacheKey, SerializationType.JSON).get());
+        assertEquals(Collections.singletonMap(cacheKey, value), asyncCache.getBulkAsync(ImmutableSet.of(cacheKey), SerializationType.PROVIDER)
+                .get());
+        assertTrue(asyncCache.setAsync(cacheKey, exp, value, SerializationType.PROVIDER).get());
+        assertTrue(asyncCache.deleteAsync(cacheKey).get());
+        assertEquals(Long.valueOf(11), asyncCache.incrAsync(cacheKey, 1, 10, exp).get());
+        Mockito.verify(asyncClient, Mockito.never()).get(Mockito.anyString(), any(CacheTranscoder.class));
+    }
+
     protected String getKey(String key) {
         return key;
     }
@@ -261,6 +361,15 @@ public class CacheImplTest {
         return cacheKeys;
     }
 
+    protected Map<String, Object> getValues(Map<String, Object> values) {
+        final Map<String, Object> cacheValues = new LinkedHashMap<String, Object>();
+        for (Map.Entry<String, Object> entry : values.entrySet()) {
+            cacheValues.put(getKey(entry.getKey()), entry.getValue());
+        }
+
+        return cacheValues;
+    }
+
     private static Collection<String> sameItems(Collection<String> items) {
         class CollectionOfItemssMatcher implements ArgumentMatcher<Collection<String>> {
 
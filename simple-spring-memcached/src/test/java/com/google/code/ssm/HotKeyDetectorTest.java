@@ -0,0 +1,124 @@
+/*
+ * Copyright (c) 2012-2019 Jakub Białek
+ * 
+ * Permission is hereby granted, free of charge, to any person obtaining a copy of this software and associated
+ * documentation files (the "Software"), to deal in the Software without restriction, including without limitation the
+ * rights to use, copy, modify, merge, publish, distribute, sublicense, and/or sell copies of the Software, and to
+ * permit persons to whom the Software is furnished to do so, subject to the following conditions:
+ * 
+ * The above copyright notice and this permission notice shall be included in all copies or substantial portions of the
+ * Software.
+ * 
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR IMPLIED, INCLUDING BUT NOT LIMITED TO THE
+ * WARRANTIES OF MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR
+ * COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR
+ * OTHERWISE, ARISING FROM, OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE SOFTWARE.
+ */
+package com.google.code.ssm;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+import java.util.Arrays;
+import java.util.HashSet;
+import java.util.Map;
+import java.util.Set;
+
+import org.junit.Before;
+import org.junit.Test;
+
+/**
+ * 
+ * @author Jakub Białek
+ * 
+ */
+public class HotKeyDetectorTest {
+
+    private HotKeyConfiguration configuration;
+
+    private HotKeyDetector detector;
+
+    @Before
+    public void setUp() {
+        configuration = new HotKeyConfiguration();
+        configuration.setThreshold(10);
+        configuration.setReplicas(3);
+        configuration.setTopSize(2);
+        detector = new HotKeyDetector(configuration);
+    }
+
+    @Test
+    public void shouldDetectHotKey() {
+        for (int i = 0; i < 9; i++) {
+            assertFalse(detector.record("key"));
+        }
+        assertFalse(detector.isHot("key"));
+
+        assertTrue(detector.record("key"));
+        assertTrue(detector.isHot("key"));
+        assertFalse(detector.isHot("other"));
+    }
+
+    @Test
+    public void shouldCoolDownAfterWindow() {
+        for (int i = 0; i < 10; i++) {
+            detector.record("key");
+        }
+
+        detector.decayIfRequired(System.currentTimeMillis() + configuration.getWindow() * 1000L);
+
+        assertFalse(detector.isHot("key"));
+        assertTrue(detector.getHotKeys().isEmpty());
+    }
+
+    @Test
+    public void shouldTrackHottestKeys() {
+        record("key1", 30);
+        record("key2", 20);
+        record("key3", 40);
+        record("key4", 5);
+
+        final Map<String, Integer> hotKeys = detector.getHotKeys();
+
+        assertEquals(Arrays.asList("key3", "key1"), Arrays.asList(hotKeys.keySet().toArray()));
+        assertEquals(Integer.valueOf(40), hotKeys.get("key3"));
+    }
+
+    @Test
+    public void shouldBuildReplicaKeys() {
+        assertEquals(Arrays.asList("key#r1", "key#r2"), detector.getReplicaKeys("key"));
+
+        final Set<String> picked = new HashSet<String>();
+        for (int i = 0; i < 1000; i++) {
+            picked.add(String.valueOf(detector.pickReplicaKey("key")));
+        }
+        assertEquals(new HashSet<String>(Arrays.asList("null", "key#r1", "key#r2")), picked);
+    }
+
+    @Test
+    public void shouldNotReplicateTooLongKeys() {
+        final StringBuilder key = new StringBuilder();
+        for (int i = 0; i < 248; i++) {
+            key.append('k');
+        }
+
+        assertTrue(detector.getReplicaKeys(key.toString()).isEmpty());
+        assertEquals(null, detector.pickReplicaKey(key.toString()));
+    }
+
+    @Test
+    public void shouldLimitReplicaExpiration() {
+        assertEquals(30, detector.getReplicaExpiration(0));
+        assertEquals(10, detector.getReplicaExpiration(10));
+        assertEquals(30, detector.getReplicaExpiration(100));
+        assertEquals(30, detector.getReplicaExpiration(Integer.MAX_VALUE));
+    }
+
+    private void record(final String key, final int times) {
+        for (int i = 0; i < times; i++) {
+            detector.record(key);
+        }
+    }
+
+}
@@ -0,0 +1,136 @@
+/* Copyright (c) 2012-2019 Jakub Białek
+ * 
+ * Permission is hereby granted, free of charge, to any person obtaining a copy of this software and associated
+ * documentation files (the "Software"), to deal in the Software without restriction, including without limitation the
+ * rights to use, copy, modify, merge, publish, distribute, sublicense, and/or sell copies of the Software, and to
+ * permit persons to whom the Software is furnished to do so, subject to the following conditions:
+ * 
+ * The above copyright notice and this permission notice shall be included in all copies or substantial portions of the
+ * Software.
+ * 
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR IMPLIED, INCLUDING BUT NOT LIMITED TO THE
+ * WARRANTIES OF MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR
+ * COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR
+ * OTHERWISE, ARISING FROM, OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE SOFTWARE.
+ */
+
+package com.google.code.ssm;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.fail;
+
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.TimeoutException;
+
+import org.junit.Test;
+import org.mockito.ArgumentMatchers;
+import org.mockito.Mockito;
+
+import com.google.code.ssm.api.format.SerializationType;
+import com.google.code.ssm.metrics.CacheMetricTags;
+import com.google.code.ssm.metrics.CacheMetrics;
+import com.google.code.ssm.metrics.CacheOperation;
+import com.google.code.ssm.providers.CacheClient;
+import com.google.code.ssm.providers.CacheException;
+
+/**
+ * 
+ * @author Jakub Białek
+ * 
+ */
+public class MeteredCacheImplTest extends CacheImplTest {
+
+    private final CacheMetricTags tags = new CacheMetricTags(name, "ns", "ReadThroughSingleCache");
+
+    private CacheMetrics metrics;
+
+    @Override
+    protected Cache createCache(CacheClient client) {
+        metrics = Mockito.mock(CacheMetrics.class);
+        return new MeteredCacheImpl(super.createCache(client), metrics, tags);
+    }
+
+    @Test
+    public void getRecordsHitAndMiss() throws TimeoutException, CacheException {
+        Mockito.when(cacheClient.get("key1")).thenReturn("value");
+
+        assertEquals("value", cache.get("key1", SerializationType.PROVIDER));
+        assertEquals(null, cache.get("key2", SerializationType.PROVIDER));
+
+        Mockito.verify(metrics).recordHits(tags, 1);
+        Mockito.verify(metrics).recordMisses(tags, 1);
+        Mockito.verify(metrics, Mockito.times(2)).recordLatency(ArgumentMatchers.eq(tags), ArgumentMatchers.eq(CacheOperation.GET),
+                ArgumentMatchers.anyLong());
+        Mockito.verify(metrics, Mockito.never()).recordError(ArgumentMatchers.any(CacheMetricTags.class),
+                ArgumentMatchers.any(CacheOperation.class));
+    }
+
+    @Test
+    public void getBulkRecordsHitsAndMisses() throws TimeoutException, CacheException {
+        final Map<String, Object> values = new HashMap<String, Object>();
+        values.put("key1", "value1");
+        values.put("key2", "value2");
+        Mockito.when(cacheClient.getBulk(Arrays.asList("key1", "key2", "key3"))).thenReturn(values);
+
+        assertEquals(values, cache.getBulk(Arrays.asList("key1", "key2", "key3"), SerializationType.PROVIDER));
+
+        Mockito.verify(metrics).recordHits(tags, 2);
+        Mockito.verify(metrics).recordMisses(tags, 1);
+        Mockito.verify(metrics).recordLatency(ArgumentMatchers.eq(tags), ArgumentMatchers.eq(CacheOperation.GET_BULK),
+                ArgumentMatchers.anyLong());
+    }
+
+    @Test
+    public void setRecordsError() throws TimeoutException, CacheException {
+        final CacheException exception = new CacheException(new RuntimeException());
+        Mockito.doThrow(exception).when(cacheClient).set("key1", 10, "value");
+
+        try {
+            cache.set("key1", 10, "value", SerializationType.PROVIDER);
+            fail("Expected exception");
+        } catch (CacheException ex) {
+            assertEquals(exception, ex);
+        }
+
+        Mockito.verify(metrics).recordError(tags, CacheOperation.SET);
+        Mockito.verify(metrics).recordLatency(ArgumentMatchers.eq(tags), ArgumentMatchers.eq(CacheOperation.SET),
+                ArgumentMatchers.anyLong());
+    }
+
+    @Test
+    public void silentOperationsRecordErrors() throws TimeoutException, CacheException {
+        final Map<String, Object> values = Collections.<String, Object> singletonMap("key1", "value");
+        Mockito.when(cacheClient.add("key1", 10, "value")).thenThrow(new CacheException(new RuntimeException()));
+        Mockito.doThrow(new TimeoutException()).when(cacheClient).set("key1", 10, "value");
+        Mockito.doThrow(new CacheException(new RuntimeException())).when(cacheClient).setBulk(values, 10);
+
+        assertFalse(cache.addSilently("key1", 10, "value", SerializationType.PROVIDER));
+        cache.setSilently("key1", 10, "value", SerializationType.PROVIDER);
+        cache.setBulkSilently(values, 10, SerializationType.PROVIDER);
+
+        for (CacheOperation operation : Arrays.asList(CacheOperation.ADD, CacheOperation.SET, CacheOperation.SET_BULK)) {
+            Mockito.verify(metrics).recordError(tags, operation);
+            Mockito.verify(metrics).recordLatency(ArgumentMatchers.eq(tags), ArgumentMatchers.eq(operation), ArgumentMatchers.anyLong());
+        }
+    }
+
+    @Test
+    public void getAsyncRecordsHit() throws Exception {
+        Mockito.when(cacheClient.get("key1")).thenReturn("value");
+        Mockito.when(cacheClient.getBulk(ArgumentMatchers.<String> anyCollection())).thenReturn(
+                Collections.<String, Object> singletonMap("key1", "value"));
+
+        assertEquals("value", ((AsyncCache) cache).getAsync("key1", SerializationType.PROVIDER).get());
+        assertEquals(Collections.singletonMap("key1", "value"),
+                ((AsyncCache) cache).getBulkAsync(Collections.singletonList("key1"), SerializationType.PROVIDER).get());
+
+        Mockito.verify(metrics, Mockito.times(2)).recordHits(tags, 1);
+        Mockito.verify(metrics).recordLatency(ArgumentMatchers.eq(tags), ArgumentMatchers.eq(CacheOperation.GET),
+                ArgumentMatchers.anyLong());
+    }
+
+}
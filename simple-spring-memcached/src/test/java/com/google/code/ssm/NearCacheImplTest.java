@@ -0,0 +1,259 @@
+/*
+ * Copyright (c) 2012-2019 Jakub Białek
+ * 
+ * Permission is hereby granted, free of charge, to any person obtaining a copy of this software and associated
+ * documentation files (the "Software"), to deal in the Software without restriction, including without limitation the
+ * rights to use, copy, modify, merge, publish, distribute, sublicense, and/or sell copies of the Software, and to
+ * permit persons to whom the Software is furnished to do so, subject to the following conditions:
+ * 
+ * The above copyright notice and this permission notice shall be included in all copies or substantial portions of the
+ * Software.
+ * 
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR IMPLIED, INCLUDING BUT NOT LIMITED TO THE
+ * WARRANTIES OF MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR
+ * COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR
+ * OTHERWISE, ARISING FROM, OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE SOFTWARE.
+ */
+package com.google.code.ssm;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotSame;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertSame;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.doThrow;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeoutException;
+
+import org.junit.Before;
+import org.junit.Test;
+import org.mockito.Mockito;
+
+import com.google.code.ssm.api.format.SerializationType;
+import com.google.code.ssm.test.Point;
+
+/**
+ * 
+ * @author Jakub Białek
+ * 
+ */
+public class NearCacheImplTest {
+
+    private Cache cache;
+
+    private NearCacheConfiguration configuration;
+
+    private NearCacheImpl nearCache;
+
+    @Before
+    public void setUp() {
+        cache = Mockito.mock(Cache.class);
+        configuration = new NearCacheConfiguration();
+        nearCache = new NearCacheImpl(cache, configuration);
+    }
+
+    @Test
+    public void shouldGetFromUnderlyingCacheOnlyOnce() throws Exception {
+        final Point value = new Point(1, 2);
+        when(cache.get("key", SerializationType.JAVA)).thenReturn(value);
+
+        assertSame(value, nearCache.get("key", SerializationType.JAVA));
+        assertSame(value, nearCache.get("key", SerializationType.JAVA));
+
+        verify(cache, times(1)).get("key", SerializationType.JAVA);
+    }
+
+    @Test
+    public void shouldNotStoreMisses() throws Exception {
+        assertNull(nearCache.get("key", SerializationType.JAVA));
+        assertNull(nearCache.get("key", SerializationType.JAVA));
+
+        verify(cache, times(2)).get("key", SerializationType.JAVA);
+        assertEquals(0, nearCache.getNearCacheSize());
+    }
+
+    @Test
+    public void shouldReturnCopyWhenStoreEncoded() throws Exception {
+        configuration.setStoreEncoded(true);
+        nearCache = new NearCacheImpl(cache, configuration);
+        final Point value = new Point(1, 2);
+        when(cache.get("key", SerializationType.JAVA)).thenReturn(value);
+
+        assertSame(value, nearCache.get("key", SerializationType.JAVA));
+        final Object fromNearCache = nearCache.get("key", SerializationType.JAVA);
+
+        assertEquals(value, fromNearCache);
+        assertNotSame(value, fromNearCache);
+        verify(cache, times(1)).get("key", SerializationType.JAVA);
+    }
+
+    @Test
+    public void shouldNotStoreNonSerializableWhenStoreEncoded() throws Exception {
+        configuration.setStoreEncoded(true);
+        nearCache = new NearCacheImpl(cache, configuration);
+        when(cache.get("key", SerializationType.JAVA)).thenReturn(new Object());
+
+        nearCache.get("key", SerializationType.JAVA);
+
+        assertEquals(0, nearCache.getNearCacheSize());
+    }
+
+    @Test
+    public void shouldGetOnlyMissingKeysInBulk() throws Exception {
+        when(cache.get("key1", SerializationType.JAVA)).thenReturn("value1");
+        nearCache.get("key1", SerializationType.JAVA);
+        final Map<String, Object> fetched = new HashMap<String, Object>();
+        fetched.put("key2", "value2");
+        when(cache.getBulk(Arrays.asList("key2", "key3"), SerializationType.JAVA)).thenReturn(fetched);
+
+        final Map<String, Object> results = nearCache.getBulk(Arrays.asList("key1", "key2", "key3"), SerializationType.JAVA);
+
+        assertEquals(2, results.size());
+        assertEquals("value1", results.get("key1"));
+        assertEquals("value2", results.get("key2"));
+        assertEquals("value2", nearCache.get("key2", SerializationType.JAVA));
+        verify(cache, times(0)).get(eq("key2"), any());
+    }
+
+    @Test
+    public void shouldStoreValueOnSet() throws Exception {
+        nearCache.set("key", 100, "value", SerializationType.JAVA);
+
+        assertEquals("value", nearCache.get("key", SerializationType.JAVA));
+        verify(cache, times(0)).get(eq("key"), any());
+    }
+
+    @Test
+    public void shouldRemoveValueWhenSetFails() throws Exception {
+        nearCache.set("key", 100, "value", SerializationType.JAVA);
+        doThrow(new TimeoutException()).when(cache).set("key", 100, "value2", SerializationType.JAVA);
+
+        try {
+            nearCache.set("key", 100, "value2", SerializationType.JAVA);
+        } catch (TimeoutException ex) {
+            // expected
+        }
+
+        assertEquals(0, nearCache.getNearCacheSize());
+    }
+
+    @Test
+    public void shouldStoreValuesOnSetBulkAndRemoveOnSetBulkSilently() throws Exception {
+        final Map<String, Object> values = new HashMap<String, Object>();
+        values.put("key1", "value1");
+        values.put("key2", "value2");
+
+        nearCache.setBulk(values, 100, SerializationType.JAVA);
+        assertEquals(2, nearCache.getNearCacheSize());
+        verify(cache).setBulk(values, 100, SerializationType.JAVA);
+
+        nearCache.setBulkSilently(Collections.<String, Object> singletonMap("key1", "value3"), 100, SerializationType.JAVA);
+        assertEquals(1, nearCache.getNearCacheSize());
+        assertEquals("value2", nearCache.get("key2", SerializationType.JAVA));
+    }
+
+    @Test
+    public void shouldGetAsyncFromNearCacheOrUnderlyingCache() throws Exception {
+        final AsyncCache asyncCache = Mockito.mock(AsyncCache.class);
+        nearCache = new NearCacheImpl(asyncCache, configuration);
+        when(asyncCache.getAsync("key2", SerializationType.JAVA)).thenReturn(CompletableFuture.<Object> completedFuture("value2"));
+        nearCache.set("key1", 100, "value1", SerializationType.JAVA);
+
+        assertEquals("value1", nearCache.getAsync("key1", SerializationType.JAVA).get());
+        assertEquals("value2", nearCache.getAsync("key2", SerializationType.JAVA).get());
+        assertEquals("value2", nearCache.getAsync("key2", SerializationType.JAVA).get());
+
+        verify(asyncCache, times(0)).getAsync(eq("key1"), any());
+        verify(asyncCache, times(1)).getAsync(eq("key2"), any());
+    }
+
+    @Test
+    public void shouldRemoveValueOnDeleteAndCounterOperations() throws Exception {
+        nearCache.set("key1", 100, "value", SerializationType.JAVA);
+        nearCache.set("key2", 100, "value", SerializationType.JAVA);
+        nearCache.set("key3", 100, "value", SerializationType.JAVA);
+        nearCache.set("key4", 100, "value", SerializationType.JAVA);
+
+        nearCache.delete("key1");
+        nearCache.delete(Collections.singletonList("key2"));
+        nearCache.incr("key3", 1, 1);
+        nearCache.setSilently("key4", 100, "value", SerializationType.JAVA);
+
+        assertEquals(0, nearCache.getNearCacheSize());
+    }
+
+    @Test
+    public void shouldStoreOnlyAddedValue() throws Exception {
+        when(cache.add(eq("key1"), anyInt(), any(), any())).thenReturn(true);
+        when(cache.add(eq("key2"), anyInt(), any(), any())).thenReturn(false);
+
+        nearCache.add("key1", 100, "value", SerializationType.JAVA);
+        nearCache.add("key2", 100, "value", SerializationType.JAVA);
+
+        assertEquals(1, nearCache.getNearCacheSize());
+        assertEquals("value", nearCache.get("key1", SerializationType.JAVA));
+    }
+
+    @Test
+    public void shouldNotStoreValueReadBeforeConcurrentSet() throws Exception {
+        // the value is overwritten while the old one is being read from underlying cache
+        when(cache.get("key", SerializationType.JAVA)).thenAnswer(invocation -> {
+            nearCache.set("key", 100, "value2", SerializationType.JAVA);
+            return "value1";
+        });
+
+        assertEquals("value1", nearCache.get("key", SerializationType.JAVA));
+        assertEquals("value2", nearCache.get("key", SerializationType.JAVA));
+        verify(cache, times(1)).get("key", SerializationType.JAVA);
+    }
+
+    @Test
+    public void shouldNotStoreValueReadBeforeConcurrentDelete() throws Exception {
+        when(cache.getBulk(Arrays.asList("key1", "key2"), SerializationType.JAVA)).thenAnswer(invocation -> {
+            nearCache.delete("key1");
+            final Map<String, Object> values = new HashMap<String, Object>();
+            values.put("key1", "value1");
+            values.put("key2", "value2");
+            return values;
+        });
+
+        nearCache.getBulk(Arrays.asList("key1", "key2"), SerializationType.JAVA);
+
+        assertEquals(1, nearCache.getNearCacheSize());
+        assertEquals("value2", nearCache.get("key2", SerializationType.JAVA));
+    }
+
+    @Test
+    public void shouldKeepValuesOfDifferentSerializationTypesApart() throws Exception {
+        when(cache.get("key", SerializationType.JAVA)).thenReturn("java");
+        when(cache.get("key", SerializationType.JSON)).thenReturn("json");
+
+        assertEquals("java", nearCache.get("key", SerializationType.JAVA));
+        assertEquals("json", nearCache.get("key", SerializationType.JSON));
+        assertEquals("json", nearCache.get("key", SerializationType.JSON));
+
+        verify(cache, times(1)).get("key", SerializationType.JAVA);
+        verify(cache, times(1)).get("key", SerializationType.JSON);
+    }
+
+    @Test
+    public void shouldClearOnFlush() throws Exception {
+        nearCache.set("key", 100, "value", SerializationType.JAVA);
+
+        nearCache.flush();
+
+        assertEquals(0, nearCache.getNearCacheSize());
+        verify(cache).flush();
+    }
+
+}
@@ -0,0 +1,87 @@
+/*
+ * Copyright (c) 2012-2019 Jakub Białek
+ * 
+ * Permission is hereby granted, free of charge, to any person obtaining a copy of this software and associated
+ * documentation files (the "Software"), to deal in the Software without restriction, including without limitation the
+ * rights to use, copy, modify, merge, publish, distribute, sublicense, and/or sell copies of the Software, and to
+ * permit persons to whom the Software is furnished to do so, subject to the following conditions:
+ * 
+ * The above copyright notice and this permission notice shall be included in all copies or substantial portions of the
+ * Software.
+ * 
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR IMPLIED, INCLUDING BUT NOT LIMITED TO THE
+ * WARRANTIES OF MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR
+ * COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR
+ * OTHERWISE, ARISING FROM, OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE SOFTWARE.
+ */
+package com.google.code.ssm;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+import org.junit.Test;
+
+import com.google.code.ssm.api.format.SerializationType;
+
+/**
+ * 
+ * @author Jakub Białek
+ * 
+ */
+public class NearCacheStoreTest {
+
+    @Test
+    public void shouldExpireValue() {
+        final NearCacheStore store = new NearCacheStore(10);
+        store.put("key", "value", SerializationType.JAVA, 1000);
+
+        assertEquals("value", store.get("key", SerializationType.JAVA, 999));
+        assertNull(store.get("key", SerializationType.JAVA, 1000));
+        assertEquals(0, store.size());
+    }
+
+    @Test
+    public void shouldBeBoundedBySize() {
+        final NearCacheStore store = new NearCacheStore(160);
+        for (int i = 0; i < 10000; i++) {
+            store.put("key" + i, i, SerializationType.JAVA, Long.MAX_VALUE);
+        }
+
+        assertTrue(store.size() <= 160);
+    }
+
+    @Test
+    public void shouldEvictLeastRecentlyUsed() {
+        // single entry per segment
+        final NearCacheStore store = new NearCacheStore(16);
+        store.put("key", "value", SerializationType.JAVA, Long.MAX_VALUE);
+        for (int i = 0; i < 1000; i++) {
+            store.put("key" + i, i, SerializationType.JAVA, Long.MAX_VALUE);
+        }
+
+        assertNull(store.get("key", SerializationType.JAVA, 0));
+    }
+
+    @Test
+    public void shouldNotPutIfModified() {
+        final NearCacheStore store = new NearCacheStore(10);
+
+        long version = store.getVersion("key");
+        store.put("key", "written", SerializationType.JAVA, Long.MAX_VALUE);
+        assertFalse(store.putIfNotModified("key", "read", SerializationType.JAVA, Long.MAX_VALUE, version));
+        assertEquals("written", store.get("key", SerializationType.JAVA, 0));
+
+        version = store.getVersion("key");
+        store.remove("key");
+        assertFalse(store.putIfNotModified("key", "read", SerializationType.JAVA, Long.MAX_VALUE, version));
+        assertNull(store.get("key", SerializationType.JAVA, 0));
+
+        version = store.getVersion("key");
+        assertTrue(store.putIfNotModified("key", "read", SerializationType.JAVA, Long.MAX_VALUE, version));
+        assertEquals("read", store.get("key", SerializationType.JAVA, 0));
+        assertNull(store.get("key", SerializationType.JSON, 0));
+    }
+
+}
@@ -16,12 +16,7 @@
 
 package com.google.code.ssm;
 
-import org.junit.Before;
-import org.mockito.Mockito;
-
 import com.google.code.ssm.providers.CacheClient;
-import com.google.code.ssm.transcoders.JavaTranscoder;
-import com.google.code.ssm.transcoders.JsonTranscoder;
 
 /**
  * 
@@ -34,19 +29,11 @@ public class PrefixedCacheImplTest extends CacheImplTest {
     
     private final String prefix = "#";
     
-    private Cache wrappedCache;
-    
-    @Before
     @Override
-    public void setUp() {
-        cacheClient = Mockito.mock(CacheClient.class);
-        jsonTranscoder = Mockito.mock(JsonTranscoder.class);
-        javaTranscoder = Mockito.mock(JavaTranscoder.class);
-        wrappedCache = new CacheImpl(super.name, aliases, cacheClient, defaultSerializationType, jsonTranscoder, javaTranscoder, null,
-                new CacheProperties());
-        cache = new PrefixedCacheImpl(wrappedCache, namePrefix, prefix);
+    protected Cache createCache(CacheClient client) {
+        return new PrefixedCacheImpl(super.createCache(client), namePrefix, prefix);
     }
-    
+
     @Override
     protected String getKey(String key) {
         return namePrefix + prefix + key;
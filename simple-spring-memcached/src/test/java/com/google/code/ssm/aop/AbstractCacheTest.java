@@ -16,18 +16,28 @@
 
 package com.google.code.ssm.aop;
 
+import static org.mockito.Matchers.eq;
+import static org.mockito.Mockito.atLeast;
+import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.when;
+import static com.google.code.ssm.test.Matcher.any;
+
+import java.lang.reflect.Method;
+import java.util.HashMap;
+import java.util.Map;
 
 import org.aspectj.lang.ProceedingJoinPoint;
 import org.aspectj.lang.reflect.MethodSignature;
 import org.junit.runner.RunWith;
 import org.junit.runners.Parameterized;
+import org.mockito.ArgumentCaptor;
 import org.mockito.Mock;
 import org.mockito.MockitoAnnotations;
 
 import com.google.code.ssm.Cache;
 import com.google.code.ssm.CacheProperties;
 import com.google.code.ssm.api.AnnotationConstants;
+import com.google.code.ssm.api.format.SerializationType;
 
 /**
  * 
@@ -83,6 +93,7 @@ public abstract class AbstractCacheTest<T extends CacheAdvice> {
         when(pjp.getArgs()).thenReturn(params);
 
         when(signature.getDeclaringType()).thenReturn(testService.getClass());
+        when(signature.getMethod()).thenReturn(findMethod(testService.getClass(), methodName, paramTypes));
         when(pjp.getTarget()).thenReturn(testService);
 
         if (isValid && cacheKey == null) {
@@ -103,8 +114,31 @@ public abstract class AbstractCacheTest<T extends CacheAdvice> {
         return sb.toString();
     }
 
+    /**
+     * Merges values passed to all {@link Cache#setBulkSilently(Map, int, SerializationType)} invocations.
+     */
+    @SuppressWarnings({ "rawtypes", "unchecked" })
+    protected Map<String, Object> getBulkValues(final int expiration) {
+        final ArgumentCaptor<Map> values = ArgumentCaptor.forClass(Map.class);
+        verify(cache, atLeast(0)).setBulkSilently(values.capture(), eq(expiration), any(SerializationType.class));
+
+        final Map<String, Object> bulkValues = new HashMap<String, Object>();
+        for (final Map<String, Object> map : values.getAllValues()) {
+            bulkValues.putAll(map);
+        }
+        return bulkValues;
+    }
+
     protected abstract T createAdvice();
 
     protected abstract String getNamespace();
 
+    private static Method findMethod(final Class<?> clazz, final String name, final Class<?>[] parameterTypes) {
+        try {
+            return clazz.getMethod(name, parameterTypes);
+        } catch (NoSuchMethodException ex) {
+            return null;
+        }
+    }
+
 }
@@ -19,6 +19,7 @@ package com.google.code.ssm.aop;
 
 import static org.junit.Assert.assertEquals;
 import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNotNull;
 import static org.junit.Assert.assertNotSame;
 import static org.junit.Assert.assertSame;
 import static org.junit.Assert.assertTrue;
@@ -34,8 +35,12 @@ import java.util.LinkedList;
 import java.util.List;
 import java.util.Map;
 import java.util.Set;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ExecutorService;
 import java.util.concurrent.TimeoutException;
 
+import org.aspectj.lang.JoinPoint;
+import org.aspectj.lang.reflect.MethodSignature;
 import org.junit.Before;
 import org.junit.Test;
 import org.mockito.ArgumentMatcher;
@@ -43,12 +48,18 @@ import org.mockito.Mockito;
 
 import com.google.code.ssm.Cache;
 import com.google.code.ssm.CacheProperties;
+import com.google.code.ssm.MeteredCacheImpl;
+import com.google.code.ssm.aop.support.AdvicePlan;
 import com.google.code.ssm.aop.support.AnnotationData;
 import com.google.code.ssm.aop.support.InvalidAnnotationException;
+import com.google.code.ssm.api.AnnotationConstants;
 import com.google.code.ssm.api.CacheKeyMethod;
+import com.google.code.ssm.api.ParameterValueKeyProvider;
 import com.google.code.ssm.api.ReadThroughMultiCache;
 import com.google.code.ssm.api.format.Serialization;
 import com.google.code.ssm.api.format.SerializationType;
+import com.google.code.ssm.metrics.CacheMetricTags;
+import com.google.code.ssm.metrics.CacheMetrics;
 import com.google.code.ssm.providers.CacheException;
 
 /**
@@ -280,6 +291,87 @@ public class CacheBaseTest {
 
     }
 
+    @Test
+    public void getAdvicePlanCreatedOnce() throws Exception {
+        Cache cache = Mockito.mock(Cache.class);
+        Mockito.when(cache.getName()).thenReturn(AnnotationConstants.DEFAULT_CACHE_NAME);
+        Mockito.when(cache.getProperties()).thenReturn(new CacheProperties());
+        cut.addCache(cache);
+
+        MethodSignature msig = Mockito.mock(MethodSignature.class);
+        Mockito.when(msig.getName()).thenReturn("getA");
+        Mockito.when(msig.getParameterTypes()).thenReturn(new Class<?>[] { List.class });
+        Mockito.when(msig.getMethod()).thenReturn(AdvicePlanCheck.class.getMethod("getA", List.class));
+        JoinPoint jp = Mockito.mock(JoinPoint.class);
+        Mockito.when(jp.getSignature()).thenReturn(msig);
+        Mockito.when(jp.getTarget()).thenReturn(new AdvicePlanCheck());
+
+        AdvicePlan<ReadThroughMultiCache> plan = cut.getAdvicePlan(jp, ReadThroughMultiCache.class);
+        assertEquals(AdvicePlanCheck.class.getMethod("getA", List.class), plan.getMethod());
+        assertEquals("bubba", plan.getAnnotationData().getNamespace());
+        assertEquals(10, plan.getAnnotationData().getExpiration());
+        assertSame(cache, plan.getCache());
+        assertSame(plan, cut.getAdvicePlan(jp, ReadThroughMultiCache.class));
+
+        Mockito.when(msig.getName()).thenReturn("getB");
+        Mockito.when(msig.getMethod()).thenReturn(AdvicePlanCheck.class.getMethod("getB", List.class));
+        assertNotSame(plan, cut.getAdvicePlan(jp, ReadThroughMultiCache.class));
+    }
+
+    @Test(expected = InvalidAnnotationException.class)
+    public void getAdvicePlanOfMethodWithoutAnnotation() throws Exception {
+        cut.getSettings().setEnableAnnotationsInInterface(true);
+
+        MethodSignature msig = Mockito.mock(MethodSignature.class);
+        Mockito.when(msig.getName()).thenReturn("getC");
+        Mockito.when(msig.getParameterTypes()).thenReturn(new Class<?>[] { List.class });
+        Mockito.when(msig.getMethod()).thenReturn(AdvicePlanCheck.class.getMethod("getC", List.class));
+        JoinPoint jp = Mockito.mock(JoinPoint.class);
+        Mockito.when(jp.getSignature()).thenReturn(msig);
+        Mockito.when(jp.getTarget()).thenReturn(new AdvicePlanCheck());
+
+        cut.getAdvicePlan(jp, ReadThroughMultiCache.class);
+    }
+
+    @Test
+    public void getAdvicePlanWithMeteredCache() throws Exception {
+        Cache cache = Mockito.mock(Cache.class);
+        Mockito.when(cache.getName()).thenReturn(AnnotationConstants.DEFAULT_CACHE_NAME);
+        Mockito.when(cache.getProperties()).thenReturn(new CacheProperties());
+        cut.addCache(cache);
+
+        MethodSignature msig = Mockito.mock(MethodSignature.class);
+        Mockito.when(msig.getName()).thenReturn("getA");
+        Mockito.when(msig.getParameterTypes()).thenReturn(new Class<?>[] { List.class });
+        Mockito.when(msig.getMethod()).thenReturn(AdvicePlanCheck.class.getMethod("getA", List.class));
+        JoinPoint jp = Mockito.mock(JoinPoint.class);
+        Mockito.when(jp.getSignature()).thenReturn(msig);
+        Mockito.when(jp.getTarget()).thenReturn(new AdvicePlanCheck());
+
+        AdvicePlan<ReadThroughMultiCache> plan = cut.getAdvicePlan(jp, ReadThroughMultiCache.class);
+        assertSame(cache, plan.getCache());
+        assertEquals(new CacheMetricTags(AnnotationConstants.DEFAULT_CACHE_NAME, "bubba", "ReadThroughMultiCache"), plan.getMetricTags());
+
+        cut.setCacheMetrics(Mockito.mock(CacheMetrics.class));
+        plan = cut.getAdvicePlan(jp, ReadThroughMultiCache.class);
+        assertTrue(plan.getCache() instanceof MeteredCacheImpl);
+        assertSame(cache, ((MeteredCacheImpl) plan.getCache()).getCache());
+    }
+
+    @Test
+    public void getRefreshExecutor() throws Exception {
+        Executor executor = cut.getRefreshExecutor();
+        assertNotNull(executor);
+        assertSame(executor, cut.getRefreshExecutor());
+
+        cut.destroy();
+        assertTrue(((ExecutorService) executor).isShutdown());
+
+        Executor custom = Runnable::run;
+        cut.setRefreshExecutor(custom);
+        assertSame(custom, cut.getRefreshExecutor());
+    }
+
     @SuppressWarnings("unused")
     @Serialization(SerializationType.JAVA)
     private static class SerializationTypeTestObject {
@@ -332,6 +424,24 @@ public class CacheBaseTest {
 
     }
 
+    private static class AdvicePlanCheck {
+
+        @ReadThroughMultiCache(namespace = "bubba", expiration = 10)
+        public List<String> getA(@ParameterValueKeyProvider final List<String> ids) {
+            return null;
+        }
+
+        @ReadThroughMultiCache(namespace = "bubba", expiration = 10)
+        public List<String> getB(@ParameterValueKeyProvider final List<String> ids) {
+            return null;
+        }
+
+        public List<String> getC(final List<String> ids) {
+            return null;
+        }
+
+    }
+
     @SuppressWarnings("unused")
     private static class KeyObject {
         private final String result;
@@ -0,0 +1,182 @@
+/* Copyright (c) 2012-2019 Jakub Białek
+ * 
+ * Permission is hereby granted, free of charge, to any person obtaining a copy of this software and associated
+ * documentation files (the "Software"), to deal in the Software without restriction, including without limitation the
+ * rights to use, copy, modify, merge, publish, distribute, sublicense, and/or sell copies of the Software, and to
+ * permit persons to whom the Software is furnished to do so, subject to the following conditions:
+ * 
+ * The above copyright notice and this permission notice shall be included in all copies or substantial portions of the
+ * Software.
+ * 
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR IMPLIED, INCLUDING BUT NOT LIMITED TO THE
+ * WARRANTIES OF MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR
+ * COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR
+ * OTHERWISE, ARISING FROM, OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE SOFTWARE.
+ */
+
+package com.google.code.ssm.aop;
+
+import static org.junit.Assert.assertEquals;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.doReturn;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+
+import org.aspectj.lang.ProceedingJoinPoint;
+import org.aspectj.lang.reflect.MethodSignature;
+import org.junit.Before;
+import org.junit.Test;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Mock;
+import org.mockito.MockitoAnnotations;
+
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+import com.google.code.ssm.AsyncCache;
+import com.google.code.ssm.CacheProperties;
+import com.google.code.ssm.api.AnnotationConstants;
+import com.google.code.ssm.api.ParameterValueKeyProvider;
+import com.google.code.ssm.api.ReadThroughMultiCache;
+
+/**
+ * 
+ * @author Jakub Białek
+ * 
+ */
+public class ReadThroughMultiCacheAdviceAsyncTest {
+
+    private static final String CACHE_KEY1 = "multi-async-ns:1";
+
+    private static final String CACHE_KEY2 = "multi-async-ns:2";
+
+    @Mock
+    private AsyncCache cache;
+
+    @Mock
+    private ProceedingJoinPoint pjp;
+
+    @Mock
+    private MethodSignature signature;
+
+    private ReadThroughMultiCacheAdvice advice;
+
+    @Before
+    public void setUp() throws Throwable {
+        MockitoAnnotations.initMocks(this);
+        when(cache.getName()).thenReturn(AnnotationConstants.DEFAULT_CACHE_NAME);
+        when(cache.getProperties()).thenReturn(new CacheProperties());
+        when(cache.setAsync(any(), anyInt(), any(), any())).thenReturn(CompletableFuture.completedFuture(true));
+        CacheBase cacheBase = new CacheBase();
+        cacheBase.addCache(cache);
+        advice = new ReadThroughMultiCacheAdvice();
+        advice.setCacheBase(cacheBase);
+
+        when(signature.getParameterTypes()).thenReturn(new Class<?>[] { List.class });
+        when(signature.getDeclaringType()).thenReturn(TestService.class);
+        when(pjp.getSignature()).thenReturn(signature);
+        when(pjp.toShortString()).thenReturn("getValues");
+        when(pjp.getArgs()).thenReturn(new Object[] { Arrays.asList(1, 2) });
+        when(pjp.getTarget()).thenReturn(new TestService());
+    }
+
+    @Test
+    public void shouldReturnCachedValuesWithoutInvokingMethod() throws Throwable {
+        intercept("getFuture");
+        doReturn(CompletableFuture.completedFuture(values(CACHE_KEY1, "a", CACHE_KEY2, "b"))).when(cache).getBulkAsync(any(), any());
+
+        final CompletableFuture<?> result = (CompletableFuture<?>) advice.cacheMulti(pjp);
+
+        assertEquals(Arrays.asList("a", "b"), result.get());
+        verify(pjp, never()).proceed(any(Object[].class));
+        verify(cache, never()).getBulk(any(), any());
+    }
+
+    @Test
+    public void shouldInvokeMethodOnlyWithMissedKeysOnSubscription() throws Throwable {
+        intercept("getMono");
+        doReturn(CompletableFuture.completedFuture(values(CACHE_KEY1, "a"))).when(cache).getBulkAsync(any(), any());
+        when(pjp.proceed(any(Object[].class))).thenReturn(Mono.just(Collections.singletonList("b")));
+
+        final Mono<?> result = (Mono<?>) advice.cacheMulti(pjp);
+        verify(cache, never()).getBulkAsync(any(), any());
+
+        assertEquals(Arrays.asList("a", "b"), result.block());
+        final ArgumentCaptor<Object[]> args = ArgumentCaptor.forClass(Object[].class);
+        verify(pjp).proceed(args.capture());
+        assertEquals(Collections.singletonList(2), args.getValue()[0]);
+        verify(cache).setAsync(eq(CACHE_KEY2), eq(100), eq("b"), any());
+        verify(cache, never()).setBulkSilently(any(), anyInt(), any());
+    }
+
+    @Test
+    public void shouldCacheElementsOfFlux() throws Throwable {
+        intercept("getFlux");
+        doReturn(CompletableFuture.completedFuture(Collections.emptyMap())).when(cache).getBulkAsync(any(), any());
+        when(pjp.proceed(any(Object[].class))).thenReturn(Flux.just("a", "b"));
+
+        assertEquals(Arrays.asList("a", "b"), ((Flux<?>) advice.cacheMulti(pjp)).collectList().block());
+
+        verify(cache).setAsync(eq(CACHE_KEY1), eq(100), eq("a"), any());
+        verify(cache).setAsync(eq(CACHE_KEY2), eq(100), eq("b"), any());
+    }
+
+    @Test
+    public void shouldInvokeMethodWithAllKeysWhenLookupFailed() throws Throwable {
+        intercept("getFuture");
+        final CompletableFuture<Map<String, Object>> failed = new CompletableFuture<Map<String, Object>>();
+        failed.completeExceptionally(new IllegalStateException("connection lost"));
+        doReturn(failed).when(cache).getBulkAsync(any(), any());
+        when(pjp.proceed(any(Object[].class))).thenReturn(CompletableFuture.completedFuture(Arrays.asList("a", "b")));
+
+        assertEquals(Arrays.asList("a", "b"), ((CompletableFuture<?>) advice.cacheMulti(pjp)).get());
+
+        final ArgumentCaptor<Object[]> args = ArgumentCaptor.forClass(Object[].class);
+        verify(pjp).proceed(args.capture());
+        assertEquals(Arrays.asList(1, 2), args.getValue()[0]);
+        verify(cache, never()).setAsync(any(), anyInt(), any(), any());
+    }
+
+    private void intercept(final String methodName) throws NoSuchMethodException {
+        when(signature.getName()).thenReturn(methodName);
+        when(signature.getMethod()).thenReturn(TestService.class.getMethod(methodName, List.class));
+    }
+
+    private static Map<String, Object> values(final Object... keysAndValues) {
+        final Map<String, Object> values = new HashMap<String, Object>();
+        for (int i = 0; i < keysAndValues.length; i += 2) {
+            values.put((String) keysAndValues[i], keysAndValues[i + 1]);
+        }
+        return values;
+    }
+
+    private static class TestService {
+
+        @ReadThroughMultiCache(namespace = "multi-async-ns", expiration = 100)
+        public CompletableFuture<List<String>> getFuture(@ParameterValueKeyProvider final List<Integer> ids) {
+            return null;
+        }
+
+        @ReadThroughMultiCache(namespace = "multi-async-ns", expiration = 100)
+        public Mono<List<String>> getMono(@ParameterValueKeyProvider final List<Integer> ids) {
+            return null;
+        }
+
+        @ReadThroughMultiCache(namespace = "multi-async-ns", expiration = 100)
+        public Flux<String> getFlux(@ParameterValueKeyProvider final List<Integer> ids) {
+            return null;
+        }
+
+    }
+
+}
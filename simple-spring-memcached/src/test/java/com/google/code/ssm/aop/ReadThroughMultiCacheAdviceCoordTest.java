@@ -21,6 +21,7 @@ import static org.junit.Assert.assertNotNull;
 import static org.mockito.ArgumentMatchers.anyInt;
 import static org.mockito.ArgumentMatchers.anyString;
 import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.doAnswer;
 import static org.mockito.Mockito.never;
 import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.when;
@@ -34,6 +35,7 @@ import java.util.HashSet;
 import java.util.List;
 import java.util.Map;
 import java.util.concurrent.TimeoutException;
+import java.util.function.BiConsumer;
 
 import org.aspectj.lang.ProceedingJoinPoint;
 import org.junit.Test;
@@ -46,7 +48,10 @@ import org.mockito.junit.MockitoJUnitRunner;
 import org.mockito.stubbing.Answer;
 
 import com.google.code.ssm.Cache;
+import com.google.code.ssm.aop.support.AdvicePlan;
 import com.google.code.ssm.aop.support.AnnotationData;
+import com.google.code.ssm.aop.support.AnnotationDataBuilder;
+import com.google.code.ssm.aop.support.CacheKeyBuilder;
 import com.google.code.ssm.aop.support.PertinentNegativeNull;
 import com.google.code.ssm.api.ParameterValueKeyProvider;
 import com.google.code.ssm.api.ReadThroughMultiCache;
@@ -97,9 +102,11 @@ public class ReadThroughMultiCacheAdviceCoordTest {
         assertEquals(expected, result);
         verify(pjp).proceed(args);
         verify(cache).getBulk(eq(new HashSet<String>(cacheKeys)), any(SerializationType.class));
+        final Map<String, Object> bulkValues = new HashMap<String, Object>();
         for (int i = 0; i < expected.size(); i++) {
-            verify(cache).setSilently(cacheKeys.get(i), EXPIRATION, expected.get(i), null);
+            bulkValues.put(cacheKeys.get(i), expected.get(i));
         }
+        verify(cache).setBulkSilently(bulkValues, EXPIRATION, null);
     }
 
     @Test
@@ -117,7 +124,7 @@ public class ReadThroughMultiCacheAdviceCoordTest {
         assertEquals(expected, result);
         verify(pjp).proceed(modifiedArgs);
         verify(cache).getBulk(eq(new HashSet<String>(cacheKeys)), any(SerializationType.class));
-        verify(cache).setSilently(NS + ":" + 2, EXPIRATION, "b", null);
+        verify(cache).setBulkSilently(Collections.<String, Object> singletonMap(NS + ":" + 2, "b"), EXPIRATION, null);
     }
 
     @Test
@@ -135,7 +142,7 @@ public class ReadThroughMultiCacheAdviceCoordTest {
         assertEquals(expected, result);
         verify(cache).getBulk(eq(new HashSet<String>(cacheKeys)), any(SerializationType.class));
         verify(pjp, never()).proceed(any(Object[].class));
-        verify(cache, never()).setSilently(anyString(), anyInt(), any(), any(SerializationType.class));
+        verify(cache, never()).setBulkSilently(any(), anyInt(), any(SerializationType.class));
     }
 
     @Test
@@ -152,7 +159,7 @@ public class ReadThroughMultiCacheAdviceCoordTest {
         assertEquals(expected, result);
         verify(pjp).proceed(args);
         verify(cache).getBulk(eq(new HashSet<String>(cacheKeys)), any(SerializationType.class));
-        verify(cache, never()).setSilently(anyString(), anyInt(), any(), any(SerializationType.class));
+        verify(cache, never()).setBulkSilently(any(), anyInt(), any(SerializationType.class));
         verify(cache, never()).addSilently(anyString(), anyInt(), any(), any(SerializationType.class));
     }
 
@@ -170,7 +177,7 @@ public class ReadThroughMultiCacheAdviceCoordTest {
         assertEquals(expected, result);
         verify(pjp).proceed(args);
         verify(cache).getBulk(eq(new HashSet<String>(cacheKeys)), any(SerializationType.class));
-        verify(cache, never()).setSilently(anyString(), anyInt(), any(), any(SerializationType.class));
+        verify(cache, never()).setBulkSilently(any(), anyInt(), any(SerializationType.class));
         verify(cache).addSilently(eq(cacheKeys.get(0)), eq(EXPIRATION), eq(PertinentNegativeNull.NULL), any(SerializationType.class));
         verify(cache).addSilently(eq(cacheKeys.get(1)), eq(EXPIRATION), eq(PertinentNegativeNull.NULL), any(SerializationType.class));
     }
@@ -179,8 +186,10 @@ public class ReadThroughMultiCacheAdviceCoordTest {
             TimeoutException, CacheException {
         when(pjp.getArgs()).thenReturn(args);
 
-        when(cacheBase.getMethodToCache(pjp, ReadThroughMultiCache.class)).thenReturn(methodToCache);
-        when(cacheBase.getCache(any(AnnotationData.class))).thenReturn(cache);
+        final ReadThroughMultiCache methodAnnotation = methodToCache.getAnnotation(ReadThroughMultiCache.class);
+        final AnnotationData data = AnnotationDataBuilder.buildAnnotationData(methodAnnotation, ReadThroughMultiCache.class, methodToCache);
+        when(cacheBase.getAdvicePlan(pjp, ReadThroughMultiCache.class)).thenReturn(
+                new AdvicePlan<ReadThroughMultiCache>(methodToCache, methodAnnotation, data, null, cache, null));
         when(cacheBase.getSubmission(any())).thenAnswer(new Answer<Object>() {
 
             @Override
@@ -189,8 +198,20 @@ public class ReadThroughMultiCacheAdviceCoordTest {
             }
 
         });
-        when(cacheBase.getCacheKeyBuilder().getCacheKeys(any(AnnotationData.class), eq(args), eq(methodToCache.toString()))).thenReturn(
-                cacheKeys);
+        final CacheKeyBuilder cacheKeyBuilder = cacheBase.getCacheKeyBuilder();
+        doAnswer(new Answer<Void>() {
+
+            @Override
+            @SuppressWarnings("unchecked")
+            public Void answer(InvocationOnMock invocation) throws Throwable {
+                final List<Integer> ids = (List<Integer>) args[0];
+                for (int i = 0; i < ids.size(); i++) {
+                    invocation.<BiConsumer<Object, String>> getArgument(3).accept(ids.get(i), cacheKeys.get(i));
+                }
+                return null;
+            }
+
+        }).when(cacheKeyBuilder).forEachCacheKey(any(AnnotationData.class), eq(args), eq(methodToCache.toString()), any());
         when(cache.getBulk(eq(new HashSet<String>(cacheKeys)), any(SerializationType.class))).thenReturn(cacheResponse);
     }
 
@@ -163,9 +163,9 @@ public class ReadThroughMultiCacheAdvicePartialMissTest extends AbstractCacheTes
 
         verify(cache).getBulk(eq(new HashSet<String>(Arrays.asList(cacheKeys))), any(SerializationType.class));
         if (expectedValue.size() == cacheKeys.length) {
+            final Map<String, Object> bulkValues = getBulkValues(EXPIRATION);
             for (int element : missedIndex) {
-                verify(cache).setSilently(eq(cacheKeys[element]), eq(EXPIRATION), eq(expectedValue.get(element)),
-                        any(SerializationType.class));
+                assertEquals(expectedValue.get(element), bulkValues.get(cacheKeys[element]));
             }
         }
         verify(pjp).proceed(missParams);
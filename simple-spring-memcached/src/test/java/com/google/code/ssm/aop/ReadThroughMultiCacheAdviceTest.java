@@ -108,8 +108,9 @@ public class ReadThroughMultiCacheAdviceTest extends AbstractCacheTest<ReadThrou
         assertEquals(expectedValue, advice.cacheMulti(pjp));
 
         verify(cache).getBulk(eq(new HashSet<String>(Arrays.asList(cacheKeys))), any(SerializationType.class));
+        final Map<String, Object> bulkValues = getBulkValues(EXPIRATION);
         for (int i = 0; i < cacheKeys.length; i++) {
-            verify(cache).setSilently(eq(cacheKeys[i]), eq(EXPIRATION), eq(expectedValue.get(i)), any(SerializationType.class));
+            assertEquals(expectedValue.get(i), bulkValues.get(cacheKeys[i]));
         }
         verify(pjp).proceed(params);
     }
@@ -128,6 +129,7 @@ public class ReadThroughMultiCacheAdviceTest extends AbstractCacheTest<ReadThrou
 
         verify(cache).getBulk(eq(new HashSet<String>(Arrays.asList(cacheKeys))), any(SerializationType.class));
         verify(cache, never()).setSilently(anyString(), anyInt(), any(), any(SerializationType.class));
+        verify(cache, never()).setBulkSilently(any(), anyInt(), any(SerializationType.class));
         verify(pjp, never()).proceed(params);
     }
 
@@ -0,0 +1,209 @@
+/* Copyright (c) 2012-2019 Jakub Białek
+ * 
+ * Permission is hereby granted, free of charge, to any person obtaining a copy of this software and associated
+ * documentation files (the "Software"), to deal in the Software without restriction, including without limitation the
+ * rights to use, copy, modify, merge, publish, distribute, sublicense, and/or sell copies of the Software, and to
+ * permit persons to whom the Software is furnished to do so, subject to the following conditions:
+ * 
+ * The above copyright notice and this permission notice shall be included in all copies or substantial portions of the
+ * Software.
+ * 
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR IMPLIED, INCLUDING BUT NOT LIMITED TO THE
+ * WARRANTIES OF MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR
+ * COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR
+ * OTHERWISE, ARISING FROM, OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE SOFTWARE.
+ */
+
+package com.google.code.ssm.aop;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.doReturn;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import java.util.Arrays;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+
+import org.aspectj.lang.ProceedingJoinPoint;
+import org.aspectj.lang.reflect.MethodSignature;
+import org.junit.Before;
+import org.junit.Test;
+import org.mockito.Mock;
+import org.mockito.MockitoAnnotations;
+
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+import com.google.code.ssm.AsyncCache;
+import com.google.code.ssm.CacheProperties;
+import com.google.code.ssm.aop.support.PertinentNegativeNull;
+import com.google.code.ssm.api.AnnotationConstants;
+import com.google.code.ssm.api.ParameterValueKeyProvider;
+import com.google.code.ssm.api.ReadThroughSingleCache;
+
+/**
+ * 
+ * @author Jakub Białek
+ * 
+ */
+public class ReadThroughSingleCacheAdviceAsyncTest {
+
+    private static final String CACHE_KEY = "async-ns:1";
+
+    @Mock
+    private AsyncCache cache;
+
+    @Mock
+    private ProceedingJoinPoint pjp;
+
+    @Mock
+    private MethodSignature signature;
+
+    private ReadThroughSingleCacheAdvice advice;
+
+    @Before
+    public void setUp() throws Throwable {
+        MockitoAnnotations.initMocks(this);
+        when(cache.getName()).thenReturn(AnnotationConstants.DEFAULT_CACHE_NAME);
+        when(cache.getProperties()).thenReturn(new CacheProperties());
+        when(cache.setAsync(any(), anyInt(), any(), any())).thenReturn(CompletableFuture.completedFuture(true));
+        CacheBase cacheBase = new CacheBase();
+        cacheBase.addCache(cache);
+        advice = new ReadThroughSingleCacheAdvice();
+        advice.setCacheBase(cacheBase);
+
+        when(signature.getParameterTypes()).thenReturn(new Class<?>[] { int.class });
+        when(signature.getDeclaringType()).thenReturn(TestService.class);
+        when(pjp.getSignature()).thenReturn(signature);
+        when(pjp.toShortString()).thenReturn("getValue");
+        when(pjp.getArgs()).thenReturn(new Object[] { 1 });
+        when(pjp.getTarget()).thenReturn(new TestService());
+    }
+
+    @Test
+    public void shouldReturnCompletedFutureOnHit() throws Throwable {
+        intercept("getFuture");
+        doReturn(CompletableFuture.completedFuture("cached")).when(cache).getAsync(eq(CACHE_KEY), any());
+
+        final CompletableFuture<?> result = (CompletableFuture<?>) advice.cacheGetSingle(pjp);
+
+        assertEquals("cached", result.get());
+        verify(pjp, never()).proceed();
+        verify(cache, never()).get(any(), any());
+    }
+
+    @Test
+    public void shouldLoadAndStoreFutureOnMiss() throws Throwable {
+        intercept("getFuture");
+        doReturn(CompletableFuture.completedFuture(null)).when(cache).getAsync(eq(CACHE_KEY), any());
+        when(pjp.proceed()).thenReturn(CompletableFuture.completedFuture("loaded"));
+
+        final CompletableFuture<?> result = (CompletableFuture<?>) advice.cacheGetSingle(pjp);
+
+        assertEquals("loaded", result.get());
+        verify(cache).setAsync(eq(CACHE_KEY), eq(100), eq("loaded"), any());
+    }
+
+    @Test
+    public void shouldLoadWhenAsyncLookupFailed() throws Throwable {
+        intercept("getFuture");
+        final CompletableFuture<Object> failed = new CompletableFuture<Object>();
+        failed.completeExceptionally(new IllegalStateException("connection lost"));
+        doReturn(failed).when(cache).getAsync(eq(CACHE_KEY), any());
+        when(pjp.proceed()).thenReturn(CompletableFuture.completedFuture("loaded"));
+
+        assertEquals("loaded", ((CompletableFuture<?>) advice.cacheGetSingle(pjp)).get());
+    }
+
+    @Test
+    public void shouldNotStoreWhenMethodFailed() throws Throwable {
+        intercept("getFuture");
+        doReturn(CompletableFuture.completedFuture(null)).when(cache).getAsync(eq(CACHE_KEY), any());
+        final CompletableFuture<Object> failed = new CompletableFuture<Object>();
+        failed.completeExceptionally(new IllegalArgumentException());
+        when(pjp.proceed()).thenReturn(failed);
+
+        try {
+            ((CompletableFuture<?>) advice.cacheGetSingle(pjp)).get();
+            assertTrue("Exception expected", false);
+        } catch (ExecutionException ex) {
+            assertTrue(ex.getCause() instanceof IllegalArgumentException);
+        }
+        verify(cache, never()).setAsync(any(), anyInt(), any(), any());
+    }
+
+    @Test
+    public void shouldDeferMonoUntilSubscribed() throws Throwable {
+        intercept("getMono");
+        doReturn(CompletableFuture.completedFuture(null)).when(cache).getAsync(eq(CACHE_KEY), any());
+        when(pjp.proceed()).thenReturn(Mono.just("loaded"));
+
+        final Mono<?> result = (Mono<?>) advice.cacheGetSingle(pjp);
+
+        verify(cache, never()).getAsync(any(), any());
+        verify(pjp, never()).proceed();
+        assertEquals("loaded", result.block());
+        verify(cache).setAsync(eq(CACHE_KEY), eq(100), eq("loaded"), any());
+    }
+
+    @Test
+    public void shouldStoreEmptyMonoAsNull() throws Throwable {
+        intercept("getMono");
+        doReturn(CompletableFuture.completedFuture(null), CompletableFuture.completedFuture(PertinentNegativeNull.NULL)).when(cache)
+                .getAsync(eq(CACHE_KEY), any());
+        when(pjp.proceed()).thenReturn(Mono.empty());
+
+        assertNull(((Mono<?>) advice.cacheGetSingle(pjp)).block());
+        verify(cache).setAsync(eq(CACHE_KEY), eq(100), eq(PertinentNegativeNull.NULL), any());
+
+        assertFalse(((Mono<?>) advice.cacheGetSingle(pjp)).blockOptional().isPresent());
+        verify(pjp).proceed();
+    }
+
+    @Test
+    public void shouldCacheFluxAsList() throws Throwable {
+        intercept("getFlux");
+        doReturn(CompletableFuture.completedFuture(null), CompletableFuture.completedFuture(Arrays.asList("a", "b"))).when(cache)
+                .getAsync(eq(CACHE_KEY), any());
+        when(pjp.proceed()).thenReturn(Flux.just("a", "b"));
+
+        assertEquals(Arrays.asList("a", "b"), ((Flux<?>) advice.cacheGetSingle(pjp)).collectList().block());
+        verify(cache).setAsync(eq(CACHE_KEY), eq(100), eq(Arrays.asList("a", "b")), any());
+
+        assertEquals(Arrays.asList("a", "b"), ((Flux<?>) advice.cacheGetSingle(pjp)).collectList().block());
+        verify(pjp).proceed();
+    }
+
+    private void intercept(final String methodName) throws NoSuchMethodException {
+        when(signature.getName()).thenReturn(methodName);
+        when(signature.getMethod()).thenReturn(TestService.class.getMethod(methodName, int.class));
+    }
+
+    private static class TestService {
+
+        @ReadThroughSingleCache(namespace = "async-ns", expiration = 100)
+        public CompletableFuture<String> getFuture(@ParameterValueKeyProvider final int id) {
+            return null;
+        }
+
+        @ReadThroughSingleCache(namespace = "async-ns", expiration = 100)
+        public Mono<String> getMono(@ParameterValueKeyProvider final int id) {
+            return null;
+        }
+
+        @ReadThroughSingleCache(namespace = "async-ns", expiration = 100)
+        public Flux<String> getFlux(@ParameterValueKeyProvider final int id) {
+            return null;
+        }
+
+    }
+
+}
@@ -0,0 +1,150 @@
+/* Copyright (c) 2012-2019 Jakub Białek
+ * 
+ * Permission is hereby granted, free of charge, to any person obtaining a copy of this software and associated
+ * documentation files (the "Software"), to deal in the Software without restriction, including without limitation the
+ * rights to use, copy, modify, merge, publish, distribute, sublicense, and/or sell copies of the Software, and to
+ * permit persons to whom the Software is furnished to do so, subject to the following conditions:
+ * 
+ * The above copyright notice and this permission notice shall be included in all copies or substantial portions of the
+ * Software.
+ * 
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR IMPLIED, INCLUDING BUT NOT LIMITED TO THE
+ * WARRANTIES OF MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR
+ * COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR
+ * OTHERWISE, ARISING FROM, OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE SOFTWARE.
+ */
+
+package com.google.code.ssm.aop;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.ArgumentMatchers.argThat;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import org.aspectj.lang.ProceedingJoinPoint;
+import org.aspectj.lang.reflect.MethodSignature;
+import org.junit.Before;
+import org.junit.Test;
+import org.mockito.Mock;
+import org.mockito.MockitoAnnotations;
+
+import com.google.code.ssm.Cache;
+import com.google.code.ssm.CacheProperties;
+import com.google.code.ssm.aop.support.PertinentNegativeNull;
+import com.google.code.ssm.aop.support.RefreshableValue;
+import com.google.code.ssm.api.AnnotationConstants;
+import com.google.code.ssm.api.ParameterValueKeyProvider;
+import com.google.code.ssm.api.ReadThroughCacheOption;
+import com.google.code.ssm.api.ReadThroughSingleCache;
+
+/**
+ * 
+ * @author Jakub Białek
+ * 
+ */
+public class ReadThroughSingleCacheAdviceEarlyRefreshTest {
+
+    private static final String CACHE_KEY = "refresh-ns:1";
+
+    @Mock
+    private Cache cache;
+
+    @Mock
+    private ProceedingJoinPoint pjp;
+
+    @Mock
+    private MethodSignature signature;
+
+    private ReadThroughSingleCacheAdvice advice;
+
+    @Before
+    public void setUp() throws Throwable {
+        MockitoAnnotations.initMocks(this);
+        when(cache.getName()).thenReturn(AnnotationConstants.DEFAULT_CACHE_NAME);
+        when(cache.getProperties()).thenReturn(new CacheProperties());
+        CacheBase cacheBase = new CacheBase();
+        cacheBase.addCache(cache);
+        advice = new ReadThroughSingleCacheAdvice();
+        advice.setCacheBase(cacheBase);
+        // refresh in the calling thread
+        cacheBase.setRefreshExecutor(Runnable::run);
+
+        TestService testService = new TestService();
+        when(signature.getName()).thenReturn("getValue");
+        when(signature.getParameterTypes()).thenReturn(new Class<?>[] { int.class });
+        when(signature.getDeclaringType()).thenReturn(TestService.class);
+        when(signature.getMethod()).thenReturn(TestService.class.getMethod("getValue", int.class));
+        when(pjp.getSignature()).thenReturn(signature);
+        when(pjp.toShortString()).thenReturn("getValue");
+        when(pjp.getArgs()).thenReturn(new Object[] { 1 });
+        when(pjp.getTarget()).thenReturn(testService);
+        when(pjp.proceed()).thenReturn("loaded");
+    }
+
+    @Test
+    public void shouldStoreValueInEnvelopeOnMiss() throws Throwable {
+        final long now = System.currentTimeMillis();
+
+        assertEquals("loaded", advice.cacheGetSingle(pjp));
+
+        verify(pjp).proceed();
+        verify(cache).set(eq(CACHE_KEY), eq(100), argThat((RefreshableValue value) -> "loaded".equals(value.getValue())
+                && value.getExpiresAt() >= now + 100000), any());
+    }
+
+    @Test
+    public void shouldReturnValueFromEnvelopeLongBeforeExpiration() throws Throwable {
+        final RefreshableValue cached = new RefreshableValue("cached", 10, System.currentTimeMillis() + 100000, 0);
+        when(cache.get(eq(CACHE_KEY), any())).thenReturn(cached);
+
+        assertEquals("cached", advice.cacheGetSingle(pjp));
+
+        verify(pjp, never()).proceed();
+        verify(cache, never()).set(eq(CACHE_KEY), anyInt(), any(), any());
+    }
+
+    @Test
+    public void shouldReturnNullFromEnvelope() throws Throwable {
+        final RefreshableValue cached = new RefreshableValue(PertinentNegativeNull.NULL, 10, System.currentTimeMillis() + 100000, 0);
+        when(cache.get(eq(CACHE_KEY), any())).thenReturn(cached);
+
+        assertNull(advice.cacheGetSingle(pjp));
+
+        verify(pjp, never()).proceed();
+    }
+
+    @Test
+    public void shouldReturnCachedValueAndRefreshItAfterExpirationTime() throws Throwable {
+        final RefreshableValue cached = new RefreshableValue("cached", 10, System.currentTimeMillis() - 1, 0);
+        when(cache.get(eq(CACHE_KEY), any())).thenReturn(cached);
+
+        assertEquals("cached", advice.cacheGetSingle(pjp));
+
+        verify(pjp).proceed();
+        verify(cache).set(eq(CACHE_KEY), eq(100), argThat((RefreshableValue value) -> "loaded".equals(value.getValue())), any());
+    }
+
+    @Test
+    public void shouldReturnPlainValueStoredWithoutEnvelope() throws Throwable {
+        when(cache.get(eq(CACHE_KEY), any())).thenReturn("plain");
+
+        assertEquals("plain", advice.cacheGetSingle(pjp));
+
+        verify(pjp, never()).proceed();
+    }
+
+    private static class TestService {
+
+        @ReadThroughSingleCache(namespace = "refresh-ns", expiration = 100, option = @ReadThroughCacheOption(earlyRefresh = true))
+        public String getValue(@ParameterValueKeyProvider final int id) {
+            return null;
+        }
+
+    }
+
+}
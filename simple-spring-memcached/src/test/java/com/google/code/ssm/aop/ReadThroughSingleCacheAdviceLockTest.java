@@ -0,0 +1,254 @@
+/* Copyright (c) 2012-2019 Jakub Białek
+ * 
+ * Permission is hereby granted, free of charge, to any person obtaining a copy of this software and associated
+ * documentation files (the "Software"), to deal in the Software without restriction, including without limitation the
+ * rights to use, copy, modify, merge, publish, distribute, sublicense, and/or sell copies of the Software, and to
+ * permit persons to whom the Software is furnished to do so, subject to the following conditions:
+ * 
+ * The above copyright notice and this permission notice shall be included in all copies or substantial portions of the
+ * Software.
+ * 
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR IMPLIED, INCLUDING BUT NOT LIMITED TO THE
+ * WARRANTIES OF MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR
+ * COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR
+ * OTHERWISE, ARISING FROM, OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE SOFTWARE.
+ */
+
+package com.google.code.ssm.aop;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.argThat;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import org.apache.commons.lang.StringUtils;
+import org.aspectj.lang.ProceedingJoinPoint;
+import org.aspectj.lang.reflect.MethodSignature;
+import org.junit.Before;
+import org.junit.Test;
+import org.mockito.Mock;
+import org.mockito.MockitoAnnotations;
+
+import com.google.code.ssm.Cache;
+import com.google.code.ssm.CacheProperties;
+import com.google.code.ssm.aop.support.PertinentNegativeNull;
+import com.google.code.ssm.aop.support.RefreshableValue;
+import com.google.code.ssm.api.AnnotationConstants;
+import com.google.code.ssm.api.ParameterValueKeyProvider;
+import com.google.code.ssm.api.ReadThroughCacheOption;
+import com.google.code.ssm.api.ReadThroughSingleCache;
+import com.google.code.ssm.api.format.SerializationType;
+import com.google.code.ssm.metrics.CacheMetricTags;
+import com.google.code.ssm.metrics.CacheMetrics;
+
+/**
+ * 
+ * @author Jakub Białek
+ * 
+ */
+public class ReadThroughSingleCacheAdviceLockTest {
+
+    private static final String CACHE_KEY = "lock-ns:1";
+
+    private static final String LOCK_KEY = CACHE_KEY + ReadThroughCacheOption.LOCK_KEY_SUFFIX;
+
+    private static final String STALE_CACHE_KEY = "stale-lock-ns:1";
+
+    private static final String STALE_LOCK_KEY = STALE_CACHE_KEY + ReadThroughCacheOption.LOCK_KEY_SUFFIX;
+
+    @Mock
+    private Cache cache;
+
+    @Mock
+    private ProceedingJoinPoint pjp;
+
+    @Mock
+    private MethodSignature signature;
+
+    private ReadThroughSingleCacheAdvice advice;
+
+    @Before
+    public void setUp() throws Throwable {
+        MockitoAnnotations.initMocks(this);
+        when(cache.getName()).thenReturn(AnnotationConstants.DEFAULT_CACHE_NAME);
+        when(cache.getProperties()).thenReturn(new CacheProperties());
+        CacheBase cacheBase = new CacheBase();
+        cacheBase.addCache(cache);
+        advice = new ReadThroughSingleCacheAdvice();
+        advice.setCacheBase(cacheBase);
+
+        TestService testService = new TestService();
+        when(signature.getName()).thenReturn("getValue");
+        when(signature.getParameterTypes()).thenReturn(new Class<?>[] { int.class });
+        when(signature.getDeclaringType()).thenReturn(TestService.class);
+        when(signature.getMethod()).thenReturn(TestService.class.getMethod("getValue", int.class));
+        when(pjp.getSignature()).thenReturn(signature);
+        when(pjp.toShortString()).thenReturn("getValue");
+        when(pjp.getArgs()).thenReturn(new Object[] { 1 });
+        when(pjp.getTarget()).thenReturn(testService);
+        when(pjp.proceed()).thenReturn("loaded");
+    }
+
+    @Test
+    public void shouldLoadAndReleaseLockWhenLockAcquired() throws Throwable {
+        when(cache.addSilently(eq(LOCK_KEY), eq(5), any(), eq(SerializationType.JAVA))).thenReturn(true);
+
+        assertEquals("loaded", advice.cacheGetSingle(pjp));
+
+        verify(pjp).proceed();
+        verify(cache).set(eq(CACHE_KEY), eq(100), eq("loaded"), any());
+        verify(cache).delete(LOCK_KEY);
+    }
+
+    @Test
+    public void shouldWaitForValueWhenLockHeldByOther() throws Throwable {
+        when(cache.addSilently(eq(LOCK_KEY), eq(5), any(), eq(SerializationType.JAVA))).thenReturn(false);
+        when(cache.get(eq(CACHE_KEY), any())).thenReturn(null, null, "stored by other");
+
+        assertEquals("stored by other", advice.cacheGetSingle(pjp));
+
+        verify(pjp, never()).proceed();
+        verify(cache, never()).set(eq(CACHE_KEY), anyInt(), any(), any());
+        verify(cache, never()).delete(LOCK_KEY);
+    }
+
+    @Test
+    public void shouldNotRecordPollsAsMisses() throws Throwable {
+        CacheMetrics metrics = mock(CacheMetrics.class);
+        advice.getCacheBase().setCacheMetrics(metrics);
+        when(cache.add(eq(LOCK_KEY), eq(5), any(), eq(SerializationType.JAVA))).thenReturn(false);
+        when(cache.get(eq(CACHE_KEY), any())).thenReturn(null, null, null, "stored by other");
+
+        assertEquals("stored by other", advice.cacheGetSingle(pjp));
+
+        verify(cache, times(4)).get(eq(CACHE_KEY), any());
+        verify(metrics).recordMisses(any(CacheMetricTags.class), eq(1));
+        verify(metrics, never()).recordHits(any(CacheMetricTags.class), anyInt());
+    }
+
+    @Test
+    public void shouldReturnNullWhenOtherStoredNull() throws Throwable {
+        when(cache.addSilently(eq(LOCK_KEY), eq(5), any(), eq(SerializationType.JAVA))).thenReturn(false);
+        when(cache.get(eq(CACHE_KEY), any())).thenReturn(null, PertinentNegativeNull.NULL);
+
+        assertEquals(null, advice.cacheGetSingle(pjp));
+
+        verify(pjp, never()).proceed();
+    }
+
+    @Test
+    public void shouldLoadWhenValueNotStoredInWaitTime() throws Throwable {
+        when(cache.addSilently(eq(LOCK_KEY), eq(5), any(), eq(SerializationType.JAVA))).thenReturn(false);
+
+        assertEquals("loaded", advice.cacheGetSingle(pjp));
+
+        verify(pjp).proceed();
+        verify(cache).set(eq(CACHE_KEY), eq(100), eq("loaded"), any());
+        verify(cache, never()).delete(LOCK_KEY);
+    }
+
+    @Test
+    public void shouldReturnStaleValueAndRefreshItUnderLock() throws Throwable {
+        interceptStaleValue();
+        final long now = System.currentTimeMillis();
+        when(cache.get(eq(STALE_CACHE_KEY), any())).thenReturn(new RefreshableValue("stale", 10, now + 100000, now - 1));
+        when(cache.addSilently(eq(STALE_LOCK_KEY), eq(5), any(), eq(SerializationType.JAVA))).thenReturn(true);
+
+        assertEquals("stale", advice.cacheGetSingle(pjp));
+
+        verify(pjp).proceed();
+        verify(cache).set(eq(STALE_CACHE_KEY), eq(100), argThat((RefreshableValue value) -> "loaded".equals(value.getValue())), any());
+        verify(cache).delete(STALE_LOCK_KEY);
+    }
+
+    @Test
+    public void shouldReturnStaleValueWithoutRefreshWhenLockHeldByOther() throws Throwable {
+        interceptStaleValue();
+        final long now = System.currentTimeMillis();
+        when(cache.get(eq(STALE_CACHE_KEY), any())).thenReturn(new RefreshableValue("stale", 10, now + 100000, now - 1));
+        when(cache.addSilently(eq(STALE_LOCK_KEY), eq(5), any(), eq(SerializationType.JAVA))).thenReturn(false);
+
+        assertEquals("stale", advice.cacheGetSingle(pjp));
+
+        verify(pjp, never()).proceed();
+        verify(cache, never()).set(eq(STALE_CACHE_KEY), anyInt(), any(), any());
+        verify(cache, never()).delete(STALE_LOCK_KEY);
+    }
+
+    @Test
+    public void shouldHashTooLongLockKey() throws Throwable {
+        // cache key has max length, suffix would make the lock key too long
+        final String cacheKey = interceptNamedValue();
+        when(cache.addSilently(argThat((String key) -> key.startsWith("lock-ns:") && key.length() <= 250), eq(5), any(),
+                eq(SerializationType.JAVA))).thenReturn(true);
+
+        assertEquals("loaded", advice.cacheGetSingle(pjp));
+
+        verify(pjp).proceed();
+        verify(cache).set(eq(cacheKey), eq(100), eq("loaded"), any());
+        verify(cache).delete(argThat((String key) -> key.startsWith("lock-ns:") && key.length() <= 250));
+        verify(cache, never()).addSilently(eq(cacheKey + ReadThroughCacheOption.LOCK_KEY_SUFFIX), anyInt(), any(), any());
+    }
+
+    @Test
+    public void shouldLoadWithoutLockWhenLockFailed() throws Throwable {
+        final String cacheKey = interceptNamedValue();
+        when(cache.addSilently(any(), eq(5), any(), eq(SerializationType.JAVA))).thenThrow(new IllegalArgumentException("Key is too long"));
+
+        final long start = System.currentTimeMillis();
+        assertEquals("loaded", advice.cacheGetSingle(pjp));
+
+        // the caller doesn't wait for the value
+        assertTrue(System.currentTimeMillis() - start < 200);
+        verify(pjp).proceed();
+        verify(cache).set(eq(cacheKey), eq(100), eq("loaded"), any());
+        verify(cache, never()).delete(anyString());
+    }
+
+    private String interceptNamedValue() throws NoSuchMethodException {
+        final String name = StringUtils.repeat("n", 250 - "lock-ns:".length());
+        when(signature.getName()).thenReturn("getNamedValue");
+        when(signature.getParameterTypes()).thenReturn(new Class<?>[] { String.class });
+        when(signature.getMethod()).thenReturn(TestService.class.getMethod("getNamedValue", String.class));
+        when(pjp.getArgs()).thenReturn(new Object[] { name });
+        return "lock-ns:" + name;
+    }
+
+    private void interceptStaleValue() throws NoSuchMethodException {
+        // refresh in the calling thread
+        advice.getCacheBase().setRefreshExecutor(Runnable::run);
+        when(signature.getName()).thenReturn("getStaleValue");
+        when(signature.getMethod()).thenReturn(TestService.class.getMethod("getStaleValue", int.class));
+    }
+
+    private static class TestService {
+
+        @ReadThroughSingleCache(namespace = "lock-ns", expiration = 100, option = @ReadThroughCacheOption(distributedLock = true,
+                lockExpiration = 5, lockWaitTime = 200))
+        public String getValue(@ParameterValueKeyProvider final int id) {
+            return null;
+        }
+
+        @ReadThroughSingleCache(namespace = "lock-ns", expiration = 100, option = @ReadThroughCacheOption(distributedLock = true,
+                lockExpiration = 5, lockWaitTime = 200))
+        public String getNamedValue(@ParameterValueKeyProvider final String name) {
+            return null;
+        }
+
+        @ReadThroughSingleCache(namespace = "stale-lock-ns", expiration = 100, option = @ReadThroughCacheOption(distributedLock = true,
+                lockExpiration = 5, refreshAfter = 10))
+        public String getStaleValue(@ParameterValueKeyProvider final int id) {
+            return null;
+        }
+
+    }
+
+}
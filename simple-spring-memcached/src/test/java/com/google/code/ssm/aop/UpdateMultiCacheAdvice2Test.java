@@ -16,6 +16,7 @@
 
 package com.google.code.ssm.aop;
 
+import static org.junit.Assert.assertEquals;
 import static org.mockito.Matchers.anyInt;
 import static org.mockito.Matchers.anyString;
 import static org.mockito.Matchers.eq;
@@ -27,6 +28,7 @@ import java.util.Arrays;
 import java.util.Collection;
 import java.util.Collections;
 import java.util.List;
+import java.util.Map;
 
 import org.hamcrest.CoreMatchers;
 import org.junit.Assume;
@@ -167,14 +169,15 @@ public class UpdateMultiCacheAdvice2Test extends AbstractCacheTest<UpdateMultiCa
 
         advice.cacheUpdateMulti(pjp, returnValue);
 
+        final Map<String, Object> bulkValues = getBulkValues(EXPIRATION);
         for (int i = 0; i < cacheKeys.length; i++) {
             if (advice.getCacheBase().getMethodToCache(pjp, UpdateMultiCache.class).getAnnotation(UpdateMultiCache.class).option().overwriteNoNulls()) {
-                verify(cache).setSilently(eq(cacheKeys[i]), eq(EXPIRATION), eq(expectedValue.get(i)), any(SerializationType.class));
+                assertEquals(expectedValue.get(i), bulkValues.get(cacheKeys[i]));
             } else if (advice.getCacheBase().getMethodToCache(pjp, UpdateMultiCache.class).getAnnotation(UpdateMultiCache.class).option().addNullsToCache()
                     && expectedValue.get(i) instanceof PertinentNegativeNull) {
                 verify(cache).addSilently(eq(cacheKeys[i]), eq(EXPIRATION), eq(expectedValue.get(i)), any(SerializationType.class));
             } else {
-                verify(cache).setSilently(eq(cacheKeys[i]), eq(EXPIRATION), eq(expectedValue.get(i)), any(SerializationType.class));
+                assertEquals(expectedValue.get(i), bulkValues.get(cacheKeys[i]));
             }
 
         }
@@ -187,6 +190,7 @@ public class UpdateMultiCacheAdvice2Test extends AbstractCacheTest<UpdateMultiCa
         advice.cacheUpdateMulti(pjp, expectedValue);
 
         verify(cache, never()).setSilently(anyString(), anyInt(), any(), any(SerializationType.class));
+        verify(cache, never()).setBulkSilently(any(), anyInt(), any(SerializationType.class));
         verify(cache, never()).set(anyString(), anyInt(), any(), any(SerializationType.class));
     }
 
@@ -23,8 +23,9 @@ import static org.junit.Assert.fail;
 
 import java.lang.reflect.Method;
 import java.util.ArrayList;
-import java.util.Collections;
+import java.util.HashMap;
 import java.util.List;
+import java.util.Map;
 
 import org.apache.commons.lang.RandomStringUtils;
 import org.easymock.EasyMock;
@@ -32,12 +33,10 @@ import org.junit.BeforeClass;
 import org.junit.Test;
 
 import com.google.code.ssm.Cache;
-import com.google.code.ssm.CacheProperties;
 import com.google.code.ssm.aop.support.AnnotationData;
 import com.google.code.ssm.aop.support.AnnotationDataBuilder;
 import com.google.code.ssm.aop.support.InvalidAnnotationException;
 import com.google.code.ssm.aop.support.PertinentNegativeNull;
-import com.google.code.ssm.api.AnnotationConstants;
 import com.google.code.ssm.api.ParameterDataUpdateContent;
 import com.google.code.ssm.api.ParameterValueKeyProvider;
 import com.google.code.ssm.api.UpdateMultiCache;
@@ -90,32 +89,29 @@ public class UpdateMultiCacheAdviceTest {
         keys.add("Key1-" + System.currentTimeMillis());
         keys.add("Key2-" + System.currentTimeMillis());
 
+        final Cache cache = EasyMock.createMock(Cache.class);
         try {
-            cut.updateCache(keys, objs, method, data, null);
+            cut.updateCache(keys, objs, method, data, cache, null);
             fail("Expected Exception.");
         } catch (InvalidAnnotationException ex) {
             assertTrue(ex.getMessage().contains("do not match in size"));
         }
 
-        final Cache cache = EasyMock.createMock(Cache.class);
-        EasyMock.expect(cache.getName()).andReturn(AnnotationConstants.DEFAULT_CACHE_NAME);
-        EasyMock.expect(cache.getAliases()).andReturn(Collections.<String> emptyList()).anyTimes();
-        EasyMock.expect(cache.getProperties()).andReturn(new CacheProperties()).anyTimes();
+        final Map<String, Object> bulkValues = new HashMap<String, Object>();
         for (final String key : keys) {
             final String value = "ValueFor-" + key;
             objs.add(value);
-            cache.setSilently(key, data.getExpiration(), value, null);
-            EasyMock.expectLastCall();
+            bulkValues.put(key, value);
         }
         keys.add("BigFatNull");
         objs.add(null);
-        cache.setSilently(keys.get(2), data.getExpiration(), new PertinentNegativeNull(), null);
+        bulkValues.put(keys.get(2), new PertinentNegativeNull());
+        cache.setBulkSilently(bulkValues, data.getExpiration(), null);
         EasyMock.expectLastCall();
 
         EasyMock.replay(cache);
 
-        cut.getCacheBase().addCache(cache);
-        cut.updateCache(keys, objs, method, data, null);
+        cut.updateCache(keys, objs, method, data, cache, null);
 
         EasyMock.verify(cache);
     }
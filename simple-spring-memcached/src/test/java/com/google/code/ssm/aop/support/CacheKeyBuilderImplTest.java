@@ -1,9 +1,14 @@
 package com.google.code.ssm.aop.support;
 
+import static org.junit.Assert.assertEquals;
 import static org.junit.Assert.assertTrue;
 import static org.junit.Assert.fail;
 
 import java.security.InvalidParameterException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
 
 import org.apache.commons.lang.RandomStringUtils;
 import org.junit.BeforeClass;
@@ -23,6 +28,51 @@ public class CacheKeyBuilderImplTest {
     }
 
 
+    @Test
+    public void getCacheKeysWithOtherKeyParts() throws Exception {
+        AnnotationData data = new AnnotationData();
+        data.setNamespace("ns");
+        data.setKeyIndexes(Arrays.asList(0, 1, 3));
+        data.setListIndexInKeys(1);
+        data.setListIndexInMethodArgs(1);
+        Object[] args = new Object[] { "a", Arrays.asList(1, 2, 3), "skipped", 7L };
+
+        List<String> cacheKeys = cacheKeyBuilder.getCacheKeys(data, args, "method");
+
+        assertEquals(Arrays.asList("ns:a/1/7", "ns:a/2/7", "ns:a/3/7"), cacheKeys);
+        for (int i = 1; i <= 3; i++) {
+            assertEquals(cacheKeys.get(i - 1), cacheKeyBuilder.getCacheKey(data, new Object[] { "a", i, "skipped", 7L }, "method"));
+        }
+
+        final List<Object> objects = new ArrayList<Object>();
+        cacheKeyBuilder.forEachCacheKey(data, args, "method", (obj, cacheKey) -> objects.add(obj + "=" + cacheKey));
+        assertEquals(Arrays.asList("1=ns:a/1/7", "2=ns:a/2/7", "3=ns:a/3/7"), objects);
+    }
+
+    @Test
+    public void getCacheKeysOnlyFromList() throws Exception {
+        AnnotationData data = new AnnotationData();
+        data.setNamespace("ns");
+        data.setKeyIndexes(Collections.singletonList(0));
+        data.setListIndexInKeys(0);
+        data.setListIndexInMethodArgs(0);
+
+        assertEquals(Arrays.asList("ns:1", "ns:2"), cacheKeyBuilder.getCacheKeys(data, new Object[] { Arrays.asList(1, 2) }, "method"));
+        assertEquals(Collections.emptyList(), cacheKeyBuilder.getCacheKeys(data, new Object[] { Collections.emptyList() }, "method"));
+        assertEquals(Arrays.asList("ns:1", "ns:2"), cacheKeyBuilder.getCacheKeys(Arrays.<Object> asList(1, 2), "ns"));
+    }
+
+    @Test(expected = InvalidParameterException.class)
+    public void getCacheKeysWithNullElement() {
+        AnnotationData data = new AnnotationData();
+        data.setNamespace("ns");
+        data.setKeyIndexes(Collections.singletonList(0));
+        data.setListIndexInKeys(0);
+        data.setListIndexInMethodArgs(0);
+
+        cacheKeyBuilder.getCacheKeys(data, new Object[] { Arrays.asList(1, null) }, "method");
+    }
+
     @Test
     public void getAssignCacheKey() {
         AnnotationData data = new AnnotationData();
@@ -0,0 +1,126 @@
+/* Copyright (c) 2012-2019 Jakub Białek
+ * 
+ * Permission is hereby granted, free of charge, to any person obtaining a copy of this software and associated
+ * documentation files (the "Software"), to deal in the Software without restriction, including without limitation the
+ * rights to use, copy, modify, merge, publish, distribute, sublicense, and/or sell copies of the Software, and to
+ * permit persons to whom the Software is furnished to do so, subject to the following conditions:
+ * 
+ * The above copyright notice and this permission notice shall be included in all copies or substantial portions of the
+ * Software.
+ * 
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR IMPLIED, INCLUDING BUT NOT LIMITED TO THE
+ * WARRANTIES OF MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR
+ * COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR
+ * OTHERWISE, ARISING FROM, OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE SOFTWARE.
+ */
+
+package com.google.code.ssm.aop.support;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotEquals;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.Map;
+
+import org.apache.commons.lang.StringUtils;
+import org.junit.Test;
+
+/**
+ * 
+ * @author Jakub Białek
+ * 
+ */
+public class CacheKeyEncoderTest {
+
+    private final CacheKeyEncoder encoder = new CacheKeyEncoder();
+
+    @Test
+    public void shouldNotChangeValidKey() {
+        String key = "users:" + StringUtils.repeat("a", 244);
+
+        assertSame(key, encoder.encodeKey(key));
+    }
+
+    @Test
+    public void shouldHashLongKey() {
+        String key = "users:" + StringUtils.repeat("a", 245);
+
+        String encoded = encoder.encodeKey(key);
+
+        assertEquals(CacheKeyEncoder.DEFAULT_HASHED_KEY_PREFIX_LENGTH + 23, encoded.length());
+        assertTrue(encoded.startsWith(key.substring(0, CacheKeyEncoder.DEFAULT_HASHED_KEY_PREFIX_LENGTH) + "#"));
+        assertEquals(encoded, encoder.encodeKey(key));
+        assertNotEquals(encoded, encoder.encodeKey(key + "b"));
+    }
+
+    @Test
+    public void shouldHashKeyWithUnsafeCharacters() {
+        String encoded = encoder.encodeKey("users:john smith");
+        assertTrue(encoded.startsWith("users:john#"));
+        assertEquals("users:john#".length() + 22, encoded.length());
+
+        encoded = encoder.encodeKey("users:żółw");
+        assertTrue(encoded.startsWith("users:#"));
+        assertEquals(encoded.length(), encoded.getBytes(StandardCharsets.UTF_8).length);
+        assertNotEquals(encoded, encoder.encodeKey("users:żółty"));
+    }
+
+    @Test
+    public void shouldFitHashedKeyIntoMaxLength() {
+        encoder.setMaxKeyLength(40);
+        encoder.setHashedKeyPrefixLength(100);
+
+        String encoded = encoder.encodeKey(StringUtils.repeat("x", 41));
+
+        assertEquals(40, encoded.length());
+        assertTrue(encoded.startsWith(StringUtils.repeat("x", 17) + "#"));
+    }
+
+    @Test
+    public void shouldNotHashKeysIfDisabled() {
+        encoder.setHashUnsafeKeys(false);
+        String longKey = "users:" + StringUtils.repeat("a", 245);
+
+        assertSame(longKey, encoder.encodeKey(longKey));
+        assertEquals("users:john smith", encoder.encodeKey("users:john smith"));
+    }
+
+    @Test
+    public void shouldReplaceNamespaceWithCode() {
+        encoder.setNamespaceCodes(Collections.singletonMap("userService", "u"));
+
+        assertEquals("u", encoder.encodeNamespace("userService"));
+        assertEquals("other", encoder.encodeNamespace("other"));
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void shouldRejectDuplicatedCodes() {
+        Map<String, String> codes = new HashMap<String, String>();
+        codes.put("a", "x");
+        codes.put("b", "x");
+
+        encoder.setNamespaceCodes(codes);
+    }
+
+    @Test
+    public void shouldEncodeKeysInBuilder() throws Exception {
+        CacheKeyBuilderImpl builder = new CacheKeyBuilderImpl();
+        encoder.setNamespaceCodes(Collections.singletonMap("userService", "u"));
+        builder.setKeyEncoder(encoder);
+        String longId = StringUtils.repeat("1", 300);
+
+        assertEquals("u:5", builder.getCacheKey(5, "userService"));
+        assertEquals(Collections.singletonList(encoder.encodeKey("u:" + longId)),
+                builder.getCacheKeys(Collections.<Object> singletonList(longId), "userService"));
+
+        AnnotationData data = new AnnotationData();
+        data.setNamespace("userService");
+        data.setAssignedKey("all");
+        assertEquals("u:all", builder.getAssignCacheKey(data));
+    }
+
+}
@@ -18,9 +18,12 @@ package com.google.code.ssm.aop.support;
 
 import static org.junit.Assert.assertEquals;
 import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertSame;
 
 import java.lang.reflect.InvocationTargetException;
 import java.lang.reflect.Method;
+import java.util.UUID;
+import java.util.function.Function;
 
 import org.junit.BeforeClass;
 import org.junit.Test;
@@ -84,6 +87,34 @@ public class CacheKeyMethodStoreImplTest {
         assertEquals("X", result.toString());
     }
 
+    @Test
+    public void testKeyExtractor() throws NoSuchMethodException {
+        assertEquals("B", cacheKeyMethodStoreImpl.getKeyExtractor(DClass.class).apply(new DClass()));
+        assertEquals("C", cacheKeyMethodStoreImpl.getKeyExtractor(CClass.class).apply(new CClass()));
+        assertEquals("Y", cacheKeyMethodStoreImpl.getKeyExtractor(YClass.class).apply(new YClass()));
+        assertEquals("hidden", cacheKeyMethodStoreImpl.getKeyExtractor(PrivateKeyMethodModel.class).apply(new PrivateKeyMethodModel()));
+        assertEquals("package", cacheKeyMethodStoreImpl.getKeyExtractor(PackagePrivateModel.class).apply(new PackagePrivateModel()));
+
+        Function<Object, String> extractor = cacheKeyMethodStoreImpl.getKeyExtractor(Point.class);
+        assertSame(extractor, cacheKeyMethodStoreImpl.getKeyExtractor(Point.class));
+        assertEquals(new Point(1, 2).getKey(), extractor.apply(new Point(1, 2)));
+    }
+
+    @Test
+    public void testKeyExtractorOfSimpleTypes() throws NoSuchMethodException {
+        UUID uuid = UUID.randomUUID();
+
+        assertEquals("abc", cacheKeyMethodStoreImpl.getKeyExtractor(String.class).apply("abc"));
+        assertEquals("12", cacheKeyMethodStoreImpl.getKeyExtractor(Long.class).apply(12L));
+        assertEquals("-3", cacheKeyMethodStoreImpl.getKeyExtractor(Integer.class).apply(-3));
+        assertEquals(uuid.toString(), cacheKeyMethodStoreImpl.getKeyExtractor(UUID.class).apply(uuid));
+    }
+
+    @Test(expected = IllegalStateException.class)
+    public void testKeyExtractorPropagatesException() throws NoSuchMethodException {
+        cacheKeyMethodStoreImpl.getKeyExtractor(FailingModel.class).apply(new FailingModel());
+    }
+
     @Test(expected = InvalidAnnotationException.class)
     public void invalidTwoCacheKeyMethods() throws NoSuchMethodException {
         cacheKeyMethodStoreImpl.getKeyMethod(TwoCacheKeyMethodsModel.class);
@@ -173,4 +204,25 @@ public class CacheKeyMethodStoreImplTest {
         }
     }
 
+    public static class PrivateKeyMethodModel {
+        @CacheKeyMethod
+        private String getKey() {
+            return "hidden";
+        }
+    }
+
+    static class PackagePrivateModel {
+        @CacheKeyMethod
+        public String getKey() {
+            return "package";
+        }
+    }
+
+    public static class FailingModel {
+        @CacheKeyMethod
+        public String getKey() {
+            throw new IllegalStateException("no key");
+        }
+    }
+
 }
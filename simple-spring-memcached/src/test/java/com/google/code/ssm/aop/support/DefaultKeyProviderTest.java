@@ -18,15 +18,14 @@
 package com.google.code.ssm.aop.support;
 
 import static org.junit.Assert.*;
-import com.google.code.ssm.aop.support.DefaultKeyProvider;
-import com.google.code.ssm.api.CacheKeyMethod;
 
-import java.lang.reflect.Method;
 import java.security.InvalidParameterException;
 
 import org.junit.BeforeClass;
 import org.junit.Test;
 
+import com.google.code.ssm.api.CacheKeyMethod;
+
 /**
  * 
  * @author Nelson Carpentier
@@ -42,62 +41,87 @@ public class DefaultKeyProviderTest {
 
     @Test
     public void testKeyMethodArgs() throws Exception {
+        final CacheKeyMethodStore methodStore = cut.getMethodStore();
         try {
-            cut.getKeyMethod(new KeyObject01());
+            methodStore.getKeyExtractor(KeyObject01.class);
             fail("Expected exception.");
         } catch (InvalidAnnotationException ex) {
             assertTrue(ex.getMessage().indexOf("0 arguments") != -1);
-            System.out.println(ex.getMessage());
         }
 
         try {
-            cut.getKeyMethod(new KeyObject02());
+            methodStore.getKeyExtractor(KeyObject02.class);
             fail("Expected exception.");
         } catch (InvalidAnnotationException ex) {
             assertTrue(ex.getMessage().indexOf("String") != -1);
-            System.out.println(ex.getMessage());
         }
 
         try {
-            cut.getKeyMethod(new KeyObject03());
+            methodStore.getKeyExtractor(KeyObject03.class);
             fail("Expected exception.");
         } catch (InvalidAnnotationException ex) {
             assertTrue(ex.getMessage().indexOf("String") != -1);
-            System.out.println(ex.getMessage());
         }
 
         try {
-            cut.getKeyMethod(new KeyObject04());
+            methodStore.getKeyExtractor(KeyObject04.class);
             fail("Expected exception.");
         } catch (InvalidAnnotationException ex) {
             assertTrue(ex.getMessage().indexOf("only one method") != -1);
-            System.out.println(ex.getMessage());
         }
 
-        assertEquals("doIt", cut.getKeyMethod(new KeyObject05()).getName());
-        assertEquals("toString", cut.getKeyMethod(new KeyObject06(null)).getName());
+        assertEquals(KeyObject05.result, methodStore.getKeyExtractor(KeyObject05.class).apply(new KeyObject05()));
+        assertEquals("prawn", methodStore.getKeyExtractor(KeyObject06.class).apply(new KeyObject06("prawn")));
     }
 
     @Test
     public void testGenerateCacheKey() throws Exception {
-        final Method method = KeyObject.class.getMethod("toString", (Class<?>[]) null);
-
         try {
-            cut.generateObjectId(method, new KeyObject(null));
+            cut.generateKey(new KeyObject(null));
             fail("Expected Exception.");
         } catch (RuntimeException ex) {
             assertTrue(ex.getMessage().indexOf("empty key value") != -1);
         }
 
         try {
-            cut.generateObjectId(method, new KeyObject(""));
+            cut.generateKey(new KeyObject(""));
             fail("Expected Exception.");
         } catch (RuntimeException ex) {
             assertTrue(ex.getMessage().indexOf("empty key value") != -1);
         }
 
         final String result = "momma";
-        assertEquals(result, cut.generateObjectId(method, new KeyObject(result)));
+        assertEquals(result, cut.generateKey(new KeyObject(result)));
+    }
+
+    @Test
+    public void testGenerateCacheKeyByCompiledExtractor() throws Exception {
+        // public method of public class is invoked by generated lambda
+        try {
+            cut.generateKey(new CompiledKeyObject(null));
+            fail("Expected Exception.");
+        } catch (RuntimeException ex) {
+            assertTrue(ex.getMessage().indexOf("empty key value") != -1);
+        }
+
+        try {
+            cut.generateKey(new CompiledKeyObject(""));
+            fail("Expected Exception.");
+        } catch (RuntimeException ex) {
+            assertTrue(ex.getMessage().indexOf("empty key value") != -1);
+        }
+
+        assertEquals("lobster", cut.generateKey(new CompiledKeyObject("lobster")));
+    }
+
+    @Test
+    public void testGenerateKeyWithInvalidKeyMethod() {
+        try {
+            cut.generateKey(new KeyObject04());
+            fail("Expected exception");
+        } catch (RuntimeException ex) {
+            assertTrue(ex.getCause() instanceof InvalidAnnotationException);
+        }
     }
 
     @Test
@@ -152,6 +176,19 @@ public class DefaultKeyProviderTest {
         }
     }
 
+    public static class CompiledKeyObject {
+        private String result;
+
+        private CompiledKeyObject(String result) {
+            this.result = result;
+        }
+
+        @CacheKeyMethod
+        public String getKey() {
+            return result;
+        }
+    }
+
     private static class KeyObject01 {
 
         @CacheKeyMethod
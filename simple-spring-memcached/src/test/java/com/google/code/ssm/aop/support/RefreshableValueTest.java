@@ -0,0 +1,97 @@
+/*
+ * Copyright (c) 2012-2019 Jakub Białek
+ * 
+ * Permission is hereby granted, free of charge, to any person obtaining a copy of this software and associated
+ * documentation files (the "Software"), to deal in the Software without restriction, including without limitation the
+ * rights to use, copy, modify, merge, publish, distribute, sublicense, and/or sell copies of the Software, and to
+ * permit persons to whom the Software is furnished to do so, subject to the following conditions:
+ * 
+ * The above copyright notice and this permission notice shall be included in all copies or substantial portions of the
+ * Software.
+ * 
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR IMPLIED, INCLUDING BUT NOT LIMITED TO THE
+ * WARRANTIES OF MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR
+ * COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR
+ * OTHERWISE, ARISING FROM, OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE SOFTWARE.
+ */
+
+package com.google.code.ssm.aop.support;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+import org.junit.Test;
+
+import com.google.code.ssm.mapper.JsonObjectMapper;
+import com.google.code.ssm.providers.CachedObject;
+import com.google.code.ssm.test.Point;
+import com.google.code.ssm.transcoders.JavaTranscoder;
+import com.google.code.ssm.transcoders.JsonTranscoder;
+
+/**
+ * 
+ * @author Jakub Białek
+ * 
+ */
+public class RefreshableValueTest {
+
+    @Test
+    public void shouldNotRefreshLongBeforeExpiration() {
+        final RefreshableValue value = new RefreshableValue("v", 100, 100000, 0);
+
+        assertFalse(value.shouldRefresh(1.0, 0, 0.5));
+        assertFalse(value.shouldRefresh(1.0, 99000, 0.5));
+    }
+
+    @Test
+    public void shouldRefreshAfterExpiration() {
+        final RefreshableValue value = new RefreshableValue("v", 100, 100000, 0);
+
+        assertTrue(value.shouldRefresh(1.0, 100000, 1.0));
+        assertTrue(value.shouldRefresh(1.0, 100001, 1.0));
+    }
+
+    @Test
+    public void shouldRefreshEarlierWhenComputeTimeOrBetaIsGreater() {
+        // -ln(0.5) * 100 ~ 69 ms before expiration
+        assertFalse(new RefreshableValue("v", 100, 100000, 0).shouldRefresh(1.0, 99900, 0.5));
+        assertTrue(new RefreshableValue("v", 200, 100000, 0).shouldRefresh(1.0, 99900, 0.5));
+        assertTrue(new RefreshableValue("v", 100, 100000, 0).shouldRefresh(2.0, 99900, 0.5));
+    }
+
+    @Test
+    public void shouldNotRefreshWhenValueNeverExpires() {
+        assertFalse(new RefreshableValue("v", 100, 0, 0).shouldRefresh(1.0, 100000, 0.5));
+    }
+
+    @Test
+    public void shouldBeStaleAfterRefreshTime() {
+        final RefreshableValue value = new RefreshableValue("v", 100, 100000, 50000);
+
+        assertFalse(value.isStaleAt(49999));
+        assertTrue(value.isStaleAt(50000));
+        assertFalse(new RefreshableValue("v", 100, 100000, 0).isStaleAt(100000));
+    }
+
+    @Test
+    public void shouldBeSerializableByJavaTranscoder() {
+        final JavaTranscoder transcoder = new JavaTranscoder();
+        final RefreshableValue value = new RefreshableValue(new Point(1, 2), 10, 20, 0);
+
+        final CachedObject co = transcoder.encode(value);
+
+        assertEquals(value, transcoder.decode(co));
+    }
+
+    @Test
+    public void shouldBeSerializableByJsonTranscoder() {
+        final JsonTranscoder transcoder = new JsonTranscoder(new JsonObjectMapper());
+        final RefreshableValue value = new RefreshableValue(new Point(1, 2), 10, 20, 0);
+        final RefreshableValue nullValue = new RefreshableValue(PertinentNegativeNull.NULL, 10, 20, 0);
+
+        assertEquals(value, transcoder.decode(transcoder.encode(value)));
+        assertEquals(nullValue, transcoder.decode(transcoder.encode(nullValue)));
+    }
+
+}
@@ -0,0 +1,170 @@
+/*
+ * Copyright (c) 2012-2019 Jakub Białek
+ * 
+ * Permission is hereby granted, free of charge, to any person obtaining a copy of this software and associated
+ * documentation files (the "Software"), to deal in the Software without restriction, including without limitation the
+ * rights to use, copy, modify, merge, publish, distribute, sublicense, and/or sell copies of the Software, and to
+ * permit persons to whom the Software is furnished to do so, subject to the following conditions:
+ * 
+ * The above copyright notice and this permission notice shall be included in all copies or substantial portions of the
+ * Software.
+ * 
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR IMPLIED, INCLUDING BUT NOT LIMITED TO THE
+ * WARRANTIES OF MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR
+ * COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR
+ * OTHERWISE, ARISING FROM, OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE SOFTWARE.
+ */
+
+package com.google.code.ssm.aop.support;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.fail;
+
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.junit.After;
+import org.junit.Test;
+
+/**
+ * 
+ * @author Jakub Białek
+ * 
+ */
+public class SingleFlightTest {
+
+    private final SingleFlight singleFlight = new SingleFlight();
+
+    private final ExecutorService executor = Executors.newCachedThreadPool();
+
+    @After
+    public void tearDown() {
+        executor.shutdownNow();
+    }
+
+    @Test
+    public void shouldLoadOnceForConcurrentCalls() throws Throwable {
+        final Object value = new Object();
+        final AtomicInteger loads = new AtomicInteger();
+        final CountDownLatch started = new CountDownLatch(1);
+        final CountDownLatch release = new CountDownLatch(1);
+
+        final Future<Object> leader = loadInBackground("key", () -> {
+            loads.incrementAndGet();
+            started.countDown();
+            release.await();
+            return value;
+        });
+        started.await();
+
+        final Thread[] followerThreads = new Thread[3];
+        final Object[] followerResults = new Object[followerThreads.length];
+        for (int i = 0; i < followerThreads.length; i++) {
+            final int index = i;
+            followerThreads[i] = new Thread(() -> {
+                try {
+                    followerResults[index] = singleFlight.load("key", () -> loads.incrementAndGet());
+                } catch (Throwable t) {
+                    followerResults[index] = t;
+                }
+            });
+            followerThreads[i].start();
+        }
+        for (Thread thread : followerThreads) {
+            waitUntilBlocked(thread);
+        }
+
+        release.countDown();
+        for (Thread thread : followerThreads) {
+            thread.join();
+        }
+
+        assertSame(value, leader.get());
+        for (Object followerResult : followerResults) {
+            assertSame(value, followerResult);
+        }
+        assertEquals(1, loads.get());
+        assertEquals(0, singleFlight.size());
+    }
+
+    @Test
+    public void shouldPropagateExceptionToWaitingCalls() throws Throwable {
+        final IllegalStateException exception = new IllegalStateException();
+        final CountDownLatch started = new CountDownLatch(1);
+        final CountDownLatch release = new CountDownLatch(1);
+
+        final Future<Object> leader = loadInBackground("key", () -> {
+            started.countDown();
+            release.await();
+            throw exception;
+        });
+        started.await();
+
+        final Object[] followerResult = new Object[1];
+        final Thread follower = new Thread(() -> {
+            try {
+                followerResult[0] = singleFlight.load("key", () -> "other");
+            } catch (Throwable t) {
+                followerResult[0] = t;
+            }
+        });
+        follower.start();
+        waitUntilBlocked(follower);
+
+        release.countDown();
+        follower.join();
+        try {
+            leader.get();
+            fail("Expected exception");
+        } catch (ExecutionException ex) {
+            assertSame(exception, ex.getCause());
+        }
+
+        assertSame(exception, followerResult[0]);
+        assertEquals(0, singleFlight.size());
+    }
+
+    @Test
+    public void shouldLoadAgainWhenPreviousLoadFinished() throws Throwable {
+        assertEquals("a", singleFlight.load("key", () -> "a"));
+        assertEquals("b", singleFlight.load("key", () -> "b"));
+        assertEquals(0, singleFlight.size());
+    }
+
+    @Test
+    public void shouldNotCoalesceDifferentKeys() throws Throwable {
+        final CountDownLatch release = new CountDownLatch(1);
+
+        loadInBackground("key1", () -> {
+            release.await();
+            return "a";
+        });
+
+        assertEquals("b", singleFlight.load("key2", () -> "b"));
+        release.countDown();
+    }
+
+    private Future<Object> loadInBackground(final String key, final SingleFlight.Loader loader) {
+        return executor.submit(() -> {
+            try {
+                return singleFlight.load(key, loader);
+            } catch (Exception ex) {
+                throw ex;
+            } catch (Throwable t) {
+                throw new IllegalStateException(t);
+            }
+        });
+    }
+
+    private void waitUntilBlocked(final Thread thread) throws InterruptedException {
+        while (thread.getState() != Thread.State.WAITING && thread.isAlive()) {
+            Thread.sleep(5);
+        }
+    }
+
+}
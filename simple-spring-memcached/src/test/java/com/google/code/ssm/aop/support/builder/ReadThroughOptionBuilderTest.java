@@ -0,0 +1,248 @@
+/*
+ * Copyright (c) 2012-2019 Jakub Białek
+ * 
+ * Permission is hereby granted, free of charge, to any person obtaining a copy of this software and associated
+ * documentation files (the "Software"), to deal in the Software without restriction, including without limitation the
+ * rights to use, copy, modify, merge, publish, distribute, sublicense, and/or sell copies of the Software, and to
+ * permit persons to whom the Software is furnished to do so, subject to the following conditions:
+ * 
+ * The above copyright notice and this permission notice shall be included in all copies or substantial portions of the
+ * Software.
+ * 
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR IMPLIED, INCLUDING BUT NOT LIMITED TO THE
+ * WARRANTIES OF MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR
+ * COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR
+ * OTHERWISE, ARISING FROM, OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE SOFTWARE.
+ */
+
+package com.google.code.ssm.aop.support.builder;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+import java.lang.annotation.Annotation;
+import java.lang.reflect.Method;
+import java.security.InvalidParameterException;
+import java.util.concurrent.CompletableFuture;
+
+import net.vidageek.mirror.dsl.Mirror;
+
+import org.junit.Before;
+import org.junit.Test;
+
+import com.google.code.ssm.aop.support.AnnotationData;
+import com.google.code.ssm.aop.support.InvalidAnnotationException;
+import com.google.code.ssm.api.ReadThroughAssignCache;
+import com.google.code.ssm.api.ReadThroughCacheOption;
+import com.google.code.ssm.api.ReadThroughSingleCache;
+
+/**
+ * 
+ * @author Jakub Białek
+ *
+ */
+public class ReadThroughOptionBuilderTest {
+
+    private final ReadThroughOptionBuilder builder = new ReadThroughOptionBuilder();
+    private AnnotationData data;
+
+    @Before
+    public void init() {
+        data = new AnnotationData();
+    }
+
+    @Test
+    public void shouldNotCoalesceMissesByDefault() throws Exception {
+        final String method = "populateOption01";
+        final Class<? extends Annotation> expected = ReadThroughSingleCache.class;
+        final Method targetMethod = new Mirror().on(AnnotationDataDummy.class).reflect().method(method).withArgs(String.class);
+        final Annotation annotation = new Mirror().on(AnnotationDataDummy.class).reflect().annotation(expected).atMethod(method)
+                .withArgs(String.class);
+
+        builder.populate(data, annotation, expected, targetMethod);
+
+        assertFalse(data.isCoalesceMisses());
+    }
+
+    @Test
+    public void shouldPopulateCoalesceMisses() throws Exception {
+        final String method = "populateOption02";
+        final Class<? extends Annotation> expected = ReadThroughSingleCache.class;
+        final Method targetMethod = new Mirror().on(AnnotationDataDummy.class).reflect().method(method).withArgs(String.class);
+        final Annotation annotation = new Mirror().on(AnnotationDataDummy.class).reflect().annotation(expected).atMethod(method)
+                .withArgs(String.class);
+
+        builder.populate(data, annotation, expected, targetMethod);
+
+        assertTrue(data.isCoalesceMisses());
+    }
+
+    @Test
+    public void shouldPopulateCoalesceMissesForAssignCache() throws Exception {
+        final String method = "populateOption03";
+        final Class<? extends Annotation> expected = ReadThroughAssignCache.class;
+        final Method targetMethod = new Mirror().on(AnnotationDataDummy.class).reflect().method(method).withArgs(String.class);
+        final Annotation annotation = new Mirror().on(AnnotationDataDummy.class).reflect().annotation(expected).atMethod(method)
+                .withArgs(String.class);
+
+        builder.populate(data, annotation, expected, targetMethod);
+
+        assertTrue(data.isCoalesceMisses());
+    }
+
+    @Test
+    public void shouldPopulateDistributedLock() throws Exception {
+        final String method = "populateOption04";
+        final Class<? extends Annotation> expected = ReadThroughSingleCache.class;
+        final Method targetMethod = new Mirror().on(AnnotationDataDummy.class).reflect().method(method).withArgs(String.class);
+        final Annotation annotation = new Mirror().on(AnnotationDataDummy.class).reflect().annotation(expected).atMethod(method)
+                .withArgs(String.class);
+
+        builder.populate(data, annotation, expected, targetMethod);
+
+        assertTrue(data.isDistributedLock());
+        assertEquals(3, data.getLockExpiration());
+        assertEquals(500, data.getLockWaitTime());
+    }
+
+    @Test(expected = InvalidParameterException.class)
+    public void shouldNotAllowNonPositiveLockExpiration() throws Exception {
+        final String method = "populateOption05";
+        final Class<? extends Annotation> expected = ReadThroughSingleCache.class;
+        final Method targetMethod = new Mirror().on(AnnotationDataDummy.class).reflect().method(method).withArgs(String.class);
+        final Annotation annotation = new Mirror().on(AnnotationDataDummy.class).reflect().annotation(expected).atMethod(method)
+                .withArgs(String.class);
+
+        builder.populate(data, annotation, expected, targetMethod);
+    }
+
+    @Test
+    public void shouldPopulateEarlyRefresh() throws Exception {
+        final String method = "populateOption06";
+        final Class<? extends Annotation> expected = ReadThroughSingleCache.class;
+        final Method targetMethod = new Mirror().on(AnnotationDataDummy.class).reflect().method(method).withArgs(String.class);
+        final Annotation annotation = new Mirror().on(AnnotationDataDummy.class).reflect().annotation(expected).atMethod(method)
+                .withArgs(String.class);
+        data.setExpiration(60);
+
+        builder.populate(data, annotation, expected, targetMethod);
+
+        assertTrue(data.isEarlyRefresh());
+        assertEquals(2.0, data.getEarlyRefreshBeta(), 0.0);
+    }
+
+    @Test(expected = InvalidParameterException.class)
+    public void shouldNotAllowEarlyRefreshWithoutExpiration() throws Exception {
+        final String method = "populateOption06";
+        final Class<? extends Annotation> expected = ReadThroughSingleCache.class;
+        final Method targetMethod = new Mirror().on(AnnotationDataDummy.class).reflect().method(method).withArgs(String.class);
+        final Annotation annotation = new Mirror().on(AnnotationDataDummy.class).reflect().annotation(expected).atMethod(method)
+                .withArgs(String.class);
+        data.setExpiration(0);
+
+        builder.populate(data, annotation, expected, targetMethod);
+    }
+
+    @Test
+    public void shouldPopulateRefreshAfter() throws Exception {
+        final String method = "populateOption07";
+        final Class<? extends Annotation> expected = ReadThroughSingleCache.class;
+        final Method targetMethod = new Mirror().on(AnnotationDataDummy.class).reflect().method(method).withArgs(String.class);
+        final Annotation annotation = new Mirror().on(AnnotationDataDummy.class).reflect().annotation(expected).atMethod(method)
+                .withArgs(String.class);
+        data.setExpiration(60);
+
+        builder.populate(data, annotation, expected, targetMethod);
+
+        assertEquals(30, data.getRefreshAfter());
+    }
+
+    @Test(expected = InvalidParameterException.class)
+    public void shouldNotAllowRefreshAfterNotLowerThanExpiration() throws Exception {
+        final String method = "populateOption07";
+        final Class<? extends Annotation> expected = ReadThroughSingleCache.class;
+        final Method targetMethod = new Mirror().on(AnnotationDataDummy.class).reflect().method(method).withArgs(String.class);
+        final Annotation annotation = new Mirror().on(AnnotationDataDummy.class).reflect().annotation(expected).atMethod(method)
+                .withArgs(String.class);
+        data.setExpiration(30);
+
+        builder.populate(data, annotation, expected, targetMethod);
+    }
+
+    @Test(expected = InvalidAnnotationException.class)
+    public void shouldNotAllowOptionsOnAsyncMethod() throws Exception {
+        final String method = "populateOption08";
+        final Class<? extends Annotation> expected = ReadThroughSingleCache.class;
+        final Method targetMethod = new Mirror().on(AnnotationDataDummy.class).reflect().method(method).withArgs(String.class);
+        final Annotation annotation = new Mirror().on(AnnotationDataDummy.class).reflect().annotation(expected).atMethod(method)
+                .withArgs(String.class);
+
+        builder.populate(data, annotation, expected, targetMethod);
+    }
+
+    @Test
+    public void shouldAllowDefaultOptionsOnAsyncMethod() throws Exception {
+        final String method = "populateOption09";
+        final Class<? extends Annotation> expected = ReadThroughSingleCache.class;
+        final Method targetMethod = new Mirror().on(AnnotationDataDummy.class).reflect().method(method).withArgs(String.class);
+        final Annotation annotation = new Mirror().on(AnnotationDataDummy.class).reflect().annotation(expected).atMethod(method)
+                .withArgs(String.class);
+
+        builder.populate(data, annotation, expected, targetMethod);
+
+        assertFalse(data.isCoalesceMisses());
+    }
+
+    private static class AnnotationDataDummy {
+
+        @ReadThroughSingleCache(namespace = "bubba")
+        public String populateOption01(final String key1) {
+            return null;
+        }
+
+        @ReadThroughSingleCache(namespace = "bubba", option = @ReadThroughCacheOption(coalesceMisses = true))
+        public String populateOption02(final String key1) {
+            return null;
+        }
+
+        @ReadThroughAssignCache(namespace = "bubba", assignedKey = "key", option = @ReadThroughCacheOption(coalesceMisses = true))
+        public String populateOption03(final String key1) {
+            return null;
+        }
+
+        @ReadThroughSingleCache(namespace = "bubba", option = @ReadThroughCacheOption(distributedLock = true, lockExpiration = 3,
+                lockWaitTime = 500))
+        public String populateOption04(final String key1) {
+            return null;
+        }
+
+        @ReadThroughSingleCache(namespace = "bubba", option = @ReadThroughCacheOption(distributedLock = true, lockExpiration = 0))
+        public String populateOption05(final String key1) {
+            return null;
+        }
+
+        @ReadThroughSingleCache(namespace = "bubba", expiration = 60, option = @ReadThroughCacheOption(earlyRefresh = true,
+                earlyRefreshBeta = 2.0))
+        public String populateOption06(final String key1) {
+            return null;
+        }
+
+        @ReadThroughSingleCache(namespace = "bubba", expiration = 60, option = @ReadThroughCacheOption(refreshAfter = 30))
+        public String populateOption07(final String key1) {
+            return null;
+        }
+
+        @ReadThroughSingleCache(namespace = "bubba", option = @ReadThroughCacheOption(coalesceMisses = true))
+        public CompletableFuture<String> populateOption08(final String key1) {
+            return null;
+        }
+
+        @ReadThroughSingleCache(namespace = "bubba")
+        public CompletableFuture<String> populateOption09(final String key1) {
+            return null;
+        }
+
+    }
+
+}
@@ -0,0 +1,129 @@
+/* Copyright (c) 2012-2019 Jakub Białek
+ * 
+ * Permission is hereby granted, free of charge, to any person obtaining a copy of this software and associated
+ * documentation files (the "Software"), to deal in the Software without restriction, including without limitation the
+ * rights to use, copy, modify, merge, publish, distribute, sublicense, and/or sell copies of the Software, and to
+ * permit persons to whom the Software is furnished to do so, subject to the following conditions:
+ * 
+ * The above copyright notice and this permission notice shall be included in all copies or substantial portions of the
+ * Software.
+ * 
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR IMPLIED, INCLUDING BUT NOT LIMITED TO THE
+ * WARRANTIES OF MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR
+ * COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR
+ * OTHERWISE, ARISING FROM, OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE SOFTWARE.
+ */
+
+package com.google.code.ssm.metrics;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+import java.lang.management.ManagementFactory;
+import java.util.Collections;
+import java.util.List;
+
+import javax.management.ObjectName;
+
+import org.junit.Test;
+
+/**
+ * 
+ * @author Jakub Białek
+ * 
+ */
+public class AccessRecorderTest {
+
+    @Test
+    public void capacityRoundedToPowerOfTwo() {
+        assertEquals(1, new AccessRecorder(1).getCapacity());
+        assertEquals(8, new AccessRecorder(5).getCapacity());
+        assertEquals(8, new AccessRecorder(8).getCapacity());
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void invalidCapacity() {
+        new AccessRecorder(0);
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void invalidSampleRate() {
+        new AccessRecorder(8).setDefaultSampleRate(1.5);
+    }
+
+    @Test
+    public void oldestRecordsOverwritten() {
+        final AccessRecorder recorder = new AccessRecorder(4);
+        recorder.setDefaultSampleRate(1.0);
+        for (int i = 0; i < 6; i++) {
+            recorder.record("Get", "ns:" + i, i, true, 1000);
+        }
+
+        final List<AccessRecord> records = recorder.getRecords();
+        assertEquals(4, records.size());
+        for (int i = 0; i < 4; i++) {
+            assertEquals("ns:" + (i + 2), records.get(i).getKey());
+            assertEquals(i + 2, records.get(i).getSize());
+        }
+        assertEquals(6, recorder.getRecordedCount());
+
+        recorder.clear();
+        assertTrue(recorder.getRecords().isEmpty());
+    }
+
+    @Test
+    public void sampledPerNamespace() {
+        final AccessRecorder recorder = new AccessRecorder(16);
+        recorder.setDefaultSampleRate(0.0);
+        recorder.setNamespaceSampleRates(Collections.singletonMap("users", 1.0));
+
+        recorder.record("Get", "users:1", 10, true, 1000);
+        recorder.record("Get", "orders:1", 10, true, 1000);
+        recorder.record("Get", "users", 10, true, 1000);
+
+        assertEquals(1, recorder.getRecords().size());
+        assertEquals("users:1", recorder.getRecords().get(0).getKey());
+
+        recorder.setNamespaceSampleRate("orders", 1.0);
+        recorder.record("Set", "orders:1", 10, false, 1000);
+        assertEquals(2, recorder.getRecords().size());
+        assertFalse(recorder.getRecords().get(1).isHit());
+    }
+
+    @Test
+    public void namespaceIsRawKeyPrefix() {
+        final AccessRecorder recorder = new AccessRecorder(16);
+        recorder.setDefaultSampleRate(0.0);
+        recorder.setNamespaceSampleRate("users#profiles", 1.0);
+        recorder.setNamespaceSampleRate("user", 1.0);
+
+        recorder.record("Get", "users#profiles:1", 10, true, 1000);
+        recorder.record("Get", "profiles:1", 10, true, 1000);
+        recorder.record("Get", "users:1", 10, true, 1000);
+        recorder.record("Get", "user:1", 10, true, 1000);
+
+        assertEquals(2, recorder.getRecords().size());
+        assertEquals("users#profiles:1", recorder.getRecords().get(0).getKey());
+        assertEquals("user:1", recorder.getRecords().get(1).getKey());
+    }
+
+    @Test
+    public void dumpThroughMBean() throws Exception {
+        final AccessRecorder recorder = new AccessRecorder(4);
+        recorder.setDefaultSampleRate(1.0);
+        recorder.record("Get", "ns:1", -1, false, 2000);
+        recorder.registerMBean("accessRecorderTest");
+
+        final ObjectName name = new ObjectName(AccessRecorder.OBJECT_NAME_PREFIX + ObjectName.quote("accessRecorderTest"));
+        try {
+            final String[] dump = (String[]) ManagementFactory.getPlatformMBeanServer().invoke(name, "dump", null, null);
+            assertEquals(1, dump.length);
+            assertTrue(dump[0], dump[0].endsWith(" Get ns:1 MISS size: -1 latency: 2 us"));
+        } finally {
+            recorder.unregisterMBean();
+        }
+        assertFalse(ManagementFactory.getPlatformMBeanServer().isRegistered(name));
+    }
+
+}
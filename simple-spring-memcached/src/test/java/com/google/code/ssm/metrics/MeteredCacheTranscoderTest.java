@@ -0,0 +1,70 @@
+/* Copyright (c) 2012-2019 Jakub Białek
+ * 
+ * Permission is hereby granted, free of charge, to any person obtaining a copy of this software and associated
+ * documentation files (the "Software"), to deal in the Software without restriction, including without limitation the
+ * rights to use, copy, modify, merge, publish, distribute, sublicense, and/or sell copies of the Software, and to
+ * permit persons to whom the Software is furnished to do so, subject to the following conditions:
+ * 
+ * The above copyright notice and this permission notice shall be included in all copies or substantial portions of the
+ * Software.
+ * 
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR IMPLIED, INCLUDING BUT NOT LIMITED TO THE
+ * WARRANTIES OF MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR
+ * COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR
+ * OTHERWISE, ARISING FROM, OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE SOFTWARE.
+ */
+
+package com.google.code.ssm.metrics;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertSame;
+
+import org.junit.Test;
+import org.mockito.Mockito;
+
+import com.google.code.ssm.providers.CacheTranscoder;
+import com.google.code.ssm.providers.CachedObject;
+import com.google.code.ssm.providers.CachedObjectImpl;
+
+/**
+ * 
+ * @author Jakub Białek
+ * 
+ */
+public class MeteredCacheTranscoderTest {
+
+    private final CacheMetricTags tags = new CacheMetricTags("cache", null, null);
+
+    @Test
+    public void decorateOnlyIfMetricsRecorded() {
+        final CacheTranscoder transcoder = Mockito.mock(CacheTranscoder.class);
+
+        assertSame(transcoder, MeteredCacheTranscoder.decorate(transcoder, null, tags));
+        assertSame(transcoder, MeteredCacheTranscoder.decorate(transcoder, NoOpCacheMetrics.INSTANCE, tags));
+        assertEquals(null, MeteredCacheTranscoder.decorate(null, Mockito.mock(CacheMetrics.class), tags));
+        assertEquals(MeteredCacheTranscoder.class, MeteredCacheTranscoder.decorate(transcoder, Mockito.mock(CacheMetrics.class), tags)
+                .getClass());
+    }
+
+    @Test
+    public void recordPayloadSizes() {
+        final CacheTranscoder transcoder = Mockito.mock(CacheTranscoder.class);
+        final CacheMetrics metrics = Mockito.mock(CacheMetrics.class);
+        final CachedObject cachedObject = new CachedObjectImpl(0, new byte[10]);
+        final byte[] buffer = new byte[20];
+        Mockito.when(transcoder.encode("value")).thenReturn(cachedObject);
+        Mockito.when(transcoder.decode(cachedObject)).thenReturn("value");
+        Mockito.when(transcoder.decode(0, buffer, 4, 7)).thenReturn("value");
+
+        final CacheTranscoder metered = MeteredCacheTranscoder.decorate(transcoder, metrics, tags);
+
+        assertSame(cachedObject, metered.encode("value"));
+        assertEquals("value", metered.decode(cachedObject));
+        assertEquals("value", metered.decode(0, buffer, 4, 7));
+
+        Mockito.verify(metrics).recordPayloadSize(tags, CacheOperation.SET, 10);
+        Mockito.verify(metrics).recordPayloadSize(tags, CacheOperation.GET, 10);
+        Mockito.verify(metrics).recordPayloadSize(tags, CacheOperation.GET, 7);
+    }
+
+}
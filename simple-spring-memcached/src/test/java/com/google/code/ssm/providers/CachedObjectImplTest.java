@@ -50,4 +50,11 @@ public class CachedObjectImplTest {
         assertEquals(flags, cachedObjectImpl.getFlags());
     }
 
+    @Test
+    public void shouldCopyDataOnlyIfNotWrapped() {
+        assertNotSame(data, cachedObjectImpl.getData());
+        assertSame(data, CachedObjectImpl.wrap(flags, data).getData());
+        assertEquals(flags, CachedObjectImpl.wrap(flags, data).getFlags());
+    }
+
 }
@@ -0,0 +1,88 @@
+/*
+ * Copyright (c) 2010-2019 Jakub Białek
+ * 
+ * Permission is hereby granted, free of charge, to any person obtaining a copy of this software and associated
+ * documentation files (the "Software"), to deal in the Software without restriction, including without limitation the
+ * rights to use, copy, modify, merge, publish, distribute, sublicense, and/or sell copies of the Software, and to
+ * permit persons to whom the Software is furnished to do so, subject to the following conditions:
+ * 
+ * The above copyright notice and this permission notice shall be included in all copies or substantial portions of the
+ * Software.
+ * 
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR IMPLIED, INCLUDING BUT NOT LIMITED TO THE
+ * WARRANTIES OF MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR
+ * COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR
+ * OTHERWISE, ARISING FROM, OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE SOFTWARE.
+ */
+
+package com.google.code.ssm.providers;
+
+import static org.junit.Assert.*;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.junit.Test;
+
+import com.google.code.ssm.transcoders.LongToStringTranscoder;
+
+/**
+ * 
+ * @author Jakub Białek
+ * 
+ */
+public class TranscoderAdapterRegistryTest {
+
+    private final AtomicInteger created = new AtomicInteger();
+
+    private final TranscoderAdapterRegistry<Object> registry = new TranscoderAdapterRegistry<>(transcoder -> {
+        created.incrementAndGet();
+        return new Object();
+    });
+
+    @Test
+    public void getReturnsSameAdapter() {
+        CacheTranscoder transcoder = new LongToStringTranscoder();
+
+        Object adapter = registry.get(transcoder);
+
+        assertNotNull(adapter);
+        assertSame(adapter, registry.get(transcoder));
+        assertEquals(1, created.get());
+    }
+
+    @Test
+    public void getLooksUpByIdentity() {
+        // LongToStringTranscoder instances are equal to each other
+        CacheTranscoder first = new LongToStringTranscoder();
+        CacheTranscoder second = new LongToStringTranscoder();
+
+        assertNotSame(registry.get(first), registry.get(second));
+        assertEquals(2, created.get());
+    }
+
+    @Test
+    public void getFromManyThreads() throws Exception {
+        final CacheTranscoder transcoder = new LongToStringTranscoder();
+        final ExecutorService executor = Executors.newFixedThreadPool(8);
+        try {
+            final List<Future<Object>> adapters = new ArrayList<>();
+            for (int i = 0; i < 64; i++) {
+                adapters.add(executor.submit((Callable<Object>) () -> registry.get(transcoder)));
+            }
+
+            for (Future<Object> adapter : adapters) {
+                assertSame(registry.get(transcoder), adapter.get());
+            }
+            assertEquals(1, created.get());
+        } finally {
+            executor.shutdown();
+        }
+    }
+
+}
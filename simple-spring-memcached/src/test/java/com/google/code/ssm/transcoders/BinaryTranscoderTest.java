@@ -0,0 +1,310 @@
+/* Copyright (c) 2012-2019 Jakub Białek
+ * 
+ * Permission is hereby granted, free of charge, to any person obtaining a copy of this software and associated
+ * documentation files (the "Software"), to deal in the Software without restriction, including without limitation the
+ * rights to use, copy, modify, merge, publish, distribute, sublicense, and/or sell copies of the Software, and to
+ * permit persons to whom the Software is furnished to do so, subject to the following conditions:
+ * 
+ * The above copyright notice and this permission notice shall be included in all copies or substantial portions of the
+ * Software.
+ * 
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR IMPLIED, INCLUDING BUT NOT LIMITED TO THE
+ * WARRANTIES OF MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR
+ * COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR
+ * OTHERWISE, ARISING FROM, OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE SOFTWARE.
+ */
+
+
+package com.google.code.ssm.transcoders;
+
+import static org.junit.Assert.*;
+
+import java.io.Serializable;
+import java.math.BigDecimal;
+import java.math.BigInteger;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Date;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.LinkedList;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.TreeSet;
+
+import lombok.Data;
+import lombok.EqualsAndHashCode;
+import lombok.NoArgsConstructor;
+
+import org.junit.Test;
+
+import com.google.code.ssm.providers.CachedObject;
+import com.google.code.ssm.test.Point;
+
+/**
+ * 
+ * @author Jakub Białek
+ * 
+ */
+public class BinaryTranscoderTest {
+
+    private BinaryTranscoder transcoder = new BinaryTranscoder(Arrays.<Class<?>> asList(Point.class, Status.class, Order.class));
+
+    @Test
+    public void testEncodeAndDecodeBuiltInTypes() {
+        Map<String, Object> map = new HashMap<String, Object>();
+        map.put("k", "v");
+        map.put("n", null);
+
+        List<Object> values = Arrays.<Object> asList("text", "zażółć 😀", "", 0, -1, Integer.MAX_VALUE, Long.MIN_VALUE, true,
+                false, 3.5d, -1.25f, (short) -7, (byte) 5, 'ż', new byte[] { 1, 2, 3 }, new ArrayList<Object>(Arrays.asList(1, "a")),
+                new LinkedList<Object>(Arrays.asList(1L, 2L)), new HashSet<Object>(Arrays.asList("x", "y")), new LinkedHashSet<Object>(
+                        Arrays.asList(3, 1, 2)), new TreeSet<Object>(Arrays.asList("b", "a")), map, new LinkedHashMap<Object, Object>(
+                        Collections.singletonMap(1, 2)), new TreeMap<Object, Object>(Collections.singletonMap("a", 1)), new Date(
+                        1234567890L), new BigInteger("-123456789012345678901234567890"), new BigDecimal("-12345.678900"));
+
+        for (Object value : values) {
+            Object decoded = transcoder.decode(transcoder.encode(value));
+            if (value instanceof byte[]) {
+                assertArrayEquals((byte[]) value, (byte[]) decoded);
+            } else {
+                assertEquals(value, decoded);
+                assertSame(value.getClass(), decoded.getClass());
+            }
+        }
+    }
+
+    @Test
+    public void testEncodeAndDecodeObjectArray() {
+        Object[] array = new Object[] { "a", null, 1 };
+
+        assertArrayEquals(array, (Object[]) transcoder.decode(transcoder.encode(array)));
+    }
+
+    @Test
+    public void testEncodeAndDecodeRegisteredClass() {
+        Order order = createOrder();
+
+        Order decoded = (Order) transcoder.decode(transcoder.encode(order));
+
+        assertEquals(order, decoded);
+        assertNull(decoded.getCache());
+        assertEquals(order.getCreatedBy(), decoded.getCreatedBy());
+    }
+
+    @Test
+    public void testEncodeAndDecodeUnregisteredClass() {
+        transcoder = new BinaryTranscoder();
+        Order order = createOrder();
+
+        // not registered classes are serialized by java serialization
+        assertEquals(order, transcoder.decode(transcoder.encode(order)));
+        assertEquals(Arrays.asList(Status.NEW), transcoder.decode(transcoder.encode(new ArrayList<Object>(Arrays.asList(Status.NEW)))));
+    }
+
+    @Test
+    public void testEncodeAndDecodeUnsupportedCollection() {
+        List<String> list = Collections.unmodifiableList(Arrays.asList("a", "b"));
+        TreeSet<String> reversed = new TreeSet<String>(Collections.<String> reverseOrder());
+        reversed.addAll(list);
+
+        assertEquals(list, transcoder.decode(transcoder.encode(list)));
+        TreeSet<?> decoded = (TreeSet<?>) transcoder.decode(transcoder.encode(reversed));
+        assertEquals(Arrays.asList("b", "a"), new ArrayList<Object>(decoded));
+    }
+
+    @Test
+    public void testEncodeAndDecodeWithCompression() {
+        transcoder.setCompressionThreshold(1);
+        List<Order> orders = new ArrayList<Order>();
+        for (int i = 0; i < 100; i++) {
+            orders.add(createOrder());
+        }
+
+        CachedObject co = transcoder.encode(orders);
+
+        assertEquals(orders, transcoder.decode(co));
+    }
+
+    @Test
+    public void testEncodedSmallerThanJava() {
+        Order order = createOrder();
+
+        int binarySize = transcoder.encode(order).getData().length;
+        int javaSize = new JavaTranscoder().encode(order).getData().length;
+
+        assertTrue(String.format("binary %d, java %d", binarySize, javaSize), binarySize * 3 < javaSize);
+    }
+
+    @Test
+    public void testDecodeJavaSerialized() {
+        Order order = createOrder();
+
+        assertEquals(order, transcoder.decode(new JavaTranscoder().encode(order)));
+    }
+
+    @Test
+    public void testDecodeFromOffset() {
+        CachedObject co = transcoder.encode(createOrder());
+
+        byte[] frame = JavaTranscoderTest.withHeader(co.getData());
+
+        assertEquals(createOrder(), transcoder.decode(co.getFlags(), frame, 4, co.getData().length));
+    }
+
+    @Test
+    public void testDecodeCorrupted() {
+        CachedObject co = transcoder.encode(createOrder());
+        final byte[] truncated = Arrays.copyOf(co.getData(), co.getData().length - 3);
+
+        assertNull(transcoder.decode(co.getFlags(), truncated, 0, truncated.length));
+
+        // the same data but with different registration
+        transcoder = new BinaryTranscoder(Arrays.<Class<?>> asList(Point.class));
+        assertNull(transcoder.decode(co));
+    }
+
+    @Test
+    public void testDecodeAfterFieldChange() {
+        Counter counter = new Counter();
+        counter.setCount(8);
+        counter.setHits(1);
+        counter.setLabel("x");
+        counter.setLimit(5);
+        CachedObject co = new BinaryTranscoder(Arrays.<Class<?>> asList(Counter.class)).encode(counter);
+
+        // int count changed to a set, stored count and hits are read as sorted set of label and limit
+        transcoder = new BinaryTranscoder(Arrays.<Class<?>> asList(ChangedCounter.class));
+        assertNull(transcoder.decode(co));
+    }
+
+    @Test
+    public void testEncodeLargeValue() {
+        char[] chars = new char[200 * 1024];
+        Arrays.fill(chars, 'x');
+        String large = new String(chars);
+
+        assertEquals(large, transcoder.decode(transcoder.encode(large)));
+        assertEquals("small", transcoder.decode(transcoder.encode("small")));
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void testRegisterBuiltInType() {
+        new BinaryTranscoder(Arrays.<Class<?>> asList(String.class));
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void testRegisterWithoutNoArgConstructor() {
+        new BinaryTranscoder(Arrays.<Class<?>> asList(Immutable.class));
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void testEncodeNonSerializable() {
+        transcoder.encode(new Immutable(1));
+    }
+
+    private Order createOrder() {
+        Order order = new Order();
+        order.setCreatedBy("admin");
+        order.setId(42L);
+        order.setPrice(9.99d);
+        order.setQuantity(3);
+        order.setPaid(true);
+        order.setGrade('A');
+        order.setStatus(Status.SHIPPED);
+        order.setLocation(new Point(10, -20));
+        order.setItems(new ArrayList<String>(Arrays.asList("book", "pen")));
+        order.setAttributes(new HashMap<String, Object>(Collections.singletonMap("gift", Boolean.TRUE)));
+        order.setCache("not stored");
+        return order;
+    }
+
+    private static enum Status {
+        NEW, SHIPPED {
+            @Override
+            public String toString() {
+                return "shipped";
+            }
+        };
+    }
+
+    @Data
+    private static class Audited implements Serializable {
+
+        private static final long serialVersionUID = 1L;
+
+        private String createdBy;
+
+    }
+
+    @Data
+    @EqualsAndHashCode(callSuper = false, exclude = "cache")
+    @NoArgsConstructor
+    private static class Order extends Audited {
+
+        private static final long serialVersionUID = 1L;
+
+        private Long id;
+
+        private double price;
+
+        private int quantity;
+
+        private boolean paid;
+
+        private char grade;
+
+        private Status status;
+
+        private Point location;
+
+        private List<String> items;
+
+        private Map<String, Object> attributes;
+
+        private transient String cache;
+
+    }
+
+    @Data
+    private static class Counter {
+
+        private int count;
+
+        private int hits;
+
+        private String label;
+
+        private Integer limit;
+
+    }
+
+    @Data
+    private static class ChangedCounter {
+
+        private Set<Object> count;
+
+        private int hits;
+
+        private String label;
+
+        private Integer limit;
+
+    }
+
+    private static final class Immutable {
+
+        private final int value;
+
+        private Immutable(final int value) {
+            this.value = value;
+        }
+
+    }
+
+}
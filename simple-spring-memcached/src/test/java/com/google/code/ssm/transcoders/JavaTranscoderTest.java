@@ -17,15 +17,20 @@
 package com.google.code.ssm.transcoders;
 
 import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
 import static org.junit.Assert.assertNotNull;
 
 import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
 import java.util.List;
 
 import org.junit.Test;
 
 import com.google.code.ssm.providers.CachedObject;
 import com.google.code.ssm.test.Point;
+import com.google.code.ssm.transcoders.compression.CompressionCodecs;
+import com.google.code.ssm.transcoders.compression.DeflateCompressionCodec;
 
 /**
  * 
@@ -71,4 +76,53 @@ public class JavaTranscoderTest {
         assertEquals(list, list2);
     }
 
+    @Test
+    @SuppressWarnings("unchecked")
+    public void testEncodeAndDecodeWithCompressionCodec() {
+        transcoder = new JavaTranscoder();
+        transcoder.setCompressionThreshold(1);
+        transcoder.setCompressionCodec(CompressionCodecs.DEFLATE);
+
+        List<Point> list = new ArrayList<Point>(Collections.nCopies(100, new Point(40, 50)));
+
+        CachedObject co = transcoder.encode(list);
+        assertEquals(DeflateCompressionCodec.ID, CompressionCodecs.getCodec(co.getFlags()).getId());
+        assertEquals(list, transcoder.decode(co));
+
+        // values compressed by other codec are still readable
+        assertEquals(list, new JavaTranscoder().decode(co));
+    }
+
+    @Test
+    public void testEncodeWithoutCompressionCodec() {
+        transcoder = new JavaTranscoder();
+        transcoder.setCompressionThreshold(1);
+        transcoder.setCompressionCodec(null);
+
+        CachedObject co = transcoder.encode(new Point(40, 50));
+
+        assertFalse(CompressionCodecs.isCompressed(co.getFlags()));
+        assertEquals(new Point(40, 50), transcoder.decode(co));
+    }
+
+    @Test
+    public void testDecodeFromOffset() {
+        transcoder = new JavaTranscoder();
+
+        Point p = new Point(40, 50);
+        CachedObject co = transcoder.encode(p);
+        assertEquals(p, transcoder.decode(co.getFlags(), withHeader(co.getData()), 4, co.getData().length));
+
+        transcoder.setCompressionThreshold(1);
+        co = transcoder.encode(p);
+        assertEquals(p, transcoder.decode(co.getFlags(), withHeader(co.getData()), 4, co.getData().length));
+    }
+
+    static byte[] withHeader(final byte[] data) {
+        byte[] framed = new byte[4 + data.length];
+        Arrays.fill(framed, 0, 4, (byte) 0xff);
+        System.arraycopy(data, 0, framed, 4, data.length);
+        return framed;
+    }
+
 }
@@ -17,7 +17,9 @@
 package com.google.code.ssm.transcoders;
 
 import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
 import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertTrue;
 
 import java.io.IOException;
 import java.util.Arrays;
@@ -42,6 +44,7 @@ import com.fasterxml.jackson.databind.module.SimpleModule;
 import com.google.code.ssm.mapper.JsonObjectMapper;
 import com.google.code.ssm.providers.CachedObject;
 import com.google.code.ssm.test.Point;
+import com.google.code.ssm.transcoders.compression.CompressionCodecs;
 
 /**
  * 
@@ -67,6 +70,61 @@ public class JsonTranscoderTest {
         assertEquals(p, p2);
     }
 
+    @Test
+    public void testEncodeAndDecodeWithCompression() {
+        transcoder = new JsonTranscoder(new JsonObjectMapper());
+        List<Point> list = new ArrayList<Point>(Collections.nCopies(100, new Point(40, 50)));
+
+        CachedObject plain = transcoder.encode(list);
+        assertFalse(CompressionCodecs.isCompressed(plain.getFlags()));
+
+        transcoder.setCompressionCodec(CompressionCodecs.DEFLATE);
+        transcoder.setCompressionThreshold(100);
+        CachedObject compressed = transcoder.encode(list);
+
+        assertTrue(CompressionCodecs.isCompressed(compressed.getFlags()));
+        assertTrue(compressed.getData().length < plain.getData().length);
+        assertEquals(list, transcoder.decode(compressed));
+        assertEquals(list, new JsonTranscoder(new JsonObjectMapper()).decode(compressed));
+        assertEquals(new Point(1, 2), transcoder.decode(transcoder.encode(new Point(1, 2))));
+    }
+
+    @Test
+    public void testEncodeReusesBufferWithoutSharingData() {
+        transcoder = new JsonTranscoder(new JsonObjectMapper());
+
+        CachedObject small = transcoder.encode(new Point(1, 2));
+        String smallJson = new String(small.getData());
+        List<Point> list = new ArrayList<Point>(Collections.nCopies(10000, new Point(40, 50)));
+        CachedObject big = transcoder.encode(list);
+        CachedObject other = transcoder.encode(new Point(3, 4));
+
+        assertEquals(smallJson, new String(small.getData()));
+        assertEquals(new Point(1, 2), transcoder.decode(small));
+        assertEquals(list, transcoder.decode(big));
+        assertEquals(new Point(3, 4), transcoder.decode(other));
+    }
+
+    @Test
+    public void testMapperConfiguredAfterTranscoderCreation() {
+        JsonObjectMapper mapper = new JsonObjectMapper();
+        transcoder = new JsonTranscoder(mapper);
+
+        mapper.setSerializers(Collections.<Class<?>, JsonSerializer<?>> singletonMap(Point.class, new PointSerializer()));
+
+        assertEquals("{\"v\":\"40x50\"}", new String(transcoder.encode(new Point(40, 50)).getData()));
+    }
+
+    @Test
+    public void testDecodeFromOffset() {
+        transcoder = new JsonTranscoder(new JsonObjectMapper());
+
+        Point p = new Point(40, 50);
+        CachedObject co = transcoder.encode(p);
+
+        assertEquals(p, transcoder.decode(co.getFlags(), JavaTranscoderTest.withHeader(co.getData()), 4, co.getData().length));
+    }
+
     @Test
     public void testEncodeAndDecodeWithCustomSerializer() {
         JsonObjectMapper mapper = new JsonObjectMapper();
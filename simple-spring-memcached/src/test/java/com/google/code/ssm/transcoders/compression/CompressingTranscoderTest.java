@@ -0,0 +1,94 @@
+/* Copyright (c) 2012-2019 Jakub Białek
+ * 
+ * Permission is hereby granted, free of charge, to any person obtaining a copy of this software and associated
+ * documentation files (the "Software"), to deal in the Software without restriction, including without limitation the
+ * rights to use, copy, modify, merge, publish, distribute, sublicense, and/or sell copies of the Software, and to
+ * permit persons to whom the Software is furnished to do so, subject to the following conditions:
+ * 
+ * The above copyright notice and this permission notice shall be included in all copies or substantial portions of the
+ * Software.
+ * 
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR IMPLIED, INCLUDING BUT NOT LIMITED TO THE
+ * WARRANTIES OF MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR
+ * COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR
+ * OTHERWISE, ARISING FROM, OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE SOFTWARE.
+ */
+
+package com.google.code.ssm.transcoders.compression;
+
+import static org.junit.Assert.*;
+
+import org.junit.Test;
+
+import com.google.code.ssm.providers.CacheTranscoder;
+import com.google.code.ssm.providers.CachedObject;
+import com.google.code.ssm.providers.CachedObjectImpl;
+import com.google.code.ssm.transcoders.LongToStringTranscoder;
+
+/**
+ * 
+ * @author Jakub Białek
+ * 
+ */
+public class CompressingTranscoderTest {
+
+    private final CacheTranscoder bytesTranscoder = new CacheTranscoder() {
+
+        @Override
+        public Object decode(final CachedObject data) {
+            return data.getData();
+        }
+
+        @Override
+        public CachedObject encode(final Object o) {
+            return new CachedObjectImpl(1 << 8, (byte[]) o);
+        }
+
+    };
+
+    private final CompressingTranscoder transcoder = new CompressingTranscoder(bytesTranscoder, CompressionCodecs.DEFLATE, 100);
+
+    @Test
+    public void encodeAndDecodeSmall() {
+        byte[] data = CompressionCodecsTest.createData(100);
+
+        CachedObject co = transcoder.encode(data);
+
+        assertEquals(1 << 8, co.getFlags());
+        assertArrayEquals(data, co.getData());
+        assertArrayEquals(data, (byte[]) transcoder.decode(co));
+    }
+
+    @Test
+    public void encodeAndDecodeLarge() {
+        byte[] data = CompressionCodecsTest.createData(10000);
+
+        CachedObject co = transcoder.encode(data);
+
+        assertEquals(1 << 8 | CompressionCodecs.getFlags(CompressionCodecs.DEFLATE), co.getFlags());
+        assertTrue(co.getData().length < data.length);
+        assertArrayEquals(data, (byte[]) transcoder.decode(co));
+    }
+
+    @Test
+    public void decodeCompressedByOtherCodec() {
+        byte[] data = CompressionCodecsTest.createData(10000);
+
+        CachedObject co = new CompressingTranscoder(bytesTranscoder, CompressionCodecs.GZIP, 100).encode(data);
+
+        assertArrayEquals(data, (byte[]) transcoder.decode(co));
+    }
+
+    @Test(expected = IllegalStateException.class)
+    public void encodeWithCollidingFlags() {
+        new CompressingTranscoder(new LongToStringTranscoder() {
+
+            @Override
+            public CachedObject encode(final Object o) {
+                return new CachedObjectImpl(CompressionCodecs.COMPRESSED, new byte[0]);
+            }
+
+        }, CompressionCodecs.DEFLATE, 100).encode(1L);
+    }
+
+}
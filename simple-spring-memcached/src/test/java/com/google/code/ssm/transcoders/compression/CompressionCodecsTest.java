@@ -0,0 +1,105 @@
+/* Copyright (c) 2012-2019 Jakub Białek
+ * 
+ * Permission is hereby granted, free of charge, to any person obtaining a copy of this software and associated
+ * documentation files (the "Software"), to deal in the Software without restriction, including without limitation the
+ * rights to use, copy, modify, merge, publish, distribute, sublicense, and/or sell copies of the Software, and to
+ * permit persons to whom the Software is furnished to do so, subject to the following conditions:
+ * 
+ * The above copyright notice and this permission notice shall be included in all copies or substantial portions of the
+ * Software.
+ * 
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR IMPLIED, INCLUDING BUT NOT LIMITED TO THE
+ * WARRANTIES OF MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR
+ * COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR
+ * OTHERWISE, ARISING FROM, OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE SOFTWARE.
+ */
+
+package com.google.code.ssm.transcoders.compression;
+
+import static org.junit.Assert.*;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+import java.util.Collection;
+
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.junit.runners.Parameterized;
+import org.junit.runners.Parameterized.Parameters;
+
+/**
+ * 
+ * @author Jakub Białek
+ * 
+ */
+@RunWith(Parameterized.class)
+public class CompressionCodecsTest {
+
+    private final CompressionCodec codec;
+
+    public CompressionCodecsTest(final CompressionCodec codec) {
+        this.codec = codec;
+    }
+
+    @Parameters(name = "{0}")
+    public static Collection<Object[]> data() {
+        return Arrays.asList(new Object[][] { { CompressionCodecs.GZIP }, { CompressionCodecs.DEFLATE }, { new ZstdCompressionCodec() } });
+    }
+
+    @Test
+    public void compressAndDecompress() {
+        byte[] data = createData(100000);
+
+        byte[] compressed = CompressionCodecs.compress(codec, data);
+        int flags = 8 | CompressionCodecs.getFlags(codec);
+
+        assertTrue(compressed.length < data.length / 2);
+        assertTrue(CompressionCodecs.isCompressed(flags));
+        assertEquals(codec.getClass(), CompressionCodecs.getCodec(flags).getClass());
+        assertEquals(8, CompressionCodecs.clearFlags(flags));
+        assertArrayEquals(data, CompressionCodecs.decompress(flags, compressed, 0, compressed.length));
+    }
+
+    @Test
+    public void decompressFromOffset() throws IOException {
+        byte[] data = createData(1000);
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        out.write(new byte[] { 1, 2, 3 });
+
+        codec.compress(data, 10, 500, out);
+        out.write(4);
+        byte[] compressed = out.toByteArray();
+
+        assertArrayEquals(Arrays.copyOfRange(data, 10, 510), codec.decompress(compressed, 3, compressed.length - 4));
+    }
+
+    @Test
+    public void compressEmpty() {
+        byte[] compressed = CompressionCodecs.compress(codec, new byte[0]);
+
+        assertArrayEquals(new byte[0], CompressionCodecs.decompress(CompressionCodecs.getFlags(codec), compressed, 0, compressed.length));
+    }
+
+    @Test(expected = RuntimeException.class)
+    public void decompressCorrupted() {
+        byte[] compressed = CompressionCodecs.compress(codec, createData(1000));
+
+        CompressionCodecs.decompress(CompressionCodecs.getFlags(codec), compressed, 0, compressed.length / 2);
+    }
+
+    @Test(expected = IllegalStateException.class)
+    public void getUnknownCodec() {
+        CompressionCodecs.getCodec(CompressionCodecs.COMPRESSED | (7 << 4));
+    }
+
+    static byte[] createData(final int size) {
+        StringBuilder sb = new StringBuilder(size);
+        while (sb.length() < size) {
+            sb.append("{\"id\":").append(sb.length()).append(",\"name\":\"value\"}");
+        }
+        return sb.substring(0, size).getBytes(StandardCharsets.UTF_8);
+    }
+
+}
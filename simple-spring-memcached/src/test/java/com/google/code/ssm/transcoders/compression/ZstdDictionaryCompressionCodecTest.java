@@ -0,0 +1,132 @@
+/* Copyright (c) 2012-2019 Jakub Białek
+ * 
+ * Permission is hereby granted, free of charge, to any person obtaining a copy of this software and associated
+ * documentation files (the "Software"), to deal in the Software without restriction, including without limitation the
+ * rights to use, copy, modify, merge, publish, distribute, sublicense, and/or sell copies of the Software, and to
+ * permit persons to whom the Software is furnished to do so, subject to the following conditions:
+ * 
+ * The above copyright notice and this permission notice shall be included in all copies or substantial portions of the
+ * Software.
+ * 
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR IMPLIED, INCLUDING BUT NOT LIMITED TO THE
+ * WARRANTIES OF MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR
+ * COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR
+ * OTHERWISE, ARISING FROM, OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE SOFTWARE.
+ */
+
+package com.google.code.ssm.transcoders.compression;
+
+import static org.junit.Assert.*;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+import org.junit.BeforeClass;
+import org.junit.Test;
+
+import com.google.code.ssm.mapper.JsonObjectMapper;
+import com.google.code.ssm.providers.CachedObject;
+import com.google.code.ssm.test.Point;
+import com.google.code.ssm.transcoders.JsonTranscoder;
+
+/**
+ * 
+ * @author Jakub Białek
+ * 
+ */
+public class ZstdDictionaryCompressionCodecTest {
+
+    private static byte[] dictionary;
+
+    private static byte[] otherDictionary;
+
+    @BeforeClass
+    public static void trainDictionaries() {
+        dictionary = ZstdDictionaryCompressionCodec.train(createSamples(0), 4096);
+        otherDictionary = ZstdDictionaryCompressionCodec.train(createSamples(5000), 4096);
+    }
+
+    @Test
+    public void compressSmallValue() {
+        ZstdDictionaryCompressionCodec codec = new ZstdDictionaryCompressionCodec(1, dictionary);
+        byte[] data = encode(createValue(12345));
+
+        byte[] compressed = CompressionCodecs.compress(codec, data);
+        int flags = CompressionCodecs.getFlags(codec);
+
+        assertTrue(compressed.length * 3 < data.length);
+        assertTrue(compressed.length < CompressionCodecs.compress(new ZstdCompressionCodec(), data).length);
+        assertEquals(1, (flags >>> 16) & 0xFF);
+        assertSame(codec, CompressionCodecs.getCodec(flags, codec));
+        assertArrayEquals(data, CompressionCodecs.decompress(flags, compressed, 0, compressed.length, codec));
+    }
+
+    @Test
+    public void decompressUsingPreviousVersion() {
+        ZstdDictionaryCompressionCodec previous = new ZstdDictionaryCompressionCodec(1, dictionary);
+        ZstdDictionaryCompressionCodec current = new ZstdDictionaryCompressionCodec(2, otherDictionary);
+        current.setPreviousVersions(Collections.singletonList(previous));
+        byte[] data = encode(createValue(777));
+
+        byte[] compressed = CompressionCodecs.compress(previous, data);
+
+        assertArrayEquals(data,
+                CompressionCodecs.decompress(CompressionCodecs.getFlags(previous), compressed, 0, compressed.length, current));
+    }
+
+    @Test(expected = IllegalStateException.class)
+    public void decompressWithoutDictionary() {
+        ZstdDictionaryCompressionCodec codec = new ZstdDictionaryCompressionCodec(1, dictionary);
+        byte[] compressed = CompressionCodecs.compress(codec, encode(createValue(1)));
+
+        CompressionCodecs.decompress(CompressionCodecs.getFlags(codec), compressed, 0, compressed.length,
+                new ZstdDictionaryCompressionCodec(2, dictionary));
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void invalidVersion() {
+        new ZstdDictionaryCompressionCodec(256, dictionary);
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void previousVersionWithSameVersion() {
+        new ZstdDictionaryCompressionCodec(1, dictionary).setPreviousVersions(Collections.singletonList(new ZstdDictionaryCompressionCodec(
+                1, otherDictionary)));
+    }
+
+    @Test
+    public void encodeAndDecodeJson() {
+        JsonTranscoder transcoder = new JsonTranscoder(new JsonObjectMapper());
+        transcoder.setCompressionCodec(new ZstdDictionaryCompressionCodec(1, dictionary));
+        transcoder.setCompressionThreshold(64);
+        List<Point> value = createValue(42);
+
+        CachedObject co = transcoder.encode(value);
+
+        assertTrue(CompressionCodecs.isCompressed(co.getFlags()));
+        assertTrue(co.getData().length * 3 < encode(value).length);
+        assertEquals(value, transcoder.decode(co));
+    }
+
+    private static List<byte[]> createSamples(final int seed) {
+        List<byte[]> samples = new ArrayList<byte[]>();
+        for (int i = 0; i < 1000; i++) {
+            samples.add(encode(createValue(seed + i)));
+        }
+        return samples;
+    }
+
+    private static List<Point> createValue(final int seed) {
+        List<Point> points = new ArrayList<Point>();
+        for (int i = 0; i < 10; i++) {
+            points.add(new Point(seed + i, (seed * 31 + i) % 1000));
+        }
+        return points;
+    }
+
+    private static byte[] encode(final Object value) {
+        return new JsonTranscoder(new JsonObjectMapper()).encode(value).getData();
+    }
+
+}
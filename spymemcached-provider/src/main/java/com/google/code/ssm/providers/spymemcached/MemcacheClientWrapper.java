@@ -18,27 +18,37 @@
 package com.google.code.ssm.providers.spymemcached;
 
 import java.net.SocketAddress;
+import java.util.ArrayList;
 import java.util.Collection;
-import java.util.HashMap;
+import java.util.List;
 import java.util.Map;
+import java.util.concurrent.CompletableFuture;
 import java.util.concurrent.ExecutionException;
 import java.util.concurrent.Future;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.ScheduledThreadPoolExecutor;
 import java.util.concurrent.TimeUnit;
 import java.util.concurrent.TimeoutException;
 
 import net.spy.memcached.CachedData;
+import net.spy.memcached.DefaultConnectionFactory;
+import net.spy.memcached.MemcachedClient;
 import net.spy.memcached.MemcachedClientIF;
 import net.spy.memcached.OperationTimeoutException;
+import net.spy.memcached.internal.GenericCompletionListener;
+import net.spy.memcached.internal.ListenableFuture;
 import net.spy.memcached.transcoders.Transcoder;
 
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
 import com.google.code.ssm.providers.AbstractMemcacheClientWrapper;
+import com.google.code.ssm.providers.AsyncCacheClient;
 import com.google.code.ssm.providers.CacheException;
 import com.google.code.ssm.providers.CacheTranscoder;
 import com.google.code.ssm.providers.CachedObject;
 import com.google.code.ssm.providers.CachedObjectImpl;
+import com.google.code.ssm.providers.TranscoderAdapterRegistry;
 
 /**
  * 
@@ -46,16 +56,27 @@ import com.google.code.ssm.providers.CachedObjectImpl;
  * @since 2.0.0
  * 
  */
-class MemcacheClientWrapper extends AbstractMemcacheClientWrapper {
+class MemcacheClientWrapper extends AbstractMemcacheClientWrapper implements AsyncCacheClient {
 
     private static final Logger LOGGER = LoggerFactory.getLogger(MemcacheClientWrapper.class);
 
-    private final Map<CacheTranscoder, Object> adapters = new HashMap<CacheTranscoder, Object>();
+    // fails asynchronous operations that didn't complete in operation timeout, shared by all clients
+    private static final ScheduledThreadPoolExecutor TIMEOUT_SCHEDULER = createTimeoutScheduler();
+
+    private final TranscoderAdapterRegistry<Transcoder<?>> adapters = new TranscoderAdapterRegistry<>(TranscoderAdapter::new);
 
     private final MemcachedClientIF memcachedClient;
 
+    private final long operationTimeout;
+
     MemcacheClientWrapper(final MemcachedClientIF memcachedClient) {
+        this(memcachedClient, (memcachedClient instanceof MemcachedClient) ? ((MemcachedClient) memcachedClient).getOperationTimeout()
+                : DefaultConnectionFactory.DEFAULT_OPERATION_TIMEOUT);
+    }
+
+    MemcacheClientWrapper(final MemcachedClientIF memcachedClient, final long operationTimeout) {
         this.memcachedClient = memcachedClient;
+        this.operationTimeout = operationTimeout;
     }
 
     @Override
@@ -122,6 +143,29 @@ class MemcacheClientWrapper extends AbstractMemcacheClientWrapper {
         }
     }
 
+    @Override
+    public void delete(final Collection<String> keys) throws TimeoutException, CacheException {
+        if (keys == null || keys.isEmpty()) {
+            return;
+        }
+
+        final List<Future<Boolean>> futures = new ArrayList<Future<Boolean>>(keys.size());
+        try {
+            // all deletes are queued before waiting for any of them so they are pipelined by the client
+            for (final String key : keys) {
+                if (key != null) {
+                    futures.add(memcachedClient.delete(key));
+                }
+            }
+            waitFor(futures);
+        } catch (InterruptedException | ExecutionException e) {
+            cancel(futures);
+            throw new CacheException(e);
+        } catch (RuntimeException e) {
+            throw mapAndRethrow(e);
+        }
+    }
+
     @Override
     public void flush() throws CacheException {
         try {
@@ -267,6 +311,122 @@ class MemcacheClientWrapper extends AbstractMemcacheClientWrapper {
         }
     }
 
+    @Override
+    public void setBulk(final Map<String, ?> values, final int exp) throws TimeoutException, CacheException {
+        if (values == null || values.isEmpty()) {
+            return;
+        }
+
+        final List<Future<Boolean>> futures = new ArrayList<Future<Boolean>>(values.size());
+        try {
+            // all sets are queued before waiting for any of them so they are pipelined by the client
+            for (final Map.Entry<String, ?> entry : values.entrySet()) {
+                futures.add(memcachedClient.set(entry.getKey(), exp, entry.getValue()));
+            }
+            waitFor(futures);
+        } catch (InterruptedException | ExecutionException e) {
+            cancel(futures);
+            throw new CacheException(e);
+        } catch (RuntimeException e) {
+            throw mapAndRethrow(e);
+        }
+    }
+
+    @Override
+    public <T> void setBulk(final Map<String, T> values, final int exp, final CacheTranscoder transcoder) throws TimeoutException,
+            CacheException {
+        if (values == null || values.isEmpty()) {
+            return;
+        }
+
+        final Transcoder<T> transcoderAdapter = getTranscoder(transcoder);
+        final List<Future<Boolean>> futures = new ArrayList<Future<Boolean>>(values.size());
+        try {
+            // all sets are queued before waiting for any of them so they are pipelined by the client
+            for (final Map.Entry<String, T> entry : values.entrySet()) {
+                futures.add(memcachedClient.set(entry.getKey(), exp, entry.getValue(), transcoderAdapter));
+            }
+            waitFor(futures);
+        } catch (InterruptedException | ExecutionException e) {
+            cancel(futures);
+            throw new CacheException(e);
+        } catch (RuntimeException e) {
+            throw mapAndRethrow(e);
+        }
+    }
+
+    @Override
+    public CompletableFuture<Object> getAsync(final String key) {
+        try {
+            return toCompletableFuture(memcachedClient.asyncGet(key));
+        } catch (RuntimeException e) {
+            return failed(e);
+        }
+    }
+
+    @Override
+    public <T> CompletableFuture<T> getAsync(final String key, final CacheTranscoder transcoder) {
+        try {
+            return toCompletableFuture(memcachedClient.asyncGet(key, this.<T> getTranscoder(transcoder)));
+        } catch (RuntimeException e) {
+            return failed(e);
+        }
+    }
+
+    @Override
+    public CompletableFuture<Map<String, Object>> getBulkAsync(final Collection<String> keys) {
+        try {
+            return toCompletableFuture(memcachedClient.asyncGetBulk(keys));
+        } catch (RuntimeException e) {
+            return failed(e);
+        }
+    }
+
+    @Override
+    public <T> CompletableFuture<Map<String, T>> getBulkAsync(final Collection<String> keys, final CacheTranscoder transcoder) {
+        try {
+            return toCompletableFuture(memcachedClient.asyncGetBulk(keys, this.<T> getTranscoder(transcoder)));
+        } catch (RuntimeException e) {
+            return failed(e);
+        }
+    }
+
+    @Override
+    public CompletableFuture<Boolean> setAsync(final String key, final int exp, final Object value) {
+        try {
+            return toCompletableFuture(memcachedClient.set(key, exp, value));
+        } catch (RuntimeException e) {
+            return failed(e);
+        }
+    }
+
+    @Override
+    public <T> CompletableFuture<Boolean> setAsync(final String key, final int exp, final T value, final CacheTranscoder transcoder) {
+        try {
+            return toCompletableFuture(memcachedClient.set(key, exp, value, this.<T> getTranscoder(transcoder)));
+        } catch (RuntimeException e) {
+            return failed(e);
+        }
+    }
+
+    @Override
+    public CompletableFuture<Boolean> deleteAsync(final String key) {
+        try {
+            return toCompletableFuture(memcachedClient.delete(key));
+        } catch (RuntimeException e) {
+            return failed(e);
+        }
+    }
+
+    @Override
+    public CompletableFuture<Long> incrAsync(final String key, final int by, final long def, final int exp) {
+        try {
+            return toCompletableFuture(memcachedClient.asyncIncr(key, by, def, exp));
+        } catch (RuntimeException e) {
+            return failed(e);
+        }
+    }
+
     @Override
     public void shutdown() {
         memcachedClient.shutdown();
@@ -284,13 +444,7 @@ class MemcacheClientWrapper extends AbstractMemcacheClientWrapper {
 
     @SuppressWarnings("unchecked")
     private <T> Transcoder<T> getTranscoder(final CacheTranscoder transcoder) {
-        Transcoder<T> transcoderAdapter = (Transcoder<T>) adapters.get(transcoder);
-        if (transcoderAdapter == null) {
-            transcoderAdapter = (Transcoder<T>) new TranscoderAdapter(transcoder);
-            adapters.put(transcoder, transcoderAdapter);
-        }
-
-        return transcoderAdapter;
+        return (Transcoder<T>) adapters.get(transcoder);
     }
 
     private void cancel(final Future<?> f) {
@@ -299,6 +453,86 @@ class MemcacheClientWrapper extends AbstractMemcacheClientWrapper {
         }
     }
 
+    private void cancel(final List<? extends Future<?>> futures) {
+        for (final Future<?> f : futures) {
+            cancel(f);
+        }
+    }
+
+    // waits for all futures using one overall operation timeout
+    private void waitFor(final List<Future<Boolean>> futures) throws InterruptedException, ExecutionException, TimeoutException {
+        final long deadline = System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(operationTimeout);
+        for (final Future<Boolean> f : futures) {
+            try {
+                f.get(Math.max(0, deadline - System.nanoTime()), TimeUnit.NANOSECONDS);
+            } catch (TimeoutException e) {
+                LOGGER.warn("Operation timeout while waiting for {} operations", futures.size(), e);
+                cancel(futures);
+                throw e;
+            }
+        }
+    }
+
+    // completes returned future from the client's listener thread, futures which are not listenable are awaited,
+    // operations not completed in operation timeout are cancelled and the returned future fails with TimeoutException
+    @SuppressWarnings({ "unchecked", "rawtypes" })
+    private <T> CompletableFuture<T> toCompletableFuture(final Future<T> f) {
+        final CompletableFuture<T> future = new CompletableFuture<T>();
+        if (!(f instanceof ListenableFuture)) {
+            complete(future, f);
+            return future;
+        }
+
+        final ScheduledFuture<?> timeout = TIMEOUT_SCHEDULER.schedule(() -> {
+            final TimeoutException e = new TimeoutException(String.format("Operation not completed in %d ms", operationTimeout));
+            if (future.completeExceptionally(e)) {
+                cancel(f);
+            }
+        }, operationTimeout, TimeUnit.MILLISECONDS);
+        future.whenComplete((value, ex) -> timeout.cancel(false));
+
+        ((ListenableFuture) f).addListener(new GenericCompletionListener<Future<T>>() {
+            @Override
+            public void onComplete(final Future<T> completed) {
+                complete(future, completed);
+            }
+        });
+
+        return future;
+    }
+
+    private <T> void complete(final CompletableFuture<T> future, final Future<T> f) {
+        try {
+            future.complete(f.get(operationTimeout, TimeUnit.MILLISECONDS));
+        } catch (TimeoutException e) {
+            cancel(f);
+            future.completeExceptionally(e);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            future.completeExceptionally(new CacheException(e));
+        } catch (ExecutionException e) {
+            future.completeExceptionally(new CacheException(e));
+        } catch (RuntimeException e) {
+            failed(future, e);
+        }
+    }
+
+    private <T> CompletableFuture<T> failed(final RuntimeException e) {
+        return failed(new CompletableFuture<T>(), e);
+    }
+
+    private <T> CompletableFuture<T> failed(final CompletableFuture<T> future, final RuntimeException e) {
+        if (translateException(e)) {
+            future.completeExceptionally(new CacheException(e));
+        } else if (e.getCause() instanceof TimeoutException) {
+            future.completeExceptionally(e.getCause());
+        } else {
+            future.completeExceptionally(e);
+        }
+
+        return future;
+    }
+
     private boolean translateException(final RuntimeException e) {
         return e.getCause() instanceof InterruptedException || e.getCause() instanceof ExecutionException;
     }
@@ -313,6 +547,16 @@ class MemcacheClientWrapper extends AbstractMemcacheClientWrapper {
         throw exception; 
     }
 
+    private static ScheduledThreadPoolExecutor createTimeoutScheduler() {
+        final ScheduledThreadPoolExecutor scheduler = new ScheduledThreadPoolExecutor(1, runnable -> {
+            final Thread thread = new Thread(runnable, "ssm-spymemcached-timeout");
+            thread.setDaemon(true);
+            return thread;
+        });
+        scheduler.setRemoveOnCancelPolicy(true);
+        return scheduler;
+    }
+
     private static class TranscoderWrapper implements CacheTranscoder {
 
         private final Transcoder<Object> transcoder;
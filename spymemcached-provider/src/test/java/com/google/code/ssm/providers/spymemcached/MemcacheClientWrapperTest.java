@@ -19,16 +19,22 @@ package com.google.code.ssm.providers.spymemcached;
 import static org.junit.Assert.assertEquals;
 import static org.junit.Assert.assertSame;
 import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
 
 import java.net.SocketAddress;
+import java.util.Arrays;
 import java.util.Collection;
 import java.util.Map;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.CompletableFuture;
 import java.util.concurrent.ExecutionException;
 import java.util.concurrent.Future;
 import java.util.concurrent.TimeUnit;
 import java.util.concurrent.TimeoutException;
 
 import net.spy.memcached.MemcachedClientIF;
+import net.spy.memcached.internal.GenericCompletionListener;
+import net.spy.memcached.internal.ListenableFuture;
 import net.spy.memcached.transcoders.Transcoder;
 
 import org.easymock.EasyMock;
@@ -98,6 +104,15 @@ public class MemcacheClientWrapperTest {
         EasyMock.verify(client);
     }
 
+    @Test
+    public void deleteMany() throws TimeoutException, CacheException {
+        EasyMock.expect(client.delete("key1")).andReturn(getFuture(true));
+        EasyMock.expect(client.delete("key2")).andReturn(getFuture(false));
+        EasyMock.replay(client);
+        clientWrapper.delete(Arrays.asList("key1", null, "key2"));
+        EasyMock.verify(client);
+    }
+
     @Test
     public void flush() throws CacheException {
         EasyMock.expect(client.flush()).andReturn(getFuture(true));
@@ -212,6 +227,45 @@ public class MemcacheClientWrapperTest {
         EasyMock.verify(client);
     }
 
+    @Test
+    public void getAsync() throws Exception {
+        EasyMock.expect(client.asyncGet("key1")).andReturn(getFuture((Object) "value"));
+        EasyMock.replay(client);
+        assertEquals("value", clientWrapper.getAsync("key1").get());
+        EasyMock.verify(client);
+    }
+
+    @Test
+    public void getAsyncTimeout() throws Exception {
+        final PendingFuture<Object> pending = new PendingFuture<Object>();
+        EasyMock.expect(client.asyncGet("key1")).andReturn(pending);
+        EasyMock.replay(client);
+        clientWrapper = new MemcacheClientWrapper(client, 50);
+
+        try {
+            clientWrapper.getAsync("key1").get(5, TimeUnit.SECONDS);
+            fail("Expected TimeoutException");
+        } catch (ExecutionException ex) {
+            assertTrue(ex.getCause() instanceof TimeoutException);
+        }
+        // the operation is cancelled after the timeout is reported
+        try {
+            pending.get(5, TimeUnit.SECONDS);
+        } catch (CancellationException ex) {
+            // expected
+        }
+        assertTrue(pending.isCancelled());
+        EasyMock.verify(client);
+    }
+
+    @Test
+    public void setAsyncFailed() {
+        EasyMock.expect(client.set("key1", 1, "value")).andThrow(new IllegalStateException("queue is full"));
+        EasyMock.replay(client);
+        assertTrue(clientWrapper.setAsync("key1", 1, "value").isCompletedExceptionally());
+        EasyMock.verify(client);
+    }
+
     @Test
     public void shutdown() {
         client.shutdown();
@@ -270,4 +324,20 @@ public class MemcacheClientWrapperTest {
         };
     }
 
+    // listenable future whose operation never completes
+    @SuppressWarnings("rawtypes")
+    private static class PendingFuture<T> extends CompletableFuture<T> implements ListenableFuture<T, GenericCompletionListener> {
+
+        @Override
+        public Future<T> addListener(final GenericCompletionListener listener) {
+            return this;
+        }
+
+        @Override
+        public Future<T> removeListener(final GenericCompletionListener listener) {
+            return this;
+        }
+
+    }
+
 }
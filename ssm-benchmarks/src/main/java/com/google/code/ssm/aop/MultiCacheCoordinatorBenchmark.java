@@ -0,0 +1,127 @@
+/*
+ * Copyright (c) 2012-2019 Jakub Białek
+ * 
+ * Permission is hereby granted, free of charge, to any person obtaining a copy of this software and associated
+ * documentation files (the "Software"), to deal in the Software without restriction, including without limitation the
+ * rights to use, copy, modify, merge, publish, distribute, sublicense, and/or sell copies of the Software, and to
+ * permit persons to whom the Software is furnished to do so, subject to the following conditions:
+ * 
+ * The above copyright notice and this permission notice shall be included in all copies or substantial portions of the
+ * Software.
+ * 
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR IMPLIED, INCLUDING BUT NOT LIMITED TO THE
+ * WARRANTIES OF MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR
+ * COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR
+ * OTHERWISE, ARISING FROM, OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE SOFTWARE.
+ */
+
+package com.google.code.ssm.aop;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import com.google.code.ssm.aop.MultiCacheAdvice.MapHolder;
+import com.google.code.ssm.aop.MultiCacheAdvice.MultiCacheCoordinator;
+import com.google.code.ssm.aop.support.AnnotationData;
+
+/**
+ * Measures the work done by {@link MultiCacheCoordinator} on each invocation of multi cache advice: merging results
+ * returned by cache, computing missed objects, altering method's arguments and assembling final result list. The
+ * benchmark lives in the same package as the coordinator because the coordinator is package private.
+ * 
+ * @author Jakub Białek
+ * @since 4.3.0
+ * 
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class MultiCacheCoordinatorBenchmark {
+
+    private static final String NAMESPACE = "benchmark";
+
+    @Param({ "10", "100", "1000" })
+    private int size;
+
+    /**
+     * Percentage of keys found in cache.
+     */
+    @Param({ "0", "50", "100" })
+    private int hitRatio;
+
+    private AnnotationData data;
+
+    private MapHolder holder;
+
+    private List<Object> listKeyObjects;
+
+    private Object[] args;
+
+    private Map<String, Object> cacheResponse;
+
+    private Map<Object, Object> methodResults;
+
+    @Setup
+    public void setUp() {
+        data = new AnnotationData();
+        data.setNamespace(NAMESPACE);
+        data.setListIndexInMethodArgs(0);
+
+        holder = new MapHolder();
+        listKeyObjects = new ArrayList<Object>(size);
+        cacheResponse = new HashMap<String, Object>();
+        methodResults = new HashMap<Object, Object>();
+
+        final int hits = size * hitRatio / 100;
+        for (long i = 0; i < size; i++) {
+            final String cacheKey = NAMESPACE + ":" + i;
+            holder.getKey2Obj().put(cacheKey, i);
+            holder.getObj2Key().put(i, cacheKey);
+            listKeyObjects.add(i);
+            if (i < hits) {
+                cacheResponse.put(cacheKey, "value" + i);
+            } else {
+                methodResults.put(i, "value" + i);
+            }
+        }
+
+        args = new Object[] { listKeyObjects };
+    }
+
+    @Benchmark
+    public List<Object> assembleResult() {
+        final MultiCacheCoordinator coord = new MultiCacheCoordinator(null, data);
+        coord.setHolder(holder);
+        coord.setListKeyObjects(listKeyObjects);
+        coord.setInitialKey2Result(cacheResponse);
+
+        if (!coord.getMissedObjects().isEmpty()) {
+            // the same work as advice does after invoking intercepted method with missed objects only
+            coord.createModifiedArgumentList(args);
+            for (Object missedObject : coord.getMissedObjects()) {
+                coord.getKey2Result().put(coord.getObj2Key().get(missedObject), methodResults.get(missedObject));
+            }
+        }
+
+        return coord.generateResultList();
+    }
+
+}
@@ -0,0 +1,130 @@
+/*
+ * Copyright (c) 2012-2019 Jakub Białek
+ * 
+ * Permission is hereby granted, free of charge, to any person obtaining a copy of this software and associated
+ * documentation files (the "Software"), to deal in the Software without restriction, including without limitation the
+ * rights to use, copy, modify, merge, publish, distribute, sublicense, and/or sell copies of the Software, and to
+ * permit persons to whom the Software is furnished to do so, subject to the following conditions:
+ * 
+ * The above copyright notice and this permission notice shall be included in all copies or substantial portions of the
+ * Software.
+ * 
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR IMPLIED, INCLUDING BUT NOT LIMITED TO THE
+ * WARRANTIES OF MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR
+ * COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR
+ * OTHERWISE, ARISING FROM, OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE SOFTWARE.
+ */
+
+package com.google.code.ssm.benchmark;
+
+import java.lang.reflect.Method;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import com.google.code.ssm.aop.support.AnnotationData;
+import com.google.code.ssm.aop.support.AnnotationDataBuilder;
+import com.google.code.ssm.aop.support.CacheKeyBuilderImpl;
+import com.google.code.ssm.api.ParameterValueKeyProvider;
+import com.google.code.ssm.api.ReadThroughMultiCache;
+
+/**
+ * Measures building of cache keys for multi cache annotations: from a plain list of key objects and from method
+ * arguments where the list is combined with other key parameters.
+ * 
+ * @author Jakub Białek
+ * @since 4.3.0
+ * 
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class CacheKeyBuilderBenchmark {
+
+    private static final String NAMESPACE = "benchmark";
+
+    @Param({ "1", "10", "100" })
+    private int size;
+
+    private final CacheKeyBuilderImpl cacheKeyBuilder = new CacheKeyBuilderImpl();
+
+    private List<Object> keyObjects;
+
+    private AnnotationData singleParamData;
+
+    private AnnotationData compositeParamData;
+
+    private Object[] singleParamArgs;
+
+    private Object[] compositeParamArgs;
+
+    private String singleParamMethodDesc;
+
+    private String compositeParamMethodDesc;
+
+    @Setup
+    public void setUp() throws Exception {
+        keyObjects = new ArrayList<Object>(size);
+        for (long i = 0; i < size; i++) {
+            keyObjects.add(i);
+        }
+
+        final Method singleParam = Service.class.getMethod("getByIds", List.class);
+        singleParamData = AnnotationDataBuilder.buildAnnotationData(singleParam.getAnnotation(ReadThroughMultiCache.class),
+                ReadThroughMultiCache.class, singleParam);
+        singleParamArgs = new Object[] { keyObjects };
+        singleParamMethodDesc = singleParam.toString();
+
+        final Method compositeParam = Service.class.getMethod("getByRegionAndIds", String.class, List.class);
+        compositeParamData = AnnotationDataBuilder.buildAnnotationData(compositeParam.getAnnotation(ReadThroughMultiCache.class),
+                ReadThroughMultiCache.class, compositeParam);
+        compositeParamArgs = new Object[] { "eu-west-1", keyObjects };
+        compositeParamMethodDesc = compositeParam.toString();
+    }
+
+    @Benchmark
+    public List<String> keyObjects() throws Exception {
+        return cacheKeyBuilder.getCacheKeys(keyObjects, NAMESPACE);
+    }
+
+    @Benchmark
+    public List<String> singleParam() {
+        return cacheKeyBuilder.getCacheKeys(singleParamData, singleParamArgs, singleParamMethodDesc);
+    }
+
+    @Benchmark
+    public List<String> compositeParam() {
+        return cacheKeyBuilder.getCacheKeys(compositeParamData, compositeParamArgs, compositeParamMethodDesc);
+    }
+
+    public static class Service {
+
+        @ReadThroughMultiCache(namespace = NAMESPACE, expiration = 60)
+        public List<Payload> getByIds(@ParameterValueKeyProvider final List<Long> ids) {
+            return null;
+        }
+
+        @ReadThroughMultiCache(namespace = NAMESPACE, expiration = 60)
+        public List<Payload> getByRegionAndIds(@ParameterValueKeyProvider(order = 0) final String region,
+                @ParameterValueKeyProvider(order = 1) final List<Long> ids) {
+            return null;
+        }
+
+    }
+
+}
@@ -0,0 +1,88 @@
+/*
+ * Copyright (c) 2012-2019 Jakub Białek
+ * 
+ * Permission is hereby granted, free of charge, to any person obtaining a copy of this software and associated
+ * documentation files (the "Software"), to deal in the Software without restriction, including without limitation the
+ * rights to use, copy, modify, merge, publish, distribute, sublicense, and/or sell copies of the Software, and to
+ * permit persons to whom the Software is furnished to do so, subject to the following conditions:
+ * 
+ * The above copyright notice and this permission notice shall be included in all copies or substantial portions of the
+ * Software.
+ * 
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR IMPLIED, INCLUDING BUT NOT LIMITED TO THE
+ * WARRANTIES OF MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR
+ * COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR
+ * OTHERWISE, ARISING FROM, OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE SOFTWARE.
+ */
+
+package com.google.code.ssm.benchmark;
+
+import java.util.UUID;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import com.google.code.ssm.aop.support.DefaultKeyProvider;
+
+/**
+ * Measures generation of key from a single key object: objects using {@link Object#toString()} and objects with a
+ * method annotated by {@link com.google.code.ssm.api.CacheKeyMethod}.
+ * 
+ * @author Jakub Białek
+ * @since 4.3.0
+ * 
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class DefaultKeyProviderBenchmark {
+
+    private final DefaultKeyProvider keyProvider = new DefaultKeyProvider();
+
+    private final String stringKey = "user-123456";
+
+    private final Long longKey = 123456L;
+
+    private final UUID uuidKey = UUID.randomUUID();
+
+    private final Payload cacheKeyMethodKey = new Payload(123456L, 0);
+
+    private final Object[] compositeKey = new Object[] { stringKey, longKey, uuidKey };
+
+    @Benchmark
+    public String string() {
+        return keyProvider.generateKey(stringKey);
+    }
+
+    @Benchmark
+    public String number() {
+        return keyProvider.generateKey(longKey);
+    }
+
+    @Benchmark
+    public String uuid() {
+        return keyProvider.generateKey(uuidKey);
+    }
+
+    @Benchmark
+    public String cacheKeyMethod() {
+        return keyProvider.generateKey(cacheKeyMethodKey);
+    }
+
+    @Benchmark
+    public String[] composite() {
+        return keyProvider.generateKeys(compositeKey);
+    }
+
+}
@@ -0,0 +1,206 @@
+/*
+ * Copyright (c) 2012-2019 Jakub Białek
+ * 
+ * Permission is hereby granted, free of charge, to any person obtaining a copy of this software and associated
+ * documentation files (the "Software"), to deal in the Software without restriction, including without limitation the
+ * rights to use, copy, modify, merge, publish, distribute, sublicense, and/or sell copies of the Software, and to
+ * permit persons to whom the Software is furnished to do so, subject to the following conditions:
+ * 
+ * The above copyright notice and this permission notice shall be included in all copies or substantial portions of the
+ * Software.
+ * 
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR IMPLIED, INCLUDING BUT NOT LIMITED TO THE
+ * WARRANTIES OF MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR
+ * COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR
+ * OTHERWISE, ARISING FROM, OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE SOFTWARE.
+ */
+
+package com.google.code.ssm.benchmark;
+
+import java.net.InetSocketAddress;
+import java.net.SocketAddress;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.TimeoutException;
+
+import com.google.code.ssm.providers.CacheClient;
+import com.google.code.ssm.providers.CacheException;
+import com.google.code.ssm.providers.CacheTranscoder;
+import com.google.code.ssm.providers.CachedObject;
+import com.google.code.ssm.transcoders.JavaTranscoder;
+
+/**
+ * In-process {@link CacheClient} that keeps encoded values in a map. There is no network round trip so benchmarks
+ * using it measure only the overhead of SSM itself (advices, key building, transcoding). Expiration is ignored.
+ * 
+ * @author Jakub Białek
+ * @since 4.3.0
+ * 
+ */
+public class InMemoryCacheClient implements CacheClient {
+
+    private static final SocketAddress ADDRESS = InetSocketAddress.createUnresolved("localhost", 11211);
+
+    private final ConcurrentMap<String, CachedObject> values = new ConcurrentHashMap<String, CachedObject>();
+
+    private final ConcurrentMap<String, Long> counters = new ConcurrentHashMap<String, Long>();
+
+    private final CacheTranscoder transcoder = new JavaTranscoder();
+
+    @Override
+    public boolean add(final String key, final int exp, final Object value) throws TimeoutException, CacheException {
+        return add(key, exp, value, transcoder);
+    }
+
+    @Override
+    public <T> boolean add(final String key, final int exp, final T value, final CacheTranscoder transcoder) throws TimeoutException,
+            CacheException {
+        return values.putIfAbsent(key, transcoder.encode(value)) == null;
+    }
+
+    @Override
+    public long decr(final String key, final int by) throws TimeoutException, CacheException {
+        return decr(key, by, -1);
+    }
+
+    @Override
+    public long decr(final String key, final int by, final long def) throws TimeoutException, CacheException {
+        final Long value = counters.get(key);
+        if (value == null) {
+            counters.putIfAbsent(key, def);
+            return def;
+        }
+
+        return counters.merge(key, (long) -by, (a, b) -> Math.max(0, a + b));
+    }
+
+    @Override
+    public boolean delete(final String key) throws TimeoutException, CacheException {
+        counters.remove(key);
+        return values.remove(key) != null;
+    }
+
+    @Override
+    public void delete(final Collection<String> keys) throws TimeoutException, CacheException {
+        for (String key : keys) {
+            delete(key);
+        }
+    }
+
+    @Override
+    public void flush() throws TimeoutException, CacheException {
+        values.clear();
+        counters.clear();
+    }
+
+    @Override
+    public Object get(final String key) throws TimeoutException, CacheException {
+        return get(key, transcoder);
+    }
+
+    @Override
+    @SuppressWarnings("unchecked")
+    public <T> T get(final String key, final CacheTranscoder transcoder) throws TimeoutException, CacheException {
+        final CachedObject cachedObject = values.get(key);
+        return (cachedObject == null) ? null : (T) transcoder.decode(cachedObject);
+    }
+
+    @Override
+    public <T> T get(final String key, final CacheTranscoder transcoder, final long timeout) throws TimeoutException, CacheException {
+        return get(key, transcoder);
+    }
+
+    @Override
+    public Collection<SocketAddress> getAvailableServers() {
+        return Collections.singletonList(ADDRESS);
+    }
+
+    @Override
+    public Map<String, Object> getBulk(final Collection<String> keys) throws TimeoutException, CacheException {
+        return getBulk(keys, transcoder);
+    }
+
+    @Override
+    @SuppressWarnings("unchecked")
+    public <T> Map<String, T> getBulk(final Collection<String> keys, final CacheTranscoder transcoder) throws TimeoutException,
+            CacheException {
+        final Map<String, T> result = new HashMap<String, T>();
+        for (String key : keys) {
+            final CachedObject cachedObject = values.get(key);
+            if (cachedObject != null) {
+                result.put(key, (T) transcoder.decode(cachedObject));
+            }
+        }
+
+        return result;
+    }
+
+    @Override
+    public CacheTranscoder getTranscoder() {
+        return transcoder;
+    }
+
+    @Override
+    public long incr(final String key, final int by) throws TimeoutException, CacheException {
+        return incr(key, by, -1);
+    }
+
+    @Override
+    public long incr(final String key, final int by, final long def) throws TimeoutException, CacheException {
+        final Long value = counters.get(key);
+        if (value == null) {
+            counters.putIfAbsent(key, def);
+            return def;
+        }
+
+        return counters.merge(key, (long) by, (a, b) -> a + b);
+    }
+
+    @Override
+    public long incr(final String key, final int by, final long def, final int exp) throws TimeoutException, CacheException {
+        return incr(key, by, def);
+    }
+
+    @Override
+    public boolean set(final String key, final int exp, final Object value) throws TimeoutException, CacheException {
+        return set(key, exp, value, transcoder);
+    }
+
+    @Override
+    public <T> boolean set(final String key, final int exp, final T value, final CacheTranscoder transcoder) throws TimeoutException,
+            CacheException {
+        values.put(key, transcoder.encode(value));
+        return true;
+    }
+
+    @Override
+    public void setBulk(final Map<String, ?> values, final int exp) throws TimeoutException, CacheException {
+        for (final Map.Entry<String, ?> entry : values.entrySet()) {
+            set(entry.getKey(), exp, entry.getValue());
+        }
+    }
+
+    @Override
+    public <T> void setBulk(final Map<String, T> values, final int exp, final CacheTranscoder transcoder) throws TimeoutException,
+            CacheException {
+        for (final Map.Entry<String, T> entry : values.entrySet()) {
+            set(entry.getKey(), exp, entry.getValue(), transcoder);
+        }
+    }
+
+    @Override
+    public void shutdown() {
+        values.clear();
+        counters.clear();
+    }
+
+    @Override
+    public Object getNativeClient() {
+        return values;
+    }
+
+}
@@ -0,0 +1,71 @@
+/*
+ * Copyright (c) 2012-2019 Jakub Białek
+ * 
+ * Permission is hereby granted, free of charge, to any person obtaining a copy of this software and associated
+ * documentation files (the "Software"), to deal in the Software without restriction, including without limitation the
+ * rights to use, copy, modify, merge, publish, distribute, sublicense, and/or sell copies of the Software, and to
+ * permit persons to whom the Software is furnished to do so, subject to the following conditions:
+ * 
+ * The above copyright notice and this permission notice shall be included in all copies or substantial portions of the
+ * Software.
+ * 
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR IMPLIED, INCLUDING BUT NOT LIMITED TO THE
+ * WARRANTIES OF MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR
+ * COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR
+ * OTHERWISE, ARISING FROM, OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE SOFTWARE.
+ */
+
+package com.google.code.ssm.benchmark;
+
+import java.io.Serializable;
+import java.util.ArrayList;
+import java.util.List;
+
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import com.google.code.ssm.api.CacheKeyMethod;
+
+/**
+ * Value object cached in benchmarks. Its serialized size is controlled by length of the body.
+ * 
+ * @author Jakub Białek
+ * @since 4.3.0
+ * 
+ */
+@Data
+@NoArgsConstructor
+public class Payload implements Serializable {
+
+    private static final long serialVersionUID = 1L;
+
+    private long id;
+
+    private String name;
+
+    private List<String> tags;
+
+    private String body;
+
+    public Payload(final long id, final int bodySize) {
+        this.id = id;
+        this.name = "payload-" + id;
+        this.tags = new ArrayList<String>();
+        for (int i = 0; i < 5; i++) {
+            tags.add("tag" + i);
+        }
+
+        final StringBuilder sb = new StringBuilder(bodySize);
+        for (int i = 0; i < bodySize; i++) {
+            // not compressible as well as plain text but not random either
+            sb.append((char) ('a' + (i * 31 + id) % 26));
+        }
+        this.body = sb.toString();
+    }
+
+    @CacheKeyMethod
+    public String cacheKey() {
+        return Long.toString(id);
+    }
+
+}
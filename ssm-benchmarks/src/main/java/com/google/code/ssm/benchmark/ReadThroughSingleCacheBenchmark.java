@@ -0,0 +1,187 @@
+/*
+ * Copyright (c) 2012-2019 Jakub Białek
+ * 
+ * Permission is hereby granted, free of charge, to any person obtaining a copy of this software and associated
+ * documentation files (the "Software"), to deal in the Software without restriction, including without limitation the
+ * rights to use, copy, modify, merge, publish, distribute, sublicense, and/or sell copies of the Software, and to
+ * permit persons to whom the Software is furnished to do so, subject to the following conditions:
+ * 
+ * The above copyright notice and this permission notice shall be included in all copies or substantial portions of the
+ * Software.
+ * 
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR IMPLIED, INCLUDING BUT NOT LIMITED TO THE
+ * WARRANTIES OF MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR
+ * COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR
+ * OTHERWISE, ARISING FROM, OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE SOFTWARE.
+ */
+
+package com.google.code.ssm.benchmark;
+
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.context.annotation.AnnotationConfigApplicationContext;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+import com.google.code.ssm.Cache;
+import com.google.code.ssm.CacheFactory;
+import com.google.code.ssm.api.ParameterValueKeyProvider;
+import com.google.code.ssm.api.ReadThroughSingleCache;
+import com.google.code.ssm.api.format.Serialization;
+import com.google.code.ssm.api.format.SerializationType;
+import com.google.code.ssm.config.AbstractSSMConfiguration;
+import com.google.code.ssm.config.DefaultAddressProvider;
+
+/**
+ * Measures the whole path of method annotated with {@link ReadThroughSingleCache}: spring proxy, advice, key building,
+ * cache and transcoding. The cache is backed by {@link InMemoryCacheClient} so there is no network round trip.
+ * 
+ * @author Jakub Białek
+ * @since 4.3.0
+ * 
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class ReadThroughSingleCacheBenchmark {
+
+    private static final String JAVA_NAMESPACE = "benchmark-java";
+
+    private static final String JSON_NAMESPACE = "benchmark-json";
+
+    private static final long ID = 123456L;
+
+    @Param({ "64", "4096" })
+    private int payloadSize;
+
+    private AnnotationConfigApplicationContext context;
+
+    private PayloadService target;
+
+    private PayloadService service;
+
+    private Cache cache;
+
+    private String javaCacheKey;
+
+    private String jsonCacheKey;
+
+    @Setup
+    public void setUp() throws Exception {
+        System.setProperty(PayloadServiceImpl.PAYLOAD_SIZE_PROPERTY, Integer.toString(payloadSize));
+
+        context = new AnnotationConfigApplicationContext(BenchmarkConfiguration.class);
+        service = context.getBean(PayloadService.class);
+        cache = context.getBean(Cache.class);
+        target = new PayloadServiceImpl();
+        javaCacheKey = JAVA_NAMESPACE + ":" + ID;
+        jsonCacheKey = JSON_NAMESPACE + ":" + ID;
+
+        // warm up the cache so hit benchmarks never invoke the method
+        service.getJava(ID);
+        service.getJson(ID);
+    }
+
+    @TearDown
+    public void tearDown() {
+        context.close();
+    }
+
+    /**
+     * Baseline: the method invoked without caching.
+     */
+    @Benchmark
+    public Payload direct() {
+        return target.getJava(ID);
+    }
+
+    @Benchmark
+    public Payload hitJava() {
+        return service.getJava(ID);
+    }
+
+    @Benchmark
+    public Payload hitJson() {
+        return service.getJson(ID);
+    }
+
+    /**
+     * Miss followed by storing the result. The cost of removing the value from {@link InMemoryCacheClient} is included.
+     */
+    @Benchmark
+    public Payload missJava() throws Exception {
+        cache.delete(javaCacheKey);
+        return service.getJava(ID);
+    }
+
+    @Benchmark
+    public Payload missJson() throws Exception {
+        cache.delete(jsonCacheKey);
+        return service.getJson(ID);
+    }
+
+    public interface PayloadService {
+
+        Payload getJava(long id);
+
+        Payload getJson(long id);
+
+    }
+
+    public static class PayloadServiceImpl implements PayloadService {
+
+        static final String PAYLOAD_SIZE_PROPERTY = "ssm.benchmark.payloadSize";
+
+        private final int payloadSize = Integer.getInteger(PAYLOAD_SIZE_PROPERTY, 64);
+
+        @Override
+        @ReadThroughSingleCache(namespace = JAVA_NAMESPACE, expiration = 3600)
+        @Serialization(SerializationType.JAVA)
+        public Payload getJava(@ParameterValueKeyProvider final long id) {
+            return new Payload(id, payloadSize);
+        }
+
+        @Override
+        @ReadThroughSingleCache(namespace = JSON_NAMESPACE, expiration = 3600)
+        @Serialization(SerializationType.JSON)
+        public Payload getJson(@ParameterValueKeyProvider final long id) {
+            return new Payload(id, payloadSize);
+        }
+
+    }
+
+    @Configuration
+    public static class BenchmarkConfiguration extends AbstractSSMConfiguration {
+
+        @Bean
+        @Override
+        public CacheFactory defaultMemcachedClient() {
+            final CacheFactory cf = new CacheFactory();
+            cf.setCacheClientFactory(new InMemoryCacheClientFactory());
+            cf.setAddressProvider(new DefaultAddressProvider("127.0.0.1:11211"));
+            return cf;
+        }
+
+        @Bean
+        public PayloadService payloadService() {
+            return new PayloadServiceImpl();
+        }
+
+    }
+
+}
@@ -0,0 +1,112 @@
+/*
+ * Copyright (c) 2012-2019 Jakub Białek
+ * 
+ * Permission is hereby granted, free of charge, to any person obtaining a copy of this software and associated
+ * documentation files (the "Software"), to deal in the Software without restriction, including without limitation the
+ * rights to use, copy, modify, merge, publish, distribute, sublicense, and/or sell copies of the Software, and to
+ * permit persons to whom the Software is furnished to do so, subject to the following conditions:
+ * 
+ * The above copyright notice and this permission notice shall be included in all copies or substantial portions of the
+ * Software.
+ * 
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR IMPLIED, INCLUDING BUT NOT LIMITED TO THE
+ * WARRANTIES OF MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR
+ * COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR
+ * OTHERWISE, ARISING FROM, OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE SOFTWARE.
+ */
+
+package com.google.code.ssm.benchmark;
+
+import java.util.Collections;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import com.google.code.ssm.mapper.JsonObjectMapper;
+import com.google.code.ssm.providers.CachedObject;
+import com.google.code.ssm.transcoders.BinaryTranscoder;
+import com.google.code.ssm.transcoders.JavaTranscoder;
+import com.google.code.ssm.transcoders.JsonTranscoder;
+
+/**
+ * Measures encoding and decoding of values by java, binary and json transcoders. Sizes above
+ * {@link JavaTranscoder#DEFAULT_COMPRESSION_THRESHOLD} include the cost of compression.
+ * 
+ * @author Jakub Białek
+ * @since 4.3.0
+ * 
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class TranscoderBenchmark {
+
+    @Param({ "64", "1024", "16384", "131072" })
+    private int payloadSize;
+
+    private final JavaTranscoder javaTranscoder = new JavaTranscoder();
+
+    private final BinaryTranscoder binaryTranscoder = new BinaryTranscoder(Collections.<Class<?>> singletonList(Payload.class));
+
+    private final JsonTranscoder jsonTranscoder = new JsonTranscoder(new JsonObjectMapper());
+
+    private Payload payload;
+
+    private CachedObject javaEncoded;
+
+    private CachedObject binaryEncoded;
+
+    private CachedObject jsonEncoded;
+
+    @Setup
+    public void setUp() {
+        payload = new Payload(1L, payloadSize);
+        javaEncoded = javaTranscoder.encode(payload);
+        binaryEncoded = binaryTranscoder.encode(payload);
+        jsonEncoded = jsonTranscoder.encode(payload);
+    }
+
+    @Benchmark
+    public CachedObject javaEncode() {
+        return javaTranscoder.encode(payload);
+    }
+
+    @Benchmark
+    public Object javaDecode() {
+        return javaTranscoder.decode(javaEncoded);
+    }
+
+    @Benchmark
+    public CachedObject binaryEncode() {
+        return binaryTranscoder.encode(payload);
+    }
+
+    @Benchmark
+    public Object binaryDecode() {
+        return binaryTranscoder.decode(binaryEncoded);
+    }
+
+    @Benchmark
+    public CachedObject jsonEncode() {
+        return jsonTranscoder.encode(payload);
+    }
+
+    @Benchmark
+    public Object jsonDecode() {
+        return jsonTranscoder.decode(jsonEncoded);
+    }
+
+}
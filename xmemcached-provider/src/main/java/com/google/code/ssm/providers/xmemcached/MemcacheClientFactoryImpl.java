@@ -81,6 +81,10 @@ public class MemcacheClientFactoryImpl implements CacheClientFactory {
             setProviderClientSpecificSettings(client, (XMemcachedConfiguration) conf);
         }
 
+        if (conf instanceof XMemcachedConfiguration && ((XMemcachedConfiguration) conf).getAsyncThreads() != null) {
+            return new MemcacheClientWrapper(client, ((XMemcachedConfiguration) conf).getAsyncThreads());
+        }
+
         return new MemcacheClientWrapper(client);
     }
 
@@ -23,10 +23,16 @@ import java.net.SocketAddress;
 import java.util.ArrayList;
 import java.util.Collection;
 import java.util.Collections;
-import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
 import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicInteger;
 
 import net.rubyeye.xmemcached.MemcachedClient;
 import net.rubyeye.xmemcached.exception.MemcachedException;
@@ -37,27 +43,43 @@ import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
 import com.google.code.ssm.providers.AbstractMemcacheClientWrapper;
+import com.google.code.ssm.providers.AsyncCacheClient;
 import com.google.code.ssm.providers.CacheException;
 import com.google.code.ssm.providers.CacheTranscoder;
 import com.google.code.ssm.providers.CachedObject;
 import com.google.code.ssm.providers.CachedObjectImpl;
+import com.google.code.ssm.providers.TranscoderAdapterRegistry;
 
 /**
+ * XMemcached has no non blocking API, asynchronous operations execute blocking operations on a bounded pool of daemon
+ * threads so callers are not blocked. Operations rejected by the pool complete exceptionally with
+ * {@link CacheException}.
  * 
  * @author Jakub Białek
  * @since 2.0.0
  * 
  */
-class MemcacheClientWrapper extends AbstractMemcacheClientWrapper {
+class MemcacheClientWrapper extends AbstractMemcacheClientWrapper implements AsyncCacheClient {
+
+    static final int DEFAULT_ASYNC_THREADS = 4;
+
+    private static final int ASYNC_QUEUE_SIZE = 10000;
 
     private static final Logger LOGGER = LoggerFactory.getLogger(MemcacheClientWrapper.class);
 
-    private final Map<CacheTranscoder, Object> adapters = new HashMap<CacheTranscoder, Object>();
+    private final TranscoderAdapterRegistry<Transcoder<?>> adapters = new TranscoderAdapterRegistry<>(TranscoderAdapter::new);
 
     private final MemcachedClient memcachedClient;
 
+    private final ExecutorService asyncExecutor;
+
     MemcacheClientWrapper(final MemcachedClient memcachedClient) {
+        this(memcachedClient, DEFAULT_ASYNC_THREADS);
+    }
+
+    MemcacheClientWrapper(final MemcachedClient memcachedClient, final int asyncThreads) {
         this.memcachedClient = memcachedClient;
+        this.asyncExecutor = createAsyncExecutor(asyncThreads);
     }
 
     @Override
@@ -106,6 +128,24 @@ class MemcacheClientWrapper extends AbstractMemcacheClientWrapper {
         }
     }
 
+    @Override
+    public void delete(final Collection<String> keys) throws TimeoutException, CacheException {
+        if (keys == null || keys.isEmpty()) {
+            return;
+        }
+
+        try {
+            // noreply deletes don't wait for the server's response so all of them are pipelined
+            for (final String key : keys) {
+                if (key != null) {
+                    memcachedClient.deleteWithNoReply(key);
+                }
+            }
+        } catch (MemcachedException | InterruptedException e) {
+            throw new CacheException(e);
+        }
+    }
+
     @Override
     public void flush() throws TimeoutException, CacheException {
         try {
@@ -223,8 +263,83 @@ class MemcacheClientWrapper extends AbstractMemcacheClientWrapper {
         }
     }
 
+    @Override
+    public void setBulk(final Map<String, ?> values, final int exp) throws TimeoutException, CacheException {
+        if (values == null || values.isEmpty()) {
+            return;
+        }
+
+        try {
+            // noreply sets don't wait for the server's response so all of them are pipelined
+            for (final Map.Entry<String, ?> entry : values.entrySet()) {
+                memcachedClient.setWithNoReply(entry.getKey(), exp, entry.getValue());
+            }
+        } catch (MemcachedException | InterruptedException e) {
+            throw new CacheException(e);
+        }
+    }
+
+    @Override
+    public <T> void setBulk(final Map<String, T> values, final int exp, final CacheTranscoder transcoder) throws TimeoutException,
+            CacheException {
+        if (values == null || values.isEmpty()) {
+            return;
+        }
+
+        final Transcoder<T> transcoderAdapter = getTranscoder(transcoder);
+        try {
+            // noreply sets don't wait for the server's response so all of them are pipelined
+            for (final Map.Entry<String, T> entry : values.entrySet()) {
+                memcachedClient.setWithNoReply(entry.getKey(), exp, entry.getValue(), transcoderAdapter);
+            }
+        } catch (MemcachedException | InterruptedException e) {
+            throw new CacheException(e);
+        }
+    }
+
+    @Override
+    public CompletableFuture<Object> getAsync(final String key) {
+        return submit(() -> get(key));
+    }
+
+    @Override
+    public <T> CompletableFuture<T> getAsync(final String key, final CacheTranscoder transcoder) {
+        return submit(() -> this.<T> get(key, transcoder));
+    }
+
+    @Override
+    public CompletableFuture<Map<String, Object>> getBulkAsync(final Collection<String> keys) {
+        return submit(() -> getBulk(keys));
+    }
+
+    @Override
+    public <T> CompletableFuture<Map<String, T>> getBulkAsync(final Collection<String> keys, final CacheTranscoder transcoder) {
+        return submit(() -> this.<T> getBulk(keys, transcoder));
+    }
+
+    @Override
+    public CompletableFuture<Boolean> setAsync(final String key, final int exp, final Object value) {
+        return submit(() -> set(key, exp, value));
+    }
+
+    @Override
+    public <T> CompletableFuture<Boolean> setAsync(final String key, final int exp, final T value, final CacheTranscoder transcoder) {
+        return submit(() -> set(key, exp, value, transcoder));
+    }
+
+    @Override
+    public CompletableFuture<Boolean> deleteAsync(final String key) {
+        return submit(() -> delete(key));
+    }
+
+    @Override
+    public CompletableFuture<Long> incrAsync(final String key, final int by, final long def, final int exp) {
+        return submit(() -> incr(key, by, def, exp));
+    }
+
     @Override
     public void shutdown() {
+        asyncExecutor.shutdown();
         try {
             memcachedClient.shutdown();
         } catch (IOException e) {
@@ -245,13 +360,42 @@ class MemcacheClientWrapper extends AbstractMemcacheClientWrapper {
 
     @SuppressWarnings("unchecked")
     private <T> Transcoder<T> getTranscoder(final CacheTranscoder transcoder) {
-        Transcoder<T> transcoderAdapter = (Transcoder<T>) adapters.get(transcoder);
-        if (transcoderAdapter == null) {
-            transcoderAdapter = (Transcoder<T>) new TranscoderAdapter(transcoder);
-            adapters.put(transcoder, transcoderAdapter);
+        return (Transcoder<T>) adapters.get(transcoder);
+    }
+
+    private <T> CompletableFuture<T> submit(final Operation<T> operation) {
+        final CompletableFuture<T> future = new CompletableFuture<T>();
+        try {
+            asyncExecutor.execute(() -> {
+                try {
+                    future.complete(operation.execute());
+                } catch (TimeoutException | CacheException | RuntimeException e) {
+                    future.completeExceptionally(e);
+                }
+            });
+        } catch (RejectedExecutionException e) {
+            future.completeExceptionally(new CacheException(e));
         }
 
-        return transcoderAdapter;
+        return future;
+    }
+
+    private static ExecutorService createAsyncExecutor(final int threads) {
+        final AtomicInteger threadNumber = new AtomicInteger();
+        final ThreadPoolExecutor executor = new ThreadPoolExecutor(threads, threads, 60, TimeUnit.SECONDS,
+                new ArrayBlockingQueue<Runnable>(ASYNC_QUEUE_SIZE), runnable -> {
+                    final Thread thread = new Thread(runnable, "ssm-xmemcached-async-" + threadNumber.incrementAndGet());
+                    thread.setDaemon(true);
+                    return thread;
+                });
+        executor.allowCoreThreadTimeOut(true);
+        return executor;
+    }
+
+    private interface Operation<T> {
+
+        T execute() throws TimeoutException, CacheException;
+
     }
 
     private static class TranscoderWrapper implements CacheTranscoder {
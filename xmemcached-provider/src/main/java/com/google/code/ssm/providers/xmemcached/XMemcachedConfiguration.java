@@ -171,4 +171,12 @@ public class XMemcachedConfiguration extends CacheConfiguration {
     @Setter(onMethod=@__({@SuppressFBWarnings}))
     private int[] weights;
 
+    /**
+     * Number of threads executing asynchronous operations, XMemcached has only blocking operations. If not set then 4
+     * threads are used.
+     * 
+     * @since 4.3.0
+     */
+    private Integer asyncThreads;
+
 }
@@ -17,15 +17,24 @@
 package com.google.code.ssm.providers.xmemcached;
 
 import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNotSame;
 import static org.junit.Assert.assertSame;
 import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
 
 import java.io.IOException;
 import java.net.InetSocketAddress;
+import java.util.Arrays;
 import java.util.Collection;
 import java.util.Collections;
 import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
 import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicReference;
 
 import net.rubyeye.xmemcached.MemcachedClient;
 import net.rubyeye.xmemcached.exception.MemcachedException;
@@ -98,6 +107,17 @@ public class MemcacheClientWrapperTest {
         EasyMock.verify(client);
     }
 
+    @Test
+    public void deleteMany() throws TimeoutException, CacheException, InterruptedException, MemcachedException {
+        client.deleteWithNoReply("key1");
+        EasyMock.expectLastCall();
+        client.deleteWithNoReply("key2");
+        EasyMock.expectLastCall();
+        EasyMock.replay(client);
+        clientWrapper.delete(Arrays.asList("key1", null, "key2"));
+        EasyMock.verify(client);
+    }
+
     @Test
     public void flush() throws TimeoutException, InterruptedException, MemcachedException, CacheException {
         client.flushAll();
@@ -214,6 +234,40 @@ public class MemcacheClientWrapperTest {
         EasyMock.verify(client);
     }
 
+    @Test
+    public void getAsyncDoesNotBlockCaller() throws Exception {
+        final CountDownLatch responded = new CountDownLatch(1);
+        final AtomicReference<Thread> executingThread = new AtomicReference<Thread>();
+        EasyMock.expect(client.get("key1")).andAnswer(() -> {
+            executingThread.set(Thread.currentThread());
+            responded.await();
+            return "value";
+        });
+        EasyMock.replay(client);
+
+        final CompletableFuture<Object> future = clientWrapper.getAsync("key1");
+        assertFalse(future.isDone());
+
+        responded.countDown();
+        assertEquals("value", future.get(5, TimeUnit.SECONDS));
+        assertNotSame(Thread.currentThread(), executingThread.get());
+        EasyMock.verify(client);
+    }
+
+    @Test
+    public void setAsyncFailed() throws Exception {
+        EasyMock.expect(client.set("key1", 1, "value")).andThrow(new MemcachedException("connection lost"));
+        EasyMock.replay(client);
+
+        try {
+            clientWrapper.setAsync("key1", 1, "value").get(5, TimeUnit.SECONDS);
+            fail("Expected CacheException");
+        } catch (ExecutionException ex) {
+            assertTrue(ex.getCause() instanceof CacheException);
+        }
+        EasyMock.verify(client);
+    }
+
     @Test
     public void shutdown() throws IOException {
         client.shutdown();